@@ -18,6 +18,7 @@ import com.hazelcast.vector.SearchResults;
 import com.hazelcast.vector.VectorCollection;
 import com.hazelcast.vector.VectorDocument;
 import com.hazelcast.vector.VectorValues;
+import dev.langchain4j.community.store.embedding.AsyncEmbeddingSearch;
 import dev.langchain4j.data.embedding.Embedding;
 import dev.langchain4j.data.segment.TextSegment;
 import dev.langchain4j.exception.UnsupportedFeatureException;
@@ -33,6 +34,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.logging.Logger;
 
 /**
@@ -86,8 +88,11 @@ import java.util.logging.Logger;
  *       server-side. If a filter is present in the request, a warning is logged and the filter is
  *       applied client-side after retrieval, which may return fewer results than {@code maxResults}.</li>
  * </ul>
+ *
+ * <p>Searches can also be run without blocking through {@link #searchAsync(EmbeddingSearchRequest)},
+ * which relies on the asynchronous {@link VectorCollection} API.
  */
-public class HazelcastEmbeddingStore implements EmbeddingStore<TextSegment> {
+public class HazelcastEmbeddingStore implements EmbeddingStore<TextSegment>, AsyncEmbeddingSearch<TextSegment> {
 
     private static final Logger log = Logger.getLogger(HazelcastEmbeddingStore.class.getName());
 
@@ -204,6 +209,18 @@ public class HazelcastEmbeddingStore implements EmbeddingStore<TextSegment> {
 
     @Override
     public EmbeddingSearchResult<TextSegment> search(EmbeddingSearchRequest request) {
+        try {
+            return searchAsync(request).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException runtimeException ? runtimeException : e;
+        }
+    }
+
+    /**
+     * Same as {@link #search(EmbeddingSearchRequest)}, but does not block the caller while waiting for Hazelcast.
+     */
+    @Override
+    public CompletableFuture<EmbeddingSearchResult<TextSegment>> searchAsync(EmbeddingSearchRequest request) {
         ensureNotNull(request, "request");
 
         if (request.filter() != null) {
@@ -218,16 +235,26 @@ public class HazelcastEmbeddingStore implements EmbeddingStore<TextSegment> {
                 .includeVectors()
                 .build();
 
-        SearchResults<String, TextSegmentDocument> results;
+        CompletableFuture<SearchResults<String, TextSegmentDocument>> results;
         try {
             results = collection
                     .searchAsync(VectorValues.of(request.queryEmbedding().vector()), options)
-                    .toCompletableFuture()
-                    .join();
+                    .toCompletableFuture();
         } catch (Exception e) {
-            throw new RuntimeException("Hazelcast vector search failed", e);
+            return CompletableFuture.failedFuture(new RuntimeException("Hazelcast vector search failed", e));
         }
 
+        return results.handle((searchResults, error) -> {
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                throw new RuntimeException("Hazelcast vector search failed", cause);
+            }
+            return toSearchResult(searchResults, request);
+        });
+    }
+
+    private static EmbeddingSearchResult<TextSegment> toSearchResult(
+            SearchResults<String, TextSegmentDocument> results, EmbeddingSearchRequest request) {
         double minScore = request.minScore();
         Filter filter = request.filter();
 
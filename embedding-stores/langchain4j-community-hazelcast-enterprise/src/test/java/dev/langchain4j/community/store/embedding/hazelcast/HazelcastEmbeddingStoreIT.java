@@ -11,10 +11,13 @@ import com.hazelcast.config.vector.VectorIndexConfig;
 import com.hazelcast.core.Hazelcast;
 import com.hazelcast.core.HazelcastInstance;
 import com.hazelcast.vector.VectorCollection;
+import dev.langchain4j.data.embedding.Embedding;
 import dev.langchain4j.data.segment.TextSegment;
 import dev.langchain4j.exception.UnsupportedFeatureException;
 import dev.langchain4j.model.embedding.EmbeddingModel;
 import dev.langchain4j.model.embedding.onnx.allminilml6v2q.AllMiniLmL6V2QuantizedEmbeddingModel;
+import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
+import dev.langchain4j.store.embedding.EmbeddingSearchResult;
 import dev.langchain4j.store.embedding.EmbeddingStore;
 import dev.langchain4j.store.embedding.EmbeddingStoreIT;
 import dev.langchain4j.store.embedding.filter.Filter;
@@ -113,6 +116,26 @@ class HazelcastEmbeddingStoreIT extends EmbeddingStoreIT {
                 .isInstanceOf(UnsupportedFeatureException.class);
     }
 
+    @Test
+    void should_search_asynchronously() throws Exception {
+        // given
+        Embedding embedding = embeddingModel.embed("hello").content();
+        String id = embeddingStore.add(embedding, TextSegment.from("hello"));
+        embeddingStore.add(embeddingModel.embed("goodbye").content(), TextSegment.from("goodbye"));
+        EmbeddingSearchRequest request = EmbeddingSearchRequest.builder()
+                .queryEmbedding(embedding)
+                .maxResults(1)
+                .build();
+
+        // when
+        EmbeddingSearchResult<TextSegment> searchResult = embeddingStore.searchAsync(request).get();
+
+        // then
+        assertThat(searchResult.matches()).hasSize(1);
+        assertThat(searchResult.matches().get(0).embeddingId()).isEqualTo(id);
+        assertThat(searchResult.matches().get(0).embedded()).isEqualTo(TextSegment.from("hello"));
+    }
+
     @Test
     void should_accept_pre_configured_collection() {
         VectorCollectionConfig config = new VectorCollectionConfig("pre-configured-it")
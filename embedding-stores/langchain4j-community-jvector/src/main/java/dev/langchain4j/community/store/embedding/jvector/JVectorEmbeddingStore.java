@@ -14,7 +14,6 @@ import io.github.jbellis.jvector.disk.SimpleMappedReader;
 import io.github.jbellis.jvector.graph.GraphIndexBuilder;
 import io.github.jbellis.jvector.graph.GraphSearcher;
 import io.github.jbellis.jvector.graph.ImmutableGraphIndex;
-import io.github.jbellis.jvector.graph.ListRandomAccessVectorValues;
 import io.github.jbellis.jvector.graph.RandomAccessVectorValues;
 import io.github.jbellis.jvector.graph.SearchResult;
 import io.github.jbellis.jvector.graph.disk.OnDiskGraphIndex;
@@ -40,7 +39,9 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -55,7 +56,9 @@ import org.slf4j.LoggerFactory;
  *   <li>Fast similarity search with configurable accuracy/performance tradeoffs</li>
  *   <li>Adding and removing embeddings dynamically</li>
  *   <li>Optional persistent storage to disk (in-memory by default)</li>
- *   <li>Configurable automatic index rebuilding based on addition threshold</li>
+ *   <li>Incremental indexing: embeddings are inserted into the graph as they are added, concurrently with
+ *   searches, and removed embeddings are excluded from results right away</li>
+ *   <li>Configurable periodic graph cleanup based on a modification threshold</li>
  *   <li>Does not support metadata filtering during search since jvector doesn't store metadata</li>
  * </ul>
  *
@@ -67,16 +70,16 @@ import org.slf4j.LoggerFactory;
  *     .build();
  * }</pre>
  *
- * <p>Example usage (persistent with batched index rebuilding):
+ * <p>Example usage (persistent with batched cleanup):
  * <pre>{@code
  * EmbeddingStore<TextSegment> store = JVectorEmbeddingStore.builder()
  *     .dimension(384)
  *     .maxDegree(16)
  *     .persistencePath("/path/to/index")
- *     .rebuildThreshold(100)  // Rebuild index after every 100 additions
+ *     .cleanupThreshold(100)  // Clean up and save the index after every 100 additions or removals
  *     .build();
  *
- * // Add embeddings - index will rebuild automatically every 100 additions
+ * // Add embeddings - they are searchable right away, the index is saved every 100 additions
  * store.addAll(embeddings);
  *
  * // Save to disk
@@ -94,27 +97,100 @@ public class JVectorEmbeddingStore implements EmbeddingStore<TextSegment> {
     private final float alpha;
     private final VectorSimilarityFunction similarityFunction;
     private final String persistencePath;
-    private final int rebuildThreshold;
+    private final int cleanupThreshold;
 
     // Thread-safe data structures
     private final Map<String, Integer> idToOrdinal;
     private final Map<Integer, StoredEntry> ordinalToEntry;
-    private final List<VectorFloat<?>> vectors;
+    private final OrdinalVectorValues vectors;
     private final VectorTypeSupport vectorTypeSupport;
 
-    // Counter for tracking additions since last index build
-    private volatile int additionsSinceLastBuild;
+    // Guards the allocation of ordinals and the id and ordinal maps between concurrent writes
+    private final Object mutationLock;
 
-    // Index that needs rebuild on modifications (null for on-disk index)
-    private volatile ImmutableGraphIndex index;
+    // Ordinals removed from the graph builder, whose vectors are dropped by the next cleanup
+    private final List<Integer> deletedOrdinals;
 
-    // On-disk index reference (only used when persistencePath is set)
+    // Counter for tracking additions and removals since last cleanup
+    private final AtomicInteger modificationsSinceCleanup;
+
+    // Long-lived builder of the in-memory graph, updated by each write (null while serving a loaded on-disk index)
+    private volatile GraphIndexBuilder graphBuilder;
+
+    // On-disk index reference (only used when persistencePath is set, until the first write)
     private volatile OnDiskGraphIndex diskIndex;
     private volatile SimpleMappedReader.Supplier diskIndexSupplier;
 
-    // Lock for index rebuilding
+    // Read lock for searches and incremental writes, write lock for cleanup and rebuild
     private final ReentrantReadWriteLock indexLock;
 
+    // Read lock for every write, write lock while the index is built from a loaded one or saved, which blocks
+    // writes but not searches. Taken before the index lock.
+    private final ReentrantReadWriteLock modificationLock;
+
+    /**
+     * Vectors by ordinal, readable by the graph builder and searchers while other ordinals are added.
+     * Ordinals of removed embeddings leave holes until the index is rebuilt, which renumbers the embeddings.
+     */
+    private static class OrdinalVectorValues implements RandomAccessVectorValues {
+        private final int dimension;
+        private final Map<Integer, VectorFloat<?>> vectors = new ConcurrentHashMap<>();
+        private volatile int size;
+
+        OrdinalVectorValues(int dimension) {
+            this.dimension = dimension;
+        }
+
+        /**
+         * Must be called while holding the mutation lock or the write lock.
+         */
+        int add(VectorFloat<?> vector) {
+            int ordinal = size;
+            vectors.put(ordinal, vector);
+            size = ordinal + 1;
+            return ordinal;
+        }
+
+        void put(int ordinal, VectorFloat<?> vector) {
+            vectors.put(ordinal, vector);
+            size = Math.max(size, ordinal + 1);
+        }
+
+        void remove(int ordinal) {
+            vectors.remove(ordinal);
+        }
+
+        void clear() {
+            vectors.clear();
+            size = 0;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public int dimension() {
+            return dimension;
+        }
+
+        @Override
+        public VectorFloat<?> getVector(int ordinal) {
+            return vectors.get(ordinal);
+        }
+
+        @Override
+        public boolean isValueShared() {
+            return false;
+        }
+
+        @Override
+        public RandomAccessVectorValues copy() {
+            return this;
+        }
+    }
+
     /**
      * Entry stored for each embedding
      */
@@ -138,7 +214,7 @@ public class JVectorEmbeddingStore implements EmbeddingStore<TextSegment> {
             float alpha,
             VectorSimilarityFunction similarityFunction,
             String persistencePath,
-            int rebuildThreshold) {
+            int cleanupThreshold) {
         this.dimension = dimension;
         this.maxDegree = maxDegree;
         this.beamWidth = beamWidth;
@@ -146,17 +222,19 @@ public class JVectorEmbeddingStore implements EmbeddingStore<TextSegment> {
         this.alpha = alpha;
         this.similarityFunction = similarityFunction;
         this.persistencePath = persistencePath;
-        this.rebuildThreshold = rebuildThreshold;
+        this.cleanupThreshold = cleanupThreshold;
 
         this.idToOrdinal = new ConcurrentHashMap<>();
         this.ordinalToEntry = new ConcurrentHashMap<>();
-        this.vectors = new ArrayList<>();
+        this.vectors = new OrdinalVectorValues(dimension);
         this.vectorTypeSupport = VectorizationProvider.getInstance().getVectorTypeSupport();
-        this.index = null;
+        this.mutationLock = new Object();
+        this.deletedOrdinals = new ArrayList<>();
+        this.modificationsSinceCleanup = new AtomicInteger();
         this.diskIndex = null;
         this.diskIndexSupplier = null;
         this.indexLock = new ReentrantReadWriteLock();
-        this.additionsSinceLastBuild = 0;
+        this.modificationLock = new ReentrantReadWriteLock();
 
         // Load from disk if persistence is enabled and files exist
         if (persistencePath != null) {
@@ -167,6 +245,9 @@ public class JVectorEmbeddingStore implements EmbeddingStore<TextSegment> {
                 log.debug("Starting with empty index");
             }
         }
+        if (diskIndex == null) {
+            graphBuilder = buildGraph();
+        }
     }
 
     @Override
@@ -230,44 +311,37 @@ public class JVectorEmbeddingStore implements EmbeddingStore<TextSegment> {
                     "Embedding dimension (%d) does not match store dimension (%d)", embedding.dimension(), dimension));
         }
 
-        indexLock.writeLock().lock();
-        try {
-            int ordinal = vectors.size();
-            VectorFloat<?> vector = toVectorFloat(embedding);
-            vectors.add(vector);
+        VectorFloat<?> vector = toVectorFloat(embedding);
+        ensureGraphBuilder();
 
-            StoredEntry entry = new StoredEntry(id, embedding, textSegment);
-            ordinalToEntry.put(ordinal, entry);
-            idToOrdinal.put(id, ordinal);
+        modificationLock.readLock().lock();
+        indexLock.readLock().lock();
+        try {
+            int ordinal;
+            Integer replacedOrdinal;
+            synchronized (mutationLock) {
+                ordinal = vectors.add(vector);
+                ordinalToEntry.put(ordinal, new StoredEntry(id, embedding, textSegment));
+                replacedOrdinal = idToOrdinal.put(id, ordinal);
+                if (replacedOrdinal != null) {
+                    ordinalToEntry.remove(replacedOrdinal);
+                    deletedOrdinals.add(replacedOrdinal);
+                }
+            }
 
-            // Invalidate indexes - will be rebuilt on next search or when threshold is reached
-            index = null;
-            closeDiskIndex();
+            // Insert into the live graph, concurrently with searches and other insertions
+            graphBuilder.addGraphNode(ordinal, vector);
+            if (replacedOrdinal != null) {
+                graphBuilder.markNodeDeleted(replacedOrdinal);
+            }
 
             log.debug("Added embedding with id: {}, ordinal: {}", id, ordinal);
-
-            // Increment counter and check if we should rebuild
-            additionsSinceLastBuild++;
-            if (rebuildThreshold > 0 && additionsSinceLastBuild >= rebuildThreshold) {
-                log.debug(
-                        "Rebuild threshold ({}) reached, building index with {} vectors",
-                        rebuildThreshold,
-                        vectors.size());
-                rebuildIndex();
-                additionsSinceLastBuild = 0;
-
-                // Save to disk if persistence is enabled
-                if (persistencePath != null && index != null) {
-                    try {
-                        saveToDiskInternal();
-                    } catch (IOException e) {
-                        log.warn("Failed to save index after rebuild: {}", e.getMessage());
-                    }
-                }
-            }
         } finally {
-            indexLock.writeLock().unlock();
+            indexLock.readLock().unlock();
+            modificationLock.readLock().unlock();
         }
+
+        onModifications(1);
     }
 
     @Override
@@ -276,32 +350,31 @@ public class JVectorEmbeddingStore implements EmbeddingStore<TextSegment> {
             return new EmbeddingSearchResult<>(new ArrayList<>());
         }
 
-        // Ensure index is built
-        ensureIndexBuilt();
-
         // Convert query to VectorFloat
         VectorFloat<?> query = toVectorFloat(request.queryEmbedding());
 
         // Perform search
         indexLock.readLock().lock();
         try {
-            ImmutableGraphIndex searchIndex = (diskIndex != null) ? diskIndex : index;
-            GraphSearcher searcher = new GraphSearcher(searchIndex);
-
-            // Get vector provider for scoring
+            ImmutableGraphIndex searchIndex;
             RandomAccessVectorValues vectorValues;
-            if (diskIndex != null) {
+            if (graphBuilder != null) {
+                // For the in-memory index, use the graph being built, which includes every completed insertion
+                searchIndex = graphBuilder.getGraph();
+                vectorValues = vectors;
+            } else {
                 // For on-disk index, use the disk index's view which has vectors inline
+                searchIndex = diskIndex;
                 vectorValues = diskIndex.getView();
-            } else {
-                // For in-memory index, use the vectors list
-                vectorValues = new ListRandomAccessVectorValues(vectors, dimension);
             }
+            GraphSearcher searcher = new GraphSearcher(searchIndex);
 
             SearchScoreProvider scoreProvider =
                     DefaultSearchScoreProvider.exact(query, similarityFunction, vectorValues);
 
-            SearchResult result = searcher.search(scoreProvider, request.maxResults(), Bits.ALL);
+            // Skip nodes of removed or replaced embeddings that the graph still holds until the next cleanup
+            Bits acceptedOrdinals = ordinalToEntry::containsKey;
+            SearchResult result = searcher.search(scoreProvider, request.maxResults(), acceptedOrdinals);
 
             // Convert results to EmbeddingMatch
             List<EmbeddingMatch<TextSegment>> matches = new ArrayList<>();
@@ -330,94 +403,238 @@ public class JVectorEmbeddingStore implements EmbeddingStore<TextSegment> {
     @Override
     public void removeAll(Collection<String> ids) {
         ensureNotEmpty(ids, "ids");
+        ensureGraphBuilder();
 
-        indexLock.writeLock().lock();
+        List<Integer> removedOrdinals = new ArrayList<>();
+        modificationLock.readLock().lock();
+        indexLock.readLock().lock();
         try {
-            for (String id : ids) {
-                Integer ordinal = idToOrdinal.remove(id);
-                if (ordinal != null) {
-                    ordinalToEntry.remove(ordinal);
-                    log.debug("Removed embedding with id: {}, ordinal: {}", id, ordinal);
+            synchronized (mutationLock) {
+                for (String id : ids) {
+                    Integer ordinal = idToOrdinal.remove(id);
+                    if (ordinal != null) {
+                        ordinalToEntry.remove(ordinal);
+                        deletedOrdinals.add(ordinal);
+                        removedOrdinals.add(ordinal);
+                        log.debug("Removed embedding with id: {}, ordinal: {}", id, ordinal);
+                    }
                 }
             }
-            // Invalidate indexes - will be rebuilt on next search
-            index = null;
-            closeDiskIndex();
-            additionsSinceLastBuild = 0;
+            // Removed nodes stay in the graph to route searches until the next cleanup
+            for (int ordinal : removedOrdinals) {
+                graphBuilder.markNodeDeleted(ordinal);
+            }
         } finally {
-            indexLock.writeLock().unlock();
+            indexLock.readLock().unlock();
+            modificationLock.readLock().unlock();
         }
+
+        onModifications(removedOrdinals.size());
     }
 
     @Override
     public void removeAll() {
+        modificationLock.readLock().lock();
         indexLock.writeLock().lock();
         try {
             idToOrdinal.clear();
             ordinalToEntry.clear();
             vectors.clear();
-            index = null;
+            deletedOrdinals.clear();
             closeDiskIndex();
-            additionsSinceLastBuild = 0;
+            replaceGraphBuilder(buildGraph());
+            modificationsSinceCleanup.set(0);
             log.debug("Removed all embeddings");
         } finally {
             indexLock.writeLock().unlock();
+            modificationLock.readLock().unlock();
         }
     }
 
     /**
-     * Ensures the index is built. This method uses double-checked locking for efficiency.
+     * Rebuilds the graph index from scratch over the current embeddings.
+     * Additions and removals update the index incrementally, and the periodic cleanup repairs the graph
+     * after removals, so a full rebuild is only worth its cost to restore the search quality of a graph
+     * that has seen a large share of its embeddings replaced or removed.
+     * The embeddings are renumbered, so that the ordinals of the removed ones are reclaimed.
      */
-    private void ensureIndexBuilt() {
-        if (index == null && diskIndex == null) {
-            indexLock.writeLock().lock();
+    public void rebuildIndex() {
+        modificationLock.readLock().lock();
+        indexLock.writeLock().lock();
+        try {
+            closeDiskIndex();
+            renumberOrdinals();
+            replaceGraphBuilder(buildGraph());
+            modificationsSinceCleanup.set(0);
+        } finally {
+            indexLock.writeLock().unlock();
+            modificationLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Cleans up the graph index: removes the nodes of removed or replaced embeddings, repairing the
+     * connections of their neighbors, and completes the insertions of new nodes.
+     * This runs automatically every {@code cleanupThreshold} additions and removals, and before saving.
+     */
+    public void cleanup() {
+        modificationLock.readLock().lock();
+        indexLock.writeLock().lock();
+        try {
+            cleanupInternal();
+        } finally {
+            indexLock.writeLock().unlock();
+            modificationLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Cleans up the graph once {@code cleanupThreshold} additions and removals have been made since the last
+     * cleanup, then saves the index if persistence is enabled.
+     */
+    private void onModifications(int count) {
+        if (cleanupThreshold <= 0 || modificationsSinceCleanup.addAndGet(count) < cleanupThreshold) {
+            return;
+        }
+
+        modificationLock.readLock().lock();
+        indexLock.writeLock().lock();
+        try {
+            // Another writer may have cleaned up while this one waited for the lock
+            if (modificationsSinceCleanup.get() < cleanupThreshold) {
+                return;
+            }
+            log.debug("Cleanup threshold ({}) reached, cleaning up index", cleanupThreshold);
+            cleanupInternal();
+        } finally {
+            indexLock.writeLock().unlock();
+            modificationLock.readLock().unlock();
+        }
+
+        // Saved once the write lock is released, so that searches do not wait for the files to be written
+        if (persistencePath != null && !ordinalToEntry.isEmpty()) {
             try {
-                if (index == null && diskIndex == null) {
-                    if (persistencePath != null) {
-                        // Try to load from disk first
-                        try {
-                            loadIndexFromDisk();
-                        } catch (IOException e) {
-                            log.debug("Could not load index from disk, rebuilding: {}", e.getMessage());
-                            rebuildIndex();
-                            save();
-                        }
-                    } else {
-                        rebuildIndex();
-                    }
-                }
-            } finally {
-                indexLock.writeLock().unlock();
+                saveToDisk();
+            } catch (IOException e) {
+                log.warn("Failed to save index after cleanup: {}", e.getMessage());
             }
         }
     }
 
     /**
-     * Rebuilds the graph index from the current vectors.
      * Must be called while holding the write lock.
      */
-    private void rebuildIndex() {
-        if (vectors.isEmpty()) {
-            return;
+    private void cleanupInternal() {
+        if (graphBuilder == null) {
+            return; // unchanged since loaded from disk
         }
 
-        log.debug("Building index with {} vectors", vectors.size());
         long startTime = System.currentTimeMillis();
+        graphBuilder.cleanup();
+        dropDeletedVectors();
+        modificationsSinceCleanup.set(0);
+        log.debug("Index cleaned up in {} ms", System.currentTimeMillis() - startTime);
+    }
 
-        RandomAccessVectorValues vectorValues = new ListRandomAccessVectorValues(vectors, dimension);
-        BuildScoreProvider scoreProvider =
-                BuildScoreProvider.randomAccessScoreProvider(vectorValues, similarityFunction);
+    /**
+     * Drops the vectors of the removed or replaced embeddings, which the graph no longer references
+     * once cleaned up or rebuilt.
+     * Must be called while holding the write lock.
+     */
+    private void dropDeletedVectors() {
+        for (int ordinal : deletedOrdinals) {
+            vectors.remove(ordinal);
+        }
+        deletedOrdinals.clear();
+    }
+
+    /**
+     * Assigns consecutive ordinals to the current embeddings, in the order of their previous ordinals,
+     * which reclaims the ordinals of the removed or replaced embeddings.
+     * Must be called while holding the write lock.
+     */
+    private void renumberOrdinals() {
+        Map<Integer, StoredEntry> entries = new TreeMap<>(ordinalToEntry);
+        List<VectorFloat<?>> entryVectors = new ArrayList<>(entries.size());
+        for (int ordinal : entries.keySet()) {
+            entryVectors.add(vectors.getVector(ordinal));
+        }
+
+        idToOrdinal.clear();
+        ordinalToEntry.clear();
+        vectors.clear();
+        deletedOrdinals.clear();
+        int i = 0;
+        for (StoredEntry entry : entries.values()) {
+            int ordinal = vectors.add(entryVectors.get(i++));
+            ordinalToEntry.put(ordinal, entry);
+            idToOrdinal.put(entry.id, ordinal);
+        }
+    }
+
+    /**
+     * Builds the in-memory graph index over the embeddings loaded from disk, so that it can take writes.
+     * The graph is built without the write lock: writes wait for it, but searches keep using the loaded index,
+     * which is only replaced once the graph is complete. This uses double-checked locking for efficiency.
+     */
+    private void ensureGraphBuilder() {
+        if (graphBuilder != null) {
+            return;
+        }
+
+        modificationLock.writeLock().lock();
+        try {
+            if (graphBuilder == null) {
+                GraphIndexBuilder builder = buildGraph();
+                indexLock.writeLock().lock();
+                try {
+                    graphBuilder = builder;
+                    closeDiskIndex();
+                } finally {
+                    indexLock.writeLock().unlock();
+                }
+            }
+        } finally {
+            modificationLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Creates a graph index builder and inserts the current embeddings.
+     * Must be called while holding the write lock or the modification write lock, or from the constructor.
+     */
+    private GraphIndexBuilder buildGraph() {
+        BuildScoreProvider scoreProvider = BuildScoreProvider.randomAccessScoreProvider(vectors, similarityFunction);
+        GraphIndexBuilder builder = new GraphIndexBuilder(
+                scoreProvider, vectors.dimension(), maxDegree, beamWidth, neighborOverflow, alpha, false);
+        if (ordinalToEntry.isEmpty()) {
+            return builder;
+        }
+
+        log.debug("Building index with {} vectors", ordinalToEntry.size());
+        long startTime = System.currentTimeMillis();
 
-        try (GraphIndexBuilder builder = new GraphIndexBuilder(
-                scoreProvider, vectorValues.dimension(), maxDegree, beamWidth, neighborOverflow, alpha, false)) {
+        ordinalToEntry.keySet().parallelStream()
+                .forEach(ordinal -> builder.addGraphNode(ordinal, vectors.getVector(ordinal)));
+        builder.cleanup();
 
-            index = builder.build(vectorValues);
+        long duration = System.currentTimeMillis() - startTime;
+        log.debug("Index built in {} ms", duration);
+        return builder;
+    }
 
-            long buildEnd = System.currentTimeMillis();
-            long duration = buildEnd - startTime;
-            log.debug("Index built in {} ms", duration);
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to build JVector index", e);
+    /**
+     * Must be called while holding the write lock.
+     */
+    private void replaceGraphBuilder(GraphIndexBuilder builder) {
+        GraphIndexBuilder previous = graphBuilder;
+        graphBuilder = builder;
+        if (previous != null) {
+            try {
+                previous.close();
+            } catch (Exception e) {
+                log.warn("Error closing index builder: {}", e.getMessage());
+            }
         }
     }
 
@@ -456,50 +673,65 @@ public class JVectorEmbeddingStore implements EmbeddingStore<TextSegment> {
             throw new IllegalStateException("Cannot save: persistence path not configured");
         }
 
-        indexLock.writeLock().lock();
         try {
-            saveToDiskInternal();
+            saveToDisk();
         } catch (IOException e) {
             throw new RuntimeException("Failed to save index to disk", e);
+        }
+    }
+
+    /**
+     * Cleans up the index under the write lock, then writes it to disk while holding the modification write lock,
+     * which blocks writes but not searches.
+     */
+    private void saveToDisk() throws IOException {
+        modificationLock.writeLock().lock();
+        try {
+            indexLock.writeLock().lock();
+            try {
+                if (ordinalToEntry.isEmpty()) {
+                    log.error("Unable to save index: no vectors available");
+                    throw new IllegalStateException("Cannot save an empty embedding store");
+                }
+                if (graphBuilder == null) {
+                    log.debug("Index unchanged since loaded from disk");
+                    return;
+                }
+
+                // Remove deleted nodes, so that the saved graph only holds the nodes of the saved metadata
+                cleanupInternal();
+            } finally {
+                indexLock.writeLock().unlock();
+            }
+
+            saveToDiskInternal();
         } finally {
-            indexLock.writeLock().unlock();
+            modificationLock.writeLock().unlock();
         }
     }
 
     /**
-     * Internal save method that assumes the write lock is already held.
-     * Must be called while holding the write lock.
+     * Writes the cleaned up graph index and the metadata to disk.
+     * Must be called while holding the modification write lock.
      */
     private void saveToDiskInternal() throws IOException {
         log.info("Saving index to disk at {}", persistencePath);
         long startTime = System.currentTimeMillis();
 
-        // Ensure we have an in-memory index to save
-        if (index == null) {
-            rebuildIndex();
-            if (index == null) {
-                log.error("Unable to save index: no vectors available");
-                throw new IllegalStateException("Cannot save an empty embedding store");
-            }
-        }
-
-        // Save the graph index
+        // Save the graph index, keeping the in-memory one to take further writes
         Path graphPath = Path.of(persistencePath + ".graph");
         Files.createDirectories(graphPath.getParent());
 
-        try (OnDiskGraphIndexWriter writer = new OnDiskGraphIndexWriter.Builder(index, graphPath)
+        try (OnDiskGraphIndexWriter writer = new OnDiskGraphIndexWriter.Builder(graphBuilder.getGraph(), graphPath)
                 .with(new InlineVectors(dimension))
                 .build()) {
-            writer.write(Map.of(FeatureId.INLINE_VECTORS, ordinal -> new InlineVectors.State(vectors.get(ordinal))));
+            writer.write(
+                    Map.of(FeatureId.INLINE_VECTORS, ordinal -> new InlineVectors.State(vectors.getVector(ordinal))));
         }
 
         // Save the metadata
         saveMetadata();
 
-        // Close old disk index and open new one
-        closeDiskIndex();
-        loadIndexFromDisk();
-
         long duration = System.currentTimeMillis() - startTime;
         log.info("Index saved to disk in {} ms", duration);
     }
@@ -518,13 +750,10 @@ public class JVectorEmbeddingStore implements EmbeddingStore<TextSegment> {
         log.info("Loading metadata from disk at {}", persistencePath);
         loadMetadata();
 
-        // Rebuild vectors list from loaded entries
+        // Rebuild vectors from loaded entries, keeping the ordinals of the saved graph
         vectors.clear();
-        for (int i = 0; i < ordinalToEntry.size(); i++) {
-            StoredEntry entry = ordinalToEntry.get(i);
-            if (entry != null) {
-                vectors.add(toVectorFloat(entry.embedding));
-            }
+        for (Map.Entry<Integer, StoredEntry> entry : ordinalToEntry.entrySet()) {
+            vectors.put(entry.getKey(), toVectorFloat(entry.getValue().embedding));
         }
 
         // Try to load the graph index
@@ -532,7 +761,8 @@ public class JVectorEmbeddingStore implements EmbeddingStore<TextSegment> {
     }
 
     /**
-     * Loads only the graph index from disk.
+     * Loads only the graph index from disk. It serves searches until the first write, which builds the in-memory
+     * index from the loaded embeddings.
      * Must be called while holding the write lock.
      */
     private void loadIndexFromDisk() throws IOException {
@@ -546,14 +776,13 @@ public class JVectorEmbeddingStore implements EmbeddingStore<TextSegment> {
 
         diskIndexSupplier = new SimpleMappedReader.Supplier(graphPath);
         diskIndex = OnDiskGraphIndex.load(diskIndexSupplier);
-        index = null; // Clear in-memory index when using disk index
 
         log.debug("Loaded disk index with {} nodes", diskIndex.size());
     }
 
     /**
      * Saves the metadata (idToOrdinal and ordinalToEntry maps) to disk.
-     * Must be called while holding the write lock.
+     * Must be called while holding the modification write lock.
      */
     private void saveMetadata() throws IOException {
         Path metadataPath = Path.of(persistencePath + ".metadata");
@@ -687,7 +916,7 @@ public class JVectorEmbeddingStore implements EmbeddingStore<TextSegment> {
         private float alpha = 1.2f;
         private VectorSimilarityFunction similarityFunction = VectorSimilarityFunction.DOT_PRODUCT;
         private String persistencePath = null;
-        private int rebuildThreshold = 0;
+        private int cleanupThreshold = 0;
 
         /**
          * Sets the dimension of the embeddings (required).
@@ -797,31 +1026,45 @@ public class JVectorEmbeddingStore implements EmbeddingStore<TextSegment> {
         }
 
         /**
-         * Sets the rebuild threshold for automatic index rebuilding.
-         * The index will be rebuilt automatically after this many embeddings have been added.
-         * This provides fine-grained control over index rebuild frequency:
-         * <ul>
-         *   <li>0 (default): Lazy rebuilding - index is only built on the first search</li>
-         *   <li>1: Eager rebuilding - index is rebuilt after every single addition</li>
-         *   <li>N (e.g., 100, 1000): Batched rebuilding - index is rebuilt after every N additions</li>
-         * </ul>
-         * Setting an appropriate threshold helps balance:
+         * Sets the cleanup threshold for automatic index maintenance.
+         * Embeddings are inserted into the index as they are added, and removed or replaced embeddings are
+         * excluded from results right away, but their nodes stay in the graph until it is cleaned up.
+         * The index is cleaned up, and saved if persistence is enabled, after this many additions and removals:
          * <ul>
-         *   <li>Query performance (more frequent rebuilds = better query performance)</li>
-         *   <li>Insert performance (less frequent rebuilds = faster inserts)</li>
+         *   <li>0 (default): Manual cleanup - the index is only cleaned up by
+         *   {@link JVectorEmbeddingStore#cleanup()} and {@link JVectorEmbeddingStore#save()}</li>
+         *   <li>1: Eager cleanup - the index is cleaned up after every single addition or removal</li>
+         *   <li>N (e.g., 1000, 10000): Batched cleanup - the index is cleaned up after every N modifications</li>
          * </ul>
+         * A cleanup briefly blocks searches and writes, and saving the index then blocks writes, but not searches,
+         * so it should not run more often than needed to keep up with removals or, if persistence is enabled,
+         * to limit the writes lost on a crash.
          *
-         * @param rebuildThreshold the number of additions before triggering a rebuild (0 for lazy, must be non-negative)
+         * @param cleanupThreshold the number of additions and removals before triggering a cleanup
+         *                         (0 for manual, must be non-negative)
          * @return this builder
          */
-        public Builder rebuildThreshold(int rebuildThreshold) {
-            if (rebuildThreshold < 0) {
-                throw new IllegalArgumentException("rebuildThreshold must be non-negative");
+        public Builder cleanupThreshold(int cleanupThreshold) {
+            if (cleanupThreshold < 0) {
+                throw new IllegalArgumentException("cleanupThreshold must be non-negative");
             }
-            this.rebuildThreshold = rebuildThreshold;
+            this.cleanupThreshold = cleanupThreshold;
             return this;
         }
 
+        /**
+         * Sets the rebuild threshold.
+         *
+         * @param rebuildThreshold the number of additions and removals before triggering a cleanup
+         * @return this builder
+         * @deprecated the index is no longer rebuilt on additions, use {@link #cleanupThreshold(int)} instead,
+         * which this method delegates to, and {@link JVectorEmbeddingStore#rebuildIndex()} for an explicit rebuild
+         */
+        @Deprecated
+        public Builder rebuildThreshold(int rebuildThreshold) {
+            return cleanupThreshold(rebuildThreshold);
+        }
+
         /**
          * Builds the JVectorEmbeddingStore instance.
          * If persistencePath is set and files exist at that location, the index will be loaded from disk.
@@ -837,7 +1080,7 @@ public class JVectorEmbeddingStore implements EmbeddingStore<TextSegment> {
                     alpha,
                     similarityFunction,
                     persistencePath,
-                    rebuildThreshold);
+                    cleanupThreshold);
         }
     }
 }
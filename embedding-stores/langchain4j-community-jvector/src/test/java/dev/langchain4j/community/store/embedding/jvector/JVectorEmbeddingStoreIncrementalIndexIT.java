@@ -0,0 +1,228 @@
+package dev.langchain4j.community.store.embedding.jvector;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
+import io.github.jbellis.jvector.vector.VectorSimilarityFunction;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class JVectorEmbeddingStoreIncrementalIndexIT {
+
+    private static final int DIMENSION = 32;
+
+    @TempDir
+    Path tempDir;
+
+    private final Random random = new Random(3);
+
+    private final JVectorEmbeddingStore store = JVectorEmbeddingStore.builder()
+            .dimension(DIMENSION)
+            .similarityFunction(VectorSimilarityFunction.COSINE)
+            .build();
+
+    @Test
+    void should_find_embeddings_added_concurrently_with_searches() throws Exception {
+        // given
+        for (int i = 0; i < 200; i++) {
+            store.add("id-" + i, randomEmbedding());
+        }
+
+        // when
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<List<String>>> missed = new ArrayList<>();
+        try {
+            for (int thread = 0; thread < 4; thread++) {
+                int first = 1_000 * (thread + 1);
+                missed.add(executor.submit(() -> {
+                    List<String> missedIds = new ArrayList<>();
+                    for (int i = first; i < first + 200; i++) {
+                        Embedding embedding = randomEmbedding();
+                        store.add("id-" + i, embedding);
+                        if (!ids(search(embedding, 10)).contains("id-" + i)) {
+                            missedIds.add("id-" + i);
+                        }
+                    }
+                    return missedIds;
+                }));
+            }
+
+            // then
+            for (Future<List<String>> future : missed) {
+                assertThat(future.get()).isEmpty();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertThat(search(randomEmbedding(), 2_000)).hasSize(1_000);
+    }
+
+    @Test
+    void should_exclude_replaced_and_removed_embeddings_until_and_after_cleanup() {
+        // given
+        for (int i = 0; i < 100; i++) {
+            store.add("id-" + i, randomEmbedding(), TextSegment.from("text-" + i));
+        }
+        Embedding replacement = randomEmbedding();
+
+        // when
+        store.addAll(List.of("id-0"), List.of(replacement), List.of(TextSegment.from("text-0, updated")));
+        store.removeAll(IntStream.range(10, 20).mapToObj(i -> "id-" + i).toList());
+
+        // then
+        List<String> expectedIds = IntStream.range(0, 100)
+                .filter(i -> i < 10 || i >= 20)
+                .mapToObj(i -> "id-" + i)
+                .toList();
+        for (Runnable maintenance : List.<Runnable>of(() -> {}, store::cleanup, store::rebuildIndex)) {
+            maintenance.run();
+
+            assertThat(ids(search(randomEmbedding(), 200))).containsExactlyInAnyOrderElementsOf(expectedIds);
+            EmbeddingMatch<TextSegment> match = search(replacement, 1).get(0);
+            assertThat(match.embeddingId()).isEqualTo("id-0");
+            assertThat(match.embedding()).isEqualTo(replacement);
+            assertThat(match.embedded().text()).isEqualTo("text-0, updated");
+        }
+    }
+
+    @Test
+    void should_reload_saved_store_after_removals_and_rebuild() {
+        // given
+        String persistencePath = tempDir.resolve("index").toString();
+        JVectorEmbeddingStore saved = persistentStore(persistencePath);
+        for (int i = 0; i < 100; i++) {
+            saved.add("id-" + i, randomEmbedding(), TextSegment.from("text-" + i));
+        }
+        saved.save();
+
+        // when
+        saved.removeAll(IntStream.range(10, 20).mapToObj(i -> "id-" + i).toList());
+        saved.save();
+        JVectorEmbeddingStore reloaded = persistentStore(persistencePath);
+
+        // then
+        List<String> expectedIds = IntStream.range(0, 100)
+                .filter(i -> i < 10 || i >= 20)
+                .mapToObj(i -> "id-" + i)
+                .toList();
+        assertThat(ids(search(reloaded, randomEmbedding(), 200))).containsExactlyInAnyOrderElementsOf(expectedIds);
+
+        // when
+        Embedding added = randomEmbedding();
+        reloaded.add("id-100", added, TextSegment.from("text-100"));
+        reloaded.rebuildIndex();
+        reloaded.save();
+        JVectorEmbeddingStore reloadedAgain = persistentStore(persistencePath);
+
+        // then
+        assertThat(ids(search(reloadedAgain, randomEmbedding(), 200)))
+                .containsExactlyInAnyOrderElementsOf(Stream.concat(expectedIds.stream(), Stream.of("id-100")).toList());
+        EmbeddingMatch<TextSegment> match = search(reloadedAgain, added, 1).get(0);
+        assertThat(match.embeddingId()).isEqualTo("id-100");
+        assertThat(match.embedded().text()).isEqualTo("text-100");
+    }
+
+    @Test
+    void should_clean_up_and_save_after_every_addition_and_removal_with_cleanup_threshold_one() {
+        // given
+        String persistencePath = tempDir.resolve("index").toString();
+        JVectorEmbeddingStore store = persistentStore(persistencePath, 1);
+
+        // when
+        store.add("id-0", randomEmbedding());
+        store.add("id-1", randomEmbedding());
+
+        // then
+        assertThat(ids(search(persistentStore(persistencePath), randomEmbedding(), 10)))
+                .containsExactlyInAnyOrder("id-0", "id-1");
+
+        // when
+        store.removeAll(List.of("id-0"));
+
+        // then
+        assertThat(ids(search(persistentStore(persistencePath), randomEmbedding(), 10))).containsExactly("id-1");
+    }
+
+    @Test
+    void should_clean_up_and_save_periodically_with_larger_cleanup_threshold() {
+        // given
+        String persistencePath = tempDir.resolve("index").toString();
+        JVectorEmbeddingStore store = persistentStore(persistencePath, 3);
+
+        // when
+        store.add("id-0", randomEmbedding());
+        store.add("id-1", randomEmbedding());
+
+        // then
+        assertThat(Path.of(persistencePath + ".graph")).doesNotExist();
+
+        // when
+        store.add("id-2", randomEmbedding());
+        store.add("id-3", randomEmbedding());
+
+        // then
+        assertThat(ids(search(persistentStore(persistencePath), randomEmbedding(), 10)))
+                .containsExactlyInAnyOrder("id-0", "id-1", "id-2");
+
+        // when
+        store.removeAll(List.of("id-0", "id-1"));
+
+        // then
+        assertThat(ids(search(persistentStore(persistencePath), randomEmbedding(), 10)))
+                .containsExactlyInAnyOrder("id-2", "id-3");
+        assertThat(ids(search(store, randomEmbedding(), 10))).containsExactlyInAnyOrder("id-2", "id-3");
+    }
+
+    private JVectorEmbeddingStore persistentStore(String persistencePath) {
+        return persistentStore(persistencePath, 0);
+    }
+
+    private JVectorEmbeddingStore persistentStore(String persistencePath, int cleanupThreshold) {
+        return JVectorEmbeddingStore.builder()
+                .dimension(DIMENSION)
+                .similarityFunction(VectorSimilarityFunction.COSINE)
+                .persistencePath(persistencePath)
+                .cleanupThreshold(cleanupThreshold)
+                .build();
+    }
+
+    private List<EmbeddingMatch<TextSegment>> search(Embedding query, int maxResults) {
+        return search(store, query, maxResults);
+    }
+
+    private static List<EmbeddingMatch<TextSegment>> search(
+            JVectorEmbeddingStore store, Embedding query, int maxResults) {
+        return store.search(EmbeddingSearchRequest.builder()
+                        .queryEmbedding(query)
+                        .maxResults(maxResults)
+                        .minScore(0.0)
+                        .build())
+                .matches();
+    }
+
+    private static List<String> ids(List<EmbeddingMatch<TextSegment>> matches) {
+        return matches.stream().map(EmbeddingMatch::embeddingId).toList();
+    }
+
+    private Embedding randomEmbedding() {
+        float[] vector = new float[DIMENSION];
+        synchronized (random) {
+            for (int i = 0; i < DIMENSION; i++) {
+                vector[i] = (float) random.nextGaussian();
+            }
+        }
+        return Embedding.from(vector);
+    }
+}
@@ -0,0 +1,33 @@
+package dev.langchain4j.community.store.embedding.memfile;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * A {@link VectorScorer} using the incubating Vector API, compiled with the {@code vector-api} profile
+ * and loaded by {@link VectorScorer.Loader} only when the {@code jdk.incubator.vector} module is available.
+ */
+final class PanamaVectorScorer implements VectorScorer {
+
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+
+    PanamaVectorScorer() {}
+
+    @Override
+    public float dotProduct(float[] vectors, int offset, float[] query, int dimension) {
+        FloatVector sum = FloatVector.zero(SPECIES);
+        int i = 0;
+        int upperBound = SPECIES.loopBound(dimension);
+        for (; i < upperBound; i += SPECIES.length()) {
+            FloatVector vector = FloatVector.fromArray(SPECIES, vectors, offset + i);
+            FloatVector queryVector = FloatVector.fromArray(SPECIES, query, i);
+            sum = vector.fma(queryVector, sum);
+        }
+        float result = sum.reduceLanes(VectorOperators.ADD);
+        for (; i < dimension; i++) {
+            result += vectors[offset + i] * query[i];
+        }
+        return result;
+    }
+}
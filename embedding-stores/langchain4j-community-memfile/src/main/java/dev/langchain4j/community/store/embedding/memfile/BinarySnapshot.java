@@ -0,0 +1,426 @@
+package dev.langchain4j.community.store.embedding.memfile;
+
+import static dev.langchain4j.community.store.embedding.memfile.VectorStorage.PAGE_SHIFT;
+import static dev.langchain4j.community.store.embedding.memfile.VectorStorage.PAGE_SIZE;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+
+/**
+ * The binary snapshot format of a {@link MemFileEmbeddingStore}:
+ * <pre>
+ * header       [magic][version][size][dimension][cache size][chunk storage mode][chunk storage directory]
+ *              [vector quantization]
+ * entry table  size x [id][chunk file path or none][metadata or none]
+ * padding      to a multiple of {@value #ALIGNMENT} bytes from the start of the snapshot
+ * vector block size x dimension float32, little-endian
+ * norm block   size float32, little-endian
+ * trailer      [magic]
+ * </pre>
+ * The vector of the entry at index {@code i} of the entry table is at offset {@code i * dimension * 4} of the vector
+ * block. Integers of the header and of the entry table are big-endian, strings are UTF-8 prefixed with their length.
+ * Vectors are written in full precision, also when the store quantizes them; they are quantized again when read.
+ * Snapshots of version 1, without vector quantization, are still read.
+ * <p>
+ * Vectors are written and read by blocks rather than one component at a time. When reading from a
+ * {@link FileChannel}, the vector and norm blocks are memory-mapped and copied in bulk into the pages of the
+ * {@link VectorStorage}. When the storage quantizes vectors, they are read one at a time and written straight to
+ * its quantized pages and vector file, so that the full-precision vectors are never all held in memory.
+ * <p>
+ * {@link #read(ReadableByteChannel)} reads the header and the entry table, {@link #restoreInto(VectorStorage)}
+ * then reads the vector and norm blocks from the channel, which must not be used in between.
+ */
+final class BinarySnapshot {
+
+    static final int MAGIC = 0x4D454D46; // "MEMF"
+    static final int VERSION = 2;
+    private static final int ALIGNMENT = 64;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Path chunkStorageDirectory;
+    private final int cacheSize;
+    private final ChunkStorageMode chunkStorageMode;
+    private final VectorQuantization vectorQuantization;
+    private final int size;
+    private final int dimension;
+    private final String[] ids;
+    private final String[] chunkFilePaths;
+    private final MetadataIndex metadataIndex;
+    private final FileChannel fileChannel; // null when the snapshot is not read from a file
+    private final long start;
+    private final CountingInputStream counting;
+    private final DataInputStream in;
+
+    private BinarySnapshot(
+            Path chunkStorageDirectory,
+            int cacheSize,
+            ChunkStorageMode chunkStorageMode,
+            VectorQuantization vectorQuantization,
+            int size,
+            int dimension,
+            String[] ids,
+            String[] chunkFilePaths,
+            MetadataIndex metadataIndex,
+            FileChannel fileChannel,
+            long start,
+            CountingInputStream counting) {
+        this.chunkStorageDirectory = chunkStorageDirectory;
+        this.cacheSize = cacheSize;
+        this.chunkStorageMode = chunkStorageMode;
+        this.vectorQuantization = vectorQuantization;
+        this.size = size;
+        this.dimension = dimension;
+        this.ids = ids;
+        this.chunkFilePaths = chunkFilePaths;
+        this.metadataIndex = metadataIndex;
+        this.fileChannel = fileChannel;
+        this.start = start;
+        this.counting = counting;
+        this.in = new DataInputStream(counting);
+    }
+
+    Path chunkStorageDirectory() {
+        return chunkStorageDirectory;
+    }
+
+    int cacheSize() {
+        return cacheSize;
+    }
+
+    ChunkStorageMode chunkStorageMode() {
+        return chunkStorageMode;
+    }
+
+    VectorQuantization vectorQuantization() {
+        return vectorQuantization;
+    }
+
+    /**
+     * Reads the vectors of the snapshot into pages of the storage, and replaces the entries of the storage.
+     * Can only be called once.
+     */
+    void restoreInto(VectorStorage storage) throws IOException {
+        VectorPages vectors = size == 0 ? new FloatVectorPages(dimension) : storage.createPages(dimension);
+        float[] norms = new float[size];
+        try {
+            vectors = readVectors(vectors, norms);
+        } catch (IOException | RuntimeException e) {
+            vectors.release();
+            throw e;
+        }
+        storage.restore(size, dimension, vectors, norms, ids, chunkFilePaths, metadataIndex);
+    }
+
+    static void write(
+            VectorStorage.Snapshot snapshot,
+            Path chunkStorageDirectory,
+            int cacheSize,
+            ChunkStorageMode chunkStorageMode,
+            VectorQuantization vectorQuantization,
+            WritableByteChannel channel)
+            throws IOException {
+        ChannelOutput output = new ChannelOutput(channel);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+
+        // Removed entries are left out, so that the snapshot holds the remaining ones contiguously
+        int size = snapshot.liveCount();
+        int dimension = snapshot.dimension();
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(size);
+        out.writeInt(dimension);
+        out.writeInt(cacheSize);
+        ChunkEncoding.writeString(chunkStorageMode.name(), out);
+        ChunkEncoding.writeString(chunkStorageDirectory.toString(), out);
+        ChunkEncoding.writeString(vectorQuantization.name(), out);
+        output.write(bytes);
+
+        MetadataIndex.View metadata = snapshot.metadata();
+        for (int slot = 0; slot < snapshot.size(); slot++) {
+            if (snapshot.isRemoved(slot)) {
+                continue;
+            }
+            ChunkEncoding.writeString(snapshot.id(slot), out);
+            writeNullable(snapshot.chunkFilePath(slot), out);
+            Map<String, Object> entryMetadata = metadata.metadata(slot);
+            out.writeBoolean(entryMetadata != null);
+            if (entryMetadata != null) {
+                ChunkEncoding.writeMetadata(entryMetadata, out);
+            }
+            output.write(bytes);
+        }
+        output.pad();
+
+        if (!snapshot.hasRemovedSlots() && snapshot.vectors() instanceof FloatVectorPages pages) {
+            for (int page = 0; page << PAGE_SHIFT < size; page++) {
+                int vectorsInPage = Math.min(PAGE_SIZE, size - (page << PAGE_SHIFT));
+                output.writeFloats(pages.page(page), vectorsInPage * dimension);
+            }
+        } else {
+            for (int slot = 0; slot < snapshot.size(); slot++) {
+                if (!snapshot.isRemoved(slot)) {
+                    output.writeFloats(snapshot.vector(slot), dimension);
+                }
+            }
+        }
+        float[] norms = new float[size];
+        for (int slot = 0, index = 0; slot < snapshot.size(); slot++) {
+            if (!snapshot.isRemoved(slot)) {
+                norms[index++] = snapshot.norm(slot);
+            }
+        }
+        output.writeFloats(norms, size);
+        out.writeInt(MAGIC);
+        output.write(bytes);
+        output.flush();
+    }
+
+    static BinarySnapshot read(ReadableByteChannel channel) throws IOException {
+        FileChannel fileChannel = channel instanceof FileChannel file ? file : null;
+        long start = fileChannel != null ? fileChannel.position() : 0;
+        CountingInputStream counting =
+                new CountingInputStream(new BufferedInputStream(Channels.newInputStream(channel), BUFFER_SIZE));
+        DataInputStream in = new DataInputStream(counting);
+
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a MemFileEmbeddingStore binary snapshot");
+        }
+        int version = in.readInt();
+        if (version != 1 && version != VERSION) {
+            throw new IOException("Unsupported binary snapshot version: " + version);
+        }
+        int size = in.readInt();
+        int dimension = in.readInt();
+        int cacheSize = in.readInt();
+        ChunkStorageMode chunkStorageMode = ChunkStorageMode.valueOf(ChunkEncoding.readString(in));
+        Path chunkStorageDirectory = Paths.get(ChunkEncoding.readString(in));
+        VectorQuantization vectorQuantization =
+                version == 1 ? VectorQuantization.NONE : VectorQuantization.valueOf(ChunkEncoding.readString(in));
+
+        String[] ids = new String[size];
+        String[] chunkFilePaths = new String[size];
+        MetadataIndex metadataIndex = new MetadataIndex();
+        for (int slot = 0; slot < size; slot++) {
+            ids[slot] = ChunkEncoding.readString(in);
+            chunkFilePaths[slot] = readNullable(in);
+            metadataIndex.set(slot, in.readBoolean() ? ChunkEncoding.readMetadata(in) : null);
+        }
+
+        return new BinarySnapshot(
+                chunkStorageDirectory,
+                cacheSize,
+                chunkStorageMode,
+                vectorQuantization,
+                size,
+                dimension,
+                ids,
+                chunkFilePaths,
+                metadataIndex,
+                fileChannel,
+                start,
+                counting);
+    }
+
+    // Float32 pages are filled in bulk, quantized pages one vector at a time
+    private VectorPages readVectors(VectorPages created, float[] norms) throws IOException {
+        int pageCount = VectorPages.pageCount(size);
+        float[][] pages = created instanceof FloatVectorPages ? new float[pageCount][] : null;
+        VectorPages quantized = pages == null ? created.withCapacity(size) : null;
+        float[] vector = new float[dimension];
+        long vectorsOffset = align(counting.count);
+        if (fileChannel != null) {
+            long normsOffset = vectorsOffset + (long) size * dimension * Float.BYTES;
+            long end = normsOffset + (long) size * Float.BYTES;
+            if (fileChannel.size() < start + end + Integer.BYTES) {
+                throw new EOFException("Truncated binary snapshot");
+            }
+            for (int page = 0; page < pageCount; page++) {
+                int vectorsInPage = Math.min(PAGE_SIZE, size - (page << PAGE_SHIFT));
+                long offset = vectorsOffset + ((long) page << PAGE_SHIFT) * dimension * Float.BYTES;
+                FloatBuffer mapped = map(fileChannel, start + offset, vectorsInPage * dimension);
+                if (pages != null) {
+                    pages[page] = new float[vectorsInPage * dimension];
+                    mapped.get(pages[page]);
+                } else {
+                    for (int i = 0; i < vectorsInPage; i++) {
+                        mapped.get(vector);
+                        quantized.set((page << PAGE_SHIFT) + i, vector);
+                    }
+                }
+            }
+            map(fileChannel, start + normsOffset, size).get(norms);
+            ByteBuffer trailer = ByteBuffer.allocate(Integer.BYTES);
+            while (trailer.hasRemaining()) {
+                if (fileChannel.read(trailer, start + end + trailer.position()) < 0) {
+                    throw new EOFException("Truncated binary snapshot");
+                }
+            }
+            checkTrailer(trailer.getInt(0));
+            fileChannel.position(start + end + Integer.BYTES);
+        } else {
+            in.skipNBytes(vectorsOffset - counting.count);
+            byte[] scratch = new byte[BUFFER_SIZE];
+            for (int page = 0; page < pageCount; page++) {
+                int vectorsInPage = Math.min(PAGE_SIZE, size - (page << PAGE_SHIFT));
+                if (pages != null) {
+                    pages[page] = new float[vectorsInPage * dimension];
+                    readFloats(in, scratch, pages[page]);
+                } else {
+                    for (int i = 0; i < vectorsInPage; i++) {
+                        readFloats(in, scratch, vector);
+                        quantized.set((page << PAGE_SHIFT) + i, vector);
+                    }
+                }
+            }
+            readFloats(in, scratch, norms);
+            checkTrailer(in.readInt());
+        }
+        return pages != null ? new FloatVectorPages(dimension, pages) : quantized;
+    }
+
+    private static void writeNullable(String string, DataOutputStream out) throws IOException {
+        out.writeBoolean(string != null);
+        if (string != null) {
+            ChunkEncoding.writeString(string, out);
+        }
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? ChunkEncoding.readString(in) : null;
+    }
+
+    private static long align(long offset) {
+        return (offset + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+    }
+
+    private static FloatBuffer map(FileChannel channel, long offset, int floats) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, offset, (long) floats * Float.BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN)
+                .asFloatBuffer();
+    }
+
+    private static void readFloats(DataInputStream in, byte[] scratch, float[] floats) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(scratch).order(ByteOrder.LITTLE_ENDIAN);
+        int read = 0;
+        while (read < floats.length) {
+            int count = Math.min(floats.length - read, scratch.length / Float.BYTES);
+            in.readFully(scratch, 0, count * Float.BYTES);
+            buffer.clear();
+            buffer.asFloatBuffer().get(floats, read, count);
+            read += count;
+        }
+    }
+
+    private static void checkTrailer(int trailer) throws IOException {
+        if (trailer != MAGIC) {
+            throw new IOException("Corrupted binary snapshot, unexpected trailer");
+        }
+    }
+
+    // Buffers writes to a channel, keeping track of the number of bytes written
+    private static final class ChannelOutput {
+
+        private final WritableByteChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        private long position;
+
+        private ChannelOutput(WritableByteChannel channel) {
+            this.channel = channel;
+        }
+
+        void write(ByteArrayOutputStream bytes) throws IOException {
+            byte[] array = bytes.toByteArray();
+            bytes.reset();
+            int written = 0;
+            while (written < array.length) {
+                int length = Math.min(buffer.remaining(), array.length - written);
+                buffer.put(array, written, length);
+                written += length;
+                if (!buffer.hasRemaining()) {
+                    flush();
+                }
+            }
+        }
+
+        void pad() throws IOException {
+            long offset = position + buffer.position();
+            int padding = (int) (align(offset) - offset);
+            if (buffer.remaining() < padding) {
+                flush();
+            }
+            buffer.put(new byte[padding]);
+        }
+
+        void writeFloats(float[] floats, int length) throws IOException {
+            int written = 0;
+            while (written < length) {
+                if (buffer.remaining() < Float.BYTES) {
+                    flush();
+                }
+                int count = Math.min(length - written, buffer.remaining() / Float.BYTES);
+                buffer.slice().order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer().put(floats, written, count);
+                buffer.position(buffer.position() + count * Float.BYTES);
+                written += count;
+            }
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+
+        private long count;
+
+        private CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int read = super.read();
+            if (read >= 0) {
+                count++;
+            }
+            return read;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            int read = super.read(bytes, offset, length);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+}
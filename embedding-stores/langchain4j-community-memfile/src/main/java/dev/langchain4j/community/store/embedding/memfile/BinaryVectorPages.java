@@ -0,0 +1,127 @@
+package dev.langchain4j.community.store.embedding.memfile;
+
+import static dev.langchain4j.community.store.embedding.memfile.VectorStorage.PAGE_MASK;
+import static dev.langchain4j.community.store.embedding.memfile.VectorStorage.PAGE_SHIFT;
+
+import dev.langchain4j.store.embedding.RelevanceScore;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * {@link QuantizedVectorPages} holding the signs of the components of each vector, one bit per component.
+ * <p>
+ * The angle between a query and a vector is estimated from the number {@code d} of components whose signs differ,
+ * their Hamming distance, as {@code PI * d / dimension}, which holds for vectors whose components are centered on
+ * zero. The distance is computed with a population count per 64 components.
+ */
+final class BinaryVectorPages extends QuantizedVectorPages {
+
+    private final int words; // per slot
+    private final long[][] codes;
+    private final double[] scores; // the relevance score of each Hamming distance
+
+    BinaryVectorPages(int dimension, Path directory) {
+        this(dimension, directory, new VectorFile(directory, dimension), new long[0][], scores(dimension));
+    }
+
+    private BinaryVectorPages(int dimension, Path directory, VectorFile file, long[][] codes, double[] scores) {
+        super(dimension, directory, file);
+        this.words = (dimension + Long.SIZE - 1) / Long.SIZE;
+        this.codes = codes;
+        this.scores = scores;
+    }
+
+    private static double[] scores(int dimension) {
+        double[] scores = new double[dimension + 1];
+        for (int distance = 0; distance <= dimension; distance++) {
+            scores[distance] = RelevanceScore.fromCosineSimilarity(Math.cos(Math.PI * distance / dimension));
+        }
+        return scores;
+    }
+
+    @Override
+    public BinaryVectorPages withCapacity(int capacity) {
+        long[][] grown = codes;
+        int pageCount = VectorPages.pageCount(capacity);
+        if (pageCount > grown.length) {
+            grown = Arrays.copyOf(grown, pageCount);
+        }
+        for (int page = 0; page < pageCount; page++) {
+            int allocatedLength = grown[page] == null ? 0 : grown[page].length;
+            int length = VectorPages.pageLength(page, capacity, allocatedLength, words);
+            if (grown[page] == null || length != allocatedLength) {
+                if (grown == codes) {
+                    grown = grown.clone();
+                }
+                grown[page] = grown[page] == null ? new long[length] : Arrays.copyOf(grown[page], length);
+            }
+        }
+        return grown == codes ? this : new BinaryVectorPages(dimension, directory, file, grown, scores);
+    }
+
+    @Override
+    public BinaryVectorPages emptyCopy() {
+        return new BinaryVectorPages(dimension, directory);
+    }
+
+    @Override
+    public void set(int slot, float[] vector) {
+        signs(vector, codes[slot >>> PAGE_SHIFT], (slot & PAGE_MASK) * words);
+        file.write(slot, vector);
+    }
+
+    private void signs(float[] vector, long[] target, int offset) {
+        for (int word = 0; word < words; word++) {
+            long bits = 0;
+            int end = Math.min(dimension, (word + 1) * Long.SIZE);
+            for (int i = word * Long.SIZE; i < end; i++) {
+                if (vector[i] > 0) {
+                    bits |= 1L << i; // shifts of longs are modulo 64
+                }
+            }
+            target[offset + word] = bits;
+        }
+    }
+
+    @Override
+    public void copy(int slot, VectorPages to, int toSlot) {
+        BinaryVectorPages target = (BinaryVectorPages) to;
+        System.arraycopy(
+                codes[slot >>> PAGE_SHIFT],
+                (slot & PAGE_MASK) * words,
+                target.codes[toSlot >>> PAGE_SHIFT],
+                (toSlot & PAGE_MASK) * words,
+                words);
+        copyVector(slot, target, toSlot);
+    }
+
+    @Override
+    public void scan(
+            VectorStorage.Snapshot snapshot,
+            int from,
+            int to,
+            float[] query,
+            double minScore,
+            IntPredicate accepted,
+            TopK topK) {
+        long[] querySigns = new long[words];
+        signs(query, querySigns, 0);
+        boolean anyRemoved = snapshot.hasRemovedSlots();
+        for (int slot = from; slot < to; slot++) {
+            if ((anyRemoved && snapshot.isRemoved(slot)) || (accepted != null && !accepted.test(slot))) {
+                continue;
+            }
+            long[] page = codes[slot >>> PAGE_SHIFT];
+            int offset = (slot & PAGE_MASK) * words;
+            int distance = 0;
+            for (int word = 0; word < words; word++) {
+                distance += Long.bitCount(page[offset + word] ^ querySigns[word]);
+            }
+            double score = scores[distance];
+            if (score >= minScore) {
+                topK.offer(slot, score);
+            }
+        }
+    }
+}
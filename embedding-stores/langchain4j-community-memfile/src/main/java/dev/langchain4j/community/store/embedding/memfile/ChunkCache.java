@@ -0,0 +1,427 @@
+package dev.langchain4j.community.store.embedding.memfile;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * The cache of chunks loaded by {@link MemFileEmbeddingStore}, bounded by a total weight, such as a number of chunks
+ * or an estimate of their size in bytes.
+ * <p>
+ * Keys are spread over segments, each with its own lock and its own share of the maximum weight, so that concurrent
+ * searches do not contend on a single lock.
+ * <p>
+ * Each segment follows the W-TinyLFU policy: new chunks enter a small LRU window, then compete for a place in the
+ * main region with its least recently used chunk, and only the most frequently accessed of the two is kept. Access
+ * frequencies are estimated by a {@link FrequencySketch} counting all accesses, including misses. The main region is
+ * split in a probation part and a protected part, holding chunks accessed again since they were admitted. This
+ * keeps the frequently accessed chunks cached when a search reads many chunks only once.
+ * <p>
+ * When a refresh interval is set, chunks read longer than this interval after they were cached are reloaded in the
+ * background, the cached chunk being returned meanwhile.
+ */
+final class ChunkCache<V> {
+
+    private static final int MAXIMUM_SEGMENTS = 16;
+    private static final long MINIMUM_SEGMENT_WEIGHT = 64;
+    private static final double WINDOW_RATIO = 0.01;
+    private static final double PROTECTED_RATIO = 0.8;
+
+    private final Segment<V>[] segments;
+    private final int segmentMask;
+    private final ToLongFunction<V> weigher;
+    private final long refreshAfterWriteNanos;
+    private final Function<String, V> loader;
+    private final Executor refreshExecutor;
+    private final LongSupplier ticker;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+    private final LongAdder evictionWeight = new LongAdder();
+    private final LongAdder refreshCount = new LongAdder();
+
+    /**
+     * @param maximumWeight          The maximum total weight of cached chunks, 0 to disable the cache.
+     * @param weigher                The weight of a chunk.
+     * @param refreshAfterWriteNanos The age from which a chunk is reloaded when read, 0 to never reload chunks.
+     * @param loader                 Reloads a chunk, returning {@code null} when it no longer exists.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    ChunkCache(
+            long maximumWeight,
+            ToLongFunction<V> weigher,
+            long refreshAfterWriteNanos,
+            Function<String, V> loader,
+            Executor refreshExecutor,
+            LongSupplier ticker) {
+        this.weigher = weigher;
+        this.refreshAfterWriteNanos = refreshAfterWriteNanos;
+        this.loader = loader;
+        this.refreshExecutor = refreshExecutor;
+        this.ticker = ticker;
+
+        // small caches are not split, as each segment would only hold a few chunks
+        int segmentCount = 1;
+        while (segmentCount < MAXIMUM_SEGMENTS && maximumWeight / (segmentCount * 2L) >= MINIMUM_SEGMENT_WEIGHT) {
+            segmentCount *= 2;
+        }
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            long segmentWeight = maximumWeight / segmentCount + (i < maximumWeight % segmentCount ? 1 : 0);
+            segments[i] = new Segment<>(segmentWeight);
+        }
+        this.segmentMask = segmentCount - 1;
+    }
+
+    /**
+     * @return the cached chunk, {@code null} when it is not cached.
+     */
+    V get(String key) {
+        int hash = hash(key);
+        Segment<V> segment = segmentFor(hash);
+        if (segment.maximumWeight == 0) {
+            return null;
+        }
+        Node<V> refreshed = null;
+        V value;
+        synchronized (segment) {
+            segment.sketch.increment(hash);
+            Node<V> node = segment.nodes.get(key);
+            if (node == null) {
+                missCount.increment();
+                return null;
+            }
+            hitCount.increment();
+            segment.onAccess(node);
+            value = node.value;
+            if (refreshAfterWriteNanos > 0
+                    && !node.refreshing
+                    && ticker.getAsLong() - node.writeTime >= refreshAfterWriteNanos) {
+                node.refreshing = true;
+                refreshed = node;
+            }
+        }
+        if (refreshed != null) {
+            refresh(segment, refreshed, value);
+        }
+        return value;
+    }
+
+    void put(String key, V value) {
+        int hash = hash(key);
+        Segment<V> segment = segmentFor(hash);
+        if (segment.maximumWeight == 0) {
+            return;
+        }
+        long weight = weigher.applyAsLong(value);
+        synchronized (segment) {
+            Node<V> node = segment.nodes.get(key);
+            if (weight > segment.maximumWeight) {
+                // would evict everything else
+                if (node != null) {
+                    segment.remove(node);
+                }
+                return;
+            }
+            if (node != null) {
+                segment.reweigh(node, weight);
+                node.value = value;
+                node.writeTime = ticker.getAsLong();
+                segment.onAccess(node);
+            } else {
+                node = new Node<>(key, hash, value, weight, ticker.getAsLong());
+                segment.nodes.put(key, node);
+                segment.sketch.ensureCapacity(segment.nodes.size());
+                segment.window.addLast(node);
+                segment.windowWeight += weight;
+            }
+            segment.evict(this);
+        }
+    }
+
+    void invalidate(String key) {
+        Segment<V> segment = segmentFor(hash(key));
+        synchronized (segment) {
+            Node<V> node = segment.nodes.get(key);
+            if (node != null) {
+                segment.remove(node);
+            }
+        }
+    }
+
+    void invalidateAll() {
+        for (Segment<V> segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    ChunkCacheStats stats() {
+        return new ChunkCacheStats(
+                hitCount.sum(), missCount.sum(), evictionCount.sum(), evictionWeight.sum(), refreshCount.sum());
+    }
+
+    /**
+     * @return the total weight of the cached chunks.
+     */
+    long weightedSize() {
+        long weightedSize = 0;
+        for (Segment<V> segment : segments) {
+            synchronized (segment) {
+                weightedSize += segment.windowWeight + segment.probationWeight + segment.protectedWeight;
+            }
+        }
+        return weightedSize;
+    }
+
+    private void refresh(Segment<V> segment, Node<V> node, V value) {
+        try {
+            refreshExecutor.execute(() -> {
+                V reloaded;
+                try {
+                    reloaded = loader.apply(node.key);
+                } catch (RuntimeException e) {
+                    // the cached chunk is kept, it will be reloaded on a later read
+                    synchronized (segment) {
+                        node.refreshing = false;
+                    }
+                    return;
+                }
+                refreshCount.increment();
+                long weight = reloaded != null ? weigher.applyAsLong(reloaded) : 0;
+                synchronized (segment) {
+                    node.refreshing = false;
+                    // the chunk may have been replaced or removed meanwhile
+                    if (segment.nodes.get(node.key) != node || node.value != value) {
+                        return;
+                    }
+                    if (reloaded == null || weight > segment.maximumWeight) {
+                        segment.remove(node);
+                        return;
+                    }
+                    segment.reweigh(node, weight);
+                    node.value = reloaded;
+                    node.writeTime = ticker.getAsLong();
+                    segment.evict(this);
+                }
+            });
+        } catch (RuntimeException e) {
+            synchronized (segment) {
+                node.refreshing = false;
+            }
+        }
+    }
+
+    private Segment<V> segmentFor(int hash) {
+        return segments[(hash >>> 16) & segmentMask];
+    }
+
+    private static int hash(String key) {
+        int h = key.hashCode() * 0x9e3779b9;
+        return h ^ (h >>> 16);
+    }
+
+    private void recordEviction(Node<V> node) {
+        evictionCount.increment();
+        evictionWeight.add(node.weight);
+    }
+
+    private static final class Segment<V> {
+
+        private final long maximumWeight;
+        private final long maximumWindowWeight;
+        private final long maximumProtectedWeight;
+        private final Map<String, Node<V>> nodes = new HashMap<>();
+        private final FrequencySketch sketch = new FrequencySketch();
+        private final Queue<V> window = new Queue<>(Node.WINDOW);
+        private final Queue<V> probation = new Queue<>(Node.PROBATION);
+        private final Queue<V> protectedQueue = new Queue<>(Node.PROTECTED);
+        private long windowWeight;
+        private long probationWeight;
+        private long protectedWeight;
+
+        private Segment(long maximumWeight) {
+            this.maximumWeight = maximumWeight;
+            this.maximumWindowWeight = maximumWeight == 0 ? 0 : Math.max(1, (long) (maximumWeight * WINDOW_RATIO));
+            this.maximumProtectedWeight = (long) ((maximumWeight - maximumWindowWeight) * PROTECTED_RATIO);
+            sketch.ensureCapacity(Math.min(maximumWeight, 1024));
+        }
+
+        void onAccess(Node<V> node) {
+            switch (node.queue) {
+                case Node.WINDOW -> window.moveToLast(node);
+                case Node.PROBATION -> {
+                    // accessed again since it was admitted
+                    probation.remove(node);
+                    probationWeight -= node.weight;
+                    protectedQueue.addLast(node);
+                    protectedWeight += node.weight;
+                    demoteProtected();
+                }
+                default -> protectedQueue.moveToLast(node);
+            }
+        }
+
+        void reweigh(Node<V> node, long weight) {
+            long delta = weight - node.weight;
+            node.weight = weight;
+            switch (node.queue) {
+                case Node.WINDOW -> windowWeight += delta;
+                case Node.PROBATION -> probationWeight += delta;
+                default -> protectedWeight += delta;
+            }
+        }
+
+        void evict(ChunkCache<V> cache) {
+            // Chunks leaving the window are candidates for the main region
+            while (windowWeight > maximumWindowWeight && window.first != null) {
+                Node<V> candidate = window.first;
+                window.remove(candidate);
+                windowWeight -= candidate.weight;
+                admit(candidate, cache);
+            }
+            demoteProtected();
+            // Chunks of the main region grow when they are replaced or refreshed
+            long maximumMainWeight = maximumWeight - maximumWindowWeight;
+            while (probationWeight + protectedWeight > maximumMainWeight) {
+                Node<V> victim = probation.first != null ? probation.first : protectedQueue.first;
+                remove(victim);
+                cache.recordEviction(victim);
+            }
+        }
+
+        private void admit(Node<V> candidate, ChunkCache<V> cache) {
+            long maximumMainWeight = maximumWeight - maximumWindowWeight;
+            if (probationWeight + protectedWeight + candidate.weight > maximumMainWeight) {
+                Node<V> victim = probation.first != null ? probation.first : protectedQueue.first;
+                if (candidate.weight > maximumMainWeight
+                        || (victim != null && sketch.frequency(candidate.hash) <= sketch.frequency(victim.hash))) {
+                    // the candidate is not accessed more often than the chunks it would replace
+                    nodes.remove(candidate.key);
+                    cache.recordEviction(candidate);
+                    return;
+                }
+                while (probationWeight + protectedWeight + candidate.weight > maximumMainWeight) {
+                    victim = probation.first != null ? probation.first : protectedQueue.first;
+                    remove(victim);
+                    cache.recordEviction(victim);
+                }
+            }
+            probation.addLast(candidate);
+            probationWeight += candidate.weight;
+        }
+
+        private void demoteProtected() {
+            while (protectedWeight > maximumProtectedWeight && protectedQueue.first != null) {
+                Node<V> demoted = protectedQueue.first;
+                protectedQueue.remove(demoted);
+                protectedWeight -= demoted.weight;
+                probation.addLast(demoted);
+                probationWeight += demoted.weight;
+            }
+        }
+
+        void remove(Node<V> node) {
+            nodes.remove(node.key);
+            switch (node.queue) {
+                case Node.WINDOW -> {
+                    window.remove(node);
+                    windowWeight -= node.weight;
+                }
+                case Node.PROBATION -> {
+                    probation.remove(node);
+                    probationWeight -= node.weight;
+                }
+                default -> {
+                    protectedQueue.remove(node);
+                    protectedWeight -= node.weight;
+                }
+            }
+        }
+
+        void clear() {
+            nodes.clear();
+            window.first = window.last = null;
+            probation.first = probation.last = null;
+            protectedQueue.first = protectedQueue.last = null;
+            windowWeight = probationWeight = protectedWeight = 0;
+        }
+    }
+
+    private static final class Node<V> {
+
+        static final int WINDOW = 0;
+        static final int PROBATION = 1;
+        static final int PROTECTED = 2;
+
+        private final String key;
+        private final int hash;
+        private V value;
+        private long weight;
+        private long writeTime;
+        private boolean refreshing;
+        private int queue;
+        private Node<V> previous;
+        private Node<V> next;
+
+        private Node(String key, int hash, V value, long weight, long writeTime) {
+            this.key = key;
+            this.hash = hash;
+            this.value = value;
+            this.weight = weight;
+            this.writeTime = writeTime;
+        }
+    }
+
+    // A doubly linked list of nodes, from the least to the most recently used
+    private static final class Queue<V> {
+
+        private final int type;
+        private Node<V> first;
+        private Node<V> last;
+
+        private Queue(int type) {
+            this.type = type;
+        }
+
+        void addLast(Node<V> node) {
+            node.queue = type;
+            node.previous = last;
+            node.next = null;
+            if (last == null) {
+                first = node;
+            } else {
+                last.next = node;
+            }
+            last = node;
+        }
+
+        void remove(Node<V> node) {
+            if (node.previous == null) {
+                first = node.next;
+            } else {
+                node.previous.next = node.next;
+            }
+            if (node.next == null) {
+                last = node.previous;
+            } else {
+                node.next.previous = node.previous;
+            }
+            node.previous = null;
+            node.next = null;
+        }
+
+        void moveToLast(Node<V> node) {
+            if (node != last) {
+                remove(node);
+                addLast(node);
+            }
+        }
+    }
+}
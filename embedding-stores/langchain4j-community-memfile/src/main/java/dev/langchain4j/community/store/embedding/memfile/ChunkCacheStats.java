@@ -0,0 +1,93 @@
+package dev.langchain4j.community.store.embedding.memfile;
+
+import java.util.Objects;
+
+/**
+ * Statistics of the chunk cache of a {@link MemFileEmbeddingStore}, counted since the store was created.
+ *
+ * @see MemFileEmbeddingStore#chunkCacheStats()
+ */
+public final class ChunkCacheStats {
+
+    private final long hitCount;
+    private final long missCount;
+    private final long evictionCount;
+    private final long evictionWeight;
+    private final long refreshCount;
+
+    ChunkCacheStats(long hitCount, long missCount, long evictionCount, long evictionWeight, long refreshCount) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+        this.evictionWeight = evictionWeight;
+        this.refreshCount = refreshCount;
+    }
+
+    /**
+     * @return the number of chunks found in the cache.
+     */
+    public long hitCount() {
+        return hitCount;
+    }
+
+    /**
+     * @return the number of chunks looked up in the cache and read from the chunk storage directory instead.
+     */
+    public long missCount() {
+        return missCount;
+    }
+
+    /**
+     * @return the ratio of chunks found in the cache among the looked up ones, 1 when no chunk was looked up.
+     */
+    public double hitRate() {
+        long requestCount = hitCount + missCount;
+        return requestCount == 0 ? 1.0 : (double) hitCount / requestCount;
+    }
+
+    /**
+     * @return the number of chunks evicted, or not admitted, to keep the cache within its capacity.
+     * Chunks removed from the store are not counted.
+     */
+    public long evictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * @return the total weight of the evicted chunks: their number, or their estimated size in bytes when the
+     * capacity of the cache is set in bytes.
+     */
+    public long evictionWeight() {
+        return evictionWeight;
+    }
+
+    /**
+     * @return the number of chunks reloaded from the chunk storage directory in the background.
+     */
+    public long refreshCount() {
+        return refreshCount;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ChunkCacheStats that = (ChunkCacheStats) o;
+        return hitCount == that.hitCount
+                && missCount == that.missCount
+                && evictionCount == that.evictionCount
+                && evictionWeight == that.evictionWeight
+                && refreshCount == that.refreshCount;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(hitCount, missCount, evictionCount, evictionWeight, refreshCount);
+    }
+
+    @Override
+    public String toString() {
+        return "ChunkCacheStats{" + "hitCount=" + hitCount + ", missCount=" + missCount + ", evictionCount="
+                + evictionCount + ", evictionWeight=" + evictionWeight + ", refreshCount=" + refreshCount + '}';
+    }
+}
@@ -0,0 +1,177 @@
+package dev.langchain4j.community.store.embedding.memfile;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import dev.langchain4j.community.store.embedding.memfile.MemFileEmbeddingStore.ChunkData;
+import dev.langchain4j.data.document.Metadata;
+import dev.langchain4j.data.segment.TextSegment;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Encodings of embedded content: the JSON of chunk files, and a compact binary encoding of text segments
+ * used by segment files.
+ */
+final class ChunkEncoding {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+            .enable(SerializationFeature.INDENT_OUTPUT)
+            .disable(SerializationFeature.FAIL_ON_EMPTY_BEANS);
+
+    private static final byte STRING = 1;
+    private static final byte UUID_VALUE = 2;
+    private static final byte INTEGER = 3;
+    private static final byte LONG = 4;
+    private static final byte FLOAT = 5;
+    private static final byte DOUBLE = 6;
+
+    private ChunkEncoding() {}
+
+    /**
+     * Serializes embedded content to JSON. A {@link TextSegment} is stored as {@link ChunkData}, containing
+     * its text and its metadata as a map, other objects with default Jackson serialization.
+     */
+    static String toJson(Object embedded) throws IOException {
+        if (embedded instanceof TextSegment textSegment) {
+            // Custom serialization for TextSegment
+            ChunkData chunkData = new ChunkData(
+                    textSegment.text(),
+                    textSegment.metadata() != null ? textSegment.metadata().toMap() : null);
+            return OBJECT_MAPPER.writeValueAsString(chunkData);
+        }
+        // For other types, try default serialization
+        return OBJECT_MAPPER.writeValueAsString(embedded);
+    }
+
+    static Object fromJson(String json) throws IOException {
+        // Try to deserialize as ChunkData first (for TextSegment)
+        try {
+            ChunkData chunkData = OBJECT_MAPPER.readValue(json, ChunkData.class);
+            Metadata metadata = chunkData.metadata != null ? Metadata.from(chunkData.metadata) : null;
+            return TextSegment.from(chunkData.text, metadata);
+        } catch (Exception e) {
+            // Fall back to direct deserialization for other types
+            return OBJECT_MAPPER.readValue(json, TextSegment.class);
+        }
+    }
+
+    /**
+     * Estimates the memory held by embedded content, in bytes: two bytes per character of the text and of the
+     * metadata of a {@link TextSegment}, or of the JSON of other objects, plus the overhead of the objects.
+     */
+    static long estimateSize(Object embedded) {
+        long size = 64;
+        if (embedded instanceof TextSegment textSegment) {
+            size += 2L * textSegment.text().length();
+            for (Map.Entry<String, Object> entry : textSegment.metadata().toMap().entrySet()) {
+                size += 48 + 2L * entry.getKey().length() + 2L * String.valueOf(entry.getValue()).length();
+            }
+            return size;
+        }
+        try {
+            return size + 2L * toJson(embedded).length();
+        } catch (IOException e) {
+            return size;
+        }
+    }
+
+    /**
+     * @return whether the text segment can be written with {@link #writeTextSegment(TextSegment, DataOutput)}.
+     */
+    static boolean isBinaryEncodable(TextSegment textSegment) {
+        for (Object value : textSegment.metadata().toMap().values()) {
+            if (!(value instanceof String
+                    || value instanceof UUID
+                    || value instanceof Integer
+                    || value instanceof Long
+                    || value instanceof Float
+                    || value instanceof Double)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static void writeTextSegment(TextSegment textSegment, DataOutput out) throws IOException {
+        writeString(textSegment.text(), out);
+        writeMetadata(textSegment.metadata().toMap(), out);
+    }
+
+    static TextSegment readTextSegment(DataInput in) throws IOException {
+        String text = readString(in);
+        return TextSegment.from(text, Metadata.from(readMetadata(in)));
+    }
+
+    /**
+     * Writes metadata of which values are of the types supported by {@link Metadata}.
+     */
+    static void writeMetadata(Map<String, Object> metadata, DataOutput out) throws IOException {
+        out.writeInt(metadata.size());
+        for (Map.Entry<String, Object> entry : metadata.entrySet()) {
+            writeString(entry.getKey(), out);
+            Object value = entry.getValue();
+            if (value instanceof String string) {
+                out.writeByte(STRING);
+                writeString(string, out);
+            } else if (value instanceof UUID uuid) {
+                out.writeByte(UUID_VALUE);
+                out.writeLong(uuid.getMostSignificantBits());
+                out.writeLong(uuid.getLeastSignificantBits());
+            } else if (value instanceof Integer integer) {
+                out.writeByte(INTEGER);
+                out.writeInt(integer);
+            } else if (value instanceof Long longValue) {
+                out.writeByte(LONG);
+                out.writeLong(longValue);
+            } else if (value instanceof Float floatValue) {
+                out.writeByte(FLOAT);
+                out.writeFloat(floatValue);
+            } else if (value instanceof Double doubleValue) {
+                out.writeByte(DOUBLE);
+                out.writeDouble(doubleValue);
+            } else {
+                throw new IllegalArgumentException("Unsupported metadata value type: " + value.getClass());
+            }
+        }
+    }
+
+    static Map<String, Object> readMetadata(DataInput in) throws IOException {
+        int size = in.readInt();
+        Map<String, Object> metadata = new HashMap<>(size * 2);
+        for (int i = 0; i < size; i++) {
+            String key = readString(in);
+            byte type = in.readByte();
+            Object value =
+                    switch (type) {
+                        case STRING -> readString(in);
+                        case UUID_VALUE -> new UUID(in.readLong(), in.readLong());
+                        case INTEGER -> in.readInt();
+                        case LONG -> in.readLong();
+                        case FLOAT -> in.readFloat();
+                        case DOUBLE -> in.readDouble();
+                        default -> throw new IOException("Unknown metadata value type: " + type);
+                    };
+            metadata.put(key, value);
+        }
+        return metadata;
+    }
+
+    // unlike DataOutput.writeUTF, not limited to 64 KB
+    static void writeString(String string, DataOutput out) throws IOException {
+        byte[] bytes = string.getBytes(UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(DataInput in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, UTF_8);
+    }
+}
@@ -0,0 +1,19 @@
+package dev.langchain4j.community.store.embedding.memfile;
+
+/**
+ * How {@link MemFileEmbeddingStore} lays out embedded content in its chunk storage directory.
+ */
+public enum ChunkStorageMode {
+
+    /**
+     * One JSON file per embedding, named after the embedding ID. The default.
+     */
+    FILE_PER_CHUNK,
+
+    /**
+     * Chunks appended to large segment files in a compact binary encoding. Removed chunks are reclaimed by
+     * rewriting segments in the background. Suited to stores of millions of entries, which would otherwise
+     * create as many files.
+     */
+    PACKED
+}
@@ -0,0 +1,41 @@
+package dev.langchain4j.community.store.embedding.memfile;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Where {@link MemFileEmbeddingStore} keeps the embedded content of its entries, see {@link ChunkStorageMode}.
+ * <p>
+ * Content is addressed by the reference returned when it is saved, which the store keeps with the entry
+ * and serializes as its {@code chunkFilePath}.
+ * <p>
+ * Implementations are thread-safe. Loading does not throw: content that can't be loaded is logged and returned
+ * as {@code null}, like content that does not exist.
+ */
+interface ChunkStore<Embedded> extends AutoCloseable {
+
+    /**
+     * Saves embedded content, replacing the content previously saved with the same ID.
+     *
+     * @return the reference of the saved content.
+     */
+    String save(String id, Embedded embedded);
+
+    /**
+     * @return the content saved under the reference, {@code null} if it does not exist or can't be read.
+     */
+    Embedded load(String reference);
+
+    /**
+     * @return the contents saved under the references, in the same order, like {@link #load(String)}.
+     */
+    List<Embedded> loadAll(List<String> references);
+
+    void delete(Collection<String> references);
+
+    /**
+     * Releases the files held open by the store, after which it can't be used anymore.
+     */
+    @Override
+    void close();
+}
@@ -0,0 +1,198 @@
+package dev.langchain4j.community.store.embedding.memfile;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link ChunkStorageMode#FILE_PER_CHUNK} layout: each chunk is a JSON file named after the embedding ID,
+ * and its reference is the name of that file.
+ */
+final class FileChunkStore<Embedded> implements ChunkStore<Embedded> {
+
+    private static final Logger log = LoggerFactory.getLogger(MemFileEmbeddingStore.class);
+
+    private final Path chunkStorageDirectory;
+
+    FileChunkStore(Path chunkStorageDirectory) {
+        this.chunkStorageDirectory = chunkStorageDirectory;
+    }
+
+    /**
+     * Saves the provided embedded content to a chunk file within the configured
+     * {@link #chunkStorageDirectory}.
+     * <p>
+     * The content is serialized to JSON with {@link ChunkEncoding#toJson(Object)}.
+     * The file is named using the given {@code id} followed by a {@code .json}
+     * extension. If a file with the same name already exists, it is replaced.
+     *
+     * @param id       the unique identifier for the embedded content; must not be
+     *                 blank
+     * @param embedded the embedded content to save; must not be {@code null}
+     * @return the relative filename of the saved chunk (e.g.,
+     * {@code &lt;id&gt;.json})
+     * @throws RuntimeException if the file cannot be written
+     */
+    @Override
+    public String save(String id, Embedded embedded) {
+        try {
+            String fileName = id + ".json";
+            Path filePath = chunkStorageDirectory.resolve(fileName);
+
+            String content = ChunkEncoding.toJson(embedded);
+
+            Files.write(filePath, content.getBytes(), CREATE, TRUNCATE_EXISTING);
+            log.debug("Saved chunk to file: {}", filePath);
+            return fileName;
+        } catch (IOException e) {
+            log.error("Failed to save chunk to file for id: {}", id, e);
+            throw new RuntimeException("Failed to save chunk to file", e);
+        }
+    }
+
+    /**
+     * Loads the embedded content associated with a given chunk file.
+     *
+     * @param chunkFilePath the relative path (filename) of the chunk file within
+     *                      the chunk storage directory
+     * @return the loaded embedded object, or {@code null} if not found or if an
+     * error occurs during deserialization
+     */
+    @Override
+    public Embedded load(String chunkFilePath) {
+        try {
+            Path filePath = chunkStorageDirectory.resolve(chunkFilePath);
+            if (!Files.exists(filePath)) {
+                log.warn("Chunk file does not exist: {}", filePath);
+                return null;
+            }
+
+            return decode(chunkFilePath, Files.readString(filePath));
+        } catch (IOException e) {
+            log.error("Failed to load chunk from file: {}", chunkFilePath, e);
+            return null;
+        }
+    }
+
+    /**
+     * Reads the chunk files concurrently, with asynchronous file I/O, so that the latency of a cold search
+     * is the one of its slowest read rather than the sum of its reads.
+     */
+    @Override
+    public List<Embedded> loadAll(List<String> chunkFilePaths) {
+        List<CompletableFuture<byte[]>> reads = new ArrayList<>(chunkFilePaths.size());
+        for (String chunkFilePath : chunkFilePaths) {
+            reads.add(readAsync(chunkStorageDirectory.resolve(chunkFilePath)));
+        }
+
+        List<Embedded> chunks = new ArrayList<>(chunkFilePaths.size());
+        for (int i = 0; i < chunkFilePaths.size(); i++) {
+            String chunkFilePath = chunkFilePaths.get(i);
+            try {
+                chunks.add(decode(chunkFilePath, new String(reads.get(i).join(), UTF_8)));
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof NoSuchFileException) {
+                    log.warn("Chunk file does not exist: {}", chunkStorageDirectory.resolve(chunkFilePath));
+                } else {
+                    log.error("Failed to load chunk from file: {}", chunkFilePath, e.getCause());
+                }
+                chunks.add(null);
+            } catch (IOException e) {
+                log.error("Failed to load chunk from file: {}", chunkFilePath, e);
+                chunks.add(null);
+            }
+        }
+        return chunks;
+    }
+
+    @Override
+    public void delete(Collection<String> chunkFilePaths) {
+        for (String chunkFilePath : chunkFilePaths) {
+            try {
+                Path filePath = chunkStorageDirectory.resolve(chunkFilePath);
+                Files.deleteIfExists(filePath);
+                log.debug("Deleted chunk file: {}", filePath);
+            } catch (IOException e) {
+                log.warn("Failed to delete chunk file: {}", chunkFilePath, e);
+            }
+        }
+    }
+
+    /**
+     * Does nothing: chunk files are only open while they are read or written.
+     */
+    @Override
+    public void close() {}
+
+    @SuppressWarnings("unchecked")
+    private Embedded decode(String chunkFilePath, String content) throws IOException {
+        Embedded embedded = (Embedded) ChunkEncoding.fromJson(content);
+        log.debug("Loaded chunk from file: {}", chunkFilePath);
+        return embedded;
+    }
+
+    private static CompletableFuture<byte[]> readAsync(Path filePath) {
+        CompletableFuture<byte[]> content = new CompletableFuture<>();
+        AsynchronousFileChannel channel;
+        try {
+            channel = AsynchronousFileChannel.open(filePath, READ);
+        } catch (IOException e) {
+            content.completeExceptionally(e);
+            return content;
+        }
+        try {
+            ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+            channel.read(buffer, 0, buffer, new CompletionHandler<>() {
+
+                @Override
+                public void completed(Integer read, ByteBuffer filled) {
+                    if (read >= 0 && filled.hasRemaining()) {
+                        try {
+                            channel.read(filled, filled.position(), filled, this);
+                        } catch (RuntimeException e) {
+                            failed(e, filled);
+                        }
+                        return;
+                    }
+                    close(channel);
+                    content.complete(Arrays.copyOf(filled.array(), filled.position()));
+                }
+
+                @Override
+                public void failed(Throwable error, ByteBuffer filled) {
+                    close(channel);
+                    content.completeExceptionally(error);
+                }
+            });
+        } catch (IOException | RuntimeException e) {
+            close(channel);
+            content.completeExceptionally(e);
+        }
+        return content;
+    }
+
+    private static void close(AsynchronousFileChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.debug("Failed to close chunk file channel", e);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package dev.langchain4j.community.store.embedding.memfile;
+
+import static dev.langchain4j.community.store.embedding.memfile.VectorStorage.PAGE_MASK;
+import static dev.langchain4j.community.store.embedding.memfile.VectorStorage.PAGE_SHIFT;
+
+import dev.langchain4j.store.embedding.RelevanceScore;
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * {@link VectorPages} holding vectors as float32 values, contiguously, so that a scan reads memory sequentially
+ * instead of chasing a pointer per vector. Scores are exact.
+ */
+final class FloatVectorPages implements VectorPages {
+
+    private final int dimension;
+    private final float[][] pages;
+
+    FloatVectorPages(int dimension) {
+        this(dimension, new float[0][]);
+    }
+
+    /**
+     * @param pages The vectors, in pages of {@link VectorStorage#PAGE_SIZE} vectors, owned by this instance.
+     */
+    FloatVectorPages(int dimension, float[][] pages) {
+        this.dimension = dimension;
+        this.pages = pages;
+    }
+
+    @Override
+    public int dimension() {
+        return dimension;
+    }
+
+    /**
+     * @return the page holding the vectors of the slots from {@code page << PAGE_SHIFT}, which must not be
+     * modified. It may be longer than the vectors of the slots of a snapshot.
+     */
+    float[] page(int page) {
+        return pages[page];
+    }
+
+    @Override
+    public FloatVectorPages withCapacity(int capacity) {
+        float[][] grown = pages;
+        int pageCount = VectorPages.pageCount(capacity);
+        if (pageCount > grown.length) {
+            grown = Arrays.copyOf(grown, pageCount);
+        }
+        for (int page = 0; page < pageCount; page++) {
+            int allocatedLength = grown[page] == null ? 0 : grown[page].length;
+            int length = VectorPages.pageLength(page, capacity, allocatedLength, dimension);
+            if (grown[page] == null || length != allocatedLength) {
+                if (grown == pages) {
+                    grown = grown.clone();
+                }
+                grown[page] = grown[page] == null ? new float[length] : Arrays.copyOf(grown[page], length);
+            }
+        }
+        return grown == pages ? this : new FloatVectorPages(dimension, grown);
+    }
+
+    @Override
+    public FloatVectorPages emptyCopy() {
+        return new FloatVectorPages(dimension);
+    }
+
+    @Override
+    public void set(int slot, float[] vector) {
+        System.arraycopy(vector, 0, pages[slot >>> PAGE_SHIFT], (slot & PAGE_MASK) * dimension, dimension);
+    }
+
+    @Override
+    public void copy(int slot, VectorPages to, int toSlot) {
+        FloatVectorPages target = (FloatVectorPages) to;
+        System.arraycopy(
+                pages[slot >>> PAGE_SHIFT],
+                (slot & PAGE_MASK) * dimension,
+                target.pages[toSlot >>> PAGE_SHIFT],
+                (toSlot & PAGE_MASK) * dimension,
+                dimension);
+    }
+
+    @Override
+    public float[] vector(int slot) {
+        int offset = (slot & PAGE_MASK) * dimension;
+        return Arrays.copyOfRange(pages[slot >>> PAGE_SHIFT], offset, offset + dimension);
+    }
+
+    @Override
+    public boolean exactScores() {
+        return true;
+    }
+
+    @Override
+    public void scan(
+            VectorStorage.Snapshot snapshot,
+            int from,
+            int to,
+            float[] query,
+            double minScore,
+            IntPredicate accepted,
+            TopK topK) {
+        VectorScorer scorer = VectorScorer.INSTANCE;
+        double queryNorm = VectorStorage.norm(query);
+        boolean anyRemoved = snapshot.hasRemovedSlots();
+        for (int slot = from; slot < to; slot++) {
+            if ((anyRemoved && snapshot.isRemoved(slot)) || (accepted != null && !accepted.test(slot))) {
+                continue;
+            }
+            float dotProduct =
+                    scorer.dotProduct(pages[slot >>> PAGE_SHIFT], (slot & PAGE_MASK) * dimension, query, dimension);
+            double cosineSimilarity = dotProduct / Math.max(snapshot.norm(slot) * queryNorm, 1e-8);
+            double score = RelevanceScore.fromCosineSimilarity(cosineSimilarity);
+            if (score >= minScore) {
+                topK.offer(slot, score);
+            }
+        }
+    }
+
+    @Override
+    public void release() {}
+}
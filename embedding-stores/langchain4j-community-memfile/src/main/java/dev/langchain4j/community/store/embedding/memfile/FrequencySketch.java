@@ -0,0 +1,81 @@
+package dev.langchain4j.community.store.embedding.memfile;
+
+/**
+ * Estimates how often keys were accessed recently, in a count-min sketch of 4-bit counters.
+ * <p>
+ * Each key is counted in four counters of a table of longs, each long holding sixteen counters, and its frequency
+ * is the smallest of them. Counters saturate at 15. Once the number of increments reaches ten times the size of
+ * the table, all counters are halved, so that the frequencies follow the recent accesses.
+ * <p>
+ * This class is not thread-safe.
+ */
+final class FrequencySketch {
+
+    private static final long[] SEEDS = {
+        0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+    };
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final int MAXIMUM_TABLE_LENGTH = 1 << 24;
+
+    private long[] table = new long[0];
+    private int tableMask;
+    private int sampleSize;
+    private int size;
+
+    /**
+     * Sizes the sketch for the given number of keys, if it is larger than the current one.
+     * Counters are cleared when the sketch grows.
+     */
+    void ensureCapacity(long maximumSize) {
+        int length = (int) Math.min(MAXIMUM_TABLE_LENGTH, Math.max(16, maximumSize));
+        length = Integer.highestOneBit(length - 1) << 1;
+        if (length <= table.length) {
+            return;
+        }
+        table = new long[length];
+        tableMask = length - 1;
+        sampleSize = 10 * length;
+        size = 0;
+    }
+
+    int frequency(int hash) {
+        int start = (hash & 3) << 2;
+        int frequency = Integer.MAX_VALUE;
+        for (int i = 0; i < 4; i++) {
+            int offset = (start + i) << 2;
+            int count = (int) ((table[indexOf(hash, i)] >>> offset) & 0xfL);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    void increment(int hash) {
+        int start = (hash & 3) << 2;
+        boolean added = false;
+        for (int i = 0; i < 4; i++) {
+            int index = indexOf(hash, i);
+            int offset = (start + i) << 2;
+            long mask = 0xfL << offset;
+            if ((table[index] & mask) != mask) {
+                table[index] += 1L << offset;
+                added = true;
+            }
+        }
+        if (added && ++size == sampleSize) {
+            reset();
+        }
+    }
+
+    private int indexOf(int hash, int i) {
+        long h = (SEEDS[i] + hash) * SEEDS[i];
+        h += h >>> 32;
+        return ((int) h) & tableMask;
+    }
+
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        size /= 2;
+    }
+}
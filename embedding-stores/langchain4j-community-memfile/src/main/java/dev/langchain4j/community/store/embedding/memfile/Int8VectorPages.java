@@ -0,0 +1,158 @@
+package dev.langchain4j.community.store.embedding.memfile;
+
+import static dev.langchain4j.community.store.embedding.memfile.VectorStorage.PAGE_MASK;
+import static dev.langchain4j.community.store.embedding.memfile.VectorStorage.PAGE_SHIFT;
+
+import dev.langchain4j.store.embedding.RelevanceScore;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * {@link QuantizedVectorPages} holding each vector as int8 codes, with a scale and an offset.
+ * <p>
+ * Each component {@code x} is mapped linearly from {@code [min, max]} of its vector to a code {@code c} in
+ * {@code [-128, 127]}, so that {@code x ~ scale * c + offset}. The dot product of a query and a vector is then
+ * estimated as {@code scale * sum(q * c) + offset * sum(q)}, with an error of at most {@code scale / 2} per
+ * component.
+ */
+final class Int8VectorPages extends QuantizedVectorPages {
+
+    private final byte[][] codes;
+    private final float[][] corrections; // the scale and the offset of each slot
+
+    Int8VectorPages(int dimension, Path directory) {
+        this(dimension, directory, new VectorFile(directory, dimension), new byte[0][], new float[0][]);
+    }
+
+    private Int8VectorPages(int dimension, Path directory, VectorFile file, byte[][] codes, float[][] corrections) {
+        super(dimension, directory, file);
+        this.codes = codes;
+        this.corrections = corrections;
+    }
+
+    @Override
+    public Int8VectorPages withCapacity(int capacity) {
+        byte[][] grownCodes = codes;
+        float[][] grownCorrections = corrections;
+        int pageCount = VectorPages.pageCount(capacity);
+        if (pageCount > codes.length) {
+            grownCodes = Arrays.copyOf(codes, pageCount);
+            grownCorrections = Arrays.copyOf(corrections, pageCount);
+        }
+        for (int page = 0; page < pageCount; page++) {
+            int allocatedLength = grownCodes[page] == null ? 0 : grownCodes[page].length;
+            int length = VectorPages.pageLength(page, capacity, allocatedLength, dimension);
+            if (grownCodes[page] == null || length != allocatedLength) {
+                if (grownCodes == codes) {
+                    grownCodes = codes.clone();
+                    grownCorrections = corrections.clone();
+                }
+                int slots = dimension == 0 ? 0 : length / dimension;
+                grownCodes[page] =
+                        grownCodes[page] == null ? new byte[length] : Arrays.copyOf(grownCodes[page], length);
+                grownCorrections[page] = grownCorrections[page] == null
+                        ? new float[slots * 2]
+                        : Arrays.copyOf(grownCorrections[page], slots * 2);
+            }
+        }
+        return grownCodes == codes
+                ? this
+                : new Int8VectorPages(dimension, directory, file, grownCodes, grownCorrections);
+    }
+
+    @Override
+    public Int8VectorPages emptyCopy() {
+        return new Int8VectorPages(dimension, directory);
+    }
+
+    @Override
+    public void set(int slot, float[] vector) {
+        float min = Float.POSITIVE_INFINITY;
+        float max = Float.NEGATIVE_INFINITY;
+        for (float component : vector) {
+            min = Math.min(min, component);
+            max = Math.max(max, component);
+        }
+        float scale = (max - min) / 255;
+        byte[] page = codes[slot >>> PAGE_SHIFT];
+        int offset = (slot & PAGE_MASK) * dimension;
+        for (int i = 0; i < dimension; i++) {
+            int code = scale == 0 ? 0 : Math.min(255, Math.max(0, Math.round((vector[i] - min) / scale)));
+            page[offset + i] = (byte) (code - 128);
+        }
+        float[] correction = corrections[slot >>> PAGE_SHIFT];
+        correction[(slot & PAGE_MASK) * 2] = scale;
+        correction[(slot & PAGE_MASK) * 2 + 1] = min + 128 * scale;
+        file.write(slot, vector);
+    }
+
+    @Override
+    public void copy(int slot, VectorPages to, int toSlot) {
+        Int8VectorPages target = (Int8VectorPages) to;
+        System.arraycopy(
+                codes[slot >>> PAGE_SHIFT],
+                (slot & PAGE_MASK) * dimension,
+                target.codes[toSlot >>> PAGE_SHIFT],
+                (toSlot & PAGE_MASK) * dimension,
+                dimension);
+        System.arraycopy(
+                corrections[slot >>> PAGE_SHIFT],
+                (slot & PAGE_MASK) * 2,
+                target.corrections[toSlot >>> PAGE_SHIFT],
+                (toSlot & PAGE_MASK) * 2,
+                2);
+        copyVector(slot, target, toSlot);
+    }
+
+    @Override
+    public void scan(
+            VectorStorage.Snapshot snapshot,
+            int from,
+            int to,
+            float[] query,
+            double minScore,
+            IntPredicate accepted,
+            TopK topK) {
+        double queryNorm = VectorStorage.norm(query);
+        float querySum = 0;
+        for (float component : query) {
+            querySum += component;
+        }
+        boolean anyRemoved = snapshot.hasRemovedSlots();
+        for (int slot = from; slot < to; slot++) {
+            if ((anyRemoved && snapshot.isRemoved(slot)) || (accepted != null && !accepted.test(slot))) {
+                continue;
+            }
+            float dotProduct = dotProduct(codes[slot >>> PAGE_SHIFT], (slot & PAGE_MASK) * dimension, query);
+            float[] correction = corrections[slot >>> PAGE_SHIFT];
+            int index = (slot & PAGE_MASK) * 2;
+            float estimate = correction[index] * dotProduct + correction[index + 1] * querySum;
+            double cosineSimilarity = estimate / Math.max(snapshot.norm(slot) * queryNorm, 1e-8);
+            double score = RelevanceScore.fromCosineSimilarity(cosineSimilarity);
+            if (score >= minScore) {
+                topK.offer(slot, score);
+            }
+        }
+    }
+
+    // Unrolled like ScalarVectorScorer, with independent accumulators
+    private float dotProduct(byte[] page, int offset, float[] query) {
+        float sum0 = 0;
+        float sum1 = 0;
+        float sum2 = 0;
+        float sum3 = 0;
+        int i = 0;
+        int upperBound = dimension & ~3;
+        for (; i < upperBound; i += 4) {
+            sum0 += page[offset + i] * query[i];
+            sum1 += page[offset + i + 1] * query[i + 1];
+            sum2 += page[offset + i + 2] * query[i + 2];
+            sum3 += page[offset + i + 3] * query[i + 3];
+        }
+        for (; i < dimension; i++) {
+            sum0 += page[offset + i] * query[i];
+        }
+        return sum0 + sum1 + sum2 + sum3;
+    }
+}
@@ -1,42 +1,43 @@
 package dev.langchain4j.community.store.embedding.memfile;
 
+import static dev.langchain4j.internal.Utils.getOrDefault;
 import static dev.langchain4j.internal.Utils.randomUUID;
+import static dev.langchain4j.internal.ValidationUtils.ensureBetween;
+import static dev.langchain4j.internal.ValidationUtils.ensureGreaterThanZero;
 import static dev.langchain4j.internal.ValidationUtils.ensureNotBlank;
 import static dev.langchain4j.internal.ValidationUtils.ensureNotEmpty;
 import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
-import static java.nio.file.StandardOpenOption.CREATE;
-import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
-import static java.util.Comparator.comparingDouble;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
 import dev.langchain4j.community.store.embedding.memfile.serialization.StoreSerializationStrategy;
-import dev.langchain4j.data.document.Metadata;
 import dev.langchain4j.data.embedding.Embedding;
 import dev.langchain4j.data.segment.TextSegment;
-import dev.langchain4j.store.embedding.CosineSimilarity;
 import dev.langchain4j.store.embedding.EmbeddingMatch;
 import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
 import dev.langchain4j.store.embedding.EmbeddingSearchResult;
 import dev.langchain4j.store.embedding.EmbeddingStore;
-import dev.langchain4j.store.embedding.RelevanceScore;
 import dev.langchain4j.store.embedding.filter.Filter;
 import java.io.IOException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Comparator;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.PriorityQueue;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntPredicate;
+import java.util.function.ToLongFunction;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -50,13 +51,18 @@ import org.slf4j.LoggerFactory;
  * <b>Design highlights:</b>
  *
  * <ul>
- * <li>Embeddings are kept fully in memory for fast similarity search.</li>
- * <li>Embedded content is serialized and stored as separate files on
- * disk, reducing memory footprint for large content.</li>
- * <li>Optional LRU cache keeps frequently accessed embedded content in
- * memory.</li>
+ * <li>Embeddings are kept fully in memory for fast similarity search. Vectors are stored
+ * contiguously, with their norms computed once when they are added, and scored with the
+ * Vector API when it is available (see below).</li>
+ * <li>Embedded content is serialized and stored on disk, as separate files or packed in
+ * segment files (see below), reducing memory footprint for large content.</li>
+ * <li>Optional cache keeps frequently accessed embedded content in
+ * memory (see below).</li>
  * <li>Supports adding, removing, and searching embeddings with optional
- * metadata filtering.</li>
+ * metadata filtering. The metadata of text segments is also indexed in memory,
+ * so filters are evaluated without reading chunk files.</li>
+ * <li>Embeddings are indexed by ID: adding an embedding with the ID of a stored one replaces it,
+ * and removing embeddings by ID costs the number of removed IDs, not the size of the store.</li>
  * </ul>
  *
  * <p>
@@ -68,38 +74,100 @@ import org.slf4j.LoggerFactory;
  * <li>Content is reloaded from disk on demand and optionally cached for
  * reuse.</li>
  * <li>Chunk files are named after the embedding ID</li>
+ * <li>With {@link ChunkStorageMode#PACKED}, chunks are instead appended to a few large segment files,
+ * which avoids creating one small file per chunk. Replaced and removed chunks are reclaimed by compacting
+ * segment files in the background.</li>
+ * <li>A {@link ChunkStorageMode#PACKED} chunk storage directory is locked by the store using it, until the store
+ * is {@link #close() closed}: a store restored or deserialized on the same directory can only be built once the
+ * store that wrote it is closed.</li>
  * </ul>
  *
  * <p>
  * <b>Thread safety:</b>
  *
  * <ul>
- * <li>The store uses concurrent collections and is safe for concurrent
- * reads/writes.</li>
+ * <li>The store is safe for concurrent reads/writes. Writes are serialized,
+ * searches run without locking on the entries present when they started.</li>
+ * <li>Removed embeddings are only marked as removed, so removals do not wait for searches nor copy the
+ * embeddings. Once the marked embeddings exceed the {@link Builder#compactionThreshold(Double) compaction
+ * threshold}, the remaining ones are copied in the background, without blocking searches nor writes.</li>
  * </ul>
  *
+ * <p>
+ * <b>Vector API:</b> when this module is built with the {@code vector-api} Maven profile and the
+ * JVM is started with {@code --add-modules jdk.incubator.vector}, vectors are scored with SIMD
+ * instructions. Otherwise, a scalar implementation is used.
+ *
+ * <p>
+ * <b>Chunk cache:</b> loaded chunks are cached up to {@link Builder#cacheSize(Integer) cacheSize} chunks, or up to
+ * {@link Builder#cacheCapacityInBytes(Long) cacheCapacityInBytes} bytes. The cache is split in segments locked
+ * independently, and admits a chunk in place of another only if it was accessed more frequently, so that a search
+ * reading many chunks once does not evict the frequently read ones. See {@link #chunkCacheStats()} for its hit rate.
+ *
+ * <p>
+ * <b>Parallel search:</b> when built with a {@link Builder#searchExecutor(Executor) search executor} or with
+ * {@link Builder#parallelSearch(Boolean) parallel search} enabled, stores holding at least
+ * {@link Builder#parallelSearchThreshold(Integer) parallelSearchThreshold} embeddings are scanned in partitions
+ * of {@link Builder#searchPartitionSize(Integer) searchPartitionSize} embeddings, concurrently. Each partition keeps
+ * its own best matches, which are merged once all partitions are scanned. Smaller stores are scanned by the
+ * calling thread, as splitting their scan would cost more than it saves.
+ *
+ * <p>
+ * <b>Vector quantization:</b> with a {@link Builder#vectorQuantization(VectorQuantization) vector quantization},
+ * vectors are kept in memory as int8 or binary codes, 4 to 32 times smaller than float32 values, and their
+ * full-precision values are kept in a memory-mapped file of the chunk storage directory. Searches scan the codes,
+ * then rescore the {@code maxResults x} {@link Builder#rescoreFactor(Integer) rescoreFactor} best candidates with
+ * their full-precision vectors, so that returned scores are exact. A match ranked beyond the candidates by the
+ * estimated scores can still be missed, the rescore factor trading search time for recall.
+ *
+ * <p>
+ * <b>Write-ahead log:</b> with a {@link Builder#writeAheadLogDirectory(Path) write-ahead log directory}, each
+ * addition and removal is appended to a log file of that directory before it is applied, so a write failing to be
+ * logged is not applied either, and the store is restored from it when it is built again, including after a crash.
+ * A store must be {@link #close() closed} before another one is built on the same directory. Concurrent writes
+ * share the forces of the log file to the disk, and a {@link Builder#writeAheadLogSyncInterval(Duration) sync
+ * interval} lets writes return before their record is forced. Once the log file exceeds
+ * {@link Builder#checkpointLogSize(Long) checkpointLogSize} bytes, a checkpoint of all entries is written in the
+ * background and replaces the log files, so that persisting a write costs the size of the write, not the size of the
+ * store. Chunks are written by the chunk storage, which does not force them to the disk.
+ *
  * @param <Embedded> The type of the embedded object associated with an
  *                   embedding. Commonly
  *                   {@link dev.langchain4j.data.segment.TextSegment}.
  */
-public class MemFileEmbeddingStore<Embedded> implements EmbeddingStore<Embedded> {
+public class MemFileEmbeddingStore<Embedded> implements EmbeddingStore<Embedded>, AutoCloseable {
 
     private static final Logger log = LoggerFactory.getLogger(MemFileEmbeddingStore.class);
-    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
-            .enable(SerializationFeature.INDENT_OUTPUT)
-            .disable(SerializationFeature.FAIL_ON_EMPTY_BEANS);
+    private static final int DEFAULT_SEARCH_PARTITION_SIZE = 32_768;
+    private static final int DEFAULT_PARALLEL_SEARCH_THRESHOLD = 4 * DEFAULT_SEARCH_PARTITION_SIZE;
+    private static final int DEFAULT_INT8_RESCORE_FACTOR = 4;
+    private static final int DEFAULT_BINARY_RESCORE_FACTOR = 10;
 
-    private final ConcurrentLinkedQueue<Entry<Embedded>> entries;
+    private final VectorStorage storage;
     private final Path chunkStorageDirectory;
-    private final Map<String, Embedded> chunkCache;
+    private final ChunkStorageMode chunkStorageMode;
+    private final ChunkStore<Embedded> chunkStore;
+    private final ChunkCache<Embedded> chunkCache;
     private final int cacheSize;
+    private final Long cacheCapacityInBytes;
+    private final Duration cacheRefreshAfterWrite;
+    private final Executor searchExecutor;
+    private final int searchPartitionSize;
+    private final int parallelSearchThreshold;
+    private final double compactionThreshold;
+    private final VectorQuantization vectorQuantization;
+    private final int rescoreFactor;
+    private final WriteAheadLog writeAheadLog;
+    private final Object writeLock = new Object();
+    private final Object checkpointLock = new Object();
+    private final AtomicBoolean checkpointScheduled = new AtomicBoolean();
 
     /**
      * Creates a new MemFileEmbeddingStore with default settings. Uses a temporary
      * directory for chunk storage and no caching.
      */
     public MemFileEmbeddingStore() {
-        this(createDefaultChunkDirectory(), 0);
+        this(new Builder<>(), Collections.emptyList());
     }
 
     /**
@@ -118,27 +186,115 @@ public class MemFileEmbeddingStore<Embedded> implements EmbeddingStore<Embedded>
      *
      * @param chunkStorageDirectory Directory where embedded content will be stored
      *                              as files
-     * @param cacheSize             Size of LRU cache for recently loaded chunks (0
+     * @param cacheSize             Maximum number of cached chunks (0
      *                              = no caching)
      */
     public MemFileEmbeddingStore(Path chunkStorageDirectory, int cacheSize) {
-        this.entries = new ConcurrentLinkedQueue<>();
-        this.chunkStorageDirectory = ensureNotNull(chunkStorageDirectory, "chunkStorageDirectory");
-        this.cacheSize = Math.max(0, cacheSize);
-        this.chunkCache = cacheSize > 0 ? createLRUCache(cacheSize) : new ConcurrentHashMap<>();
+        this(Collections.emptyList(), chunkStorageDirectory, cacheSize);
+    }
+
+    public MemFileEmbeddingStore(Collection<Entry<Embedded>> entries, Path chunkStorageDirectory, int cacheSize) {
+        this(entries, chunkStorageDirectory, cacheSize, ChunkStorageMode.FILE_PER_CHUNK);
+    }
+
+    public MemFileEmbeddingStore(
+            Collection<Entry<Embedded>> entries,
+            Path chunkStorageDirectory,
+            int cacheSize,
+            ChunkStorageMode chunkStorageMode) {
+        this(entries, chunkStorageDirectory, cacheSize, chunkStorageMode, VectorQuantization.NONE);
+    }
+
+    public MemFileEmbeddingStore(
+            Collection<Entry<Embedded>> entries,
+            Path chunkStorageDirectory,
+            int cacheSize,
+            ChunkStorageMode chunkStorageMode,
+            VectorQuantization vectorQuantization) {
+        this(
+                new Builder<Embedded>()
+                        .chunkStorageDirectory(ensureNotNull(chunkStorageDirectory, "chunkStorageDirectory"))
+                        .cacheSize(cacheSize)
+                        .chunkStorageMode(chunkStorageMode)
+                        .vectorQuantization(vectorQuantization),
+                entries);
+    }
+
+    private MemFileEmbeddingStore(Builder<Embedded> builder, Collection<Entry<Embedded>> entries) {
+        this.chunkStorageDirectory = builder.chunkStorageDirectory != null
+                ? builder.chunkStorageDirectory
+                : createDefaultChunkDirectory();
+        this.cacheSize = Math.max(0, getOrDefault(builder.cacheSize, 0));
+        this.cacheCapacityInBytes = builder.cacheCapacityInBytes;
+        this.cacheRefreshAfterWrite = builder.cacheRefreshAfterWrite;
+        this.searchExecutor = builder.searchExecutor != null
+                ? builder.searchExecutor
+                : Boolean.TRUE.equals(builder.parallelSearch) ? ForkJoinPool.commonPool() : null;
+        this.searchPartitionSize = ensureGreaterThanZero(
+                getOrDefault(builder.searchPartitionSize, DEFAULT_SEARCH_PARTITION_SIZE), "searchPartitionSize");
+        this.parallelSearchThreshold = ensureGreaterThanZero(
+                getOrDefault(builder.parallelSearchThreshold, DEFAULT_PARALLEL_SEARCH_THRESHOLD),
+                "parallelSearchThreshold");
+        this.chunkStorageMode = getOrDefault(builder.chunkStorageMode, ChunkStorageMode.FILE_PER_CHUNK);
+        this.compactionThreshold = ensureBetween(
+                getOrDefault(builder.compactionThreshold, VectorStorage.DEFAULT_COMPACTION_THRESHOLD),
+                0.0,
+                1.0,
+                "compactionThreshold");
+        this.vectorQuantization = getOrDefault(builder.vectorQuantization, VectorQuantization.NONE);
+        this.rescoreFactor = ensureGreaterThanZero(
+                getOrDefault(
+                        builder.rescoreFactor,
+                        vectorQuantization == VectorQuantization.BINARY
+                                ? DEFAULT_BINARY_RESCORE_FACTOR
+                                : DEFAULT_INT8_RESCORE_FACTOR),
+                "rescoreFactor");
+        this.storage = new VectorStorage(
+                ForkJoinPool.commonPool(),
+                compactionThreshold,
+                vectorQuantization,
+                chunkStorageDirectory.resolve("vectors"));
         createChunkStorageDirectory();
+        this.chunkStore = chunkStorageMode == ChunkStorageMode.PACKED
+                ? new PackedChunkStore<>(chunkStorageDirectory)
+                : new FileChunkStore<>(chunkStorageDirectory);
+        this.chunkCache = createChunkCache();
+        for (Entry<Embedded> entry : entries) {
+            // Searches filter on the metadata index. Only entries serialized before their metadata was part of
+            // the entry have to read it from their chunk
+            storage.add(
+                    entry.id,
+                    entry.embedding.vector(),
+                    entry.chunkFilePath,
+                    entry.metadataInChunk ? metadataOf(loadChunk(entry.chunkFilePath)) : entry.metadata);
+        }
+        if (builder.writeAheadLogDirectory != null) {
+            Duration syncInterval = getOrDefault(builder.writeAheadLogSyncInterval, Duration.ZERO);
+            this.writeAheadLog = new WriteAheadLog(
+                    builder.writeAheadLogDirectory,
+                    Math.max(0, syncInterval.toNanos()),
+                    getOrDefault(builder.checkpointLogSize, WriteAheadLog.DEFAULT_CHECKPOINT_LOG_SIZE));
+            try {
+                writeAheadLog.recover(storage);
+            } catch (RuntimeException e) {
+                storage.close();
+                chunkStore.close();
+                throw e;
+            }
+        } else {
+            this.writeAheadLog = null;
+        }
         log.debug(
-                "Created MemFileEmbeddingStore with storage directory: {} and cache size: {}",
+                "Created MemFileEmbeddingStore with storage directory: {}, cache size: {}, chunk storage mode: {}"
+                        + " and vector quantization: {}",
                 chunkStorageDirectory,
-                cacheSize);
+                cacheSize,
+                chunkStorageMode,
+                vectorQuantization);
     }
 
-    public MemFileEmbeddingStore(Collection<Entry<Embedded>> entries, Path chunkStorageDirectory, int cacheSize) {
-        this.entries = new ConcurrentLinkedQueue<>(entries);
-        this.chunkStorageDirectory = ensureNotNull(chunkStorageDirectory, "chunkStorageDirectory");
-        this.cacheSize = Math.max(0, cacheSize);
-        this.chunkCache = cacheSize > 0 ? createLRUCache(cacheSize) : new ConcurrentHashMap<>();
-        createChunkStorageDirectory();
+    public static <Embedded> Builder<Embedded> builder() {
+        return new Builder<>();
     }
 
     private static Path createDefaultChunkDirectory() {
@@ -149,19 +305,18 @@ public class MemFileEmbeddingStore<Embedded> implements EmbeddingStore<Embedded>
         }
     }
 
-    private static <K, V> Map<K, V> createLRUCache(int maxSize) {
-        // Calculate capacity so that (capacity * loadFactor) >= maxSize
-        // This avoids an unnecessary resize before reaching maxSize entries.
-        int capacity = (int) Math.ceil(maxSize / 0.75f) + 1;
-
-        Map<K, V> lru = new LinkedHashMap<K, V>(capacity, 0.75f, true) {
-            @Override
-            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
-                return size() > maxSize; // Evict eldest when size exceeds maxSize
-            }
-        };
-
-        return Collections.synchronizedMap(lru);
+    private ChunkCache<Embedded> createChunkCache() {
+        // The capacity in bytes takes precedence over the number of chunks
+        long maximumWeight = cacheCapacityInBytes != null ? Math.max(0, cacheCapacityInBytes) : cacheSize;
+        ToLongFunction<Embedded> weigher = cacheCapacityInBytes != null ? ChunkEncoding::estimateSize : embedded -> 1;
+        long refreshAfterWriteNanos = cacheRefreshAfterWrite != null ? cacheRefreshAfterWrite.toNanos() : 0;
+        return new ChunkCache<>(
+                maximumWeight,
+                weigher,
+                refreshAfterWriteNanos,
+                chunkStore::load,
+                ForkJoinPool.commonPool(),
+                System::nanoTime);
     }
 
     @Override
@@ -189,10 +344,18 @@ public class MemFileEmbeddingStore<Embedded> implements EmbeddingStore<Embedded>
 
         String chunkFilePath = null;
         if (embedded != null) {
-            chunkFilePath = saveChunkToFile(id, embedded);
+            chunkFilePath = chunkStore.save(id, embedded);
         }
 
-        entries.add(new Entry<>(id, embedding, chunkFilePath));
+        Map<String, Object> metadata = metadataOf(embedded);
+        String replacedChunkFilePath;
+        long logPosition;
+        synchronized (writeLock) {
+            logPosition = logAdd(id, embedding.vector(), chunkFilePath, metadata);
+            replacedChunkFilePath = storage.add(id, embedding.vector(), chunkFilePath, metadata);
+        }
+        persist(logPosition);
+        replaced(chunkFilePath, replacedChunkFilePath);
         log.debug("Added embedding with id: {} and chunk file: {}", id, chunkFilePath);
     }
 
@@ -211,25 +374,51 @@ public class MemFileEmbeddingStore<Embedded> implements EmbeddingStore<Embedded>
             throw new IllegalArgumentException("The list of ids and embeddings and embedded must have the same size");
         }
 
-        List<Entry<Embedded>> newEntries = new ArrayList<>(ids.size());
+        List<String> chunkFilePaths = new ArrayList<>(ids.size());
 
         for (int i = 0; i < ids.size(); i++) {
-            String id = ids.get(i);
-            Embedding embedding = embeddings.get(i);
+            String id = ensureNotBlank(ids.get(i), "id");
+            ensureNotNull(embeddings.get(i), "embedding");
             Embedded embeddedContent = embedded.get(i);
 
             String chunkFilePath = null;
             if (embeddedContent != null) {
-                chunkFilePath = saveChunkToFile(id, embeddedContent);
+                chunkFilePath = chunkStore.save(id, embeddedContent);
             }
+            chunkFilePaths.add(chunkFilePath);
+        }
 
-            newEntries.add(new Entry<>(id, embedding, chunkFilePath));
+        String[] replacedChunkFilePaths = new String[ids.size()];
+        long logPosition = 0;
+        synchronized (writeLock) {
+            for (int i = 0; i < ids.size(); i++) {
+                float[] vector = embeddings.get(i).vector();
+                Map<String, Object> metadata = metadataOf(embedded.get(i));
+                logPosition = logAdd(ids.get(i), vector, chunkFilePaths.get(i), metadata);
+                replacedChunkFilePaths[i] = storage.add(ids.get(i), vector, chunkFilePaths.get(i), metadata);
+            }
+        }
+        persist(logPosition);
+        for (int i = 0; i < ids.size(); i++) {
+            replaced(chunkFilePaths.get(i), replacedChunkFilePaths[i]);
         }
-        add(newEntries);
     }
 
     private List<String> add(List<Entry<Embedded>> newEntries) {
-        entries.addAll(newEntries);
+        String[] replacedChunkFilePaths = new String[newEntries.size()];
+        long logPosition = 0;
+        synchronized (writeLock) {
+            for (int i = 0; i < newEntries.size(); i++) {
+                Entry<Embedded> entry = newEntries.get(i);
+                float[] vector = entry.embedding.vector();
+                logPosition = logAdd(entry.id, vector, entry.chunkFilePath, null);
+                replacedChunkFilePaths[i] = storage.add(entry.id, vector, entry.chunkFilePath, null);
+            }
+        }
+        persist(logPosition);
+        for (int i = 0; i < newEntries.size(); i++) {
+            replaced(newEntries.get(i).chunkFilePath, replacedChunkFilePaths[i]);
+        }
 
         return newEntries.stream().map(entry -> entry.id).collect(ArrayList::new, ArrayList::add, ArrayList::addAll);
     }
@@ -238,107 +427,310 @@ public class MemFileEmbeddingStore<Embedded> implements EmbeddingStore<Embedded>
     public void removeAll(Collection<String> ids) {
         ensureNotEmpty(ids, "ids");
 
-        entries.removeIf(entry -> {
-            if (ids.contains(entry.id)) {
-                deleteChunkFile(entry.chunkFilePath);
-                chunkCache.remove(entry.id);
-                return true;
-            }
-            return false;
-        });
-        log.debug("Removed {} embeddings", ids.size());
+        String[] removedChunkFilePaths;
+        long logPosition;
+        synchronized (writeLock) {
+            logPosition = writeAheadLog != null ? writeAheadLog.appendRemove(ids) : 0;
+            removedChunkFilePaths = storage.remove(ids);
+        }
+        persist(logPosition);
+        deleteChunks(removedChunkFilePaths);
+        log.debug("Removed {} embeddings", removedChunkFilePaths.length);
     }
 
     @Override
     public void removeAll(Filter filter) {
         ensureNotNull(filter, "filter");
 
-        entries.removeIf(entry -> {
-            if (entry.chunkFilePath != null) {
-                Embedded embedded = loadChunkFromFile(entry.chunkFilePath);
-                if (embedded instanceof TextSegment) {
-                    boolean matches = filter.test(((TextSegment) embedded).metadata());
-                    if (matches) {
-                        deleteChunkFile(entry.chunkFilePath);
-                        chunkCache.remove(entry.id);
-                    }
-                    return matches;
+        // The removed entries are logged by ID, filters are not serializable
+        List<String> removedIds = new ArrayList<>();
+        String[] removedChunkFilePaths;
+        long logPosition;
+        synchronized (writeLock) {
+            VectorStorage.Snapshot snapshot = storage.snapshot();
+            BitSet matching = snapshot.metadata().matching(filter, snapshot.size());
+            for (int slot = matching.nextSetBit(0); slot >= 0; slot = matching.nextSetBit(slot + 1)) {
+                if (!snapshot.isRemoved(slot)) {
+                    removedIds.add(snapshot.id(slot));
                 }
             }
-            return false;
-        });
-        log.debug("Removed embeddings matching filter");
+            logPosition = writeAheadLog != null ? writeAheadLog.appendRemove(removedIds) : 0;
+            removedChunkFilePaths = storage.remove(removedIds);
+        }
+        persist(logPosition);
+        deleteChunks(removedChunkFilePaths);
+        log.debug("Removed {} embeddings matching filter", removedChunkFilePaths.length);
     }
 
     @Override
     public void removeAll() {
-        // Delete all chunk files
-        for (Entry<Embedded> entry : entries) {
-            deleteChunkFile(entry.chunkFilePath);
+        String[] removedChunkFilePaths;
+        long logPosition;
+        synchronized (writeLock) {
+            logPosition = writeAheadLog != null ? writeAheadLog.appendClear() : 0;
+            removedChunkFilePaths = storage.clear();
         }
-        entries.clear();
-        chunkCache.clear();
+        persist(logPosition);
+        // Delete all chunk files
+        deleteChunks(removedChunkFilePaths);
+        chunkCache.invalidateAll();
         log.debug("Removed all embeddings and chunk files");
     }
 
     @Override
     public EmbeddingSearchResult<Embedded> search(EmbeddingSearchRequest embeddingSearchRequest) {
-        Comparator<EmbeddingMatch<Embedded>> comparator = comparingDouble(EmbeddingMatch::score);
-        PriorityQueue<EmbeddingMatch<Embedded>> matches = new PriorityQueue<>(comparator);
-
-        Filter filter = embeddingSearchRequest.filter();
+        VectorStorage.Snapshot snapshot = storage.snapshot();
+        if (snapshot.liveCount() == 0) {
+            return new EmbeddingSearchResult<>(new ArrayList<>());
+        }
 
-        for (Entry<Embedded> entry : entries) {
-            Embedded embedded = null;
-
-            // Load embedded content from file if needed for filtering
-            if (filter != null && entry.chunkFilePath != null) {
-                embedded = loadChunkFromFile(entry.chunkFilePath);
-                if (embedded instanceof TextSegment) {
-                    Metadata metadata = ((TextSegment) embedded).metadata();
-                    if (!filter.test(metadata)) {
-                        continue;
-                    }
-                }
-            }
+        float[] query = embeddingSearchRequest.queryEmbedding().vector();
+        if (query.length != snapshot.dimension()) {
+            throw new IllegalArgumentException("Length of query vector " + query.length
+                    + " does not match the dimension " + snapshot.dimension() + " of the stored embeddings");
+        }
 
-            double cosineSimilarity =
-                    CosineSimilarity.between(entry.embedding, embeddingSearchRequest.queryEmbedding());
-            double score = RelevanceScore.fromCosineSimilarity(cosineSimilarity);
+        Filter filter = embeddingSearchRequest.filter();
+        IntPredicate accepted = null;
+        if (filter != null) {
+            // Filters are evaluated on the metadata index, entries without a text segment are not filtered out
+            MetadataIndex.View metadata = snapshot.metadata();
+            BitSet matching = metadata.matching(filter, snapshot.size());
+            accepted = slot -> matching.get(slot) || !metadata.hasMetadata(slot);
+        }
 
-            if (score >= embeddingSearchRequest.minScore()) {
-                // Load embedded content if not already loaded
-                if (embedded == null && entry.chunkFilePath != null) {
-                    embedded = loadChunkFromFile(entry.chunkFilePath);
-                }
+        // Only (slot, score) pairs are tracked during the scan, embedded content is loaded for the best ones
+        double minScore = embeddingSearchRequest.minScore();
+        int maxResults = embeddingSearchRequest.maxResults();
+        TopK topK;
+        if (snapshot.exactScores()) {
+            topK = scan(snapshot, query, minScore, accepted, maxResults);
+        } else {
+            // Estimated scores only select the candidates, the minimum score applies to their exact scores
+            int candidates = (int) Math.min((long) maxResults * rescoreFactor, Integer.MAX_VALUE);
+            topK = rescore(snapshot, query, scan(snapshot, query, 0, accepted, candidates), minScore, maxResults);
+        }
 
-                matches.add(new EmbeddingMatch<>(score, entry.id, entry.embedding, embedded));
-                if (matches.size() > embeddingSearchRequest.maxResults()) {
-                    matches.poll();
-                }
-            }
+        int[] slots = topK.drainDescending();
+        String[] chunkFilePaths = new String[slots.length];
+        for (int rank = 0; rank < slots.length; rank++) {
+            chunkFilePaths[rank] = snapshot.chunkFilePath(slots[rank]);
         }
+        List<Embedded> chunks = loadChunks(chunkFilePaths);
 
-        List<EmbeddingMatch<Embedded>> result = new ArrayList<>(matches);
-        result.sort(comparator);
-        Collections.reverse(result);
+        List<EmbeddingMatch<Embedded>> result = new ArrayList<>(slots.length);
+        for (int rank = 0; rank < slots.length; rank++) {
+            int slot = slots[rank];
+            result.add(new EmbeddingMatch<>(
+                    topK.score(rank), snapshot.id(slot), Embedding.from(snapshot.vector(slot)), chunks.get(rank)));
+        }
 
         log.debug("Found {} matches for search request", result.size());
         return new EmbeddingSearchResult<>(result);
     }
 
+    private TopK scan(
+            VectorStorage.Snapshot snapshot, float[] query, double minScore, IntPredicate accepted, int maxResults) {
+        int size = snapshot.size();
+        int capacity = Math.min(maxResults, size);
+        if (searchExecutor == null || size < parallelSearchThreshold) {
+            TopK topK = new TopK(capacity);
+            snapshot.scan(0, size, query, minScore, accepted, topK);
+            return topK;
+        }
+
+        List<CompletableFuture<TopK>> partitions = new ArrayList<>();
+        for (int from = searchPartitionSize; from < size; from += searchPartitionSize) {
+            int partitionFrom = from;
+            int partitionTo = Math.min(size, from + searchPartitionSize);
+            partitions.add(CompletableFuture.supplyAsync(
+                    () -> {
+                        TopK partitionTopK = new TopK(capacity);
+                        snapshot.scan(partitionFrom, partitionTo, query, minScore, accepted, partitionTopK);
+                        return partitionTopK;
+                    },
+                    searchExecutor));
+        }
+
+        // The calling thread scans the first partition while the executor scans the others
+        TopK topK = new TopK(capacity);
+        snapshot.scan(0, Math.min(size, searchPartitionSize), query, minScore, accepted, topK);
+        for (CompletableFuture<TopK> partition : partitions) {
+            topK.offerAll(join(partition));
+        }
+        log.debug("Scanned {} embeddings in {} partitions", size, partitions.size() + 1);
+        return topK;
+    }
+
+    private static TopK rescore(
+            VectorStorage.Snapshot snapshot, float[] query, TopK candidates, double minScore, int maxResults) {
+        TopK topK = new TopK(Math.min(maxResults, candidates.size()));
+        for (int slot : candidates.drainDescending()) {
+            double score = snapshot.score(slot, query);
+            if (score >= minScore) {
+                topK.offer(slot, score);
+            }
+        }
+        return topK;
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+
     /**
      * Configures the chunk storage base directory.
+     * With {@link ChunkStorageMode#PACKED}, the directory can't be the one of an open store.
      *
      * @param chunkStorageDirectory New directory for storing chunk files
      * @return A new MemFileEmbeddingStore instance with the specified directory
      */
     public MemFileEmbeddingStore<Embedded> withChunkStorageDirectory(Path chunkStorageDirectory) {
-        return new MemFileEmbeddingStore<>(entries, chunkStorageDirectory, cacheSize);
+        MemFileEmbeddingStore<Embedded> store = new Builder<Embedded>()
+                .chunkStorageDirectory(ensureNotNull(chunkStorageDirectory, "chunkStorageDirectory"))
+                .cacheSize(cacheSize)
+                .cacheCapacityInBytes(cacheCapacityInBytes)
+                .cacheRefreshAfterWrite(cacheRefreshAfterWrite)
+                .chunkStorageMode(chunkStorageMode)
+                .searchExecutor(searchExecutor)
+                .searchPartitionSize(searchPartitionSize)
+                .parallelSearchThreshold(parallelSearchThreshold)
+                .compactionThreshold(compactionThreshold)
+                .vectorQuantization(vectorQuantization)
+                .rescoreFactor(rescoreFactor)
+                .build();
+        VectorStorage.Snapshot snapshot = storage.snapshot();
+        for (int slot = 0; slot < snapshot.size(); slot++) {
+            if (snapshot.isRemoved(slot)) {
+                continue;
+            }
+            store.storage.add(
+                    snapshot.id(slot),
+                    snapshot.vector(slot),
+                    snapshot.chunkFilePath(slot),
+                    snapshot.metadata().metadata(slot));
+        }
+        return store;
+    }
+
+    /**
+     * Writes a checkpoint of all entries to the {@link Builder#writeAheadLogDirectory(Path) write-ahead log
+     * directory}, and deletes the log files it replaces. Checkpoints are also written in the background, once the
+     * log file exceeds {@link Builder#checkpointLogSize(Long) checkpointLogSize} bytes. Writes are not blocked
+     * while the checkpoint is written. Does nothing when the store has no write-ahead log.
+     */
+    public void checkpoint() {
+        if (writeAheadLog == null) {
+            return;
+        }
+        synchronized (checkpointLock) {
+            VectorStorage.Snapshot snapshot;
+            int logNumber;
+            synchronized (writeLock) {
+                // the snapshot holds the writes of the log files before the new one
+                snapshot = storage.snapshot();
+                logNumber = writeAheadLog.rotate();
+            }
+            writeAheadLog.writeCheckpoint(
+                    logNumber,
+                    channel -> BinarySnapshot.write(
+                            snapshot, chunkStorageDirectory, cacheSize, chunkStorageMode, vectorQuantization, channel));
+        }
+    }
+
+    /**
+     * Forces the records of the write-ahead log to the disk, including those waiting for the sync interval, and
+     * closes its file. Closes the files held open by the chunk storage, deletes the file of full-precision vectors
+     * when they are quantized, and releases the lock on a {@link ChunkStorageMode#PACKED} chunk storage directory.
+     * The store can't be used afterward.
+     */
+    @Override
+    public void close() {
+        if (writeAheadLog != null) {
+            synchronized (checkpointLock) {
+                writeAheadLog.close();
+            }
+        }
+        storage.close();
+        chunkStore.close();
+        log.debug("Closed MemFileEmbeddingStore with storage directory: {}", chunkStorageDirectory);
+    }
+
+    /**
+     * @return the statistics of the cache of loaded chunks, counted since this store was created.
+     */
+    public ChunkCacheStats chunkCacheStats() {
+        return chunkCache.stats();
     }
 
     public MemFileStoreData<Embedded> memFileStoreData() {
-        return new MemFileStoreData<>(entries, chunkStorageDirectory.toString(), cacheSize);
+        return new MemFileStoreData<>(
+                entries(), chunkStorageDirectory.toString(), cacheSize, chunkStorageMode, vectorQuantization);
+    }
+
+    /**
+     * Writes the entries and the configuration of this store in a binary format, used by
+     * {@link dev.langchain4j.community.store.embedding.memfile.serialization.BinaryStoreSerializationStrategy}.
+     * Unlike {@link #memFileStoreData()}, vectors are written directly from the storage of the store.
+     *
+     * @param channel the channel to write to, which is not closed
+     * @throws IOException if writing to the channel fails
+     * @see #readBinarySnapshot(ReadableByteChannel)
+     */
+    public void writeBinarySnapshot(WritableByteChannel channel) throws IOException {
+        BinarySnapshot.write(
+                storage.snapshot(), chunkStorageDirectory, cacheSize, chunkStorageMode, vectorQuantization, channel);
+    }
+
+    /**
+     * Creates a store from a binary snapshot written by {@link #writeBinarySnapshot(WritableByteChannel)}.
+     * When the channel is a {@link java.nio.channels.FileChannel}, the vectors are read from a memory mapping of
+     * the file. The metadata of text segments is part of the snapshot, chunks are not read.
+     * With {@link ChunkStorageMode#PACKED}, the store that wrote the snapshot has to be closed first.
+     *
+     * @param channel the channel to read from, which is not closed
+     * @return the restored store
+     * @throws IOException if reading from the channel fails or if it does not contain a binary snapshot
+     */
+    public static <Embedded> MemFileEmbeddingStore<Embedded> readBinarySnapshot(ReadableByteChannel channel)
+            throws IOException {
+        BinarySnapshot snapshot = BinarySnapshot.read(channel);
+        MemFileEmbeddingStore<Embedded> store = new Builder<Embedded>()
+                .chunkStorageDirectory(snapshot.chunkStorageDirectory())
+                .cacheSize(snapshot.cacheSize())
+                .chunkStorageMode(snapshot.chunkStorageMode())
+                .vectorQuantization(snapshot.vectorQuantization())
+                .build();
+        try {
+            snapshot.restoreInto(store.storage);
+        } catch (IOException | RuntimeException e) {
+            store.close();
+            throw e;
+        }
+        return store;
+    }
+
+    private List<Entry<Embedded>> entries() {
+        VectorStorage.Snapshot snapshot = storage.snapshot();
+        List<Entry<Embedded>> entries = new ArrayList<>(snapshot.liveCount());
+        for (int slot = 0; slot < snapshot.size(); slot++) {
+            if (snapshot.isRemoved(slot)) {
+                continue;
+            }
+            entries.add(new Entry<>(
+                    snapshot.id(slot),
+                    Embedding.from(snapshot.vector(slot)),
+                    snapshot.chunkFilePath(slot),
+                    snapshot.metadata().metadata(slot)));
+        }
+        return entries;
     }
 
     /**
@@ -485,6 +877,7 @@ public class MemFileEmbeddingStore<Embedded> implements EmbeddingStore<Embedded>
      * the chunk files in the original chunk storage directory. Therefore, the chunk storage
      * directory and its files must be accessible and unchanged for the deserialized store
      * to function properly.
+     * With {@link ChunkStorageMode#PACKED}, the original store has to be {@link #close() closed} first.
      *
      *
      * <p>
@@ -545,6 +938,7 @@ public class MemFileEmbeddingStore<Embedded> implements EmbeddingStore<Embedded>
      * <li>The chunk storage directory exists and is accessible</li>
      * <li>All referenced chunk files are present and unchanged</li>
      * <li>The application has read permissions for the chunk directory and files</li>
+     * <li>With {@link ChunkStorageMode#PACKED}, the store using the directory is {@link #close() closed}</li>
      * </ul>
      *
      *
@@ -628,134 +1022,129 @@ public class MemFileEmbeddingStore<Embedded> implements EmbeddingStore<Embedded>
     }
 
     /**
-     * Saves the provided embedded content to a chunk file within the configured
-     * {@link #chunkStorageDirectory}.
-     * <p>
-     * The content is serialized to JSON using the following rules:
-     * <ul>
-     * <li>If the object is a {@link dev.langchain4j.data.segment.TextSegment}, it
-     * is stored in a custom {@link ChunkData} JSON format containing the text and
-     * its optional metadata (as a map).</li>
-     * <li>For all other object types, default Jackson serialization is used.</li>
-     * </ul>
-     *
-     *
-     * <p>
-     * The file is named using the given {@code id} followed by a {@code .json}
-     * extension. If a file with the same name already exists, it is replaced.
-     *
-     *
-     * <p>
-     * On successful save, the method returns the relative filename (not the full
-     * path), which can later be used to reload the content via
-     * {@link #loadChunkFromFile(String)}.
-     *
-     * @param id       the unique identifier for the embedded content; must not be
-     *                 blank
-     * @param embedded the embedded content to save; must not be {@code null}
-     * @return the relative filename of the saved chunk (e.g.,
-     * {@code &lt;id&gt;.json})
-     * @throws RuntimeException if the file cannot be written
-     */
-    private String saveChunkToFile(String id, Embedded embedded) {
-        try {
-            String fileName = id + ".json";
-            Path filePath = chunkStorageDirectory.resolve(fileName);
-
-            String content;
-            if (embedded instanceof TextSegment) {
-                // Custom serialization for TextSegment
-                TextSegment textSegment = (TextSegment) embedded;
-                ChunkData chunkData = new ChunkData(
-                        textSegment.text(),
-                        textSegment.metadata() != null ? textSegment.metadata().toMap() : null);
-                content = OBJECT_MAPPER.writeValueAsString(chunkData);
-            } else {
-                // For other types, try default serialization
-                content = OBJECT_MAPPER.writeValueAsString(embedded);
-            }
-
-            Files.write(filePath, content.getBytes(), CREATE, TRUNCATE_EXISTING);
-            log.debug("Saved chunk to file: {}", filePath);
-            return fileName;
-        } catch (IOException e) {
-            log.error("Failed to save chunk to file for id: {}", id, e);
-            throw new RuntimeException("Failed to save chunk to file", e);
-        }
-    }
-
-    /**
-     * Loads the embedded content associated with a given chunk file.
-     * <p>
-     * The chunk file is expected to be located within the configured
-     * {@link #chunkStorageDirectory} and contain JSON-serialized data. This method
-     * will first attempt to retrieve the content from the in-memory cache before
-     * reading from disk.
+     * Loads the embedded content referenced by an entry, from the cache or from the {@link ChunkStore}.
      *
-     * @param chunkFilePath the relative path (filename) of the chunk file within
-     *                      the chunk storage directory; may be {@code null}
+     * @param chunkFilePath the reference of the chunk in the chunk store; may be {@code null}
      * @return the loaded embedded object, or {@code null} if not found or if an
      * error occurs during deserialization
      */
-    @SuppressWarnings("unchecked")
-    private Embedded loadChunkFromFile(String chunkFilePath) {
+    private Embedded loadChunk(String chunkFilePath) {
         if (chunkFilePath == null) {
             return null;
         }
 
         // Check cache first
-        String cacheKey = chunkFilePath;
-        Embedded cached = chunkCache.get(cacheKey);
+        Embedded cached = chunkCache.get(chunkFilePath);
         if (cached != null) {
             log.debug("Loaded chunk from cache: {}", chunkFilePath);
             return cached;
         }
 
-        try {
-            Path filePath = chunkStorageDirectory.resolve(chunkFilePath);
-            if (!Files.exists(filePath)) {
-                log.warn("Chunk file does not exist: {}", filePath);
-                return null;
-            }
+        Embedded embedded = chunkStore.load(chunkFilePath);
+        if (embedded != null) {
+            chunkCache.put(chunkFilePath, embedded);
+        }
+        return embedded;
+    }
 
-            String content = Files.readString(filePath);
+    /**
+     * Loads the embedded content referenced by several entries, like {@link #loadChunk(String)}. The chunks missing
+     * from the cache are loaded together, see {@link ChunkStore#loadAll(List)}.
+     *
+     * @param chunkFilePaths the references of the chunks; elements may be {@code null}
+     * @return the loaded embedded objects, in the order of {@code chunkFilePaths}
+     */
+    private List<Embedded> loadChunks(String[] chunkFilePaths) {
+        List<Embedded> chunks = new ArrayList<>(Collections.nCopies(chunkFilePaths.length, null));
+        List<Integer> misses = new ArrayList<>();
+        List<String> missingChunkFilePaths = new ArrayList<>();
+        for (int i = 0; i < chunkFilePaths.length; i++) {
+            String chunkFilePath = chunkFilePaths[i];
+            if (chunkFilePath == null) {
+                continue;
+            }
+            Embedded cached = chunkCache.get(chunkFilePath);
+            if (cached != null) {
+                log.debug("Loaded chunk from cache: {}", chunkFilePath);
+                chunks.set(i, cached);
+            } else {
+                misses.add(i);
+                missingChunkFilePaths.add(chunkFilePath);
+            }
+        }
 
-            // Try to deserialize as ChunkData first (for TextSegment)
-            try {
-                ChunkData chunkData = OBJECT_MAPPER.readValue(content, ChunkData.class);
-                Metadata metadata = chunkData.metadata != null ? Metadata.from(chunkData.metadata) : null;
-                Embedded embedded = (Embedded) TextSegment.from(chunkData.text, metadata);
-
-                // Add to cache
-                chunkCache.put(cacheKey, embedded);
-                log.debug("Loaded chunk from file: {}", filePath);
-                return embedded;
-            } catch (Exception e) {
-                // Fall back to direct deserialization for other types
-                Embedded embedded = (Embedded) OBJECT_MAPPER.readValue(content, TextSegment.class);
-
-                // Add to cache
-                chunkCache.put(cacheKey, embedded);
-                log.debug("Loaded chunk from file (fallback): {}", filePath);
-                return embedded;
+        if (!misses.isEmpty()) {
+            List<Embedded> loaded = chunkStore.loadAll(missingChunkFilePaths);
+            for (int i = 0; i < misses.size(); i++) {
+                Embedded embedded = loaded.get(i);
+                if (embedded != null) {
+                    chunkCache.put(missingChunkFilePaths.get(i), embedded);
+                    chunks.set(misses.get(i), embedded);
+                }
             }
-        } catch (IOException e) {
-            log.error("Failed to load chunk from file: {}", chunkFilePath, e);
-            return null;
         }
+        return chunks;
     }
 
-    private void deleteChunkFile(String chunkFilePath) {
-        if (chunkFilePath == null) {
+    // guarded by writeLock, called before the addition is applied
+    private long logAdd(String id, float[] vector, String chunkFilePath, Map<String, Object> metadata) {
+        if (writeAheadLog == null) {
+            return 0;
+        }
+        // a logged addition that can't be applied would fail the recovery
+        storage.ensureDimension(vector);
+        return writeAheadLog.appendAdd(id, vector, chunkFilePath, metadata);
+    }
+
+    /**
+     * Called once a write was logged and applied, without holding the write lock, so that concurrent writes
+     * share the forces of the log file.
+     */
+    private void persist(long logPosition) {
+        if (writeAheadLog == null) {
             return;
         }
+        writeAheadLog.sync(logPosition);
+        if (writeAheadLog.checkpointDue() && checkpointScheduled.compareAndSet(false, true)) {
+            ForkJoinPool.commonPool().execute(() -> {
+                try {
+                    checkpoint();
+                } catch (RuntimeException e) {
+                    log.error("Failed to write checkpoint of MemFileEmbeddingStore", e);
+                } finally {
+                    checkpointScheduled.set(false);
+                }
+            });
+        }
+    }
 
-        try {
-            Path filePath = chunkStorageDirectory.resolve(chunkFilePath);
-            Files.deleteIfExists(filePath);
-            log.debug("Deleted chunk file: {}", filePath);
-        } catch (IOException e) {
-            log.warn("Failed to delete chunk file: {}", chunkFilePath, e);
+    private static Map<String, Object> metadataOf(Object embedded) {
+        return embedded instanceof TextSegment textSegment ? textSegment.metadata().toMap() : null;
+    }
+
+    /**
+     * Called once an entry was added, with the chunk it replaced if its ID was already stored.
+     */
+    private void replaced(String chunkFilePath, String replacedChunkFilePath) {
+        if (chunkFilePath != null) {
+            // The chunk was saved over the chunk of the replaced entry, which may be cached
+            chunkCache.invalidate(chunkFilePath);
+        }
+        if (replacedChunkFilePath != null && !replacedChunkFilePath.equals(chunkFilePath)) {
+            deleteChunks(new String[] {replacedChunkFilePath});
+        }
+    }
+
+    private void deleteChunks(String[] chunkFilePaths) {
+        List<String> deleted = new ArrayList<>(chunkFilePaths.length);
+        for (String chunkFilePath : chunkFilePaths) {
+            if (chunkFilePath != null) {
+                deleted.add(chunkFilePath);
+                chunkCache.invalidate(chunkFilePath);
+            }
+        }
+        if (!deleted.isEmpty()) {
+            chunkStore.delete(deleted);
         }
     }
 
@@ -767,21 +1156,192 @@ public class MemFileEmbeddingStore<Embedded> implements EmbeddingStore<Embedded>
         }
     }
 
+    public static class Builder<Embedded> {
+
+        private Path chunkStorageDirectory;
+        private Integer cacheSize;
+        private Long cacheCapacityInBytes;
+        private Duration cacheRefreshAfterWrite;
+        private ChunkStorageMode chunkStorageMode;
+        private Executor searchExecutor;
+        private Boolean parallelSearch;
+        private Integer searchPartitionSize;
+        private Integer parallelSearchThreshold;
+        private Double compactionThreshold;
+        private VectorQuantization vectorQuantization;
+        private Integer rescoreFactor;
+        private Path writeAheadLogDirectory;
+        private Duration writeAheadLogSyncInterval;
+        private Long checkpointLogSize;
+
+        Builder() {}
+
+        /**
+         * Sets the directory where embedded content is stored as files. Defaults to a new temporary directory.
+         */
+        public Builder<Embedded> chunkStorageDirectory(Path chunkStorageDirectory) {
+            this.chunkStorageDirectory = chunkStorageDirectory;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of loaded chunks kept in the cache. Defaults to 0, no caching.
+         */
+        public Builder<Embedded> cacheSize(Integer cacheSize) {
+            this.cacheSize = cacheSize;
+            return this;
+        }
+
+        /**
+         * Sets the maximum size of the cache of loaded chunks, in bytes, as estimated from the length of their text
+         * and metadata. Optional, takes precedence over {@link #cacheSize(Integer)}. 0 disables the cache.
+         */
+        public Builder<Embedded> cacheCapacityInBytes(Long cacheCapacityInBytes) {
+            this.cacheCapacityInBytes = cacheCapacityInBytes;
+            return this;
+        }
+
+        /**
+         * Sets the age from which a cached chunk is reloaded from the chunk storage directory in the background
+         * when it is read, the cached chunk being returned meanwhile. Optional, cached chunks are not reloaded
+         * by default.
+         */
+        public Builder<Embedded> cacheRefreshAfterWrite(Duration cacheRefreshAfterWrite) {
+            this.cacheRefreshAfterWrite = cacheRefreshAfterWrite;
+            return this;
+        }
+
+        /**
+         * Sets how embedded content is laid out in the chunk storage directory.
+         * Defaults to {@link ChunkStorageMode#FILE_PER_CHUNK}.
+         */
+        public Builder<Embedded> chunkStorageMode(ChunkStorageMode chunkStorageMode) {
+            this.chunkStorageMode = chunkStorageMode;
+            return this;
+        }
+
+        /**
+         * Sets the executor scanning partitions of large stores concurrently. Optional, takes precedence over
+         * {@link #parallelSearch(Boolean)}.
+         */
+        public Builder<Embedded> searchExecutor(Executor searchExecutor) {
+            this.searchExecutor = searchExecutor;
+            return this;
+        }
+
+        /**
+         * Whether partitions of large stores are scanned concurrently in the common {@link ForkJoinPool}
+         * when no {@link #searchExecutor(Executor) search executor} is set. Defaults to {@code false}.
+         */
+        public Builder<Embedded> parallelSearch(Boolean parallelSearch) {
+            this.parallelSearch = parallelSearch;
+            return this;
+        }
+
+        /**
+         * Sets the number of embeddings scanned by each task of a parallel search. Defaults to 32768.
+         */
+        public Builder<Embedded> searchPartitionSize(Integer searchPartitionSize) {
+            this.searchPartitionSize = searchPartitionSize;
+            return this;
+        }
+
+        /**
+         * Sets the number of embeddings from which a store is searched in parallel. Defaults to 131072,
+         * smaller stores are scanned by the calling thread.
+         */
+        public Builder<Embedded> parallelSearchThreshold(Integer parallelSearchThreshold) {
+            this.parallelSearchThreshold = parallelSearchThreshold;
+            return this;
+        }
+
+        /**
+         * Sets the ratio of removed embeddings, among the stored ones, from which the storage of the embeddings
+         * is compacted in the background. Must be between 0 and 1. Defaults to 0.2.
+         */
+        public Builder<Embedded> compactionThreshold(Double compactionThreshold) {
+            this.compactionThreshold = compactionThreshold;
+            return this;
+        }
+
+        /**
+         * Sets how vectors are kept in memory and scanned by searches. Defaults to {@link VectorQuantization#NONE}.
+         */
+        public Builder<Embedded> vectorQuantization(VectorQuantization vectorQuantization) {
+            this.vectorQuantization = vectorQuantization;
+            return this;
+        }
+
+        /**
+         * Sets the number of candidates per requested result that a search rescores with their full-precision
+         * vectors, when vectors are quantized. Defaults to 4 with {@link VectorQuantization#INT8} and to 10 with
+         * {@link VectorQuantization#BINARY}.
+         */
+        public Builder<Embedded> rescoreFactor(Integer rescoreFactor) {
+            this.rescoreFactor = rescoreFactor;
+            return this;
+        }
+
+        /**
+         * Sets the directory of the write-ahead log of the store: its log files and checkpoints. When it holds the
+         * log of a store, the entries of that store are restored. Optional, writes are not logged by default.
+         * The directory must not be shared by two stores.
+         */
+        public Builder<Embedded> writeAheadLogDirectory(Path writeAheadLogDirectory) {
+            this.writeAheadLogDirectory = writeAheadLogDirectory;
+            return this;
+        }
+
+        /**
+         * Sets the interval between two forces of the write-ahead log file to the disk. Writes then return
+         * without waiting for it, and the writes of the last interval may be lost by a crash of the operating
+         * system, though not by a crash of the JVM. Defaults to 0: writes return once their record is forced.
+         */
+        public Builder<Embedded> writeAheadLogSyncInterval(Duration writeAheadLogSyncInterval) {
+            this.writeAheadLogSyncInterval = writeAheadLogSyncInterval;
+            return this;
+        }
+
+        /**
+         * Sets the size in bytes of the write-ahead log file from which a checkpoint of all entries is written in
+         * the background. 0 disables these checkpoints, see {@link MemFileEmbeddingStore#checkpoint()}.
+         * Defaults to 64 MiB.
+         */
+        public Builder<Embedded> checkpointLogSize(Long checkpointLogSize) {
+            this.checkpointLogSize = checkpointLogSize;
+            return this;
+        }
+
+        public MemFileEmbeddingStore<Embedded> build() {
+            return new MemFileEmbeddingStore<>(this, Collections.emptyList());
+        }
+    }
+
     public static class Entry<Embedded> {
         String id;
 
         Embedding embedding;
 
-        String chunkFilePath; // File path relative to chunk storage directory
+        String chunkFilePath; // File path relative to chunk storage directory, or ID of a packed chunk
+
+        Map<String, Object> metadata; // Metadata of the text segment, null for other embedded content
+
+        boolean metadataInChunk; // Set for entries serialized without their metadata, which is read from the chunk
+
+        Entry(String id, Embedding embedding, String chunkFilePath) {
+            this(id, embedding, chunkFilePath, null);
+        }
 
         @JsonCreator
         Entry(
                 @JsonProperty("id") String id,
                 @JsonProperty("embedding") Embedding embedding,
-                @JsonProperty("chunkFilePath") String chunkFilePath) {
+                @JsonProperty("chunkFilePath") String chunkFilePath,
+                @JsonProperty("metadata") Map<String, Object> metadata) {
             this.id = ensureNotBlank(id, "id");
             this.embedding = ensureNotNull(embedding, "embedding");
             this.chunkFilePath = chunkFilePath;
+            this.metadata = metadata;
         }
 
         @Override
@@ -791,12 +1351,13 @@ public class MemFileEmbeddingStore<Embedded> implements EmbeddingStore<Embedded>
             Entry<?> that = (Entry<?>) o;
             return Objects.equals(this.id, that.id)
                     && Objects.equals(this.embedding, that.embedding)
-                    && Objects.equals(this.chunkFilePath, that.chunkFilePath);
+                    && Objects.equals(this.chunkFilePath, that.chunkFilePath)
+                    && Objects.equals(this.metadata, that.metadata);
         }
 
         @Override
         public int hashCode() {
-            return Objects.hash(id, embedding, chunkFilePath);
+            return Objects.hash(id, embedding, chunkFilePath, metadata);
         }
 
         public String getId() {
@@ -810,6 +1371,10 @@ public class MemFileEmbeddingStore<Embedded> implements EmbeddingStore<Embedded>
         public String getChunkFilePath() {
             return chunkFilePath;
         }
+
+        public Map<String, Object> getMetadata() {
+            return metadata;
+        }
     }
 
     public static class MemFileStoreData<T> {
@@ -822,25 +1387,55 @@ public class MemFileEmbeddingStore<Embedded> implements EmbeddingStore<Embedded>
         @JsonProperty("cacheSize")
         int cacheSize;
 
+        @JsonProperty("chunkStorageMode")
+        ChunkStorageMode chunkStorageMode;
+
+        @JsonProperty("vectorQuantization")
+        VectorQuantization vectorQuantization;
+
+        // Written as true since entries hold their metadata
+        @JsonProperty("entryMetadata")
+        boolean entryMetadata = true;
+
         @JsonCreator
         MemFileStoreData(
                 @JsonProperty("entries") List<Entry<T>> entries,
                 @JsonProperty("chunkStorageDirectory") String chunkStorageDirectory,
-                @JsonProperty("cacheSize") int cacheSize) {
+                @JsonProperty("cacheSize") int cacheSize,
+                @JsonProperty("chunkStorageMode") ChunkStorageMode chunkStorageMode,
+                @JsonProperty("vectorQuantization") VectorQuantization vectorQuantization,
+                @JsonProperty("entryMetadata") Boolean entryMetadata) {
             this.entries = entries != null ? entries : new ArrayList<>();
+            // Data serialized before entries held their metadata has to read it from the chunks
+            if (!Boolean.TRUE.equals(entryMetadata)) {
+                for (Entry<T> entry : this.entries) {
+                    entry.metadataInChunk = true;
+                }
+            }
             this.chunkStorageDirectory = chunkStorageDirectory;
             this.cacheSize = cacheSize;
+            // Data serialized before chunk storage modes existed used chunk files
+            this.chunkStorageMode = getOrDefault(chunkStorageMode, ChunkStorageMode.FILE_PER_CHUNK);
+            // and did not quantize vectors
+            this.vectorQuantization = getOrDefault(vectorQuantization, VectorQuantization.NONE);
         }
 
         // Constructor for generic entries - converts to TextSegment entries
         @SuppressWarnings("unchecked")
-        MemFileStoreData(Collection<? extends Entry<?>> genericEntries, String chunkStorageDirectory, int cacheSize) {
+        MemFileStoreData(
+                Collection<? extends Entry<?>> genericEntries,
+                String chunkStorageDirectory,
+                int cacheSize,
+                ChunkStorageMode chunkStorageMode,
+                VectorQuantization vectorQuantization) {
             this.entries = new ArrayList<>();
             for (Entry<?> entry : genericEntries) {
                 this.entries.add((Entry<T>) entry);
             }
             this.chunkStorageDirectory = chunkStorageDirectory;
             this.cacheSize = cacheSize;
+            this.chunkStorageMode = chunkStorageMode;
+            this.vectorQuantization = vectorQuantization;
         }
 
         public List<Entry<T>> getEntries() {
@@ -854,6 +1449,14 @@ public class MemFileEmbeddingStore<Embedded> implements EmbeddingStore<Embedded>
         public int getCacheSize() {
             return cacheSize;
         }
+
+        public ChunkStorageMode getChunkStorageMode() {
+            return chunkStorageMode;
+        }
+
+        public VectorQuantization getVectorQuantization() {
+            return vectorQuantization;
+        }
     }
 
     // Helper class for TextSegment serialization
@@ -0,0 +1,234 @@
+package dev.langchain4j.community.store.embedding.memfile;
+
+import dev.langchain4j.data.document.Metadata;
+import dev.langchain4j.store.embedding.filter.Filter;
+import dev.langchain4j.store.embedding.filter.comparison.ContainsString;
+import dev.langchain4j.store.embedding.filter.comparison.IsEqualTo;
+import dev.langchain4j.store.embedding.filter.comparison.IsGreaterThan;
+import dev.langchain4j.store.embedding.filter.comparison.IsGreaterThanOrEqualTo;
+import dev.langchain4j.store.embedding.filter.comparison.IsIn;
+import dev.langchain4j.store.embedding.filter.comparison.IsLessThan;
+import dev.langchain4j.store.embedding.filter.comparison.IsLessThanOrEqualTo;
+import dev.langchain4j.store.embedding.filter.comparison.IsNotEqualTo;
+import dev.langchain4j.store.embedding.filter.comparison.IsNotIn;
+import dev.langchain4j.store.embedding.filter.logical.And;
+import dev.langchain4j.store.embedding.filter.logical.Not;
+import dev.langchain4j.store.embedding.filter.logical.Or;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The metadata of the entries of a {@link MemFileEmbeddingStore}, by slot, so that filters are evaluated
+ * without reading chunk files.
+ * <p>
+ * Each metadata key has a column holding, for every slot, the code of its value in a dictionary of the distinct
+ * values of the key. A comparison filter is then tested once per distinct value instead of once per entry,
+ * and the slots it matches are collected in a {@link BitSet}. {@link And}, {@link Or} and {@link Not} combine
+ * these bit sets. Other filters are tested against the metadata of each entry.
+ * <p>
+ * Entries without metadata, i.e. whose embedded content is not a {@code TextSegment}, are tracked separately:
+ * they are matched by no filter, and {@link MemFileEmbeddingStore} decides how they are searched.
+ * <p>
+ * This class is written by a single thread at a time. Its {@link View views} are immutable and safe to read
+ * concurrently with writes, for the same reasons as the snapshots of {@link VectorStorage}.
+ */
+final class MetadataIndex {
+
+    private static final int MISSING = -1;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Map<String, Column> columns = new LinkedHashMap<>();
+    private boolean[] present = new boolean[0];
+
+    /**
+     * @param metadata The metadata of the entry in the slot, {@code null} when it has none.
+     */
+    void set(int slot, Map<String, Object> metadata) {
+        if (slot >= present.length) {
+            present = Arrays.copyOf(present, Math.max(slot + 1, Math.max(INITIAL_CAPACITY, present.length * 2)));
+        }
+        present[slot] = metadata != null;
+        if (metadata == null) {
+            return;
+        }
+        metadata.forEach((key, value) -> {
+            if (value != null) {
+                columns.computeIfAbsent(key, Column::new).set(slot, value);
+            }
+        });
+    }
+
+    View view() {
+        Map<String, ColumnView> columnViews = new HashMap<>(columns.size() * 2);
+        columns.forEach((key, column) -> columnViews.put(key, column.view()));
+        return new View(present, columnViews);
+    }
+
+    private static final class Column {
+
+        private final String key;
+        private final Map<Object, Integer> codes = new HashMap<>();
+        private Object[] values = new Object[INITIAL_CAPACITY];
+        private int[] slotCodes = new int[0];
+
+        private Column(String key) {
+            this.key = key;
+        }
+
+        private void set(int slot, Object value) {
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = codes.size();
+                if (code == values.length) {
+                    values = Arrays.copyOf(values, values.length * 2);
+                }
+                values[code] = value;
+                codes.put(value, code);
+            }
+            if (slot >= slotCodes.length) {
+                int length = slotCodes.length;
+                slotCodes = Arrays.copyOf(slotCodes, Math.max(slot + 1, Math.max(INITIAL_CAPACITY, length * 2)));
+                Arrays.fill(slotCodes, length, slotCodes.length, MISSING);
+            }
+            slotCodes[slot] = code;
+        }
+
+        private ColumnView view() {
+            return new ColumnView(key, values, codes.size(), slotCodes);
+        }
+    }
+
+    private record ColumnView(String key, Object[] values, int valueCount, int[] slotCodes) {
+
+        private int code(int slot) {
+            return slot < slotCodes.length ? slotCodes[slot] : MISSING;
+        }
+    }
+
+    /**
+     * An immutable view of the metadata of the slots below the size of the snapshot it belongs to.
+     */
+    static final class View {
+
+        private final boolean[] present;
+        private final Map<String, ColumnView> columns;
+
+        private View(boolean[] present, Map<String, ColumnView> columns) {
+            this.present = present;
+            this.columns = columns;
+        }
+
+        boolean hasMetadata(int slot) {
+            return slot < present.length && present[slot];
+        }
+
+        /**
+         * @return the metadata of the slot, {@code null} when it has none.
+         */
+        Map<String, Object> metadata(int slot) {
+            if (!hasMetadata(slot)) {
+                return null;
+            }
+            Map<String, Object> metadata = new HashMap<>();
+            columns.forEach((key, column) -> {
+                int code = column.code(slot);
+                if (code != MISSING) {
+                    metadata.put(key, column.values[code]);
+                }
+            });
+            return metadata;
+        }
+
+        /**
+         * @return the slots in {@code [0, size)} having metadata matched by the filter.
+         */
+        BitSet matching(Filter filter, int size) {
+            if (filter instanceof And and) {
+                BitSet matching = matching(and.left(), size);
+                matching.and(matching(and.right(), size));
+                return matching;
+            } else if (filter instanceof Or or) {
+                BitSet matching = matching(or.left(), size);
+                matching.or(matching(or.right(), size));
+                return matching;
+            } else if (filter instanceof Not not) {
+                BitSet matching = withMetadata(size);
+                matching.andNot(matching(not.expression(), size));
+                return matching;
+            }
+
+            String key = keyOf(filter);
+            return key != null ? matchingValues(key, filter, size) : matchingEntries(filter, size);
+        }
+
+        private BitSet matchingValues(String key, Filter filter, int size) {
+            boolean acceptsMissing = filter.test(new Metadata());
+            ColumnView column = columns.get(key);
+            if (column == null) {
+                return acceptsMissing ? withMetadata(size) : new BitSet();
+            }
+
+            boolean[] accepted = new boolean[column.valueCount];
+            for (int code = 0; code < column.valueCount; code++) {
+                accepted[code] = filter.test(Metadata.from(Map.of(key, column.values[code])));
+            }
+            BitSet matching = new BitSet(size);
+            for (int slot = 0; slot < size; slot++) {
+                if (hasMetadata(slot)) {
+                    int code = column.code(slot);
+                    if (code == MISSING ? acceptsMissing : accepted[code]) {
+                        matching.set(slot);
+                    }
+                }
+            }
+            return matching;
+        }
+
+        private BitSet matchingEntries(Filter filter, int size) {
+            BitSet matching = new BitSet(size);
+            for (int slot = 0; slot < size; slot++) {
+                if (hasMetadata(slot) && filter.test(Metadata.from(metadata(slot)))) {
+                    matching.set(slot);
+                }
+            }
+            return matching;
+        }
+
+        private BitSet withMetadata(int size) {
+            BitSet withMetadata = new BitSet(size);
+            for (int slot = 0; slot < size; slot++) {
+                if (hasMetadata(slot)) {
+                    withMetadata.set(slot);
+                }
+            }
+            return withMetadata;
+        }
+
+        // comparison filters only depend on the value of their key
+        private static String keyOf(Filter filter) {
+            if (filter instanceof IsEqualTo isEqualTo) {
+                return isEqualTo.key();
+            } else if (filter instanceof IsNotEqualTo isNotEqualTo) {
+                return isNotEqualTo.key();
+            } else if (filter instanceof IsGreaterThan isGreaterThan) {
+                return isGreaterThan.key();
+            } else if (filter instanceof IsGreaterThanOrEqualTo isGreaterThanOrEqualTo) {
+                return isGreaterThanOrEqualTo.key();
+            } else if (filter instanceof IsLessThan isLessThan) {
+                return isLessThan.key();
+            } else if (filter instanceof IsLessThanOrEqualTo isLessThanOrEqualTo) {
+                return isLessThanOrEqualTo.key();
+            } else if (filter instanceof IsIn isIn) {
+                return isIn.key();
+            } else if (filter instanceof IsNotIn isNotIn) {
+                return isNotIn.key();
+            } else if (filter instanceof ContainsString containsString) {
+                return containsString.key();
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,626 @@
+package dev.langchain4j.community.store.embedding.memfile;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.CREATE_NEW;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+import dev.langchain4j.data.segment.TextSegment;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link ChunkStorageMode#PACKED} layout: chunks are appended to segment files, and their reference is
+ * the embedding ID.
+ * <p>
+ * A segment is a sequence of records: {@code [body length][CRC32 of body][body]}, where the body is
+ * {@code [type][sequence number][id][payload]}. Records are never modified: replacing a chunk appends a new
+ * record, and removing one appends a tombstone record. The index from IDs to the location of their latest record
+ * is kept in memory and rebuilt from the segments when the store is opened, the record with the highest sequence
+ * number winning, so segments are the only state on disk.
+ * <p>
+ * Once the active segment exceeds {@link #DEFAULT_MAX_SEGMENT_SIZE}, a new one is started. A sealed segment
+ * of which at least half of the bytes are garbage is compacted in the background: its live records are copied
+ * to the active segment, as they are, and it is deleted. Tombstones are copied too, unless the segment is the
+ * oldest one: older records of the IDs they removed can only be in older segments, or in that one.
+ * <p>
+ * The in-memory index is only valid while a single instance appends to the segments, so an instance holds an
+ * exclusive lock on the {@value #LOCK_FILE_NAME} file of its directory until it is {@link #close() closed},
+ * and opening a second instance on the same directory, from this process or another one, fails.
+ */
+final class PackedChunkStore<Embedded> implements ChunkStore<Embedded> {
+
+    private static final Logger log = LoggerFactory.getLogger(PackedChunkStore.class);
+
+    static final long DEFAULT_MAX_SEGMENT_SIZE = 64L << 20;
+    private static final double COMPACTION_THRESHOLD = 0.5;
+    private static final String SEGMENT_FILE_PREFIX = "chunks-";
+    private static final String SEGMENT_FILE_SUFFIX = ".seg";
+    static final String LOCK_FILE_NAME = "chunks.lock";
+    private static final int RECORD_HEADER_SIZE = 2 * Integer.BYTES;
+    private static final int READ_ATTEMPTS = 3;
+
+    private static final byte TOMBSTONE = 0;
+    private static final byte TEXT_SEGMENT = 1;
+    private static final byte JSON = 2;
+
+    private static final ExecutorService COMPACTION_EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "memfile-chunk-compaction");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Path directory;
+    private final long maxSegmentSize;
+    private final Executor compactionExecutor;
+    private final Map<String, Location> index = new ConcurrentHashMap<>();
+    private final Map<Integer, Segment> segments = new ConcurrentHashMap<>();
+    private final AtomicBoolean compactionScheduled = new AtomicBoolean();
+    private final FileChannel lockChannel;
+    private final FileLock directoryLock;
+
+    private final Object appendLock = new Object();
+    private Segment activeSegment;
+    private long nextSequence;
+    private volatile boolean closed; // written under appendLock
+
+    PackedChunkStore(Path directory) {
+        this(directory, DEFAULT_MAX_SEGMENT_SIZE, COMPACTION_EXECUTOR);
+    }
+
+    PackedChunkStore(Path directory, long maxSegmentSize, Executor compactionExecutor) {
+        this.directory = directory;
+        this.maxSegmentSize = maxSegmentSize;
+        this.compactionExecutor = compactionExecutor;
+        try {
+            this.lockChannel = FileChannel.open(directory.resolve(LOCK_FILE_NAME), CREATE, WRITE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open chunk segments in: " + directory, e);
+        }
+        try {
+            this.directoryLock = lock(lockChannel, directory);
+            open();
+        } catch (IOException e) {
+            closeOnFailure();
+            throw new UncheckedIOException("Failed to open chunk segments in: " + directory, e);
+        } catch (RuntimeException e) {
+            closeOnFailure();
+            throw e;
+        }
+    }
+
+    // the lock, if it was taken, is released by closing its channel
+    private void closeOnFailure() {
+        segments.values().forEach(Segment::close);
+        closeQuietly(lockChannel);
+    }
+
+    private static FileLock lock(FileChannel lockChannel, Path directory) throws IOException {
+        FileLock lock;
+        try {
+            lock = lockChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null;
+        }
+        if (lock == null) {
+            throw new IllegalStateException("Chunk storage directory " + directory
+                    + " is already used by another store, which must be closed first");
+        }
+        return lock;
+    }
+
+    @Override
+    public String save(String id, Embedded embedded) {
+        byte type;
+        byte[] payload;
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            if (embedded instanceof TextSegment textSegment && ChunkEncoding.isBinaryEncodable(textSegment)) {
+                type = TEXT_SEGMENT;
+                ChunkEncoding.writeTextSegment(textSegment, out);
+            } else {
+                type = JSON;
+                ChunkEncoding.writeString(ChunkEncoding.toJson(embedded), out);
+            }
+            payload = bytes.toByteArray();
+        } catch (IOException e) {
+            log.error("Failed to encode chunk for id: {}", id, e);
+            throw new RuntimeException("Failed to save chunk", e);
+        }
+
+        Segment compactable;
+        synchronized (appendLock) {
+            try {
+                Location location = append(record(type, nextSequence++, id, payload));
+                Location previous = index.put(id, location);
+                compactable = previous == null ? null : markDead(previous);
+            } catch (IOException e) {
+                log.error("Failed to save chunk for id: {}", id, e);
+                throw new RuntimeException("Failed to save chunk", e);
+            }
+        }
+        scheduleCompaction(compactable);
+        log.debug("Saved chunk: {}", id);
+        return id;
+    }
+
+    @Override
+    public Embedded load(String id) {
+        if (closed) {
+            log.error("Failed to load chunk: {}, the chunk store is closed", id);
+            return null;
+        }
+        for (int attempt = 0; attempt < READ_ATTEMPTS; attempt++) {
+            Location location = index.get(id);
+            if (location == null) {
+                log.warn("Chunk does not exist: {}", id);
+                return null;
+            }
+            Segment segment = segments.get(location.segment());
+            if (segment == null) {
+                continue; // the record was moved by a compaction, its new location is indexed
+            }
+            try {
+                return decode(segment.read(location.offset(), location.length()));
+            } catch (ClosedChannelException e) {
+                // the segment was compacted while reading, or the reading thread was interrupted
+            } catch (IOException e) {
+                log.error("Failed to load chunk: {}", id, e);
+                return null;
+            }
+        }
+        log.error("Failed to load chunk: {}, it kept being moved by compactions", id);
+        return null;
+    }
+
+    /**
+     * Reads the chunks in the order of their location in segment files.
+     */
+    @Override
+    public List<Embedded> loadAll(List<String> ids) {
+        List<Embedded> chunks = new ArrayList<>(ids.size());
+        List<Location> locations = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            chunks.add(null);
+            locations.add(index.get(id));
+        }
+        IntStream.range(0, ids.size())
+                .boxed()
+                .sorted(Comparator.comparing(locations::get, Comparator.nullsFirst(Location.ORDER)))
+                .forEach(i -> chunks.set(i, load(ids.get(i))));
+        return chunks;
+    }
+
+    @Override
+    public void delete(Collection<String> ids) {
+        List<Segment> compactable = new ArrayList<>();
+        synchronized (appendLock) {
+            try {
+                for (String id : ids) {
+                    Location location = index.remove(id);
+                    if (location == null) {
+                        continue;
+                    }
+                    compactable.add(markDead(location));
+                    byte[] tombstone = record(TOMBSTONE, nextSequence++, id, new byte[0]);
+                    // tombstones are garbage as soon as they are written, only kept until a compaction
+                    markDead(append(tombstone));
+                }
+                if (index.isEmpty()) {
+                    deleteAllSegments();
+                    compactable.clear();
+                }
+            } catch (IOException e) {
+                log.error("Failed to delete chunks", e);
+                throw new RuntimeException("Failed to delete chunks", e);
+            }
+        }
+        compactable.forEach(this::scheduleCompaction);
+        log.debug("Deleted {} chunks", ids.size());
+    }
+
+    /**
+     * Closes the segment files and releases the lock on the directory. Saving, loading or deleting chunks
+     * afterward fails. Does nothing when already closed.
+     */
+    @Override
+    public void close() {
+        synchronized (appendLock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            segments.values().forEach(Segment::close);
+            try {
+                directoryLock.release();
+            } catch (IOException e) {
+                log.warn("Failed to release the lock on chunk storage directory {}", directory, e);
+            }
+            closeQuietly(lockChannel);
+        }
+        log.debug("Closed chunk segments of {}", directory);
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.debug("Failed to close file channel", e);
+        }
+    }
+
+    private void open() throws IOException {
+        List<Path> files;
+        try (Stream<Path> list = Files.list(directory)) {
+            files = list.filter(file -> segmentNumber(file) > 0)
+                    .sorted(Comparator.comparingInt(PackedChunkStore::segmentNumber))
+                    .toList();
+        }
+
+        Map<String, Long> removedAt = new HashMap<>();
+        long maxSequence = -1;
+        for (int i = 0; i < files.size(); i++) {
+            Path file = files.get(i);
+            Segment segment = Segment.open(segmentNumber(file), file);
+            segments.put(segment.number, segment);
+            long position = 0;
+            while (position < segment.size) {
+                ChunkRecord record;
+                try {
+                    record = segment.readRecord(position);
+                } catch (IOException e) {
+                    if (i == files.size() - 1) {
+                        log.warn("Truncating incomplete record at offset {} of {}", position, file, e);
+                        segment.truncate(position);
+                    } else {
+                        log.warn("Ignoring unreadable record at offset {} of {}", position, file, e);
+                        segment.size = position;
+                    }
+                    break;
+                }
+                maxSequence = Math.max(maxSequence, record.sequence());
+                Location location = new Location(segment.number, position, record.length(), record.sequence());
+                if (record.type() == TOMBSTONE) {
+                    removedAt.merge(record.id(), record.sequence(), Math::max);
+                } else {
+                    Location latest = index.get(record.id());
+                    if (latest == null || latest.sequence() < record.sequence()) {
+                        index.put(record.id(), location);
+                    }
+                }
+                position += record.length();
+            }
+        }
+
+        index.entrySet().removeIf(entry -> {
+            Long removed = removedAt.get(entry.getKey());
+            return removed != null && removed > entry.getValue().sequence();
+        });
+        Map<Integer, Long> liveBytes = new HashMap<>();
+        index.values().forEach(location -> liveBytes.merge(location.segment(), (long) location.length(), Long::sum));
+        segments.values().forEach(segment -> segment.deadBytes = segment.size - liveBytes.getOrDefault(segment.number, 0L));
+
+        nextSequence = maxSequence + 1;
+        activeSegment = files.isEmpty()
+                ? newSegment(1)
+                : segments.get(segmentNumber(files.get(files.size() - 1)));
+        if (!index.isEmpty() || !files.isEmpty()) {
+            log.debug("Opened {} chunks in {} segments of {}", index.size(), segments.size(), directory);
+        }
+        segments.values().forEach(this::scheduleCompaction);
+    }
+
+    // guarded by appendLock
+    private Location append(byte[] record) throws IOException {
+        if (closed) {
+            throw new ClosedChannelException();
+        }
+        if (activeSegment.size > 0 && activeSegment.size + record.length > maxSegmentSize) {
+            Segment sealed = activeSegment;
+            activeSegment = newSegment(sealed.number + 1);
+            scheduleCompaction(sealed);
+        }
+        long offset = activeSegment.size;
+        activeSegment.write(record, offset);
+        activeSegment.size += record.length;
+        return new Location(activeSegment.number, offset, record.length, sequenceOf(record));
+    }
+
+    // guarded by appendLock
+    private Segment markDead(Location location) {
+        Segment segment = segments.get(location.segment());
+        if (segment == null) {
+            return null;
+        }
+        segment.deadBytes += location.length();
+        return segment;
+    }
+
+    // guarded by appendLock
+    private Segment newSegment(int number) throws IOException {
+        Segment segment = Segment.create(number, directory.resolve(segmentFileName(number)));
+        segments.put(number, segment);
+        return segment;
+    }
+
+    // guarded by appendLock
+    private void deleteAllSegments() throws IOException {
+        for (Segment segment : segments.values()) {
+            segment.delete();
+        }
+        segments.clear();
+        activeSegment = newSegment(activeSegment.number + 1);
+    }
+
+    private void scheduleCompaction(Segment segment) {
+        if (segment == null || segment == activeSegment || !segment.needsCompaction()) {
+            return;
+        }
+        if (compactionScheduled.compareAndSet(false, true)) {
+            compactionExecutor.execute(() -> {
+                try {
+                    compact();
+                } finally {
+                    compactionScheduled.set(false);
+                }
+            });
+        }
+    }
+
+    private void compact() {
+        while (true) {
+            Segment segment;
+            synchronized (appendLock) {
+                if (closed) {
+                    return;
+                }
+                segment = segments.values().stream()
+                        .filter(candidate -> candidate != activeSegment && candidate.needsCompaction())
+                        .min(Comparator.comparingInt(candidate -> candidate.number))
+                        .orElse(null);
+            }
+            if (segment == null) {
+                return;
+            }
+            try {
+                compact(segment);
+            } catch (ClosedChannelException e) {
+                log.debug("Segment {} was deleted or closed while being compacted", segment.number);
+            } catch (IOException e) {
+                log.error("Failed to compact chunk segment {}", segment.number, e);
+                return;
+            }
+        }
+    }
+
+    private void compact(Segment segment) throws IOException {
+        long position = 0;
+        int copied = 0;
+        while (position < segment.size) {
+            ChunkRecord record = segment.readRecord(position);
+            Location location = new Location(segment.number, position, record.length(), record.sequence());
+            synchronized (appendLock) {
+                if (record.type() == TOMBSTONE) {
+                    if (!isOldest(segment)) {
+                        markDead(append(record.bytes()));
+                        copied++;
+                    }
+                } else if (location.equals(index.get(record.id()))) {
+                    index.put(record.id(), append(record.bytes()));
+                    copied++;
+                }
+            }
+            position += record.length();
+        }
+        synchronized (appendLock) {
+            if (closed) {
+                throw new ClosedChannelException();
+            }
+            segments.remove(segment.number);
+            segment.delete();
+        }
+        log.debug("Compacted chunk segment {}, {} records were kept", segment.number, copied);
+    }
+
+    // guarded by appendLock
+    private boolean isOldest(Segment segment) {
+        return segments.keySet().stream().allMatch(number -> number >= segment.number);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Embedded decode(ChunkRecord record) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(record.payload()));
+        if (record.type() == TEXT_SEGMENT) {
+            return (Embedded) ChunkEncoding.readTextSegment(in);
+        }
+        return (Embedded) ChunkEncoding.fromJson(ChunkEncoding.readString(in));
+    }
+
+    private static byte[] record(byte type, long sequence, String id, byte[] payload) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(RECORD_HEADER_SIZE + 64 + payload.length);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0); // body length
+        out.writeInt(0); // CRC32 of body
+        out.writeByte(type);
+        out.writeLong(sequence);
+        ChunkEncoding.writeString(id, out);
+        out.write(payload);
+
+        byte[] record = bytes.toByteArray();
+        int bodyLength = record.length - RECORD_HEADER_SIZE;
+        CRC32 crc = new CRC32();
+        crc.update(record, RECORD_HEADER_SIZE, bodyLength);
+        ByteBuffer.wrap(record).putInt(bodyLength).putInt((int) crc.getValue());
+        return record;
+    }
+
+    private static long sequenceOf(byte[] record) {
+        return ByteBuffer.wrap(record).getLong(RECORD_HEADER_SIZE + 1);
+    }
+
+    private static String segmentFileName(int number) {
+        return String.format("%s%06d%s", SEGMENT_FILE_PREFIX, number, SEGMENT_FILE_SUFFIX);
+    }
+
+    // 0 when the file is not a segment
+    private static int segmentNumber(Path file) {
+        String fileName = file.getFileName().toString();
+        if (!fileName.startsWith(SEGMENT_FILE_PREFIX) || !fileName.endsWith(SEGMENT_FILE_SUFFIX)) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(
+                    fileName.substring(SEGMENT_FILE_PREFIX.length(), fileName.length() - SEGMENT_FILE_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private record Location(int segment, long offset, int length, long sequence) {
+
+        static final Comparator<Location> ORDER =
+                Comparator.comparingInt(Location::segment).thenComparingLong(Location::offset);
+    }
+
+    private record ChunkRecord(byte type, long sequence, String id, byte[] payload, byte[] bytes) {
+
+        int length() {
+            return bytes.length;
+        }
+    }
+
+    private static final class Segment {
+
+        private final int number;
+        private final Path file;
+        private volatile FileChannel channel;
+        private volatile boolean closed; // when deleted too
+        private long size; // guarded by appendLock, except while opening
+        private long deadBytes; // guarded by appendLock, except while opening
+
+        private Segment(int number, Path file, FileChannel channel, long size) {
+            this.number = number;
+            this.file = file;
+            this.channel = channel;
+            this.size = size;
+        }
+
+        static Segment create(int number, Path file) throws IOException {
+            return new Segment(number, file, FileChannel.open(file, CREATE_NEW, READ, WRITE), 0);
+        }
+
+        static Segment open(int number, Path file) throws IOException {
+            FileChannel channel = FileChannel.open(file, READ, WRITE);
+            return new Segment(number, file, channel, channel.size());
+        }
+
+        boolean needsCompaction() {
+            return size > 0 && deadBytes >= size * COMPACTION_THRESHOLD;
+        }
+
+        ChunkRecord read(long offset, int length) throws IOException {
+            return parse(readFully(offset, length));
+        }
+
+        ChunkRecord readRecord(long offset) throws IOException {
+            ByteBuffer header = ByteBuffer.wrap(readFully(offset, RECORD_HEADER_SIZE));
+            int bodyLength = header.getInt();
+            if (bodyLength <= 0 || offset + RECORD_HEADER_SIZE + bodyLength > size) {
+                throw new EOFException("Incomplete record of " + bodyLength + " bytes");
+            }
+            return parse(readFully(offset, RECORD_HEADER_SIZE + bodyLength));
+        }
+
+        void write(byte[] record, long offset) throws IOException {
+            ByteBuffer buffer = ByteBuffer.wrap(record);
+            while (buffer.hasRemaining()) {
+                channel().write(buffer, offset + buffer.position());
+            }
+        }
+
+        void truncate(long newSize) throws IOException {
+            channel().truncate(newSize);
+            size = newSize;
+        }
+
+        void delete() throws IOException {
+            close();
+            Files.deleteIfExists(file);
+        }
+
+        void close() {
+            closed = true;
+            closeQuietly(channel);
+        }
+
+        // A thread interrupted during an operation on a channel closes it, for all threads
+        private FileChannel channel() throws IOException {
+            FileChannel current = channel;
+            if (!current.isOpen() && !closed) {
+                synchronized (this) {
+                    if (!channel.isOpen() && !closed) {
+                        channel = FileChannel.open(file, READ, WRITE);
+                    }
+                    current = channel;
+                }
+            }
+            return current;
+        }
+
+        private byte[] readFully(long offset, int length) throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate(length);
+            while (buffer.hasRemaining()) {
+                if (channel().read(buffer, offset + buffer.position()) < 0) {
+                    throw new EOFException("Unexpected end of segment " + file);
+                }
+            }
+            return buffer.array();
+        }
+
+        private static ChunkRecord parse(byte[] bytes) throws IOException {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            int bodyLength = buffer.getInt();
+            int checksum = buffer.getInt();
+            CRC32 crc = new CRC32();
+            crc.update(bytes, RECORD_HEADER_SIZE, bodyLength);
+            if ((int) crc.getValue() != checksum) {
+                throw new IOException("Corrupted record, checksum mismatch");
+            }
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, RECORD_HEADER_SIZE, bodyLength));
+            byte type = in.readByte();
+            long sequence = in.readLong();
+            String id = ChunkEncoding.readString(in);
+            byte[] payload = in.readAllBytes();
+            return new ChunkRecord(type, sequence, id, payload, bytes);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package dev.langchain4j.community.store.embedding.memfile;
+
+import java.nio.file.Path;
+
+/**
+ * {@link VectorPages} holding quantized codes of the vectors in memory, scanned by searches, and the full-precision
+ * vectors in a {@link VectorFile}, read to rescore the best candidates of a search.
+ */
+abstract class QuantizedVectorPages implements VectorPages {
+
+    final int dimension;
+    final Path directory;
+    final VectorFile file;
+
+    QuantizedVectorPages(int dimension, Path directory, VectorFile file) {
+        this.dimension = dimension;
+        this.directory = directory;
+        this.file = file;
+    }
+
+    @Override
+    public int dimension() {
+        return dimension;
+    }
+
+    @Override
+    public float[] vector(int slot) {
+        float[] vector = new float[dimension];
+        file.read(slot, vector);
+        return vector;
+    }
+
+    @Override
+    public boolean exactScores() {
+        return false;
+    }
+
+    @Override
+    public void release() {
+        file.delete();
+    }
+
+    void copyVector(int slot, QuantizedVectorPages to, int toSlot) {
+        to.file.write(toSlot, vector(slot));
+    }
+}
@@ -0,0 +1,32 @@
+package dev.langchain4j.community.store.embedding.memfile;
+
+/**
+ * A {@link VectorScorer} in plain Java. The loop is unrolled with independent accumulators,
+ * so that consecutive multiply-adds do not wait for each other.
+ */
+final class ScalarVectorScorer implements VectorScorer {
+
+    static final ScalarVectorScorer INSTANCE = new ScalarVectorScorer();
+
+    private ScalarVectorScorer() {}
+
+    @Override
+    public float dotProduct(float[] vectors, int offset, float[] query, int dimension) {
+        float sum0 = 0;
+        float sum1 = 0;
+        float sum2 = 0;
+        float sum3 = 0;
+        int i = 0;
+        int upperBound = dimension & ~3;
+        for (; i < upperBound; i += 4) {
+            sum0 += vectors[offset + i] * query[i];
+            sum1 += vectors[offset + i + 1] * query[i + 1];
+            sum2 += vectors[offset + i + 2] * query[i + 2];
+            sum3 += vectors[offset + i + 3] * query[i + 3];
+        }
+        for (; i < dimension; i++) {
+            sum0 += vectors[offset + i] * query[i];
+        }
+        return sum0 + sum1 + sum2 + sum3;
+    }
+}
@@ -0,0 +1,113 @@
+package dev.langchain4j.community.store.embedding.memfile;
+
+/**
+ * Keeps the {@code k} best (slot, score) pairs offered to it, in a min-heap of primitives,
+ * so that a scan allocates nothing per scored vector.
+ */
+final class TopK {
+
+    private final int capacity;
+    private final int[] slots;
+    private final double[] scores;
+    private int size;
+
+    TopK(int capacity) {
+        this.capacity = capacity;
+        this.slots = new int[capacity];
+        this.scores = new double[capacity];
+    }
+
+    void offer(int slot, double score) {
+        if (size < capacity) {
+            slots[size] = slot;
+            scores[size] = score;
+            siftUp(size++);
+        } else if (capacity > 0 && score > scores[0]) {
+            slots[0] = slot;
+            scores[0] = score;
+            siftDown(0);
+        }
+    }
+
+    /**
+     * Offers all pairs kept by another instance, e.g. one filled by another partition of a scan.
+     */
+    void offerAll(TopK other) {
+        for (int i = 0; i < other.size; i++) {
+            offer(other.slots[i], other.scores[i]);
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Empties the heap.
+     *
+     * @return the kept slots, by decreasing score. Their scores are then available through {@link #score(int)}.
+     */
+    int[] drainDescending() {
+        int count = size;
+        int[] orderedSlots = new int[count];
+        double[] orderedScores = new double[count];
+        for (int i = count - 1; i >= 0; i--) {
+            orderedSlots[i] = slots[0];
+            orderedScores[i] = scores[0];
+            size--;
+            if (size > 0) {
+                slots[0] = slots[size];
+                scores[0] = scores[size];
+                siftDown(0);
+            }
+        }
+        System.arraycopy(orderedSlots, 0, slots, 0, count);
+        System.arraycopy(orderedScores, 0, scores, 0, count);
+        return orderedSlots;
+    }
+
+    /**
+     * @param rank The rank of a slot returned by {@link #drainDescending()}.
+     * @return its score.
+     */
+    double score(int rank) {
+        return scores[rank];
+    }
+
+    private void siftUp(int index) {
+        int slot = slots[index];
+        double score = scores[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (scores[parent] <= score) {
+                break;
+            }
+            slots[index] = slots[parent];
+            scores[index] = scores[parent];
+            index = parent;
+        }
+        slots[index] = slot;
+        scores[index] = score;
+    }
+
+    private void siftDown(int index) {
+        int slot = slots[index];
+        double score = scores[index];
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            int right = child + 1;
+            if (right < size && scores[right] < scores[child]) {
+                child = right;
+            }
+            if (score <= scores[child]) {
+                break;
+            }
+            slots[index] = slots[child];
+            scores[index] = scores[child];
+            index = child;
+        }
+        slots[index] = slot;
+        scores[index] = score;
+    }
+}
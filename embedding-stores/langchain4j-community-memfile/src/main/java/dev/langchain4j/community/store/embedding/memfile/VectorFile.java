@@ -0,0 +1,146 @@
+package dev.langchain4j.community.store.embedding.memfile;
+
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The full-precision vectors of quantized {@link VectorPages}, in a temporary file addressed by slot.
+ * <p>
+ * The file is memory-mapped in regions of up to {@link VectorStorage#PAGE_SIZE} vectors, mapped when the first
+ * vector of the region is written. Vectors are written and read through the mappings, in the native byte order,
+ * so only the vectors that are read, to rescore the best candidates of a search, are loaded in memory by the
+ * operating system.
+ * <p>
+ * Like the other arrays of the storage, the file is written by a single thread at a time, only in slots beyond the
+ * size of published snapshots. Once replaced, it is {@link #delete() deleted}: searches still reading it keep their
+ * mappings, which remain valid after the file is deleted on most operating systems.
+ * <p>
+ * The file is locked while it is in use. Files left by a store that was not closed, or that could not be deleted
+ * while they were mapped, are {@link #deleteUnused(Path) deleted} when a store is next created on the directory.
+ */
+final class VectorFile {
+
+    private static final Logger log = LoggerFactory.getLogger(VectorFile.class);
+
+    private static final String FILE_PREFIX = "vectors-";
+    private static final String FILE_SUFFIX = ".f32";
+
+    private final Path path;
+    private final FileChannel channel;
+    private final int dimension;
+    private final int vectorsPerRegion;
+    private volatile FloatBuffer[] regions = new FloatBuffer[0];
+
+    VectorFile(Path directory, int dimension) {
+        this.dimension = dimension;
+        this.vectorsPerRegion = (int) Math.min(VectorStorage.PAGE_SIZE, Integer.MAX_VALUE / ((long) dimension * 4));
+        try {
+            Files.createDirectories(directory);
+            this.path = Files.createTempFile(directory, FILE_PREFIX, FILE_SUFFIX);
+            this.channel = FileChannel.open(path, READ, WRITE);
+            // held until the channel is closed, so that the file is not deleted as unused
+            channel.lock();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to create vector file in " + directory, e);
+        }
+    }
+
+    int dimension() {
+        return dimension;
+    }
+
+    void write(int slot, float[] vector) {
+        region(slot / vectorsPerRegion).put((slot % vectorsPerRegion) * dimension, vector, 0, dimension);
+    }
+
+    void read(int slot, float[] vector) {
+        regions[slot / vectorsPerRegion].get((slot % vectorsPerRegion) * dimension, vector, 0, dimension);
+    }
+
+    /**
+     * Deletes the file. Vectors can still be read from the regions already mapped, but no longer written.
+     */
+    void delete() {
+        try {
+            channel.close();
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            // Some operating systems do not delete mapped files, it is deleted by the next store on the directory
+            log.debug("Failed to delete vector file {}", path, e);
+        }
+    }
+
+    /**
+     * Deletes the vector files of the directory that are not locked by a store, in this process or another one.
+     */
+    static void deleteUnused(Path directory) {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        List<Path> files;
+        try (Stream<Path> list = Files.list(directory)) {
+            files = list.filter(file -> {
+                        String fileName = file.getFileName().toString();
+                        return fileName.startsWith(FILE_PREFIX) && fileName.endsWith(FILE_SUFFIX);
+                    })
+                    .toList();
+        } catch (IOException e) {
+            log.warn("Failed to list vector files in {}", directory, e);
+            return;
+        }
+        for (Path file : files) {
+            try (FileChannel channel = FileChannel.open(file, WRITE)) {
+                if (channel.size() == 0) {
+                    continue; // possibly created by a store that did not lock it yet, it is locked before it grows
+                }
+                FileLock lock;
+                try {
+                    lock = channel.tryLock();
+                } catch (OverlappingFileLockException e) {
+                    lock = null;
+                }
+                if (lock == null) {
+                    continue; // used by a store
+                }
+                Files.delete(file);
+                log.debug("Deleted unused vector file {}", file);
+            } catch (IOException e) {
+                log.debug("Failed to delete unused vector file {}", file, e);
+            }
+        }
+    }
+
+    private FloatBuffer region(int region) {
+        FloatBuffer[] current = regions;
+        if (region < current.length && current[region] != null) {
+            return current[region];
+        }
+        try {
+            long offset = (long) region * vectorsPerRegion * dimension * Float.BYTES;
+            long length = (long) vectorsPerRegion * dimension * Float.BYTES;
+            FloatBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, offset, length)
+                    .order(ByteOrder.nativeOrder())
+                    .asFloatBuffer();
+            FloatBuffer[] grown = Arrays.copyOf(current, Math.max(current.length, region + 1));
+            grown[region] = mapped;
+            regions = grown;
+            return mapped;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to map vector file " + path, e);
+        }
+    }
+}
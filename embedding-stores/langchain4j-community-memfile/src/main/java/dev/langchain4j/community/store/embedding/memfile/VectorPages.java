@@ -0,0 +1,102 @@
+package dev.langchain4j.community.store.embedding.memfile;
+
+import static dev.langchain4j.community.store.embedding.memfile.VectorStorage.PAGE_SHIFT;
+import static dev.langchain4j.community.store.embedding.memfile.VectorStorage.PAGE_SIZE;
+
+import java.nio.file.Path;
+import java.util.function.IntPredicate;
+
+/**
+ * The vectors of the slots of a {@link VectorStorage}, in pages of {@link VectorStorage#PAGE_SIZE} slots, as float32
+ * values or as quantized codes, see {@link VectorQuantization}.
+ * <p>
+ * Like the other arrays of a {@link VectorStorage.Snapshot}, pages are written by a single thread at a time, only in
+ * slots beyond the size of published snapshots, and {@link #withCapacity(int) grown} into new instances sharing the
+ * existing pages.
+ */
+interface VectorPages {
+
+    static VectorPages create(VectorQuantization quantization, int dimension, Path directory) {
+        return switch (quantization) {
+            case NONE -> new FloatVectorPages(dimension);
+            case INT8 -> new Int8VectorPages(dimension, directory);
+            case BINARY -> new BinaryVectorPages(dimension, directory);
+        };
+    }
+
+    int dimension();
+
+    /**
+     * @return pages able to hold the given number of slots: these pages when they are large enough, or new ones
+     * sharing the existing pages.
+     */
+    VectorPages withCapacity(int capacity);
+
+    /**
+     * @return new empty pages of the same kind and dimension, for a compacted copy of the slots.
+     */
+    VectorPages emptyCopy();
+
+    void set(int slot, float[] vector);
+
+    /**
+     * Copies a vector to pages created by {@link #emptyCopy()}.
+     */
+    void copy(int slot, VectorPages to, int toSlot);
+
+    /**
+     * @return a copy of the full-precision vector of a slot.
+     */
+    float[] vector(int slot);
+
+    /**
+     * @return whether the scores of {@link #scan} are exact. Otherwise, they are estimated from quantized codes and
+     * the best slots must be rescored with their {@link #vector(int) full-precision vectors}.
+     */
+    boolean exactScores();
+
+    /**
+     * Scores the slots in {@code [from, to)} of the snapshot against the query, keeping the best ones.
+     * Removed slots are skipped.
+     *
+     * @param minScore The minimum relevance score of kept slots.
+     * @param accepted Whether a slot may be kept, {@code null} to accept all of them.
+     */
+    void scan(
+            VectorStorage.Snapshot snapshot,
+            int from,
+            int to,
+            float[] query,
+            double minScore,
+            IntPredicate accepted,
+            TopK topK);
+
+    /**
+     * Called once these pages are replaced by pages of another snapshot, to release the resources they hold.
+     * Searches of earlier snapshots may still read them.
+     */
+    void release();
+
+    /**
+     * Computes the length of the array of a page, the last page growing with the storage until it is full.
+     *
+     * @param allocatedLength The current length of the array of the page, 0 when it is not allocated.
+     * @param slotLength      The number of array elements per slot.
+     * @return {@code allocatedLength} when it is enough for the capacity, or the new length of the array.
+     */
+    static int pageLength(int page, int capacity, int allocatedLength, int slotLength) {
+        boolean last = page == pageCount(capacity) - 1;
+        int slots = last ? capacity - (page << PAGE_SHIFT) : PAGE_SIZE;
+        if (allocatedLength >= slots * slotLength) {
+            return allocatedLength;
+        }
+        return (last ? Math.min(PAGE_SIZE, Math.max(slots, 16) * 2) : PAGE_SIZE) * slotLength;
+    }
+
+    /**
+     * @return the number of pages holding the given number of slots.
+     */
+    static int pageCount(int capacity) {
+        return (capacity + PAGE_SIZE - 1) >>> PAGE_SHIFT;
+    }
+}
@@ -0,0 +1,36 @@
+package dev.langchain4j.community.store.embedding.memfile;
+
+/**
+ * How {@link MemFileEmbeddingStore} holds vectors in memory.
+ * <p>
+ * With a quantized mode, searches scan compact codes of the vectors kept in memory, then rescore the
+ * {@code maxResults x rescoreFactor} best candidates with their full-precision vectors, which are kept in a
+ * memory-mapped file of the chunk storage directory. The operating system only loads the parts of this file that
+ * are read, so full-precision vectors no longer need to fit in the heap.
+ *
+ * @see MemFileEmbeddingStore.Builder#vectorQuantization(VectorQuantization)
+ * @see MemFileEmbeddingStore.Builder#rescoreFactor(Integer)
+ */
+public enum VectorQuantization {
+
+    /**
+     * Vectors are kept in memory as float32 values, {@code 4 x dimension} bytes per vector.
+     * Search results are exact.
+     */
+    NONE,
+
+    /**
+     * Vectors are kept in memory as int8 codes, with a scale and an offset per vector,
+     * {@code dimension + 8} bytes per vector. Scores estimated from the codes are close to the exact ones,
+     * a small rescore factor is enough to find the same results.
+     */
+    INT8,
+
+    /**
+     * Vectors are kept in memory as the signs of their components, {@code dimension / 8} bytes per vector, and
+     * compared by Hamming distance. This is the fastest and most compact mode, but scores estimated from the signs
+     * are coarse: a larger rescore factor is needed, and it works best with embeddings whose components are
+     * centered on zero.
+     */
+    BINARY
+}
@@ -0,0 +1,50 @@
+package dev.langchain4j.community.store.embedding.memfile;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Computes dot products between vectors stored contiguously in a {@code float[]} and a query vector.
+ * <p>
+ * {@link #INSTANCE} uses the incubating Vector API when this module was built with the {@code vector-api}
+ * profile and the JVM runs with {@code --add-modules jdk.incubator.vector}, and a scalar implementation otherwise.
+ */
+interface VectorScorer {
+
+    VectorScorer INSTANCE = Loader.load();
+
+    /**
+     * @param vectors   The array holding the vector.
+     * @param offset    The index of the first component of the vector in {@code vectors}.
+     * @param query     The query vector, starting at index 0.
+     * @param dimension The number of components of both vectors.
+     * @return the dot product of both vectors.
+     */
+    float dotProduct(float[] vectors, int offset, float[] query, int dimension);
+
+    final class Loader {
+
+        private static final Logger log = LoggerFactory.getLogger(VectorScorer.class);
+
+        private static final String VECTOR_MODULE = "jdk.incubator.vector";
+        private static final String PANAMA_SCORER = "dev.langchain4j.community.store.embedding.memfile.PanamaVectorScorer";
+
+        private Loader() {}
+
+        static VectorScorer load() {
+            if (ModuleLayer.boot().findModule(VECTOR_MODULE).isEmpty()) {
+                log.debug("Module {} is not available, using the scalar vector scorer", VECTOR_MODULE);
+                return ScalarVectorScorer.INSTANCE;
+            }
+            try {
+                VectorScorer scorer = (VectorScorer)
+                        Class.forName(PANAMA_SCORER).getDeclaredConstructor().newInstance();
+                log.debug("Using the Vector API vector scorer");
+                return scorer;
+            } catch (ReflectiveOperationException | LinkageError e) {
+                log.debug("The Vector API vector scorer is not available, using the scalar vector scorer", e);
+                return ScalarVectorScorer.INSTANCE;
+            }
+        }
+    }
+}
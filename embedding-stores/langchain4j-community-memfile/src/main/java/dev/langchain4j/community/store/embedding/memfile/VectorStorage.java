@@ -0,0 +1,611 @@
+package dev.langchain4j.community.store.embedding.memfile;
+
+import dev.langchain4j.store.embedding.RelevanceScore;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntPredicate;
+
+/**
+ * The in-memory part of {@link MemFileEmbeddingStore}: ids, chunk file references, vectors and metadata
+ * of all entries, addressed by slot.
+ * <p>
+ * Vectors are stored contiguously in pages of {@link #PAGE_SIZE} vectors, so that a scan reads memory sequentially
+ * instead of chasing a pointer per entry, and their norms are computed once, when they are added. With a
+ * {@link VectorQuantization quantization}, the pages hold quantized codes of the vectors, and the full-precision
+ * vectors are kept in a memory-mapped file, see {@link VectorPages}.
+ * <p>
+ * Writes are serialized and publish a new immutable {@link Snapshot}. Searches scan the snapshot they started with,
+ * without locking: appends only write slots beyond the size of published snapshots, and removals build new arrays.
+ * <p>
+ * An index from ids to slots makes adding an existing id replace its entry, and removing entries by id cost
+ * the number of removed ids. Removed entries are not moved: their slots are marked in a bit set, and skipped by
+ * scans. Once the removed slots exceed a ratio of all slots, the storage is compacted in the background: the
+ * remaining entries are copied to new arrays, without blocking writes, and the writes done during the copy are
+ * then applied to the copy.
+ */
+final class VectorStorage {
+
+    static final int PAGE_SHIFT = 14;
+    static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+    static final int PAGE_MASK = PAGE_SIZE - 1;
+    private static final int INITIAL_CAPACITY = 16;
+    static final double DEFAULT_COMPACTION_THRESHOLD = 0.2;
+
+    private final Object writeLock = new Object();
+    private final Executor compactionExecutor;
+    private final double compactionThreshold;
+    private final VectorQuantization quantization;
+    private final Path vectorDirectory;
+    private final AtomicBoolean compactionScheduled = new AtomicBoolean();
+    private Map<String, Integer> slots = new HashMap<>(); // guarded by writeLock
+    private MetadataIndex metadataIndex = new MetadataIndex(); // guarded by writeLock
+    private int generation; // guarded by writeLock, incremented when the arrays are replaced
+    private volatile Snapshot snapshot = emptySnapshot(0);
+
+    VectorStorage() {
+        this(ForkJoinPool.commonPool(), DEFAULT_COMPACTION_THRESHOLD);
+    }
+
+    VectorStorage(Executor compactionExecutor, double compactionThreshold) {
+        this(compactionExecutor, compactionThreshold, VectorQuantization.NONE, null);
+    }
+
+    /**
+     * @param compactionThreshold The ratio of removed slots from which the storage is compacted.
+     * @param vectorDirectory     The directory of the files holding full-precision vectors when they are quantized.
+     */
+    VectorStorage(
+            Executor compactionExecutor,
+            double compactionThreshold,
+            VectorQuantization quantization,
+            Path vectorDirectory) {
+        this.compactionExecutor = compactionExecutor;
+        this.compactionThreshold = compactionThreshold;
+        this.quantization = quantization;
+        this.vectorDirectory = vectorDirectory;
+        if (vectorDirectory != null) {
+            VectorFile.deleteUnused(vectorDirectory);
+        }
+    }
+
+    Snapshot snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Adds an entry, replacing the entry with the same id if there is one.
+     *
+     * @param metadata The metadata of the entry, {@code null} when its embedded content is not a text segment.
+     * @return the chunk file reference of the replaced entry, {@code null} when there was none or it had none.
+     */
+    String add(String id, float[] vector, String chunkFilePath, Map<String, Object> metadata) {
+        String replacedChunkFilePath = null;
+        boolean replaced;
+        synchronized (writeLock) {
+            Snapshot current = snapshot;
+            int dimension = current.size == 0 ? vector.length : current.dimension;
+            ensureDimension(vector, dimension);
+            int slot = current.size;
+            Snapshot grown = ensureCapacity(current, dimension, slot + 1);
+            grown.vectors.set(slot, vector);
+            grown.norms[slot] = norm(vector);
+            grown.ids[slot] = id;
+            grown.chunkFilePaths[slot] = chunkFilePath;
+            metadataIndex.set(slot, metadata);
+
+            int[] removedSlots = grown.removedSlots;
+            int removedCount = current.removedCount;
+            Integer replacedSlot = slots.put(id, slot);
+            replaced = replacedSlot != null;
+            if (replaced) {
+                // published snapshots keep seeing the replaced entry
+                removedSlots = removedSlots.clone();
+                setBit(removedSlots, replacedSlot);
+                removedCount++;
+                replacedChunkFilePath = current.chunkFilePaths[replacedSlot];
+            }
+            snapshot = new Snapshot(
+                    slot + 1,
+                    dimension,
+                    grown.vectors,
+                    grown.norms,
+                    grown.ids,
+                    grown.chunkFilePaths,
+                    removedSlots,
+                    removedCount,
+                    generation,
+                    metadataIndex.view());
+        }
+        if (replaced) {
+            scheduleCompaction();
+        }
+        return replacedChunkFilePath;
+    }
+
+    /**
+     * Checks that a vector can be added, before its addition is logged.
+     *
+     * @throws IllegalArgumentException if its length does not match the dimension of the stored vectors.
+     */
+    void ensureDimension(float[] vector) {
+        Snapshot current = snapshot;
+        if (current.size > 0) {
+            ensureDimension(vector, current.dimension);
+        }
+    }
+
+    private static void ensureDimension(float[] vector, int dimension) {
+        if (vector.length != dimension) {
+            throw new IllegalArgumentException("Length of vector " + vector.length
+                    + " does not match the dimension " + dimension + " of the stored embeddings");
+        }
+    }
+
+    /**
+     * Removes the entries with the given ids, ignoring unknown ids.
+     *
+     * @return the chunk file references of the removed entries, {@code null} for entries without any.
+     */
+    String[] remove(Collection<String> ids) {
+        String[] removedChunkFilePaths;
+        synchronized (writeLock) {
+            Snapshot current = snapshot;
+            int[] removedSlots = null;
+            List<String> chunkFilePaths = new ArrayList<>();
+            for (String id : ids) {
+                Integer slot = slots.remove(id);
+                if (slot == null) {
+                    continue;
+                }
+                if (removedSlots == null) {
+                    removedSlots = current.removedSlots.clone();
+                }
+                setBit(removedSlots, slot);
+                chunkFilePaths.add(current.chunkFilePaths[slot]);
+            }
+            removedChunkFilePaths = chunkFilePaths.toArray(new String[0]);
+            publishRemovals(current, removedSlots, removedChunkFilePaths.length);
+        }
+        scheduleCompaction();
+        return removedChunkFilePaths;
+    }
+
+    /**
+     * Removes all entries.
+     *
+     * @return the chunk file references of the removed entries, {@code null} for entries without any.
+     */
+    String[] clear() {
+        synchronized (writeLock) {
+            Snapshot current = snapshot;
+            List<String> chunkFilePaths = new ArrayList<>();
+            for (int slot = 0; slot < current.size; slot++) {
+                if (!current.isRemoved(slot)) {
+                    chunkFilePaths.add(current.chunkFilePaths[slot]);
+                }
+            }
+            reset();
+            return chunkFilePaths.toArray(new String[0]);
+        }
+    }
+
+    /**
+     * @return new empty pages of the kind kept by the storage, float32 values or quantized codes, to fill with
+     * restored vectors.
+     */
+    VectorPages createPages(int dimension) {
+        return VectorPages.create(quantization, dimension, vectorDirectory);
+    }
+
+    /**
+     * Replaces the entries by restored ones. The arrays are owned by the storage afterwards.
+     *
+     * @param vectors The vectors of the {@code size} first slots, in pages created by {@link #createPages(int)},
+     *                or in float32 pages when there is none.
+     */
+    void restore(
+            int size,
+            int dimension,
+            VectorPages vectors,
+            float[] norms,
+            String[] ids,
+            String[] chunkFilePaths,
+            MetadataIndex metadataIndex) {
+        synchronized (writeLock) {
+            Map<String, Integer> restoredSlots = new HashMap<>(size * 2);
+            for (int slot = 0; slot < size; slot++) {
+                restoredSlots.put(ids[slot], slot);
+            }
+            this.slots = restoredSlots;
+            this.metadataIndex = metadataIndex;
+            generation++;
+            snapshot.vectors.release();
+            snapshot = new Snapshot(
+                    size,
+                    size == 0 ? 0 : dimension,
+                    vectors,
+                    norms,
+                    ids,
+                    chunkFilePaths,
+                    new int[wordCount(ids.length)],
+                    0,
+                    generation,
+                    metadataIndex.view());
+        }
+    }
+
+    /**
+     * Releases the vector file of quantized vectors, which can't be written afterward.
+     */
+    void close() {
+        synchronized (writeLock) {
+            generation++; // a compaction in progress releases its copy
+            snapshot.vectors.release();
+        }
+    }
+
+    /**
+     * Copies the remaining entries to new arrays, if any entry was removed.
+     */
+    void compact() {
+        Snapshot base = snapshot;
+        if (base.removedCount == 0) {
+            return;
+        }
+
+        // The remaining entries of the snapshot are copied without holding the lock
+        int[] compactedSlots = new int[base.size];
+        MetadataIndex compactedMetadataIndex = new MetadataIndex();
+        Map<String, Integer> compactedIdSlots = new HashMap<>(base.liveCount() * 2);
+        Snapshot compacted = copyRemaining(base, compactedSlots, compactedMetadataIndex, compactedIdSlots);
+
+        synchronized (writeLock) {
+            Snapshot current = snapshot;
+            if (current.generation != base.generation) {
+                compacted.vectors.release();
+                return; // the entries were replaced meanwhile
+            }
+
+            // Then the writes done meanwhile are applied to the copy: removals first, then additions
+            int[] removedSlots = compacted.removedSlots;
+            int removedCount = 0;
+            for (int word = 0; word < wordCount(base.size); word++) {
+                int removedMeanwhile = current.removedSlots[word] & ~base.removedSlots[word];
+                while (removedMeanwhile != 0) {
+                    int slot = (word << 5) + Integer.numberOfTrailingZeros(removedMeanwhile);
+                    removedMeanwhile &= removedMeanwhile - 1;
+                    if (slot >= base.size) {
+                        break; // added meanwhile, see below
+                    }
+                    setBit(removedSlots, compactedSlots[slot]);
+                    removedCount++;
+                    compactedIdSlots.remove(base.ids[slot], compactedSlots[slot]);
+                }
+            }
+
+            int size = compacted.size;
+            Snapshot merged = ensureCapacity(compacted, current.dimension, size + current.size - base.size);
+            removedSlots = merged.removedSlots;
+            for (int slot = base.size; slot < current.size; slot++, size++) {
+                copy(current, slot, merged, size);
+                compactedMetadataIndex.set(size, current.metadata.metadata(slot));
+                if (current.isRemoved(slot)) {
+                    setBit(removedSlots, size);
+                    removedCount++;
+                } else {
+                    compactedIdSlots.put(current.ids[slot], size);
+                }
+            }
+
+            slots = compactedIdSlots;
+            metadataIndex = compactedMetadataIndex;
+            generation++;
+            current.vectors.release();
+            snapshot = new Snapshot(
+                    size,
+                    current.dimension,
+                    merged.vectors,
+                    merged.norms,
+                    merged.ids,
+                    merged.chunkFilePaths,
+                    removedSlots,
+                    removedCount,
+                    generation,
+                    metadataIndex.view());
+        }
+    }
+
+    // guarded by writeLock
+    private void publishRemovals(Snapshot current, int[] removedSlots, int removedCount) {
+        if (removedCount == 0) {
+            return;
+        }
+        if (current.removedCount + removedCount == current.size) {
+            // nothing remains, which also resets the dimension
+            reset();
+            return;
+        }
+        snapshot = new Snapshot(
+                current.size,
+                current.dimension,
+                current.vectors,
+                current.norms,
+                current.ids,
+                current.chunkFilePaths,
+                removedSlots,
+                current.removedCount + removedCount,
+                current.generation,
+                current.metadata);
+    }
+
+    // guarded by writeLock
+    private void reset() {
+        slots = new HashMap<>();
+        metadataIndex = new MetadataIndex();
+        generation++;
+        snapshot.vectors.release();
+        snapshot = emptySnapshot(generation);
+    }
+
+    private void scheduleCompaction() {
+        Snapshot current = snapshot;
+        if (current.removedCount <= current.size * compactionThreshold) {
+            return;
+        }
+        if (compactionScheduled.compareAndSet(false, true)) {
+            compactionExecutor.execute(() -> {
+                try {
+                    compact();
+                } finally {
+                    compactionScheduled.set(false);
+                }
+            });
+        }
+    }
+
+    private Snapshot copyRemaining(
+            Snapshot base,
+            int[] compactedSlots,
+            MetadataIndex compactedMetadataIndex,
+            Map<String, Integer> compactedIdSlots) {
+        Snapshot compacted = ensureCapacity(
+                emptySnapshot(0).withVectors(base.vectors.emptyCopy()), base.dimension, base.liveCount());
+        int target = 0;
+        for (int slot = 0; slot < base.size; slot++) {
+            if (base.isRemoved(slot)) {
+                continue;
+            }
+            copy(base, slot, compacted, target);
+            compactedMetadataIndex.set(target, base.metadata.metadata(slot));
+            compactedIdSlots.put(base.ids[slot], target);
+            compactedSlots[slot] = target;
+            target++;
+        }
+        return new Snapshot(
+                target,
+                target == 0 ? 0 : base.dimension,
+                compacted.vectors,
+                compacted.norms,
+                compacted.ids,
+                compacted.chunkFilePaths,
+                compacted.removedSlots,
+                0,
+                base.generation,
+                compactedMetadataIndex.view());
+    }
+
+    private static void copy(Snapshot from, int fromSlot, Snapshot to, int toSlot) {
+        from.vectors.copy(fromSlot, to.vectors, toSlot);
+        to.norms[toSlot] = from.norms[fromSlot];
+        to.ids[toSlot] = from.ids[fromSlot];
+        to.chunkFilePaths[toSlot] = from.chunkFilePaths[fromSlot];
+    }
+
+    private static Snapshot emptySnapshot(int generation) {
+        return new Snapshot(
+                0,
+                0,
+                new FloatVectorPages(0),
+                new float[0],
+                new String[0],
+                new String[0],
+                new int[0],
+                0,
+                generation,
+                new MetadataIndex().view());
+    }
+
+    // returns arrays able to hold the given number of entries, sharing the existing ones when they are large enough
+    private Snapshot ensureCapacity(Snapshot current, int dimension, int capacity) {
+        VectorPages vectors = current.vectors.dimension() == dimension
+                ? current.vectors
+                : VectorPages.create(quantization, dimension, vectorDirectory);
+        float[] norms = current.norms;
+        String[] ids = current.ids;
+        String[] chunkFilePaths = current.chunkFilePaths;
+        int[] removedSlots = current.removedSlots;
+
+        if (capacity > ids.length) {
+            int newLength = Math.max(capacity, Math.max(INITIAL_CAPACITY, ids.length + (ids.length >> 1)));
+            norms = Arrays.copyOf(norms, newLength);
+            ids = Arrays.copyOf(ids, newLength);
+            chunkFilePaths = Arrays.copyOf(chunkFilePaths, newLength);
+            removedSlots = Arrays.copyOf(removedSlots, wordCount(newLength));
+        }
+
+        vectors = vectors.withCapacity(capacity);
+        return new Snapshot(
+                current.size,
+                dimension,
+                vectors,
+                norms,
+                ids,
+                chunkFilePaths,
+                removedSlots,
+                current.removedCount,
+                current.generation,
+                current.metadata);
+    }
+
+    private static int wordCount(int slots) {
+        return (slots + Integer.SIZE - 1) >>> 5;
+    }
+
+    private static void setBit(int[] bits, int slot) {
+        bits[slot >>> 5] |= 1 << slot;
+    }
+
+    static float norm(float[] vector) {
+        double sumOfSquares = 0;
+        for (float component : vector) {
+            sumOfSquares += component * component;
+        }
+        return (float) Math.sqrt(sumOfSquares);
+    }
+
+    /**
+     * An immutable view of the entries. Arrays may be longer than {@link #size()}, slots beyond it must be ignored,
+     * as well as {@link #isRemoved(int) removed} slots.
+     */
+    static final class Snapshot {
+
+        private final int size;
+        private final int dimension;
+        private final VectorPages vectors;
+        private final float[] norms;
+        private final String[] ids;
+        private final String[] chunkFilePaths;
+        private final int[] removedSlots;
+        private final int removedCount;
+        private final int generation;
+        private final MetadataIndex.View metadata;
+
+        private Snapshot(
+                int size,
+                int dimension,
+                VectorPages vectors,
+                float[] norms,
+                String[] ids,
+                String[] chunkFilePaths,
+                int[] removedSlots,
+                int removedCount,
+                int generation,
+                MetadataIndex.View metadata) {
+            this.size = size;
+            this.dimension = dimension;
+            this.vectors = vectors;
+            this.norms = norms;
+            this.ids = ids;
+            this.chunkFilePaths = chunkFilePaths;
+            this.removedSlots = removedSlots;
+            this.removedCount = removedCount;
+            this.generation = generation;
+            this.metadata = metadata;
+        }
+
+        /**
+         * @return the number of slots, including removed ones.
+         */
+        int size() {
+            return size;
+        }
+
+        /**
+         * @return the number of entries, which is the number of slots that are not removed.
+         */
+        int liveCount() {
+            return size - removedCount;
+        }
+
+        boolean hasRemovedSlots() {
+            return removedCount > 0;
+        }
+
+        boolean isRemoved(int slot) {
+            return (removedSlots[slot >>> 5] & (1 << slot)) != 0;
+        }
+
+        int dimension() {
+            return dimension;
+        }
+
+        String id(int slot) {
+            return ids[slot];
+        }
+
+        String chunkFilePath(int slot) {
+            return chunkFilePaths[slot];
+        }
+
+        MetadataIndex.View metadata() {
+            return metadata;
+        }
+
+        float norm(int slot) {
+            return norms[slot];
+        }
+
+        VectorPages vectors() {
+            return vectors;
+        }
+
+        /**
+         * @return a copy of the full-precision vector of a slot.
+         */
+        float[] vector(int slot) {
+            return vectors.vector(slot);
+        }
+
+        /**
+         * @return whether the scores of {@link #scan} are exact, otherwise the best slots must be
+         * {@link #score(int, float[]) rescored}.
+         */
+        boolean exactScores() {
+            return vectors.exactScores();
+        }
+
+        /**
+         * Scores the slots in {@code [from, to)} against the query, keeping the best ones. Removed slots are skipped.
+         *
+         * @param query    The query vector, of the dimension of the stored vectors.
+         * @param minScore The minimum relevance score of kept slots.
+         * @param accepted Whether a slot may be kept, {@code null} to accept all of them.
+         * @param topK     Where the best slots are kept.
+         */
+        void scan(int from, int to, float[] query, double minScore, IntPredicate accepted, TopK topK) {
+            vectors.scan(this, from, to, query, minScore, accepted, topK);
+        }
+
+        /**
+         * @return the exact relevance score of a slot, computed from its full-precision vector.
+         */
+        double score(int slot, float[] query) {
+            float dotProduct = VectorScorer.INSTANCE.dotProduct(vector(slot), 0, query, dimension);
+            double queryNorm = VectorStorage.norm(query); // as in a scan of float32 pages, for identical scores
+            double cosineSimilarity = dotProduct / Math.max(norms[slot] * queryNorm, 1e-8);
+            return RelevanceScore.fromCosineSimilarity(cosineSimilarity);
+        }
+
+        private Snapshot withVectors(VectorPages vectors) {
+            return new Snapshot(
+                    size,
+                    dimension,
+                    vectors,
+                    norms,
+                    ids,
+                    chunkFilePaths,
+                    removedSlots,
+                    removedCount,
+                    generation,
+                    metadata);
+        }
+    }
+}
@@ -0,0 +1,585 @@
+package dev.langchain4j.community.store.embedding.memfile;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.CREATE_NEW;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The write-ahead log of a {@link MemFileEmbeddingStore}: the additions and removals of entries, appended to log
+ * files of a directory, and checkpoints of all entries, so that a store is restored with the writes done until
+ * it stopped, however it stopped.
+ * <p>
+ * A log file is a sequence of records: {@code [body length][CRC32 of body][body]}, where the body is
+ * {@code [type][payload]}, as in the segments of {@link PackedChunkStore}. Records are written to the file when
+ * they are appended, so they survive a crash of the JVM, and forced to the disk by {@link #sync(long)}: the first
+ * writer waiting for its record forces the records of all writers, which then return without forcing the file
+ * again. With a sync interval, writers do not wait, the file is forced at most once per interval in the background.
+ * <p>
+ * A checkpoint is a {@link BinarySnapshot} named after the first log file it does not include. Once it is written,
+ * the log files and the checkpoints it replaces are deleted. When the log is opened, the latest checkpoint is
+ * restored, the log files from its number are replayed, and a new log file is started, so an incomplete record left
+ * by a crash at the end of a log file is never followed by other records. Such a record is only expected at the end
+ * of the newest log file: any other unreadable record fails the recovery, rather than silently dropping the writes
+ * that follow it.
+ * <p>
+ * Records are appended before the writes they log are applied, and a record that could not be written completely
+ * is truncated, so a failed append leaves neither the entries nor the log modified.
+ * <p>
+ * A log holds an exclusive lock on the {@value #LOCK_FILE_NAME} file of its directory from its recovery until it is
+ * {@link #close() closed}, so that a second store can't append to the same log files.
+ */
+final class WriteAheadLog implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(WriteAheadLog.class);
+
+    static final long DEFAULT_CHECKPOINT_LOG_SIZE = 64L << 20;
+    private static final String LOG_FILE_PREFIX = "wal-";
+    private static final String LOG_FILE_SUFFIX = ".log";
+    private static final String CHECKPOINT_FILE_PREFIX = "checkpoint-";
+    private static final String CHECKPOINT_FILE_SUFFIX = ".bin";
+    private static final String TEMPORARY_FILE_SUFFIX = ".tmp";
+    static final String LOCK_FILE_NAME = "wal.lock";
+    private static final int RECORD_HEADER_SIZE = 2 * Integer.BYTES;
+
+    private static final byte ADD = 1;
+    private static final byte REMOVE = 2;
+    private static final byte CLEAR = 3;
+
+    private final Path directory;
+    private final long syncIntervalNanos;
+    private final long checkpointLogSize;
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream(); // guarded by this
+    private final DataOutputStream out = new DataOutputStream(bytes); // guarded by this
+    private final Object syncLock = new Object();
+    private final AtomicBoolean syncScheduled = new AtomicBoolean();
+    private int logNumber; // guarded by this
+    private FileChannel channel; // guarded by this
+    private long logSize; // guarded by this
+    private long appendedPosition; // guarded by this, the bytes appended to all log files
+    private volatile long syncedPosition;
+    private volatile boolean closed; // written under syncLock and this
+    private FileChannel lockChannel;
+
+    /**
+     * @param syncIntervalNanos The interval between two forces of the log file, 0 to force it for each write.
+     * @param checkpointLogSize The size of the log file from which a checkpoint is due, 0 to never be due.
+     */
+    WriteAheadLog(Path directory, long syncIntervalNanos, long checkpointLogSize) {
+        this.directory = directory;
+        this.syncIntervalNanos = syncIntervalNanos;
+        this.checkpointLogSize = checkpointLogSize;
+    }
+
+    /**
+     * Restores the entries of the latest checkpoint into the storage, replays the log files written since, and
+     * starts a new log file.
+     */
+    void recover(VectorStorage storage) {
+        try {
+            Files.createDirectories(directory);
+            lock();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to recover write-ahead log in " + directory, e);
+        }
+        try {
+            List<Path> checkpoints = list(CHECKPOINT_FILE_PREFIX, CHECKPOINT_FILE_SUFFIX);
+            int checkpoint = 0;
+            if (!checkpoints.isEmpty()) {
+                Path file = checkpoints.get(checkpoints.size() - 1);
+                checkpoint = number(file, CHECKPOINT_FILE_PREFIX, CHECKPOINT_FILE_SUFFIX);
+                try (FileChannel checkpointChannel = FileChannel.open(file, READ)) {
+                    BinarySnapshot.read(checkpointChannel).restoreInto(storage);
+                }
+            }
+
+            int lastNumber = checkpoint;
+            int replayed = 0;
+            List<Path> logFiles = list(LOG_FILE_PREFIX, LOG_FILE_SUFFIX);
+            for (int i = 0; i < logFiles.size(); i++) {
+                Path file = logFiles.get(i);
+                int number = number(file, LOG_FILE_PREFIX, LOG_FILE_SUFFIX);
+                lastNumber = Math.max(lastNumber, number);
+                if (number >= checkpoint) {
+                    replayed += replay(file, storage, i == logFiles.size() - 1);
+                }
+            }
+            synchronized (this) {
+                startLogFile(lastNumber + 1);
+            }
+            deleteBefore(checkpoint);
+            log.debug("Recovered {} from checkpoint {} and {} log records", directory, checkpoint, replayed);
+        } catch (IOException e) {
+            closeQuietly(lockChannel);
+            throw new RuntimeException("Failed to recover write-ahead log in " + directory, e);
+        } catch (RuntimeException e) {
+            closeQuietly(lockChannel);
+            throw e;
+        }
+    }
+
+    private void lock() throws IOException {
+        lockChannel = FileChannel.open(directory.resolve(LOCK_FILE_NAME), CREATE, WRITE);
+        FileLock lock;
+        try {
+            lock = lockChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null;
+        }
+        if (lock == null) {
+            closeQuietly(lockChannel);
+            throw new IllegalStateException("Write-ahead log directory " + directory
+                    + " is already used by another store, which must be closed first");
+        }
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.debug("Failed to close file channel", e);
+        }
+    }
+
+    /**
+     * Appends the addition of an entry.
+     *
+     * @return the position to {@link #sync(long) sync} for the addition to be durable.
+     */
+    synchronized long appendAdd(String id, float[] vector, String chunkFilePath, Map<String, Object> metadata) {
+        ensureOpen();
+        try {
+            out.writeByte(ADD);
+            ChunkEncoding.writeString(id, out);
+            out.writeBoolean(chunkFilePath != null);
+            if (chunkFilePath != null) {
+                ChunkEncoding.writeString(chunkFilePath, out);
+            }
+            out.writeBoolean(metadata != null);
+            if (metadata != null) {
+                ChunkEncoding.writeMetadata(metadata, out);
+            }
+            out.writeInt(vector.length);
+            for (float component : vector) {
+                out.writeFloat(component);
+            }
+            return appendRecord();
+        } catch (IOException e) {
+            bytes.reset();
+            throw new RuntimeException("Failed to append to write-ahead log in " + directory, e);
+        }
+    }
+
+    /**
+     * Appends the removal of the entries with the given ids, nothing when there are none.
+     */
+    synchronized long appendRemove(Collection<String> ids) {
+        ensureOpen();
+        if (ids.isEmpty()) {
+            return appendedPosition;
+        }
+        try {
+            out.writeByte(REMOVE);
+            out.writeInt(ids.size());
+            for (String id : ids) {
+                ChunkEncoding.writeString(id, out);
+            }
+            return appendRecord();
+        } catch (IOException e) {
+            bytes.reset();
+            throw new RuntimeException("Failed to append to write-ahead log in " + directory, e);
+        }
+    }
+
+    /**
+     * Appends the removal of all entries.
+     */
+    synchronized long appendClear() {
+        ensureOpen();
+        try {
+            out.writeByte(CLEAR);
+            return appendRecord();
+        } catch (IOException e) {
+            bytes.reset();
+            throw new RuntimeException("Failed to append to write-ahead log in " + directory, e);
+        }
+    }
+
+    /**
+     * Forces the records appended until the given position to the disk, along with those appended meanwhile by
+     * other writers. With a sync interval, schedules it instead.
+     */
+    void sync(long position) {
+        if (syncedPosition >= position) {
+            return;
+        }
+        if (syncIntervalNanos > 0) {
+            if (syncScheduled.compareAndSet(false, true)) {
+                CompletableFuture.delayedExecutor(syncIntervalNanos, TimeUnit.NANOSECONDS, ForkJoinPool.commonPool())
+                        .execute(() -> {
+                            syncScheduled.set(false);
+                            try {
+                                syncAll();
+                            } catch (RuntimeException e) {
+                                log.error("Failed to sync write-ahead log in {}", directory, e);
+                            }
+                        });
+            }
+            return;
+        }
+        synchronized (syncLock) {
+            if (syncedPosition < position) {
+                syncAll();
+            }
+        }
+    }
+
+    /**
+     * @return whether the current log file is large enough for a checkpoint to replace it.
+     */
+    synchronized boolean checkpointDue() {
+        return checkpointLogSize > 0 && logSize >= checkpointLogSize;
+    }
+
+    /**
+     * Starts a new log file, which must be done along with taking the snapshot of the entries to checkpoint.
+     *
+     * @return the number of the new log file, to {@link #writeCheckpoint write the checkpoint} with.
+     */
+    int rotate() {
+        synchronized (syncLock) {
+            synchronized (this) {
+                ensureOpen();
+                try {
+                    channel.force(false);
+                    channel.close();
+                    syncedPosition = appendedPosition;
+                    startLogFile(logNumber + 1);
+                    return logNumber;
+                } catch (IOException e) {
+                    throw new RuntimeException("Failed to start a new write-ahead log file in " + directory, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Forces the appended records to the disk, including those waiting for the sync interval, and closes the log
+     * file. Appending afterward fails. Does nothing when already closed.
+     */
+    @Override
+    public void close() {
+        synchronized (syncLock) {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                try {
+                    channel.force(false);
+                    syncedPosition = appendedPosition;
+                    channel.close();
+                } catch (IOException e) {
+                    throw new RuntimeException("Failed to close write-ahead log in " + directory, e);
+                } finally {
+                    // releases the lock
+                    closeQuietly(lockChannel);
+                }
+            }
+        }
+        log.debug("Closed write-ahead log in {}", directory);
+    }
+
+    /**
+     * Writes a checkpoint of the entries of the log files before the given one, then deletes these log files.
+     */
+    void writeCheckpoint(int number, CheckpointWriter writer) {
+        Path file = directory.resolve(fileName(CHECKPOINT_FILE_PREFIX, number, CHECKPOINT_FILE_SUFFIX));
+        Path temporaryFile = file.resolveSibling(file.getFileName() + TEMPORARY_FILE_SUFFIX);
+        try {
+            try (FileChannel checkpointChannel = FileChannel.open(temporaryFile, CREATE, TRUNCATE_EXISTING, WRITE)) {
+                writer.write(checkpointChannel);
+                checkpointChannel.force(true);
+            }
+            Files.move(temporaryFile, file, ATOMIC_MOVE, REPLACE_EXISTING);
+            forceDirectory();
+            deleteBefore(number);
+            log.debug("Wrote checkpoint {} of {}", number, directory);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write checkpoint of write-ahead log in " + directory, e);
+        }
+    }
+
+    // guarded by this
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("The write-ahead log in " + directory + " is closed");
+        }
+    }
+
+    // guarded by this
+    private long appendRecord() throws IOException {
+        byte[] record = bytes.toByteArray();
+        bytes.reset();
+        CRC32 crc = new CRC32();
+        crc.update(record);
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_HEADER_SIZE + record.length);
+        buffer.putInt(record.length).putInt((int) crc.getValue()).put(record).flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            // so that the next records do not follow an incomplete one
+            try {
+                channel.truncate(logSize);
+                channel.position(logSize);
+            } catch (IOException truncation) {
+                e.addSuppressed(truncation);
+                closed = true;
+            }
+            throw e;
+        }
+        logSize += buffer.limit();
+        appendedPosition += buffer.limit();
+        return appendedPosition;
+    }
+
+    private void syncAll() {
+        synchronized (syncLock) {
+            FileChannel current;
+            long position;
+            synchronized (this) {
+                if (closed) {
+                    return; // forced when it was closed
+                }
+                current = channel;
+                position = appendedPosition;
+            }
+            try {
+                current.force(false);
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to sync write-ahead log in " + directory, e);
+            }
+            syncedPosition = Math.max(syncedPosition, position);
+        }
+    }
+
+    // guarded by this
+    private void startLogFile(int number) throws IOException {
+        Path file = directory.resolve(fileName(LOG_FILE_PREFIX, number, LOG_FILE_SUFFIX));
+        channel = FileChannel.open(file, CREATE_NEW, WRITE);
+        logNumber = number;
+        logSize = 0;
+        forceDirectory();
+    }
+
+    private int replay(Path file, VectorStorage storage, boolean newest) throws IOException {
+        int replayed = 0;
+        long size = Files.size(file);
+        long position = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            while (position < size) {
+                byte[] record;
+                try {
+                    record = readRecord(in);
+                } catch (IOException e) {
+                    if (!newest || !isTail(file, position)) {
+                        throw new IOException("Corrupted record at offset " + position + " of " + file, e);
+                    }
+                    // left by a crash while the record was written, it was not synced
+                    log.warn("Truncating incomplete record at offset {} of {}", position, file, e);
+                    break;
+                }
+                try {
+                    apply(new DataInputStream(new ByteArrayInputStream(record)), storage);
+                } catch (IOException | RuntimeException e) {
+                    throw new IOException("Failed to replay record at offset " + position + " of " + file, e);
+                }
+                position += RECORD_HEADER_SIZE + record.length;
+                replayed++;
+            }
+        }
+        if (position < size) {
+            // so that the record is not in the middle of the log files once a new one is started
+            try (FileChannel channel = FileChannel.open(file, WRITE)) {
+                channel.truncate(position);
+                channel.force(true);
+            }
+        }
+        return replayed;
+    }
+
+    /**
+     * @return whether the unreadable record at the given offset can be the last record of the file, torn by a
+     * crash: it is incomplete, or it ends with the file, or the file only holds zeros from it, which some file
+     * systems leave when the size of a file was persisted before its content.
+     */
+    private static boolean isTail(Path file, long offset) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, READ)) {
+            long size = channel.size();
+            ByteBuffer header = ByteBuffer.allocate(Integer.BYTES);
+            channel.read(header, offset);
+            if (header.position() < Integer.BYTES || offset + RECORD_HEADER_SIZE + header.getInt(0) >= size) {
+                return true;
+            }
+            ByteBuffer rest = ByteBuffer.allocate(8192);
+            for (long position = offset; position < size; position += rest.limit()) {
+                rest.clear();
+                if (channel.read(rest, position) <= 0) {
+                    break;
+                }
+                rest.flip();
+                while (rest.hasRemaining()) {
+                    if (rest.get() != 0) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+    }
+
+    private static byte[] readRecord(DataInputStream in) throws IOException {
+        int bodyLength;
+        int checksum;
+        byte[] record;
+        try {
+            bodyLength = in.readInt();
+        } catch (EOFException e) {
+            throw new IOException("Incomplete record header", e);
+        }
+        try {
+            checksum = in.readInt();
+            if (bodyLength <= 0) {
+                throw new IOException("Invalid record of " + bodyLength + " bytes");
+            }
+            record = new byte[bodyLength];
+            in.readFully(record);
+        } catch (EOFException e) {
+            throw new IOException("Incomplete record of " + bodyLength + " bytes", e);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(record);
+        if ((int) crc.getValue() != checksum) {
+            throw new IOException("Corrupted record of " + bodyLength + " bytes");
+        }
+        return record;
+    }
+
+    private static void apply(DataInputStream in, VectorStorage storage) throws IOException {
+        byte type = in.readByte();
+        switch (type) {
+            case ADD -> {
+                String id = ChunkEncoding.readString(in);
+                String chunkFilePath = in.readBoolean() ? ChunkEncoding.readString(in) : null;
+                Map<String, Object> metadata = in.readBoolean() ? ChunkEncoding.readMetadata(in) : null;
+                float[] vector = new float[in.readInt()];
+                for (int i = 0; i < vector.length; i++) {
+                    vector[i] = in.readFloat();
+                }
+                storage.add(id, vector, chunkFilePath, metadata);
+            }
+            case REMOVE -> {
+                int count = in.readInt();
+                List<String> ids = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    ids.add(ChunkEncoding.readString(in));
+                }
+                storage.remove(ids);
+            }
+            case CLEAR -> storage.clear();
+            default -> throw new IOException("Unknown write-ahead log record type: " + type);
+        }
+    }
+
+    // also deletes the temporary files of checkpoints that were not completed
+    private void deleteBefore(int number) throws IOException {
+        for (Path file : list(LOG_FILE_PREFIX, LOG_FILE_SUFFIX)) {
+            if (number(file, LOG_FILE_PREFIX, LOG_FILE_SUFFIX) < number) {
+                Files.deleteIfExists(file);
+            }
+        }
+        for (Path file : list(CHECKPOINT_FILE_PREFIX, CHECKPOINT_FILE_SUFFIX)) {
+            if (number(file, CHECKPOINT_FILE_PREFIX, CHECKPOINT_FILE_SUFFIX) < number) {
+                Files.deleteIfExists(file);
+            }
+        }
+        for (Path file : list(CHECKPOINT_FILE_PREFIX, CHECKPOINT_FILE_SUFFIX + TEMPORARY_FILE_SUFFIX)) {
+            if (number(file, CHECKPOINT_FILE_PREFIX, CHECKPOINT_FILE_SUFFIX + TEMPORARY_FILE_SUFFIX) < number) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    // so that created and renamed files are found after a crash of the operating system
+    private void forceDirectory() {
+        try (FileChannel directoryChannel = FileChannel.open(directory, READ)) {
+            directoryChannel.force(true);
+        } catch (IOException e) {
+            // Directories cannot be opened on some operating systems, which persist renames on their own
+            log.debug("Failed to force directory {}", directory, e);
+        }
+    }
+
+    private List<Path> list(String prefix, String suffix) throws IOException {
+        try (Stream<Path> list = Files.list(directory)) {
+            return list.filter(file -> number(file, prefix, suffix) > 0)
+                    .sorted(Comparator.comparingInt(file -> number(file, prefix, suffix)))
+                    .toList();
+        }
+    }
+
+    private static String fileName(String prefix, int number, String suffix) {
+        return String.format("%s%06d%s", prefix, number, suffix);
+    }
+
+    // 0 when the file is not a log file or a checkpoint
+    private static int number(Path file, String prefix, String suffix) {
+        String fileName = file.getFileName().toString();
+        if (!fileName.startsWith(prefix) || !fileName.endsWith(suffix)) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(fileName.substring(prefix.length(), fileName.length() - suffix.length()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    @FunctionalInterface
+    interface CheckpointWriter {
+
+        void write(FileChannel channel) throws IOException;
+    }
+}
@@ -0,0 +1,167 @@
+package dev.langchain4j.community.store.embedding.memfile.serialization;
+
+import static dev.langchain4j.internal.ValidationUtils.ensureNotBlank;
+import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+import dev.langchain4j.community.store.embedding.memfile.MemFileEmbeddingStore;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+
+/**
+ * Binary implementation of {@link StoreSerializationStrategy} for {@link MemFileEmbeddingStore}.
+ * <p>
+ * Vectors are stored as a dense block of little-endian float32 values, rather than as JSON numbers, after a header
+ * and a table of the IDs, chunk file references and metadata of the entries. The snapshot is written and read as a
+ * stream, so neither side builds the whole document in memory, and {@link #deserializeFromFile(Path)} memory-maps
+ * the vector block of the file instead of parsing it. This makes it the strategy of choice for large stores.
+ * </p>
+ *
+ * <p>
+ * <b>Restoration:</b> the metadata of text segments is part of the snapshot, so chunks are not read when a store is
+ * restored. Like with {@link JsonStoreSerializationStrategy}, chunks are not part of the snapshot and the chunk
+ * storage directory must be preserved separately.
+ * </p>
+ *
+ * <p>
+ * <b>String form:</b> {@link #serialize(MemFileEmbeddingStore)} returns the snapshot encoded in Base64. Prefer
+ * {@link #serializeToFile(MemFileEmbeddingStore, Path)} for large stores.
+ * </p>
+ *
+ * <p>
+ * <b>Usage Example:</b>
+ * <pre>{@code
+ * StoreSerializationStrategy<TextSegment> strategy = new BinaryStoreSerializationStrategy<>();
+ *
+ * // Serialize to file
+ * Path file = Paths.get("store.bin");
+ * strategy.serializeToFile(store, file);
+ *
+ * // Deserialize from file
+ * MemFileEmbeddingStore<TextSegment> restoredStore = strategy.deserializeFromFile(file);
+ * }</pre>
+ *
+ * @param <T> the type of embedded objects stored in the embedding store
+ * @see StoreSerializationStrategy
+ * @see MemFileEmbeddingStore#writeBinarySnapshot(java.nio.channels.WritableByteChannel)
+ */
+public class BinaryStoreSerializationStrategy<T> implements StoreSerializationStrategy<T> {
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Serializes the embedding store to its binary snapshot, encoded in Base64.
+     * </p>
+     *
+     * @param store the embedding store to serialize; must not be null
+     * @return the Base64 encoding of the binary snapshot of the store
+     * @throws IllegalArgumentException if store is null
+     * @throws RuntimeException         if serialization fails
+     */
+    @Override
+    public String serialize(MemFileEmbeddingStore<T> store) {
+        ensureNotNull(store, "store");
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            store.writeBinarySnapshot(Channels.newChannel(bytes));
+            return Base64.getEncoder().encodeToString(bytes.toByteArray());
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to serialize MemFileEmbeddingStore", e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The snapshot is streamed to a temporary file next to the target file, which is then moved to the target
+     * file, atomically when the file system supports it. A failed write leaves an existing file untouched.
+     * </p>
+     *
+     * @param store    the embedding store to serialize; must not be null
+     * @param filePath the path where the snapshot will be written; must not be null
+     * @throws IllegalArgumentException if store or filePath is null
+     * @throws RuntimeException         if file I/O operations fail
+     */
+    @Override
+    public void serializeToFile(MemFileEmbeddingStore<T> store, Path filePath) {
+        ensureNotNull(store, "store");
+        ensureNotNull(filePath, "filePath");
+        Path temporaryFile = filePath.resolveSibling(filePath.getFileName() + ".tmp");
+        try {
+            if (filePath.getParent() != null) {
+                Files.createDirectories(filePath.getParent());
+            }
+            try (FileChannel channel = FileChannel.open(temporaryFile, CREATE, TRUNCATE_EXISTING, WRITE)) {
+                store.writeBinarySnapshot(channel);
+                channel.force(false);
+            }
+            try {
+                Files.move(temporaryFile, filePath, ATOMIC_MOVE, REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporaryFile, filePath, REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            try {
+                Files.deleteIfExists(temporaryFile);
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw new RuntimeException("Failed to serialize MemFileEmbeddingStore to file: " + filePath, e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Deserializes a Base64 encoded binary snapshot, as returned by {@link #serialize(MemFileEmbeddingStore)}.
+     * </p>
+     *
+     * @param data the Base64 encoding of a binary snapshot; must not be null or blank
+     * @return a new MemFileEmbeddingStore instance restored from the snapshot
+     * @throws IllegalArgumentException if data is null, blank, or not valid Base64
+     * @throws RuntimeException         if the snapshot is invalid
+     */
+    @Override
+    public MemFileEmbeddingStore<T> deserialize(String data) {
+        ensureNotBlank(data, "data");
+        byte[] bytes = Base64.getDecoder().decode(data);
+        try {
+            return MemFileEmbeddingStore.readBinarySnapshot(Channels.newChannel(new ByteArrayInputStream(bytes)));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to deserialize MemFileEmbeddingStore", e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The vector block of the file is memory-mapped and copied in bulk into the store, instead of being parsed.
+     * </p>
+     *
+     * @param filePath the path to the snapshot file; must not be null
+     * @return a new MemFileEmbeddingStore instance restored from the file
+     * @throws IllegalArgumentException if filePath is null
+     * @throws RuntimeException         if the file cannot be read or is not a valid snapshot
+     */
+    @Override
+    public MemFileEmbeddingStore<T> deserializeFromFile(Path filePath) {
+        ensureNotNull(filePath, "filePath");
+        try (FileChannel channel = FileChannel.open(filePath, READ)) {
+            return MemFileEmbeddingStore.readBinarySnapshot(channel);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to load MemFileEmbeddingStore from file: " + filePath, e);
+        }
+    }
+}
@@ -181,7 +181,11 @@ public class JsonStoreSerializationStrategy<T> implements StoreSerializationStra
             @SuppressWarnings("unchecked")
             MemFileStoreData<T> data = OBJECT_MAPPER.readValue(json, MemFileStoreData.class);
             return new MemFileEmbeddingStore<T>(
-                    data.getEntries(), Paths.get(data.getChunkStorageDirectory()), data.getCacheSize());
+                    data.getEntries(),
+                    Paths.get(data.getChunkStorageDirectory()),
+                    data.getCacheSize(),
+                    data.getChunkStorageMode(),
+                    data.getVectorQuantization());
         } catch (JsonProcessingException e) {
             throw new RuntimeException("Failed to deserialize MemFileEmbeddingStore from JSON", e);
         }
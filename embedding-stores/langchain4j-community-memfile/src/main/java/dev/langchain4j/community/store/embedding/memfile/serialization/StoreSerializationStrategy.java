@@ -75,6 +75,7 @@ import java.nio.file.Paths;
  *
  * @param <T> the type of embedded objects stored in the embedding store (typically {@link dev.langchain4j.data.segment.TextSegment})
  * @see JsonStoreSerializationStrategy
+ * @see BinaryStoreSerializationStrategy
  * @see MemFileEmbeddingStore
  */
 public interface StoreSerializationStrategy<T> {
@@ -0,0 +1,149 @@
+package dev.langchain4j.community.store.embedding.memfile;
+
+import static dev.langchain4j.store.embedding.filter.MetadataFilterBuilder.metadataKey;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import dev.langchain4j.community.store.embedding.memfile.serialization.BinaryStoreSerializationStrategy;
+import dev.langchain4j.data.document.Metadata;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class BinaryStoreSerializationStrategyTest {
+
+    private static final int DIMENSION = 13;
+
+    @TempDir
+    Path tempDir;
+
+    private final BinaryStoreSerializationStrategy<TextSegment> strategy = new BinaryStoreSerializationStrategy<>();
+
+    @Test
+    void should_restore_same_search_results_when_deserializing_from_file() {
+        // given
+        MemFileEmbeddingStore<TextSegment> store = storeWithEntries(VectorStorage.PAGE_SIZE + 100);
+        Path file = tempDir.resolve("snapshot/store.bin");
+        EmbeddingSearchRequest request = EmbeddingSearchRequest.builder()
+                .queryEmbedding(Embedding.from(randomVector(new Random(7))))
+                .maxResults(10)
+                .filter(metadataKey("parity").isEqualTo("even"))
+                .build();
+        List<EmbeddingMatch<TextSegment>> expected = store.search(request).matches();
+
+        // when
+        store.serializeToFile(strategy, file);
+        store.close();
+        MemFileEmbeddingStore<TextSegment> restored = store.deserializeFromFile(strategy, file);
+
+        // then
+        assertSameMatches(restored.search(request).matches(), expected);
+        restored.close();
+    }
+
+    @Test
+    void should_restore_store_when_deserializing_from_string() {
+        // given
+        MemFileEmbeddingStore<TextSegment> store = storeWithEntries(100);
+        EmbeddingSearchRequest request = EmbeddingSearchRequest.builder()
+                .queryEmbedding(Embedding.from(randomVector(new Random(7))))
+                .maxResults(200)
+                .build();
+        List<EmbeddingMatch<TextSegment>> expected = store.search(request).matches();
+
+        // when
+        String serialized = store.serialize(strategy);
+        store.close();
+        MemFileEmbeddingStore<TextSegment> restored = store.deserialize(strategy, serialized);
+
+        // then
+        assertSameMatches(restored.search(request).matches(), expected);
+
+        // the restored store can be modified
+        restored.add("added", Embedding.from(randomVector(new Random(7))), TextSegment.from("added"));
+        restored.removeAll(List.of("id-1"));
+        assertThat(restored.search(request).matches())
+                .hasSize(100)
+                .first()
+                .extracting(EmbeddingMatch::embeddingId)
+                .isEqualTo("added");
+        restored.close();
+    }
+
+    @Test
+    void should_fail_when_chunk_storage_directory_is_used_by_open_store() {
+        // given
+        MemFileEmbeddingStore<TextSegment> store = storeWithEntries(10);
+        String serialized = store.serialize(strategy);
+
+        // then
+        assertThatThrownBy(() -> strategy.deserialize(serialized))
+                .isExactlyInstanceOf(IllegalStateException.class)
+                .hasMessage("Chunk storage directory " + tempDir.resolve("chunks")
+                        + " is already used by another store, which must be closed first");
+        store.close();
+    }
+
+    @Test
+    void should_fail_when_file_is_truncated() throws IOException {
+        // given
+        MemFileEmbeddingStore<TextSegment> store = storeWithEntries(100);
+        Path file = tempDir.resolve("store.bin");
+        store.serializeToFile(strategy, file);
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 1));
+        store.close();
+
+        // then
+        assertThatThrownBy(() -> strategy.deserializeFromFile(file))
+                .isExactlyInstanceOf(RuntimeException.class)
+                .hasRootCauseInstanceOf(IOException.class);
+    }
+
+    private MemFileEmbeddingStore<TextSegment> storeWithEntries(int count) {
+        MemFileEmbeddingStore<TextSegment> store = MemFileEmbeddingStore.<TextSegment>builder()
+                .chunkStorageDirectory(tempDir.resolve("chunks"))
+                .chunkStorageMode(ChunkStorageMode.PACKED)
+                .build();
+        Random random = new Random(42);
+        for (int i = 0; i < count; i++) {
+            Embedding embedding = Embedding.from(randomVector(random));
+            if (i % 10 == 0) {
+                // entries without embedded content
+                store.add("id-" + i, embedding);
+            } else {
+                Metadata metadata = Metadata.from("parity", i % 2 == 0 ? "even" : "odd").put("index", i);
+                store.add("id-" + i, embedding, TextSegment.from("text-" + i, metadata));
+            }
+        }
+        return store;
+    }
+
+    private static void assertSameMatches(
+            List<EmbeddingMatch<TextSegment>> actual, List<EmbeddingMatch<TextSegment>> expected) {
+        assertThat(actual).hasSameSizeAs(expected);
+        for (int i = 0; i < expected.size(); i++) {
+            assertThat(actual.get(i).embeddingId()).isEqualTo(expected.get(i).embeddingId());
+            assertThat(actual.get(i).score()).isEqualTo(expected.get(i).score());
+            assertThat(actual.get(i).embedding()).isEqualTo(expected.get(i).embedding());
+            assertThat(actual.get(i).embedded()).isEqualTo(expected.get(i).embedded());
+        }
+    }
+
+    private static float[] randomVector(Random random) {
+        float[] vector = new float[DIMENSION];
+        for (int i = 0; i < DIMENSION; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return vector;
+    }
+}
@@ -0,0 +1,133 @@
+package dev.langchain4j.community.store.embedding.memfile;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToLongFunction;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+class ChunkCacheTest {
+
+    private final Map<String, String> disk = new HashMap<>();
+    private final AtomicLong ticker = new AtomicLong();
+
+    @Test
+    void should_keep_frequently_read_chunks_when_scanning_many_chunks_once() {
+        // given
+        ChunkCache<String> cache = cache(100, chunk -> 1, 0);
+        for (int i = 0; i < 50; i++) {
+            read(cache, "hot-" + i);
+        }
+
+        // when
+        for (int batch = 0; batch < 100; batch++) {
+            // each batch would evict the hot chunks from an LRU cache
+            for (int i = 0; i < 100; i++) {
+                read(cache, "scanned-" + batch + "-" + i);
+            }
+            for (int i = 0; i < 50; i++) {
+                read(cache, "hot-" + i);
+            }
+        }
+
+        // then
+        long hotChunks = IntStream.range(0, 50)
+                .filter(i -> cache.get("hot-" + i) != null)
+                .count();
+        assertThat(hotChunks).isEqualTo(50);
+        assertThat(cache.weightedSize()).isLessThanOrEqualTo(100);
+        assertThat(cache.stats().hitCount()).isGreaterThan(99 * 50);
+    }
+
+    @Test
+    void should_bound_total_weight_and_count_evictions() {
+        // given
+        ChunkCache<String> cache = cache(1000, String::length, 0);
+
+        // when
+        for (int i = 0; i < 100; i++) {
+            read(cache, "chunk-" + i + "-" + "x".repeat(i));
+        }
+        cache.put("too-large", "x".repeat(1001));
+
+        // then
+        assertThat(cache.weightedSize()).isLessThanOrEqualTo(1000);
+        assertThat(cache.get("too-large")).isNull();
+        ChunkCacheStats stats = cache.stats();
+        assertThat(stats.missCount()).isEqualTo(101);
+        assertThat(stats.hitCount()).isZero();
+        assertThat(stats.evictionCount()).isPositive();
+        assertThat(stats.evictionWeight()).isGreaterThanOrEqualTo(stats.evictionCount());
+    }
+
+    @Test
+    void should_bound_total_weight_when_cached_chunk_is_replaced_by_larger_one() {
+        // given
+        ChunkCache<String> cache = cache(100, String::length, 0);
+        for (int i = 0; i < 20; i++) {
+            cache.put("id-" + i, "x".repeat(4));
+        }
+
+        // when
+        cache.put("id-0", "x".repeat(40));
+
+        // then
+        assertThat(cache.weightedSize()).isLessThanOrEqualTo(100);
+        assertThat(cache.get("id-0")).hasSize(40);
+        assertThat(cache.stats().evictionCount()).isEqualTo(5);
+    }
+
+    @Test
+    void should_reload_chunk_when_read_after_refresh_interval() {
+        // given
+        ChunkCache<String> cache = cache(10, chunk -> 1, 1_000);
+        disk.put("id-1", "first");
+        disk.put("id-2", "second");
+        cache.put("id-1", "first");
+        cache.put("id-2", "second");
+        disk.put("id-1", "first, updated");
+        disk.remove("id-2");
+
+        // when
+        ticker.addAndGet(999);
+        String beforeInterval = cache.get("id-1");
+        ticker.addAndGet(1);
+        String afterInterval = cache.get("id-1");
+        cache.get("id-2");
+
+        // then
+        assertThat(beforeInterval).isEqualTo("first");
+        assertThat(afterInterval).isEqualTo("first"); // reloaded in the background
+        assertThat(cache.get("id-1")).isEqualTo("first, updated");
+        assertThat(cache.get("id-2")).isNull();
+        assertThat(cache.stats().refreshCount()).isEqualTo(2);
+        assertThat(cache.stats().hitRate()).isEqualTo(4 / 5.0);
+    }
+
+    @Test
+    void should_not_cache_when_capacity_is_zero() {
+        // given
+        ChunkCache<String> cache = cache(0, chunk -> 1, 0);
+
+        // when
+        cache.put("id-1", "first");
+
+        // then
+        assertThat(cache.get("id-1")).isNull();
+        assertThat(cache.weightedSize()).isZero();
+    }
+
+    private ChunkCache<String> cache(long maximumWeight, ToLongFunction<String> weigher, long refreshAfterWriteNanos) {
+        return new ChunkCache<>(maximumWeight, weigher, refreshAfterWriteNanos, disk::get, Runnable::run, ticker::get);
+    }
+
+    private static void read(ChunkCache<String> cache, String key) {
+        // as the store does: looks the chunk up, then caches it when it was loaded
+        if (cache.get(key) == null) {
+            cache.put(key, key);
+        }
+    }
+}
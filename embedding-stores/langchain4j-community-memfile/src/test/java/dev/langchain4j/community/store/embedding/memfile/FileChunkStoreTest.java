@@ -0,0 +1,73 @@
+package dev.langchain4j.community.store.embedding.memfile;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import dev.langchain4j.data.document.Metadata;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class FileChunkStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void should_load_chunks_in_requested_order_when_loading_many() {
+        // given
+        FileChunkStore<TextSegment> store = new FileChunkStore<>(tempDir);
+        List<String> chunkFilePaths = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            chunkFilePaths.add(store.save("id-" + i, TextSegment.from("text-" + i, Metadata.from("index", i))));
+        }
+        Collections.reverse(chunkFilePaths);
+
+        // when
+        List<TextSegment> chunks = store.loadAll(chunkFilePaths);
+
+        // then
+        assertThat(chunks).hasSize(50);
+        for (int i = 0; i < 50; i++) {
+            assertThat(chunks.get(i).text()).isEqualTo("text-" + (49 - i));
+            assertThat(chunks.get(i).metadata().getInteger("index")).isEqualTo(49 - i);
+        }
+    }
+
+    @Test
+    void should_return_null_for_missing_or_corrupted_chunks_when_searching_with_cold_cache() throws IOException {
+        // given
+        MemFileEmbeddingStore<TextSegment> store = MemFileEmbeddingStore.<TextSegment>builder()
+                .chunkStorageDirectory(tempDir)
+                .cacheSize(0)
+                .build();
+        for (int i = 0; i < 5; i++) {
+            store.add("id-" + i, Embedding.from(new float[] {1, i}), TextSegment.from("text-" + i));
+        }
+        Files.delete(tempDir.resolve("id-1.json"));
+        Files.writeString(tempDir.resolve("id-3.json"), "{\"text\": \"trunc");
+
+        // when
+        List<EmbeddingMatch<TextSegment>> matches = store.search(EmbeddingSearchRequest.builder()
+                        .queryEmbedding(Embedding.from(new float[] {1, 0}))
+                        .maxResults(5)
+                        .build())
+                .matches();
+
+        // then
+        assertThat(matches)
+                .extracting(EmbeddingMatch::embeddingId)
+                .containsExactly("id-0", "id-1", "id-2", "id-3", "id-4");
+        assertThat(matches)
+                .extracting(match -> match.embedded() == null ? null : match.embedded().text())
+                .containsExactly("text-0", null, "text-2", null, "text-4");
+    }
+}
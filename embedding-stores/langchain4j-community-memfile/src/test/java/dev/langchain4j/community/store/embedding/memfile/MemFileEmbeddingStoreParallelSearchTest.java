@@ -0,0 +1,101 @@
+package dev.langchain4j.community.store.embedding.memfile;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MemFileEmbeddingStoreParallelSearchTest {
+
+    private static final int DIMENSION = 16;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void should_find_same_matches_as_sequential_scan_when_searching_in_partitions() {
+        // given
+        AtomicInteger scannedPartitions = new AtomicInteger();
+        Executor executor = task -> {
+            scannedPartitions.incrementAndGet();
+            ForkJoinPool.commonPool().execute(task);
+        };
+        MemFileEmbeddingStore<TextSegment> sequentialStore = new MemFileEmbeddingStore<>(tempDir.resolve("sequential"));
+        MemFileEmbeddingStore<TextSegment> parallelStore = MemFileEmbeddingStore.<TextSegment>builder()
+                .chunkStorageDirectory(tempDir.resolve("parallel"))
+                .searchExecutor(executor)
+                .searchPartitionSize(100)
+                .parallelSearchThreshold(500)
+                .build();
+        Random random = new Random(42);
+        for (int i = 0; i < 1050; i++) {
+            Embedding embedding = randomEmbedding(random);
+            sequentialStore.add("id-" + i, embedding);
+            parallelStore.add("id-" + i, embedding);
+        }
+        EmbeddingSearchRequest request = EmbeddingSearchRequest.builder()
+                .queryEmbedding(randomEmbedding(random))
+                .maxResults(7)
+                .build();
+
+        // when
+        List<EmbeddingMatch<TextSegment>> matches = parallelStore.search(request).matches();
+
+        // then
+        assertThat(matches)
+                .extracting(EmbeddingMatch::embeddingId)
+                .containsExactlyElementsOf(sequentialStore.search(request).matches().stream()
+                        .map(EmbeddingMatch::embeddingId)
+                        .toList());
+        assertThat(scannedPartitions).hasValue(10);
+    }
+
+    @Test
+    void should_scan_in_calling_thread_when_store_is_below_threshold() {
+        // given
+        AtomicInteger scannedPartitions = new AtomicInteger();
+        Executor executor = task -> {
+            scannedPartitions.incrementAndGet();
+            task.run();
+        };
+        MemFileEmbeddingStore<TextSegment> store = MemFileEmbeddingStore.<TextSegment>builder()
+                .chunkStorageDirectory(tempDir)
+                .searchExecutor(executor)
+                .searchPartitionSize(100)
+                .parallelSearchThreshold(500)
+                .build();
+        Random random = new Random(42);
+        for (int i = 0; i < 499; i++) {
+            store.add(randomEmbedding(random));
+        }
+
+        // when
+        List<EmbeddingMatch<TextSegment>> matches = store.search(EmbeddingSearchRequest.builder()
+                        .queryEmbedding(randomEmbedding(random))
+                        .maxResults(3)
+                        .build())
+                .matches();
+
+        // then
+        assertThat(matches).hasSize(3);
+        assertThat(scannedPartitions).hasValue(0);
+    }
+
+    private static Embedding randomEmbedding(Random random) {
+        float[] vector = new float[DIMENSION];
+        for (int i = 0; i < DIMENSION; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return Embedding.from(vector);
+    }
+}
@@ -0,0 +1,175 @@
+package dev.langchain4j.community.store.embedding.memfile;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+class MemFileEmbeddingStoreQuantizationTest {
+
+    private static final int DIMENSION = 96;
+    private static final int CLUSTERS = 20;
+    private static final int COUNT = 2_000;
+
+    @TempDir
+    Path tempDir;
+
+    private final Random random = new Random(11);
+    private final float[][] centroids = IntStream.range(0, CLUSTERS)
+            .mapToObj(i -> randomVector(new float[DIMENSION], 1))
+            .toArray(float[][]::new);
+
+    @ParameterizedTest
+    @EnumSource(value = VectorQuantization.class, names = {"INT8", "BINARY"})
+    void should_find_matches_of_exact_search_with_exact_scores_when_vectors_are_quantized(
+            VectorQuantization quantization) {
+        // given
+        MemFileEmbeddingStore<TextSegment> exact = store(VectorQuantization.NONE);
+        MemFileEmbeddingStore<TextSegment> quantized = store(quantization);
+        for (int i = 0; i < COUNT; i++) {
+            Embedding embedding = Embedding.from(clusteredVector());
+            exact.add("id-" + i, embedding);
+            quantized.add("id-" + i, embedding);
+        }
+
+        // when
+        int found = 0;
+        for (int query = 0; query < 20; query++) {
+            EmbeddingSearchRequest request = EmbeddingSearchRequest.builder()
+                    .queryEmbedding(Embedding.from(clusteredVector()))
+                    .maxResults(10)
+                    .build();
+            List<EmbeddingMatch<TextSegment>> expected = exact.search(request).matches();
+            List<EmbeddingMatch<TextSegment>> actual = quantized.search(request).matches();
+
+            // then
+            assertThat(actual).hasSize(10);
+            for (EmbeddingMatch<TextSegment> match : actual) {
+                EmbeddingMatch<TextSegment> exactMatch = expected.stream()
+                        .filter(candidate -> candidate.embeddingId().equals(match.embeddingId()))
+                        .findFirst()
+                        .orElse(null);
+                if (exactMatch != null) {
+                    found++;
+                    assertThat(match.score()).isEqualTo(exactMatch.score());
+                    assertThat(match.embedding()).isEqualTo(exactMatch.embedding());
+                }
+            }
+        }
+        assertThat(found / 200.0).isGreaterThanOrEqualTo(0.9);
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = VectorQuantization.class, names = {"INT8", "BINARY"})
+    void should_keep_quantization_when_compacted_and_restored_from_binary_snapshot(VectorQuantization quantization)
+            throws IOException {
+        // given
+        MemFileEmbeddingStore<TextSegment> store = MemFileEmbeddingStore.<TextSegment>builder()
+                .chunkStorageDirectory(tempDir.resolve("chunks"))
+                .vectorQuantization(quantization)
+                .compactionThreshold(0.0)
+                .build();
+        float[][] vectors = new float[100][];
+        for (int i = 0; i < vectors.length; i++) {
+            vectors[i] = clusteredVector();
+            store.add("id-" + i, Embedding.from(vectors[i]), TextSegment.from("text-" + i));
+        }
+        store.removeAll(IntStream.range(0, 50).mapToObj(i -> "id-" + i).toList());
+
+        // when
+        Path file = tempDir.resolve("store.bin");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            store.writeBinarySnapshot(channel);
+        }
+        MemFileEmbeddingStore<TextSegment> restored;
+        try (FileChannel channel = FileChannel.open(file)) {
+            restored = MemFileEmbeddingStore.readBinarySnapshot(channel);
+        }
+
+        // then
+        for (MemFileEmbeddingStore<TextSegment> searched : List.of(store, restored)) {
+            EmbeddingSearchRequest request = EmbeddingSearchRequest.builder()
+                    .queryEmbedding(Embedding.from(vectors[75]))
+                    .maxResults(100)
+                    .build();
+            List<EmbeddingMatch<TextSegment>> matches = searched.search(request).matches();
+            assertThat(matches).hasSize(50);
+            assertThat(matches.get(0).embeddingId()).isEqualTo("id-75");
+            assertThat(matches.get(0).score()).isCloseTo(1.0, within(1e-6));
+            assertThat(matches.get(0).embedding().vector()).containsExactly(vectors[75]);
+            assertThat(matches.get(0).embedded().text()).isEqualTo("text-75");
+        }
+        assertThat(restored.memFileStoreData().getVectorQuantization()).isEqualTo(quantization);
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = VectorQuantization.class, names = {"INT8", "BINARY"})
+    void should_delete_vector_files_when_closed_or_left_unused(VectorQuantization quantization) throws IOException {
+        // given
+        MemFileEmbeddingStore<TextSegment> store = store(quantization);
+        store.add("id-1", Embedding.from(clusteredVector()));
+        Path vectorDirectory = tempDir.resolve(quantization.name()).resolve("vectors");
+        Path unused = vectorDirectory.resolve("vectors-unused.f32");
+        Files.write(unused, new byte[DIMENSION * Float.BYTES]);
+
+        // when
+        MemFileEmbeddingStore<TextSegment> other = store(quantization);
+
+        // then
+        assertThat(unused).doesNotExist();
+        assertThat(vectorFiles(vectorDirectory)).hasSize(1);
+        assertThat(store.search(EmbeddingSearchRequest.builder()
+                                .queryEmbedding(Embedding.from(clusteredVector()))
+                                .build())
+                        .matches())
+                .hasSize(1);
+
+        // when
+        store.close();
+        other.close();
+
+        // then
+        assertThat(vectorFiles(vectorDirectory)).isEmpty();
+    }
+
+    private static List<Path> vectorFiles(Path vectorDirectory) throws IOException {
+        try (Stream<Path> files = Files.list(vectorDirectory)) {
+            return files.toList();
+        }
+    }
+
+    private MemFileEmbeddingStore<TextSegment> store(VectorQuantization quantization) {
+        return MemFileEmbeddingStore.<TextSegment>builder()
+                .chunkStorageDirectory(tempDir.resolve(quantization.name()))
+                .vectorQuantization(quantization)
+                .build();
+    }
+
+    // Embeddings are clustered by topic, unlike random vectors whose nearest neighbors are barely closer than others
+    private float[] clusteredVector() {
+        float[] vector = centroids[random.nextInt(CLUSTERS)].clone();
+        return randomVector(vector, 0.5);
+    }
+
+    private float[] randomVector(float[] vector, double deviation) {
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] += (float) (random.nextGaussian() * deviation);
+        }
+        return vector;
+    }
+}
@@ -1,17 +1,22 @@
 package dev.langchain4j.community.store.embedding.memfile;
 
+import static dev.langchain4j.store.embedding.filter.MetadataFilterBuilder.metadataKey;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import dev.langchain4j.community.store.embedding.memfile.serialization.JsonStoreSerializationStrategy;
 import dev.langchain4j.community.store.embedding.memfile.serialization.StoreSerializationStrategy;
+import dev.langchain4j.data.document.Metadata;
+import dev.langchain4j.data.embedding.Embedding;
 import dev.langchain4j.data.segment.TextSegment;
 import dev.langchain4j.model.embedding.EmbeddingModel;
 import dev.langchain4j.model.embedding.onnx.allminilml6v2q.AllMiniLmL6V2QuantizedEmbeddingModel;
 import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.List;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -170,6 +175,57 @@ class MemFileEmbeddingStoreSerializationTest {
                 .isEqualTo(text2);
     }
 
+    @Test
+    void should_restore_metadata_from_json_without_reading_chunks() {
+        // given
+        addSegmentsInTwoLanguages();
+        String json = embeddingStore.serialize(strategy);
+
+        // when
+        MemFileEmbeddingStore<TextSegment> deserializedStore = embeddingStore.deserialize(strategy, json);
+
+        // then
+        assertThat(deserializedStore.chunkCacheStats().missCount()).isZero();
+        assertThat(searchFrench(deserializedStore)).containsExactly("bonjour");
+    }
+
+    @Test
+    void should_read_metadata_from_chunks_when_json_entries_have_none() throws Exception {
+        // given
+        addSegmentsInTwoLanguages();
+        ObjectMapper mapper = new ObjectMapper();
+        ObjectNode rootNode = (ObjectNode) mapper.readTree(embeddingStore.serialize(strategy));
+        // as written before entries held their metadata
+        rootNode.remove("entryMetadata");
+        rootNode.get("entries").forEach(entryNode -> ((ObjectNode) entryNode).remove("metadata"));
+
+        // when
+        MemFileEmbeddingStore<TextSegment> deserializedStore =
+                embeddingStore.deserialize(strategy, mapper.writeValueAsString(rootNode));
+
+        // then
+        assertThat(searchFrench(deserializedStore)).containsExactly("bonjour");
+    }
+
+    private void addSegmentsInTwoLanguages() {
+        embeddingStore.add(Embedding.from(new float[] {1, 0}), TextSegment.from("hello", Metadata.from("lang", "en")));
+        embeddingStore.add(
+                Embedding.from(new float[] {1, 0.1f}), TextSegment.from("bonjour", Metadata.from("lang", "fr")));
+    }
+
+    private static List<String> searchFrench(MemFileEmbeddingStore<TextSegment> store) {
+        return store
+                .search(EmbeddingSearchRequest.builder()
+                        .queryEmbedding(Embedding.from(new float[] {1, 0}))
+                        .maxResults(10)
+                        .filter(metadataKey("lang").isEqualTo("fr"))
+                        .build())
+                .matches()
+                .stream()
+                .map(match -> match.embedded().text())
+                .toList();
+    }
+
     @Test
     void should_handle_empty_store_serialization() throws Exception {
         // given - empty store
@@ -0,0 +1,55 @@
+package dev.langchain4j.community.store.embedding.memfile;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MemFileEmbeddingStoreUpsertTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void should_replace_entry_and_cached_chunk_when_adding_existing_id() {
+        // given
+        MemFileEmbeddingStore<TextSegment> store = MemFileEmbeddingStore.<TextSegment>builder()
+                .chunkStorageDirectory(tempDir)
+                .cacheSize(10)
+                .build();
+        store.add("id-1", Embedding.from(new float[] {1, 0}), TextSegment.from("first"));
+        store.add("id-2", Embedding.from(new float[] {0, 1}), TextSegment.from("second"));
+        EmbeddingSearchRequest request = EmbeddingSearchRequest.builder()
+                .queryEmbedding(Embedding.from(new float[] {1, 0}))
+                .maxResults(10)
+                .build();
+        assertThat(store.search(request).matches()).hasSize(2); // caches both chunks
+
+        // when
+        store.add("id-1", Embedding.from(new float[] {0, 1}), TextSegment.from("first, updated"));
+        store.add("id-2", Embedding.from(new float[] {1, 0}));
+
+        // then
+        List<EmbeddingMatch<TextSegment>> matches = store.search(request).matches();
+        assertThat(matches).extracting(EmbeddingMatch::embeddingId).containsExactly("id-2", "id-1");
+        assertThat(matches.get(0).embedded()).isNull();
+        assertThat(matches.get(1).embedded().text()).isEqualTo("first, updated");
+        assertThat(Files.exists(tempDir.resolve("id-2.json"))).isFalse();
+
+        // when
+        store.removeAll(List.of("id-1", "unknown"));
+
+        // then
+        assertThat(store.search(request).matches())
+                .extracting(EmbeddingMatch::embeddingId)
+                .containsExactly("id-2");
+        assertThat(Files.exists(tempDir.resolve("id-1.json"))).isFalse();
+    }
+}
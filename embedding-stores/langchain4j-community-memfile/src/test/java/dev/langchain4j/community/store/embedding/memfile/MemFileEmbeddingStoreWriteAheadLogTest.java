@@ -0,0 +1,210 @@
+package dev.langchain4j.community.store.embedding.memfile;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MemFileEmbeddingStoreWriteAheadLogTest {
+
+    private static final int DIMENSION = 8;
+
+    @TempDir
+    Path tempDir;
+
+    private final Random random = new Random(5);
+    private final float[] query = randomVector();
+
+    @Test
+    void should_restore_writes_when_reopening_store_without_checkpoint() {
+        // given
+        MemFileEmbeddingStore<TextSegment> store = store();
+        for (int i = 0; i < 100; i++) {
+            store.add("id-" + i, Embedding.from(randomVector()), TextSegment.from("text-" + i));
+        }
+        store.add("id-3", Embedding.from(randomVector()), TextSegment.from("text-3, updated"));
+        store.addAll(
+                List.of("id-100", "id-101"),
+                List.of(Embedding.from(randomVector()), Embedding.from(randomVector())),
+                Arrays.asList(TextSegment.from("text-100"), null));
+        store.removeAll(List.of("id-1", "id-2", "unknown"));
+        List<String> expected = matches(store);
+        store.close();
+
+        // when
+        MemFileEmbeddingStore<TextSegment> restored = store();
+
+        // then
+        assertThat(matches(restored)).hasSize(100).isEqualTo(expected);
+        restored.close();
+    }
+
+    @Test
+    void should_replace_log_files_by_checkpoint() throws IOException {
+        // given
+        MemFileEmbeddingStore<TextSegment> store = store();
+        for (int i = 0; i < 100; i++) {
+            store.add("id-" + i, Embedding.from(randomVector()), TextSegment.from("text-" + i));
+        }
+        List<String> logFiles = files();
+
+        // when
+        store.checkpoint();
+        store.add("id-100", Embedding.from(randomVector()));
+        store.removeAll(List.of("id-0"));
+
+        // then
+        assertThat(files()).doesNotContainAnyElementsOf(logFiles).hasSize(2);
+        List<String> expected = matches(store);
+        store.close();
+        MemFileEmbeddingStore<TextSegment> restored = store();
+        assertThat(matches(restored)).hasSize(100).isEqualTo(expected);
+
+        // when
+        restored.removeAll();
+        restored.close();
+
+        // then
+        MemFileEmbeddingStore<TextSegment> cleared = store();
+        assertThat(matches(cleared)).isEmpty();
+        cleared.close();
+    }
+
+    @Test
+    void should_ignore_incomplete_record_left_by_crash() throws IOException {
+        // given
+        MemFileEmbeddingStore<TextSegment> store = store();
+        for (int i = 0; i < 100; i++) {
+            store.add("id-" + i, Embedding.from(randomVector()));
+        }
+        List<String> expected = matches(store);
+        store.close();
+        Files.write(lastLogFile(), new byte[] {0, 0, 0, 64, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        // when
+        MemFileEmbeddingStore<TextSegment> restored = store();
+        restored.add("id-100", Embedding.from(randomVector()));
+
+        // then
+        assertThat(matches(restored)).hasSize(101).containsAll(expected);
+        List<String> restoredMatches = matches(restored);
+        restored.close();
+        MemFileEmbeddingStore<TextSegment> restoredAgain = store();
+        assertThat(matches(restoredAgain)).isEqualTo(restoredMatches);
+        restoredAgain.close();
+    }
+
+    @Test
+    void should_fail_recovery_when_record_followed_by_others_is_corrupted() throws IOException {
+        // given
+        MemFileEmbeddingStore<TextSegment> store = store();
+        for (int i = 0; i < 10; i++) {
+            store.add("id-" + i, Embedding.from(randomVector()));
+        }
+        store.close();
+        Path logFile = lastLogFile();
+        byte[] bytes = Files.readAllBytes(logFile);
+        bytes[12] ^= 1; // in the body of the first record
+        Files.write(logFile, bytes);
+
+        // then
+        assertThatThrownBy(this::store)
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("Failed to recover write-ahead log")
+                .hasStackTraceContaining("Corrupted record at offset 0");
+    }
+
+    @Test
+    void should_not_apply_write_when_it_cannot_be_logged() {
+        // given
+        MemFileEmbeddingStore<TextSegment> store = store();
+        store.add("id-0", Embedding.from(randomVector()));
+        assertThatThrownBy(() -> store.add("id-1", Embedding.from(new float[DIMENSION + 1])))
+                .isInstanceOf(IllegalArgumentException.class);
+        List<String> expected = matches(store);
+
+        // when
+        store.close();
+
+        // then
+        assertThatThrownBy(() -> store.add("id-2", Embedding.from(randomVector())))
+                .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> store.removeAll(List.of("id-0"))).isInstanceOf(IllegalStateException.class);
+        assertThat(matches(store)).hasSize(1).isEqualTo(expected);
+        MemFileEmbeddingStore<TextSegment> restored = store();
+        assertThat(matches(restored)).isEqualTo(expected);
+        restored.close();
+    }
+
+    @Test
+    void should_fail_to_open_log_used_by_open_store() {
+        // given
+        MemFileEmbeddingStore<TextSegment> store = store();
+
+        // then
+        assertThatThrownBy(this::store)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("already used by another store");
+        store.close();
+    }
+
+    private MemFileEmbeddingStore<TextSegment> store() {
+        return MemFileEmbeddingStore.<TextSegment>builder()
+                .chunkStorageDirectory(tempDir.resolve("chunks"))
+                .writeAheadLogDirectory(tempDir.resolve("wal"))
+                .build();
+    }
+
+    private List<String> matches(MemFileEmbeddingStore<TextSegment> store) {
+        EmbeddingSearchRequest request = EmbeddingSearchRequest.builder()
+                .queryEmbedding(Embedding.from(query))
+                .maxResults(1000)
+                .build();
+        return store.search(request).matches().stream()
+                .map(MemFileEmbeddingStoreWriteAheadLogTest::describe)
+                .toList();
+    }
+
+    private static String describe(EmbeddingMatch<TextSegment> match) {
+        String text = match.embedded() != null ? match.embedded().text() : null;
+        return match.embeddingId() + " " + match.score() + " " + text;
+    }
+
+    private List<String> files() throws IOException {
+        try (Stream<Path> files = Files.list(tempDir.resolve("wal"))) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(file -> !file.equals(WriteAheadLog.LOCK_FILE_NAME))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private Path lastLogFile() throws IOException {
+        String lastLogFile = files().stream()
+                .filter(file -> file.endsWith(".log"))
+                .reduce((first, second) -> second)
+                .orElseThrow();
+        return tempDir.resolve("wal").resolve(lastLogFile);
+    }
+
+    private float[] randomVector() {
+        float[] vector = new float[DIMENSION];
+        for (int i = 0; i < DIMENSION; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return vector;
+    }
+}
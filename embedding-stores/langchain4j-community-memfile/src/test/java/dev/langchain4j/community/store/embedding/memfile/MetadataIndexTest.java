@@ -0,0 +1,74 @@
+package dev.langchain4j.community.store.embedding.memfile;
+
+import static dev.langchain4j.store.embedding.filter.MetadataFilterBuilder.metadataKey;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import dev.langchain4j.data.document.Metadata;
+import dev.langchain4j.store.embedding.filter.Filter;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class MetadataIndexTest {
+
+    @Test
+    void should_match_same_entries_as_filter_when_evaluating_on_index() {
+        // given
+        List<Map<String, Object>> metadata = List.of(
+                Map.of("color", "red", "size", 1),
+                Map.of("color", "blue", "size", 2),
+                Map.of("color", "red"),
+                Map.of("size", 3),
+                Map.of());
+        MetadataIndex index = new MetadataIndex();
+        for (int slot = 0; slot < metadata.size(); slot++) {
+            index.set(slot, metadata.get(slot));
+        }
+        MetadataIndex.View view = index.view();
+
+        List<Filter> filters = List.of(
+                metadataKey("color").isEqualTo("red"),
+                metadataKey("color").isNotEqualTo("red"),
+                metadataKey("color").isIn("red", "blue").and(metadataKey("size").isGreaterThan(1)),
+                metadataKey("size").isLessThan(3).or(metadataKey("color").isEqualTo("blue")),
+                Filter.not(metadataKey("color").isEqualTo("red")),
+                metadataKey("unknown").isNotEqualTo("red"),
+                // not a comparison filter, tested against the metadata of each entry
+                object -> ((Metadata) object).toMap().size() == 1);
+
+        for (Filter filter : filters) {
+            // when
+            BitSet matching = view.matching(filter, metadata.size());
+
+            // then
+            BitSet expected = new BitSet();
+            for (int slot = 0; slot < metadata.size(); slot++) {
+                if (filter.test(Metadata.from(metadata.get(slot)))) {
+                    expected.set(slot);
+                }
+            }
+            assertThat(matching).as(filter.toString()).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void should_not_match_entries_without_metadata() {
+        // given
+        MetadataIndex index = new MetadataIndex();
+        index.set(0, null);
+        Map<String, Object> metadata = new HashMap<>();
+        metadata.put("color", "red");
+        index.set(1, metadata);
+
+        // when
+        BitSet matching = index.view().matching(Filter.not(metadataKey("color").isEqualTo("blue")), 2);
+
+        // then
+        assertThat(matching.get(0)).isFalse();
+        assertThat(matching.get(1)).isTrue();
+        assertThat(index.view().metadata(0)).isNull();
+        assertThat(index.view().metadata(1)).containsEntry("color", "red");
+    }
+}
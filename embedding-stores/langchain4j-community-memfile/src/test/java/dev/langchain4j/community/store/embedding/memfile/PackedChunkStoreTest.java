@@ -0,0 +1,129 @@
+package dev.langchain4j.community.store.embedding.memfile;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import dev.langchain4j.data.document.Metadata;
+import dev.langchain4j.data.segment.TextSegment;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class PackedChunkStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void should_restore_latest_chunks_when_reopening_after_compactions() throws IOException {
+        // given
+        PackedChunkStore<TextSegment> store = new PackedChunkStore<>(tempDir, 1024, Runnable::run);
+        Map<String, String> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 1000; i++) {
+            String id = "id-" + random.nextInt(50);
+            if (random.nextInt(4) == 0) {
+                store.delete(List.of(id));
+                expected.remove(id);
+            } else {
+                String text = "text-" + i;
+                store.save(id, TextSegment.from(text, Metadata.from("round", i)));
+                expected.put(id, text);
+            }
+        }
+
+        store.close();
+
+        // when
+        PackedChunkStore<TextSegment> reopened = new PackedChunkStore<>(tempDir, 1024, Runnable::run);
+
+        // then
+        for (int i = 0; i < 50; i++) {
+            String id = "id-" + i;
+            TextSegment chunk = reopened.load(id);
+            if (expected.containsKey(id)) {
+                assertThat(chunk.text()).isEqualTo(expected.get(id));
+            } else {
+                assertThat(chunk).isNull();
+            }
+        }
+        // replaced and removed chunks were reclaimed
+        assertThat(segmentFiles()).hasSizeLessThan(20);
+    }
+
+    @Test
+    void should_load_chunks_in_requested_order() {
+        // given
+        PackedChunkStore<TextSegment> store = new PackedChunkStore<>(tempDir);
+        store.save("id-1", TextSegment.from("one", Metadata.from("key", "value")));
+        store.save("id-2", TextSegment.from("two"));
+
+        // when
+        List<TextSegment> chunks = store.loadAll(List.of("id-2", "missing", "id-1"));
+
+        // then
+        assertThat(chunks).hasSize(3);
+        assertThat(chunks.get(0).text()).isEqualTo("two");
+        assertThat(chunks.get(1)).isNull();
+        assertThat(chunks.get(2).text()).isEqualTo("one");
+        assertThat(chunks.get(2).metadata().getString("key")).isEqualTo("value");
+    }
+
+    @Test
+    void should_ignore_incomplete_record_when_reopening() throws IOException {
+        // given
+        PackedChunkStore<TextSegment> store = new PackedChunkStore<>(tempDir);
+        store.save("id-1", TextSegment.from("one"));
+        store.save("id-2", TextSegment.from("two"));
+        store.close();
+        Path segment = segmentFiles().get(0);
+        byte[] bytes = Files.readAllBytes(segment);
+        Files.write(segment, Arrays.copyOf(bytes, bytes.length - 3));
+
+        // when
+        PackedChunkStore<TextSegment> reopened = new PackedChunkStore<>(tempDir);
+        reopened.save("id-3", TextSegment.from("three"));
+
+        // then
+        assertThat(reopened.load("id-1").text()).isEqualTo("one");
+        assertThat(reopened.load("id-2")).isNull();
+        assertThat(reopened.load("id-3").text()).isEqualTo("three");
+    }
+
+    @Test
+    void should_fail_to_open_directory_used_by_open_store_until_it_is_closed() {
+        // given
+        PackedChunkStore<TextSegment> store = new PackedChunkStore<>(tempDir);
+        store.save("id-1", TextSegment.from("one"));
+
+        // when-then
+        assertThatThrownBy(() -> new PackedChunkStore<>(tempDir))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("already used by another store");
+
+        // when
+        store.close();
+        PackedChunkStore<TextSegment> reopened = new PackedChunkStore<>(tempDir);
+
+        // then
+        assertThat(store.load("id-1")).isNull();
+        assertThat(reopened.load("id-1").text()).isEqualTo("one");
+        reopened.close();
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(tempDir)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".seg"))
+                    .sorted()
+                    .toList();
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package dev.langchain4j.community.store.embedding.memfile;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.store.embedding.CosineSimilarity;
+import dev.langchain4j.store.embedding.RelevanceScore;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+class VectorStorageTest {
+
+    private static final int DIMENSION = 35;
+
+    @Test
+    void should_keep_best_scores_when_scanning_more_than_one_page() {
+        // given
+        Random random = new Random(42);
+        int count = VectorStorage.PAGE_SIZE + 1000;
+        float[][] vectors = new float[count][];
+        VectorStorage storage = new VectorStorage();
+        for (int i = 0; i < count; i++) {
+            vectors[i] = randomVector(random);
+            storage.add("id-" + i, vectors[i], null, null);
+        }
+        float[] query = randomVector(random);
+
+        // when
+        VectorStorage.Snapshot snapshot = storage.snapshot();
+        TopK topK = new TopK(10);
+        snapshot.scan(0, snapshot.size(), query, 0, null, topK);
+        int[] slots = topK.drainDescending();
+
+        // then
+        double[] scores = Arrays.stream(vectors)
+                .mapToDouble(vector -> RelevanceScore.fromCosineSimilarity(
+                        CosineSimilarity.between(Embedding.from(vector), Embedding.from(query))))
+                .toArray();
+        int[] expectedSlots = IntStream.range(0, count)
+                .boxed()
+                .sorted(Comparator.comparingDouble(slot -> -scores[slot]))
+                .limit(10)
+                .mapToInt(Integer::intValue)
+                .toArray();
+        assertThat(slots).containsExactly(expectedSlots);
+        for (int rank = 0; rank < slots.length; rank++) {
+            assertThat(topK.score(rank)).isCloseTo(scores[expectedSlots[rank]], within(1e-5));
+        }
+    }
+
+    @Test
+    void should_mark_removed_entries_when_removing() {
+        // given
+        Random random = new Random(42);
+        VectorStorage storage = new VectorStorage(Runnable::run, 1.0);
+        float[][] vectors = new float[100][];
+        for (int i = 0; i < vectors.length; i++) {
+            vectors[i] = randomVector(random);
+            storage.add("id-" + i, vectors[i], "chunk-" + i, null);
+        }
+        VectorStorage.Snapshot before = storage.snapshot();
+
+        // when
+        String[] removedChunkFilePaths = storage.remove(
+                IntStream.range(0, 50).mapToObj(i -> "id-" + 2 * i).toList());
+        String[] removedByIds = storage.remove(List.of("id-1", "id-2", "unknown"));
+
+        // then
+        assertThat(removedChunkFilePaths).hasSize(50).contains("chunk-0", "chunk-98");
+        assertThat(removedByIds).containsExactly("chunk-1");
+        VectorStorage.Snapshot after = storage.snapshot();
+        assertThat(after.size()).isEqualTo(100);
+        assertThat(after.liveCount()).isEqualTo(49);
+        assertThat(after.isRemoved(0)).isTrue();
+        assertThat(after.isRemoved(1)).isTrue();
+        assertThat(after.isRemoved(3)).isFalse();
+
+        TopK topK = new TopK(100);
+        after.scan(0, after.size(), vectors[0], 0, null, topK);
+        assertThat(topK.drainDescending()).hasSize(49).allMatch(slot -> slot % 2 == 1 && slot != 1);
+
+        // searches started before the removal still see all entries
+        assertThat(before.liveCount()).isEqualTo(100);
+        assertThat(before.isRemoved(0)).isFalse();
+    }
+
+    @Test
+    void should_replace_entry_when_adding_existing_id() {
+        // given
+        VectorStorage storage = new VectorStorage(Runnable::run, 1.0);
+        storage.add("id-1", new float[] {1, 0}, "chunk-1", null);
+        storage.add("id-2", new float[] {0, 1}, null, null);
+
+        // when
+        String replacedChunkFilePath = storage.add("id-1", new float[] {1, 1}, "chunk-1-bis", null);
+        String replacedWithoutChunk = storage.add("id-2", new float[] {0, 2}, null, null);
+
+        // then
+        assertThat(replacedChunkFilePath).isEqualTo("chunk-1");
+        assertThat(replacedWithoutChunk).isNull();
+        VectorStorage.Snapshot snapshot = storage.snapshot();
+        assertThat(snapshot.liveCount()).isEqualTo(2);
+        assertThat(snapshot.isRemoved(0)).isTrue();
+        assertThat(snapshot.vector(2)).containsExactly(1, 1);
+        assertThat(snapshot.chunkFilePath(2)).isEqualTo("chunk-1-bis");
+
+        assertThat(storage.remove(List.of("id-1"))).containsExactly("chunk-1-bis");
+        assertThat(storage.snapshot().liveCount()).isEqualTo(1);
+    }
+
+    @Test
+    void should_compact_remaining_entries_when_removed_ratio_exceeds_threshold() {
+        // given
+        Random random = new Random(42);
+        List<Runnable> compactions = new ArrayList<>();
+        VectorStorage storage = new VectorStorage(compactions::add, 0.2);
+        float[][] vectors = new float[100][];
+        for (int i = 0; i < vectors.length; i++) {
+            vectors[i] = randomVector(random);
+            storage.add("id-" + i, vectors[i], "chunk-" + i, Map.of("index", i));
+        }
+        storage.remove(IntStream.range(0, 20).mapToObj(i -> "id-" + i).toList());
+        assertThat(compactions).isEmpty();
+
+        // when
+        storage.remove(List.of("id-20"));
+        assertThat(compactions).hasSize(1);
+        VectorStorage.Snapshot before = storage.snapshot();
+        compactions.get(0).run();
+
+        // then
+        VectorStorage.Snapshot after = storage.snapshot();
+        assertThat(after.size()).isEqualTo(79);
+        assertThat(after.liveCount()).isEqualTo(79);
+        assertThat(after.id(0)).isEqualTo("id-21");
+        assertThat(after.chunkFilePath(78)).isEqualTo("chunk-99");
+        assertThat(after.vector(78)).containsExactly(vectors[99]);
+        assertThat(after.metadata().metadata(78)).containsEntry("index", 99);
+
+        // the ID index follows the compacted slots
+        storage.add("id-99", vectors[0], "chunk-99-bis", null);
+        assertThat(storage.snapshot().isRemoved(78)).isTrue();
+        assertThat(storage.remove(List.of("id-21"))).containsExactly("chunk-21");
+        assertThat(storage.snapshot().isRemoved(0)).isTrue();
+
+        // searches started before the compaction still see the entries they started with
+        assertThat(before.size()).isEqualTo(100);
+        assertThat(before.id(21)).isEqualTo("id-21");
+    }
+
+    @Test
+    void should_fail_when_dimension_does_not_match() {
+        // given
+        VectorStorage storage = new VectorStorage();
+        storage.add("id-1", new float[] {1, 0, 0}, null, null);
+
+        // then
+        assertThatThrownBy(() -> storage.add("id-2", new float[] {1, 0}, null, null))
+                .isExactlyInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("does not match the dimension 3");
+    }
+
+    private static float[] randomVector(Random random) {
+        float[] vector = new float[DIMENSION];
+        for (int i = 0; i < DIMENSION; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return vector;
+    }
+}
@@ -16,6 +16,7 @@ import static java.util.Collections.singletonList;
 import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toMap;
 
+import dev.langchain4j.community.store.embedding.AsyncEmbeddingSearch;
 import dev.langchain4j.data.document.Metadata;
 import dev.langchain4j.data.embedding.Embedding;
 import dev.langchain4j.data.segment.TextSegment;
@@ -45,6 +46,7 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -64,8 +66,12 @@ import org.slf4j.LoggerFactory;
  *     <li>TagType: eq/neq/in/notIn</li>
  *     <li>TextType: eq/neq/in/notIn</li>
  * </ul>
+ *
+ * <p>Searches can also be run without blocking through {@link #searchAsync(EmbeddingSearchRequest)},
+ * which relies on the asynchronous GLIDE API.</p>
  */
-public class ValkeyEmbeddingStore implements EmbeddingStore<TextSegment>, AutoCloseable {
+public class ValkeyEmbeddingStore
+        implements EmbeddingStore<TextSegment>, AsyncEmbeddingSearch<TextSegment>, AutoCloseable {
 
     private static final Logger log = LoggerFactory.getLogger(ValkeyEmbeddingStore.class);
 
@@ -223,6 +229,26 @@ public class ValkeyEmbeddingStore implements EmbeddingStore<TextSegment>, AutoCl
 
     @Override
     public EmbeddingSearchResult<TextSegment> search(EmbeddingSearchRequest request) {
+        Object[] result = awaitResult(ftSearch(request));
+
+        List<EmbeddingMatch<TextSegment>> matches = parseSearchResults(result, request.minScore());
+
+        return new EmbeddingSearchResult<>(matches);
+    }
+
+    /**
+     * Same as {@link #search(EmbeddingSearchRequest)}, but does not block the caller while waiting for Valkey.
+     * The returned future fails with a {@link java.util.concurrent.TimeoutException} if Valkey does not reply
+     * within the configured operation timeout.
+     */
+    @Override
+    public CompletableFuture<EmbeddingSearchResult<TextSegment>> searchAsync(EmbeddingSearchRequest request) {
+        return ftSearch(request)
+                .orTimeout(operationTimeoutSeconds, TimeUnit.SECONDS)
+                .thenApply(result -> new EmbeddingSearchResult<>(parseSearchResults(result, request.minScore())));
+    }
+
+    private CompletableFuture<Object[]> ftSearch(EmbeddingSearchRequest request) {
         String filterExpression = filterMapper.mapToFilter(request.filter());
         validateFilterExpression(filterExpression);
         String query = format(QUERY_TEMPLATE, filterExpression, request.maxResults(), schema.getVectorFieldName());
@@ -234,11 +260,7 @@ public class ValkeyEmbeddingStore implements EmbeddingStore<TextSegment>, AutoCl
                 .limit(0, request.maxResults())
                 .build();
 
-        Object[] result = awaitResult(FT.search(client, schema.getIndexName(), query, searchOptions));
-
-        List<EmbeddingMatch<TextSegment>> matches = parseSearchResults(result, request.minScore());
-
-        return new EmbeddingSearchResult<>(matches);
+        return FT.search(client, schema.getIndexName(), query, searchOptions);
     }
 
     @Override
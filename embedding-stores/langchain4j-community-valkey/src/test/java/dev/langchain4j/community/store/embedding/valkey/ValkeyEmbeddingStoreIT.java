@@ -1154,6 +1154,34 @@ class ValkeyEmbeddingStoreIT extends EmbeddingStoreWithFilteringIT {
         }
     }
 
+    @Test
+    void should_search_asynchronously() throws Exception {
+        // given
+        TextSegment first = TextSegment.from("hello", new Metadata().put("name", "Klaus"));
+        TextSegment second = TextSegment.from("hello world", new Metadata().put("name", "Alice"));
+        String firstId = embeddingStore().add(embeddingModel().embed(first).content(), first);
+        embeddingStore().add(embeddingModel().embed(second).content(), second);
+
+        awaitUntilAsserted(() -> assertThat(getAllEmbeddings()).hasSize(2));
+
+        EmbeddingSearchRequest request = EmbeddingSearchRequest.builder()
+                .queryEmbedding(embeddingModel().embed("hello").content())
+                .filter(metadataKey("name").isEqualTo("Klaus"))
+                .maxResults(10)
+                .build();
+
+        // when
+        EmbeddingSearchResult<TextSegment> searchResult = embeddingStore.searchAsync(request).get();
+
+        // then
+        assertThat(searchResult.matches()).hasSize(1);
+        assertThat(searchResult.matches().get(0).embeddingId()).isEqualTo(firstId);
+        assertThat(searchResult.matches().get(0).embedded()).isEqualTo(first);
+        assertThat(searchResult.matches())
+                .usingRecursiveComparison()
+                .isEqualTo(embeddingStore.search(request).matches());
+    }
+
     @Override
     @ParameterizedTest
     @MethodSource("valkey_should_filter_by_metadata")
@@ -0,0 +1,82 @@
+package dev.langchain4j.community.benchmarks;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.output.Response;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic, synthetic vectors and a stub {@link EmbeddingModel}, so that benchmarks run offline
+ * and are comparable between runs and releases.
+ */
+public final class SyntheticEmbeddings {
+
+    public static final long SEED = 42;
+
+    private SyntheticEmbeddings() {}
+
+    /**
+     * Returns an embedding whose components are drawn from a standard normal distribution.
+     */
+    public static Embedding randomEmbedding(Random random, int dimension) {
+        float[] vector = new float[dimension];
+        for (int i = 0; i < dimension; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return Embedding.from(vector);
+    }
+
+    /**
+     * Returns embeddings spread around a few random centroids, like embeddings of texts about a few topics,
+     * so that nearest neighbors are clearly closer than other embeddings, unlike those of random embeddings.
+     */
+    public static List<Embedding> clusteredEmbeddings(Random random, int count, int dimension, int clusterCount) {
+        float[][] centroids = new float[clusterCount][];
+        for (int i = 0; i < clusterCount; i++) {
+            centroids[i] = randomEmbedding(random, dimension).vector();
+        }
+        List<Embedding> embeddings = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            float[] vector = centroids[random.nextInt(clusterCount)].clone();
+            for (int j = 0; j < dimension; j++) {
+                vector[j] += (float) (random.nextGaussian() * 0.5);
+            }
+            embeddings.add(Embedding.from(vector));
+        }
+        return embeddings;
+    }
+
+    /**
+     * Returns an {@link EmbeddingModel} that does not call any remote service:
+     * every text is embedded into a random vector seeded by the hash of the text.
+     */
+    public static EmbeddingModel stubEmbeddingModel(int dimension) {
+        return new StubEmbeddingModel(dimension);
+    }
+
+    private static class StubEmbeddingModel implements EmbeddingModel {
+
+        private final int dimension;
+
+        StubEmbeddingModel(int dimension) {
+            this.dimension = dimension;
+        }
+
+        @Override
+        public Response<List<Embedding>> embedAll(List<TextSegment> textSegments) {
+            List<Embedding> embeddings = new ArrayList<>(textSegments.size());
+            for (TextSegment textSegment : textSegments) {
+                embeddings.add(randomEmbedding(new Random(textSegment.text().hashCode()), dimension));
+            }
+            return Response.from(embeddings);
+        }
+
+        @Override
+        public int dimension() {
+            return dimension;
+        }
+    }
+}
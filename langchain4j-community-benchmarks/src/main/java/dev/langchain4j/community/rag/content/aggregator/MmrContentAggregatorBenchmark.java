@@ -0,0 +1,99 @@
+package dev.langchain4j.community.rag.content.aggregator;
+
+import static dev.langchain4j.community.benchmarks.SyntheticEmbeddings.SEED;
+import static dev.langchain4j.community.benchmarks.SyntheticEmbeddings.randomEmbedding;
+import static dev.langchain4j.community.benchmarks.SyntheticEmbeddings.stubEmbeddingModel;
+
+import dev.langchain4j.community.rag.content.EmbeddedContent;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.rag.content.Content;
+import dev.langchain4j.rag.content.ContentMetadata;
+import dev.langchain4j.rag.query.Query;
+import dev.langchain4j.store.embedding.CosineSimilarity;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link MmrContentAggregator#aggregate(Map)} end to end, with a stub embedding model.
+ * <p>
+ * With {@code embeddings = existing}, the contents are {@link EmbeddedContent}s carrying their embeddings,
+ * as returned by the community {@code EmbeddingStoreContentRetriever}. With {@code embeddings = generated},
+ * they are plain {@link Content}s and the stub model embeds them on every call.
+ * <p>
+ * Run with {@code java -jar target/benchmarks.jar MmrContentAggregatorBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MmrContentAggregatorBenchmark {
+
+    @Param({"100", "500"})
+    int candidateCount;
+
+    @Param({"384", "1536"})
+    int dimension;
+
+    @Param({"10"})
+    int maxResults;
+
+    @Param({"0.7"})
+    double lambda;
+
+    @Param({"existing", "generated"})
+    String embeddings;
+
+    private MmrContentAggregator aggregator;
+    private Map<Query, Collection<List<Content>>> queryToContents;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(SEED);
+        Query query = Query.from("query");
+        Embedding queryEmbedding = randomEmbedding(random, dimension);
+
+        List<Content> contents = new ArrayList<>(candidateCount);
+        for (int i = 0; i < candidateCount; i++) {
+            TextSegment segment = TextSegment.from("text-" + i);
+            if ("existing".equals(embeddings)) {
+                Embedding embedding = randomEmbedding(random, dimension);
+                double score = CosineSimilarity.between(embedding, queryEmbedding);
+                contents.add(new EmbeddedContent(
+                        segment, Map.of(ContentMetadata.SCORE, score), embedding, queryEmbedding));
+            } else {
+                contents.add(Content.from(segment));
+            }
+        }
+
+        queryToContents = Map.of(query, List.of(contents));
+        aggregator = MmrContentAggregator.builder()
+                .embeddingModel(stubEmbeddingModel(dimension))
+                .maxResults(maxResults)
+                .lambda(lambda)
+                .build();
+    }
+
+    @Benchmark
+    public List<Content> aggregate() {
+        return aggregator.aggregate(queryToContents);
+    }
+}
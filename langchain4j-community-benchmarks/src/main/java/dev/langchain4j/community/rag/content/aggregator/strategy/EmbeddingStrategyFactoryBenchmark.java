@@ -0,0 +1,84 @@
+package dev.langchain4j.community.rag.content.aggregator.strategy;
+
+import static dev.langchain4j.community.benchmarks.SyntheticEmbeddings.SEED;
+import static dev.langchain4j.community.benchmarks.SyntheticEmbeddings.randomEmbedding;
+
+import dev.langchain4j.community.rag.content.EmbeddedContent;
+import dev.langchain4j.community.rag.content.util.EmbeddingMetadataUtils;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.rag.content.Content;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the content analysis done by {@link EmbeddingStrategyFactory#createStrategy(List, boolean)}.
+ * <p>
+ * {@code embeddedRatio} is the share of contents that carry a document embedding, and {@code representation}
+ * tells how it is carried: by reference in an {@link EmbeddedContent}, or Base64-encoded in the metadata.
+ * <p>
+ * Run with {@code java -jar target/benchmarks.jar EmbeddingStrategyFactoryBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmbeddingStrategyFactoryBenchmark {
+
+    @Param({"50", "500"})
+    int contentCount;
+
+    @Param({"384"})
+    int dimension;
+
+    @Param({"0.0", "0.5", "1.0"})
+    double embeddedRatio;
+
+    @Param({"reference", "metadata"})
+    String representation;
+
+    private List<Content> contents;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(SEED);
+        int embeddedCount = (int) Math.round(contentCount * embeddedRatio);
+        contents = new ArrayList<>(contentCount);
+        for (int i = 0; i < contentCount; i++) {
+            TextSegment segment = TextSegment.from("text-" + i);
+            if (i >= embeddedCount) {
+                contents.add(Content.from(segment));
+            } else if ("reference".equals(representation)) {
+                Embedding embedding = randomEmbedding(random, dimension);
+                contents.add(new EmbeddedContent(segment, Map.of(), embedding, null));
+            } else {
+                Embedding embedding = randomEmbedding(random, dimension);
+                TextSegment enrichedSegment =
+                        EmbeddingMetadataUtils.enrichSegmentWithEmbeddings(segment, null, embedding);
+                contents.add(Content.from(enrichedSegment));
+            }
+        }
+    }
+
+    @Benchmark
+    public EmbeddingStrategy createStrategy() {
+        return EmbeddingStrategyFactory.createStrategy(contents, false);
+    }
+}
@@ -0,0 +1,64 @@
+package dev.langchain4j.community.rag.content.util;
+
+import static dev.langchain4j.community.benchmarks.SyntheticEmbeddings.SEED;
+import static dev.langchain4j.community.benchmarks.SyntheticEmbeddings.randomEmbedding;
+
+import dev.langchain4j.data.document.Metadata;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the Base64 encoding of embeddings into {@link TextSegment} metadata and their decoding back.
+ * <p>
+ * Run with {@code java -jar target/benchmarks.jar EmbeddingMetadataUtilsBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmbeddingMetadataUtilsBenchmark {
+
+    @Param({"384", "1536"})
+    int dimension;
+
+    private TextSegment segment;
+    private Embedding queryEmbedding;
+    private Embedding documentEmbedding;
+    private TextSegment enrichedSegment;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(SEED);
+        segment = TextSegment.from("text", Metadata.from("source", "benchmark"));
+        queryEmbedding = randomEmbedding(random, dimension);
+        documentEmbedding = randomEmbedding(random, dimension);
+        enrichedSegment =
+                EmbeddingMetadataUtils.enrichSegmentWithEmbeddings(segment, queryEmbedding, documentEmbedding);
+    }
+
+    @Benchmark
+    public TextSegment encode() {
+        return EmbeddingMetadataUtils.enrichSegmentWithEmbeddings(segment, queryEmbedding, documentEmbedding);
+    }
+
+    @Benchmark
+    public Embedding decode() {
+        return EmbeddingMetadataUtils.extractDocumentEmbedding(enrichedSegment);
+    }
+}
@@ -0,0 +1,75 @@
+package dev.langchain4j.community.store.embedding;
+
+import static dev.langchain4j.community.benchmarks.SyntheticEmbeddings.SEED;
+import static dev.langchain4j.community.benchmarks.SyntheticEmbeddings.randomEmbedding;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.store.embedding.CosineSimilarity;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares {@link MmrSelector} with the naive {@link LegacyMmrSelector} over synthetic, random vectors.
+ * <p>
+ * Run with {@code java -jar target/benchmarks.jar MmrSelectorBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MmrSelectorBenchmark {
+
+    @Param({"500", "2000"})
+    int candidateCount;
+
+    @Param({"384", "1536"})
+    int dimension;
+
+    @Param({"10", "50"})
+    int maxResults;
+
+    @Param({"0.3", "0.7"})
+    double lambda;
+
+    private Embedding queryEmbedding;
+    private List<EmbeddingMatch<String>> candidates;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(SEED);
+        queryEmbedding = randomEmbedding(random, dimension);
+        candidates = new ArrayList<>(candidateCount);
+        for (int i = 0; i < candidateCount; i++) {
+            Embedding embedding = randomEmbedding(random, dimension);
+            double score = CosineSimilarity.between(embedding, queryEmbedding);
+            candidates.add(new EmbeddingMatch<>(score, "id-" + i, embedding, "text-" + i));
+        }
+    }
+
+    @Benchmark
+    public List<EmbeddingMatch<String>> incremental() {
+        return MmrSelector.select(queryEmbedding, candidates, maxResults, lambda);
+    }
+
+    @Benchmark
+    public List<EmbeddingMatch<String>> legacy() {
+        return LegacyMmrSelector.select(queryEmbedding, candidates, maxResults, lambda);
+    }
+}
@@ -0,0 +1,135 @@
+package dev.langchain4j.community.store.embedding.memfile;
+
+import static dev.langchain4j.community.benchmarks.SyntheticEmbeddings.SEED;
+import static dev.langchain4j.community.benchmarks.SyntheticEmbeddings.clusteredEmbeddings;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
+import dev.langchain4j.store.embedding.EmbeddingSearchResult;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the search time of {@link MemFileEmbeddingStore} for each {@link VectorQuantization}, over synthetic,
+ * clustered vectors. The recall@10 of quantized searches, the share of the exact 10 nearest neighbors they find,
+ * is computed against an unquantized store once per trial, and reported as the {@code recall} secondary result.
+ * <p>
+ * Run with {@code java -jar target/benchmarks.jar MemFileQuantizationBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MemFileQuantizationBenchmark {
+
+    private static final int QUERY_COUNT = 100;
+    private static final int MAX_RESULTS = 10;
+
+    @Param({"100000"})
+    int storeSize;
+
+    @Param({"384", "768"})
+    int dimension;
+
+    @Param({"NONE", "INT8", "BINARY"})
+    VectorQuantization quantization;
+
+    @Param({"0"})
+    int rescoreFactor; // 0 for the default of the quantization
+
+    private MemFileEmbeddingStore<TextSegment> store;
+    private EmbeddingSearchRequest[] requests;
+    private double trialRecall;
+    private int next;
+
+    /**
+     * Reports the recall@10 of the trial with the results of each iteration.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Recall {
+
+        public double recall;
+
+        @Setup(Level.Iteration)
+        public void setUp(MemFileQuantizationBenchmark benchmark) {
+            recall = benchmark.trialRecall;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(SEED);
+        List<Embedding> embeddings = clusteredEmbeddings(random, storeSize + QUERY_COUNT, dimension, 100);
+        store = MemFileEmbeddingStore.<TextSegment>builder()
+                .vectorQuantization(quantization)
+                .rescoreFactor(rescoreFactor > 0 ? rescoreFactor : null)
+                .build();
+        for (int i = 0; i < storeSize; i++) {
+            store.add("id-" + i, embeddings.get(i));
+        }
+
+        requests = new EmbeddingSearchRequest[QUERY_COUNT];
+        for (int i = 0; i < QUERY_COUNT; i++) {
+            requests[i] = EmbeddingSearchRequest.builder()
+                    .queryEmbedding(embeddings.get(storeSize + i))
+                    .maxResults(MAX_RESULTS)
+                    .build();
+        }
+
+        // closed right away, so that its vectors do not stay in memory during the measurements
+        try (MemFileEmbeddingStore<TextSegment> exact = MemFileEmbeddingStore.<TextSegment>builder()
+                .vectorQuantization(VectorQuantization.NONE)
+                .build()) {
+            for (int i = 0; i < storeSize; i++) {
+                exact.add("id-" + i, embeddings.get(i));
+            }
+            double found = 0;
+            for (EmbeddingSearchRequest request : requests) {
+                Set<String> expected = ids(exact.search(request));
+                found += ids(store.search(request)).stream()
+                        .filter(expected::contains)
+                        .count();
+            }
+            trialRecall = found / (QUERY_COUNT * MAX_RESULTS);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        // deletes the full-precision vector files written by quantized stores
+        store.close();
+    }
+
+    @Benchmark
+    public EmbeddingSearchResult<TextSegment> search(Recall recall) {
+        EmbeddingSearchRequest request = requests[next];
+        next = (next + 1) % requests.length;
+        return store.search(request);
+    }
+
+    private static Set<String> ids(EmbeddingSearchResult<TextSegment> result) {
+        return result.matches().stream().map(EmbeddingMatch::embeddingId).collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,149 @@
+package dev.langchain4j.community.chain;
+
+import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
+
+import dev.langchain4j.Experimental;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.chat.StreamingChatModel;
+import dev.langchain4j.model.chat.response.StreamingChatResponseHandler;
+import dev.langchain4j.model.input.PromptTemplate;
+import dev.langchain4j.rag.AugmentationRequest;
+import dev.langchain4j.rag.AugmentationResult;
+import dev.langchain4j.rag.DefaultRetrievalAugmentor;
+import dev.langchain4j.rag.RetrievalAugmentor;
+import dev.langchain4j.rag.content.injector.DefaultContentInjector;
+import dev.langchain4j.rag.content.retriever.ContentRetriever;
+import dev.langchain4j.rag.query.Metadata;
+import dev.langchain4j.rag.query.Query;
+import dev.langchain4j.rag.query.router.DefaultQueryRouter;
+import dev.langchain4j.rag.query.transformer.QueryTransformer;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * The streaming counterpart of {@link RetrievalQAChain}: the {@link UserMessage} generated by a
+ * {@link RetrievalAugmentor} is sent to a {@link StreamingChatModel}, and the answer is pushed token by token
+ * to a {@link StreamingChatResponseHandler}, so that it can be displayed before it is fully generated.
+ * <p>
+ * Generation starts as soon as the retrieved contents are injected. When several content retrievers are configured,
+ * or the query transformer produces several queries, the built-in {@link DefaultRetrievalAugmentor} runs
+ * the retrievals concurrently on the configured {@link Executor}.
+ *
+ * @since 1.20.0-beta30
+ */
+@Experimental
+public class StreamingRetrievalQAChain {
+
+    private final StreamingChatModel streamingChatModel;
+    private final RetrievalAugmentor retrievalAugmentor;
+
+    public StreamingRetrievalQAChain(
+            final StreamingChatModel streamingChatModel, final RetrievalAugmentor retrievalAugmentor) {
+        this.streamingChatModel = ensureNotNull(streamingChatModel, "streamingChatModel");
+        this.retrievalAugmentor = ensureNotNull(retrievalAugmentor, "retrievalAugmentor");
+    }
+
+    /**
+     * Retrieves the contents relevant to the query in the calling thread, then streams the answer to the handler.
+     * A failure of the retrieval is reported to {@link StreamingChatResponseHandler#onError(Throwable)},
+     * like a failure of the generation.
+     *
+     * @param query   The query.
+     * @param handler The handler receiving the answer.
+     */
+    public void execute(final Query query, final StreamingChatResponseHandler handler) {
+        ensureNotNull(handler, "handler");
+        UserMessage userMessage;
+        try {
+            userMessage = augment(query);
+        } catch (RuntimeException e) {
+            handler.onError(e);
+            return;
+        }
+        List<ChatMessage> messages = List.of(userMessage);
+        streamingChatModel.chat(messages, handler);
+    }
+
+    private UserMessage augment(Query query) {
+
+        final UserMessage from = UserMessage.from(query.text());
+
+        final Metadata metadata = query.metadata() == null ? Metadata.from(from, null, null) : query.metadata();
+        AugmentationRequest request = new AugmentationRequest(from, metadata);
+        AugmentationResult result = retrievalAugmentor.augment(request);
+        return (UserMessage) result.chatMessage();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private StreamingChatModel streamingChatModel;
+        private final DefaultRetrievalAugmentor.DefaultRetrievalAugmentorBuilder augmentorBuilder =
+                DefaultRetrievalAugmentor.builder();
+        private RetrievalAugmentor retrievalAugmentor;
+
+        public Builder streamingChatModel(StreamingChatModel streamingChatModel) {
+            this.streamingChatModel = streamingChatModel;
+            return this;
+        }
+
+        public Builder contentRetriever(ContentRetriever contentRetriever) {
+            if (contentRetriever != null) {
+                augmentorBuilder.contentRetriever(contentRetriever);
+            }
+            return this;
+        }
+
+        /**
+         * Sets several content retrievers, all queried for every query.
+         * Their retrievals run concurrently on the {@link #executor(Executor)}.
+         */
+        public Builder contentRetrievers(List<ContentRetriever> contentRetrievers) {
+            if (contentRetrievers != null && !contentRetrievers.isEmpty()) {
+                augmentorBuilder.queryRouter(new DefaultQueryRouter(contentRetrievers));
+            }
+            return this;
+        }
+
+        public Builder queryTransformer(QueryTransformer queryTransformer) {
+            if (queryTransformer != null) {
+                augmentorBuilder.queryTransformer(queryTransformer);
+            }
+            return this;
+        }
+
+        public Builder prompt(PromptTemplate promptTemplate) {
+            DefaultContentInjector contentInjector = DefaultContentInjector.builder()
+                    .promptTemplate(promptTemplate)
+                    .build();
+            augmentorBuilder.contentInjector(contentInjector);
+            return this;
+        }
+
+        /**
+         * Sets the executor running concurrent retrievals. Defaults to the executor of
+         * {@link DefaultRetrievalAugmentor}.
+         */
+        public Builder executor(Executor executor) {
+            if (executor != null) {
+                augmentorBuilder.executor(executor);
+            }
+            return this;
+        }
+
+        public Builder retrievalAugmentor(RetrievalAugmentor retrievalAugmentor) {
+            this.retrievalAugmentor = retrievalAugmentor;
+            return this;
+        }
+
+        public StreamingRetrievalQAChain build() {
+            if (retrievalAugmentor == null) {
+                return new StreamingRetrievalQAChain(streamingChatModel, augmentorBuilder.build());
+            }
+            return new StreamingRetrievalQAChain(streamingChatModel, retrievalAugmentor);
+        }
+    }
+}
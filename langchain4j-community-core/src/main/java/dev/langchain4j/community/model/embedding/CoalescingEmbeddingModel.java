@@ -0,0 +1,371 @@
+package dev.langchain4j.community.model.embedding;
+
+import static dev.langchain4j.internal.Utils.getOrDefault;
+import static dev.langchain4j.internal.ValidationUtils.ensureGreaterThanZero;
+import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.output.Response;
+import dev.langchain4j.model.output.TokenUsage;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An {@link EmbeddingModel} decorator that coalesces concurrent single-text {@code embed} calls
+ * into batched {@link EmbeddingModel#embedAll(List)} calls to the delegate model.
+ * <p>
+ * The first call to arrive opens a batch, which is sent once {@code maxBatchSize} texts are collected or
+ * {@code maxWait} has elapsed, whichever comes first. The embeddings are then handed back to the waiting callers.
+ * A lone caller therefore pays up to {@code maxWait} of extra latency, in exchange for one remote round trip
+ * per batch instead of one per text under load.
+ * <p>
+ * The {@link TokenUsage} of a batch is split between its texts in proportion to their length,
+ * so that the input token counts of the callers add up to the one reported by the delegate.
+ * <p>
+ * {@link #embedAll(List)} calls are already batched and go straight to the delegate.
+ * Batch sizes are recorded, see {@link #stats()}.
+ */
+public class CoalescingEmbeddingModel implements EmbeddingModel, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(CoalescingEmbeddingModel.class);
+
+    private static final int DEFAULT_MAX_BATCH_SIZE = 32;
+    private static final Duration DEFAULT_MAX_WAIT = Duration.ofMillis(10);
+    private static final long IDLE_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final EmbeddingModel delegate;
+    private final int maxBatchSize;
+    private final long maxWaitNanos;
+    private final Executor executor;
+    // the executor created when none is given, shut down by close()
+    private final ExecutorService ownedExecutor;
+
+    private final BlockingQueue<PendingEmbedding> queue = new LinkedBlockingQueue<>();
+    private final Thread collector;
+    private volatile boolean closed;
+
+    private final LongAdder requestCount = new LongAdder();
+    private final LongAdder batchCount = new LongAdder();
+    private final LongAdder failedBatchCount = new LongAdder();
+    // index i counts the batches of i texts
+    private final LongAdder[] batchSizeCounts;
+
+    private CoalescingEmbeddingModel(Builder builder) {
+        this.delegate = ensureNotNull(builder.delegate, "delegate");
+        this.maxBatchSize =
+                ensureGreaterThanZero(getOrDefault(builder.maxBatchSize, DEFAULT_MAX_BATCH_SIZE), "maxBatchSize");
+        Duration maxWait = getOrDefault(builder.maxWait, DEFAULT_MAX_WAIT);
+        if (maxWait.isNegative()) {
+            throw new IllegalArgumentException("maxWait must not be negative, but is: " + maxWait);
+        }
+        this.maxWaitNanos = maxWait.toNanos();
+        this.ownedExecutor = builder.executor == null ? newBatchExecutor() : null;
+        this.executor = builder.executor == null ? ownedExecutor : builder.executor;
+
+        this.batchSizeCounts = new LongAdder[maxBatchSize + 1];
+        for (int i = 0; i < batchSizeCounts.length; i++) {
+            batchSizeCounts[i] = new LongAdder();
+        }
+
+        this.collector = new Thread(this::collectBatches, "langchain4j-coalescing-embedding-model");
+        this.collector.setDaemon(true);
+        this.collector.start();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public Response<Embedding> embed(String text) {
+        return embed(TextSegment.from(text));
+    }
+
+    @Override
+    public Response<Embedding> embed(TextSegment textSegment) {
+        ensureNotNull(textSegment, "textSegment");
+        if (closed) {
+            throw new IllegalStateException("CoalescingEmbeddingModel is closed");
+        }
+        requestCount.increment();
+
+        PendingEmbedding pending = new PendingEmbedding(textSegment, new CompletableFuture<>());
+        queue.add(pending);
+        if (closed) {
+            // the collector may have stopped before seeing this request
+            drainInCaller();
+        }
+
+        try {
+            return pending.result().join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public Response<List<Embedding>> embedAll(List<TextSegment> textSegments) {
+        return delegate.embedAll(textSegments);
+    }
+
+    @Override
+    public int dimension() {
+        return delegate.dimension();
+    }
+
+    /**
+     * Stops collecting batches. Requests already waiting are still sent, new ones are rejected.
+     * The delegate model and the executor given to the builder are not closed.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        collector.interrupt();
+        if (ownedExecutor != null) {
+            // batches already dispatched complete, later ones are rejected and sent by the collector itself
+            ownedExecutor.shutdown();
+        }
+    }
+
+    public Stats stats() {
+        Map<Integer, Long> histogram = new TreeMap<>();
+        for (int size = 1; size < batchSizeCounts.length; size++) {
+            long count = batchSizeCounts[size].sum();
+            if (count > 0) {
+                histogram.put(size, count);
+            }
+        }
+        return new Stats(
+                requestCount.sum(), batchCount.sum(), failedBatchCount.sum(), Collections.unmodifiableMap(histogram));
+    }
+
+    private void collectBatches() {
+        while (!closed) {
+            List<PendingEmbedding> batch = new ArrayList<>(maxBatchSize);
+            try {
+                collectBatch(batch);
+            } catch (InterruptedException e) {
+                // interrupted by close(), the texts collected so far are still sent
+            }
+            if (!batch.isEmpty()) {
+                dispatch(batch);
+            }
+        }
+        drainInCaller();
+    }
+
+    private void collectBatch(List<PendingEmbedding> batch) throws InterruptedException {
+        PendingEmbedding first = queue.poll(IDLE_POLL_NANOS, TimeUnit.NANOSECONDS);
+        if (first == null) {
+            return;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + maxWaitNanos;
+        while (batch.size() < maxBatchSize) {
+            long remainingNanos = deadline - System.nanoTime();
+            PendingEmbedding next =
+                    remainingNanos > 0 ? queue.poll(remainingNanos, TimeUnit.NANOSECONDS) : queue.poll();
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void drainInCaller() {
+        List<PendingEmbedding> batch = new ArrayList<>(maxBatchSize);
+        PendingEmbedding next;
+        while ((next = queue.poll()) != null) {
+            batch.add(next);
+            if (batch.size() == maxBatchSize) {
+                embedBatch(batch);
+                batch = new ArrayList<>(maxBatchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            embedBatch(batch);
+        }
+    }
+
+    private void dispatch(List<PendingEmbedding> batch) {
+        try {
+            executor.execute(() -> embedBatch(batch));
+        } catch (RejectedExecutionException e) {
+            embedBatch(batch);
+        }
+    }
+
+    private void embedBatch(List<PendingEmbedding> batch) {
+        batchCount.increment();
+        batchSizeCounts[batch.size()].increment();
+
+        List<TextSegment> textSegments = new ArrayList<>(batch.size());
+        for (PendingEmbedding pending : batch) {
+            textSegments.add(pending.textSegment());
+        }
+
+        try {
+            Response<List<Embedding>> response = delegate.embedAll(textSegments);
+            List<Embedding> embeddings = response.content();
+            if (embeddings == null || embeddings.size() != batch.size()) {
+                throw new IllegalStateException("The delegate model returned "
+                        + (embeddings == null ? 0 : embeddings.size()) + " embeddings for " + batch.size()
+                        + " texts");
+            }
+            List<TokenUsage> tokenUsages = splitTokenUsage(response.tokenUsage(), textSegments);
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i)
+                        .result()
+                        .complete(Response.from(embeddings.get(i), tokenUsages.get(i), response.finishReason()));
+            }
+            log.debug("Embedded a batch of {} texts", batch.size());
+        } catch (Throwable t) {
+            // whatever went wrong, no caller may be left waiting
+            failedBatchCount.increment();
+            for (PendingEmbedding pending : batch) {
+                pending.result().completeExceptionally(t);
+            }
+            if (t instanceof Error error) {
+                throw error;
+            }
+        }
+    }
+
+    private static ExecutorService newBatchExecutor() {
+        AtomicInteger threadCount = new AtomicInteger();
+        return Executors.newCachedThreadPool(runnable -> {
+            String name = "langchain4j-coalescing-embedding-model-batch-" + threadCount.incrementAndGet();
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Splits the input token count in proportion to the text lengths. Rounding cumulated shares
+     * keeps the sum of the parts equal to the total.
+     */
+    static List<TokenUsage> splitTokenUsage(TokenUsage tokenUsage, List<TextSegment> textSegments) {
+        List<TokenUsage> parts = new ArrayList<>(textSegments.size());
+        if (tokenUsage == null || tokenUsage.inputTokenCount() == null) {
+            for (int i = 0; i < textSegments.size(); i++) {
+                parts.add(tokenUsage);
+            }
+            return parts;
+        }
+
+        int total = tokenUsage.inputTokenCount();
+        long totalLength = 0;
+        for (TextSegment textSegment : textSegments) {
+            totalLength += textSegment.text().length();
+        }
+
+        long cumulatedLength = 0;
+        int allocated = 0;
+        for (int i = 0; i < textSegments.size(); i++) {
+            cumulatedLength += textSegments.get(i).text().length();
+            int cumulatedShare = totalLength == 0
+                    ? (int) Math.round((double) total * (i + 1) / textSegments.size())
+                    : (int) Math.round((double) total * cumulatedLength / totalLength);
+            parts.add(new TokenUsage(cumulatedShare - allocated));
+            allocated = cumulatedShare;
+        }
+        return parts;
+    }
+
+    private record PendingEmbedding(TextSegment textSegment, CompletableFuture<Response<Embedding>> result) {}
+
+    /**
+     * A snapshot of the batching counters.
+     *
+     * @param requestCount       single-text {@code embed} calls.
+     * @param batchCount         {@code embedAll} calls sent to the delegate for them.
+     * @param failedBatchCount   batches that failed.
+     * @param batchSizeHistogram number of batches by batch size, for the sizes seen at least once.
+     */
+    public record Stats(
+            long requestCount, long batchCount, long failedBatchCount, Map<Integer, Long> batchSizeHistogram) {
+
+        public double averageBatchSize() {
+            long batchedRequestCount = 0;
+            for (Map.Entry<Integer, Long> entry : batchSizeHistogram.entrySet()) {
+                batchedRequestCount += entry.getKey() * entry.getValue();
+            }
+            return batchCount == 0 ? 0.0 : (double) batchedRequestCount / batchCount;
+        }
+    }
+
+    public static class Builder {
+
+        private EmbeddingModel delegate;
+        private Integer maxBatchSize;
+        private Duration maxWait;
+        private Executor executor;
+
+        Builder() {}
+
+        /**
+         * Sets the model the batches are sent to. Mandatory.
+         */
+        public Builder delegate(EmbeddingModel delegate) {
+            this.delegate = delegate;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of texts per batch. Defaults to 32.
+         * It should not exceed the batch size accepted by the provider.
+         */
+        public Builder maxBatchSize(Integer maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+            return this;
+        }
+
+        /**
+         * Sets how long a batch waits for more texts after the first one arrived. Defaults to 10 milliseconds.
+         */
+        public Builder maxWait(Duration maxWait) {
+            this.maxWait = maxWait;
+            return this;
+        }
+
+        /**
+         * Sets the executor sending the batches, so that several batches can be in flight at once.
+         * Optional: by default, batches are sent by a pool of daemon threads owned by the model,
+         * created as needed and shut down by {@link CoalescingEmbeddingModel#close()}.
+         */
+        public Builder executor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        public CoalescingEmbeddingModel build() {
+            return new CoalescingEmbeddingModel(this);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package dev.langchain4j.community.rag.content;
+
+import dev.langchain4j.community.rag.content.util.EmbeddingMetadataUtils;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.rag.content.Content;
+import dev.langchain4j.rag.content.ContentMetadata;
+import java.util.Map;
+
+/**
+ * A {@link Content} that carries the {@link Embedding} of its {@link TextSegment} and the {@link Embedding}
+ * of the query it was retrieved for.
+ * <p>
+ * It hands embeddings from a retriever to an aggregator within the same process by reference,
+ * without copying the segment metadata or serializing the vectors.
+ * {@link EmbeddingMetadataUtils} remains available as a fallback when contents have to cross a process boundary.
+ * <p>
+ * The embeddings are not taken into account by {@link #equals(Object)} and {@link #hashCode()}.
+ */
+public class EmbeddedContent extends Content {
+
+    private final Embedding embedding;
+    private final Embedding queryEmbedding;
+
+    /**
+     * @param textSegment    the retrieved text segment.
+     * @param metadata       the content metadata, such as {@link ContentMetadata#SCORE}.
+     * @param embedding      the embedding of the text segment (can be null).
+     * @param queryEmbedding the embedding of the query the segment was retrieved for (can be null).
+     */
+    public EmbeddedContent(
+            TextSegment textSegment,
+            Map<ContentMetadata, Object> metadata,
+            Embedding embedding,
+            Embedding queryEmbedding) {
+        super(textSegment, metadata);
+        this.embedding = embedding;
+        this.queryEmbedding = queryEmbedding;
+    }
+
+    public Embedding embedding() {
+        return embedding;
+    }
+
+    public Embedding queryEmbedding() {
+        return queryEmbedding;
+    }
+
+    /**
+     * Returns the document embedding of the given content, either carried directly by an {@link EmbeddedContent}
+     * or, as a fallback, decoded from the text segment metadata by {@link EmbeddingMetadataUtils}.
+     *
+     * @param content the content.
+     * @return the document embedding, or null if none is available.
+     */
+    public static Embedding documentEmbeddingOf(Content content) {
+        if (content instanceof EmbeddedContent embeddedContent && embeddedContent.embedding() != null) {
+            return embeddedContent.embedding();
+        }
+        return EmbeddingMetadataUtils.extractDocumentEmbedding(content.textSegment());
+    }
+
+    /**
+     * Returns the query embedding of the given content, either carried directly by an {@link EmbeddedContent}
+     * or, as a fallback, decoded from the text segment metadata by {@link EmbeddingMetadataUtils}.
+     *
+     * @param content the content.
+     * @return the query embedding, or null if none is available.
+     */
+    public static Embedding queryEmbeddingOf(Content content) {
+        if (content instanceof EmbeddedContent embeddedContent && embeddedContent.queryEmbedding() != null) {
+            return embeddedContent.queryEmbedding();
+        }
+        return EmbeddingMetadataUtils.extractQueryEmbedding(content.textSegment());
+    }
+
+    @Override
+    public String toString() {
+        return "EmbeddedContent{" + "textSegment=" + textSegment() + ", metadata=" + metadata() + '}';
+    }
+}
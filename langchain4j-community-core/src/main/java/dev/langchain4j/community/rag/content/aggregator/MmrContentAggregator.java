@@ -1,23 +1,42 @@
 package dev.langchain4j.community.rag.content.aggregator;
 
+import static dev.langchain4j.community.rag.listener.RagInstrumentation.attributes;
 import static dev.langchain4j.internal.Utils.getOrDefault;
 import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
 
+import dev.langchain4j.community.rag.content.EmbeddedContent;
 import dev.langchain4j.community.rag.content.aggregator.strategy.EmbeddingStrategy;
 import dev.langchain4j.community.rag.content.aggregator.strategy.EmbeddingStrategyFactory;
+import dev.langchain4j.community.rag.content.aggregator.strategy.GenerateEmbeddings;
+import dev.langchain4j.community.rag.content.aggregator.strategy.HybridEmbeddings;
+import dev.langchain4j.community.rag.listener.RagInstrumentation;
+import dev.langchain4j.community.rag.listener.RagListener;
+import dev.langchain4j.community.rag.listener.RagStage;
+import dev.langchain4j.community.rag.listener.RagStageEvent;
 import dev.langchain4j.community.store.embedding.MmrSelector;
 import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
 import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.output.Response;
+import dev.langchain4j.model.output.TokenUsage;
 import dev.langchain4j.model.scoring.ScoringModel;
 import dev.langchain4j.rag.content.Content;
 import dev.langchain4j.rag.content.aggregator.ContentAggregator;
 import dev.langchain4j.rag.content.aggregator.ReciprocalRankFuser;
 import dev.langchain4j.rag.query.Query;
 import dev.langchain4j.store.embedding.EmbeddingMatch;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
@@ -27,6 +46,16 @@ import org.slf4j.LoggerFactory;
  * Refactored MmrContentAggregator using Strategy pattern.
  * Automatically selects the optimal embedding processing strategy based on content analysis,
  * with option for manual strategy override.
+ * <p>
+ * By default, the contents of all queries are fused first and MMR is applied once, relative to the query
+ * chosen by the {@code querySelector}. When an {@link Executor} is configured, MMR is instead applied
+ * to each query separately and concurrently: the content embeddings required by all queries are generated
+ * with a single, deduplicated {@link EmbeddingModel#embedAll(List)} call, every query is then processed
+ * on the executor, and the per-query results are fused with {@link ReciprocalRankFuser} in the iteration
+ * order of {@code queryToContents}, so the result is deterministic.
+ * <p>
+ * {@link RagListener}s can be registered to time the {@link RagStage#CONTENT_EMBEDDING}
+ * and {@link RagStage#MMR_SELECTION} stages.
  */
 public class MmrContentAggregator implements ContentAggregator {
 
@@ -52,6 +81,8 @@ public class MmrContentAggregator implements ContentAggregator {
     private final double lambda;
     private final boolean forceEmbeddingGeneration;
     private final EmbeddingStrategy manualStrategy;
+    private final Executor executor;
+    private final RagInstrumentation instrumentation;
 
     /**
      * Simple constructor with only EmbeddingModel.
@@ -93,7 +124,8 @@ public class MmrContentAggregator implements ContentAggregator {
     }
 
     /**
-     * Full constructor with all parameters.
+     * Full constructor without an executor, MMR is applied once to the fused contents of all queries.
+     * The executor and the listeners are set with the {@link #builder()}.
      */
     public MmrContentAggregator(
             EmbeddingModel embeddingModel,
@@ -104,16 +136,30 @@ public class MmrContentAggregator implements ContentAggregator {
             double lambda,
             boolean forceEmbeddingGeneration,
             EmbeddingStrategy manualStrategy) {
+        this(builder()
+                .embeddingModel(embeddingModel)
+                .scoringModel(scoringModel)
+                .querySelector(querySelector)
+                .minScore(minScore)
+                .maxResults(maxResults)
+                .lambda(lambda)
+                .forceEmbeddingGeneration(forceEmbeddingGeneration)
+                .strategy(manualStrategy));
+    }
+
+    private MmrContentAggregator(MmrContentAggregatorBuilder builder) {
+        this.forceEmbeddingGeneration = getOrDefault(builder.forceEmbeddingGeneration, false);
+        this.manualStrategy = builder.manualStrategy;
         this.embeddingModel = (forceEmbeddingGeneration || manualStrategy != null)
-                ? embeddingModel
-                : ensureNotNull(embeddingModel, "embeddingModel");
-        this.scoringModel = scoringModel;
-        this.querySelector = getOrDefault(querySelector, DEFAULT_QUERY_SELECTOR);
-        this.minScore = minScore;
-        this.maxResults = getOrDefault(maxResults, Integer.MAX_VALUE);
-        this.lambda = lambda;
-        this.forceEmbeddingGeneration = forceEmbeddingGeneration;
-        this.manualStrategy = manualStrategy;
+                ? builder.embeddingModel
+                : ensureNotNull(builder.embeddingModel, "embeddingModel");
+        this.scoringModel = builder.scoringModel;
+        this.querySelector = getOrDefault(builder.querySelector, DEFAULT_QUERY_SELECTOR);
+        this.minScore = builder.minScore;
+        this.maxResults = getOrDefault(builder.maxResults, Integer.MAX_VALUE);
+        this.lambda = getOrDefault(builder.lambda, DEFAULT_LAMBDA);
+        this.executor = builder.executor;
+        this.instrumentation = RagInstrumentation.of(builder.listeners);
 
         if (forceEmbeddingGeneration && manualStrategy != null) {
             log.warn("Both forceEmbeddingGeneration and manualStrategy provided. Manual strategy takes precedence.");
@@ -134,6 +180,10 @@ public class MmrContentAggregator implements ContentAggregator {
         } else {
             log.info("MMR configured to automatically select optimal embedding strategy based on content analysis");
         }
+
+        if (executor != null) {
+            log.info("MMR configured to process each query concurrently; querySelector will not be used");
+        }
     }
 
     public static MmrContentAggregatorBuilder builder() {
@@ -146,6 +196,10 @@ public class MmrContentAggregator implements ContentAggregator {
             return Collections.emptyList();
         }
 
+        if (executor != null) {
+            return aggregatePerQuery(queryToContents);
+        }
+
         Query query = querySelector.apply(queryToContents);
         Map<Query, List<Content>> queryToFusedContents = fuse(queryToContents);
         List<Content> fusedContents = ReciprocalRankFuser.fuse(queryToFusedContents.values());
@@ -154,6 +208,127 @@ public class MmrContentAggregator implements ContentAggregator {
             return fusedContents;
         }
 
+        warnIfFewCandidates(fusedContents);
+
+        return applyMmr(fusedContents, query, selectStrategy(fusedContents), embeddingModel, true);
+    }
+
+    private List<Content> aggregatePerQuery(Map<Query, Collection<List<Content>>> queryToContents) {
+        // LinkedHashMap keeps the caller's query order, which makes the final fusion deterministic
+        Map<Query, List<Content>> queryToFusedContents = new LinkedHashMap<>();
+        Map<Query, EmbeddingStrategy> queryToStrategy = new HashMap<>();
+        for (Map.Entry<Query, Collection<List<Content>>> entry : queryToContents.entrySet()) {
+            List<Content> fusedContents = ReciprocalRankFuser.fuse(entry.getValue());
+            if (!fusedContents.isEmpty()) {
+                warnIfFewCandidates(fusedContents);
+                queryToFusedContents.put(entry.getKey(), fusedContents);
+                queryToStrategy.put(entry.getKey(), selectStrategy(fusedContents));
+            }
+        }
+
+        if (queryToFusedContents.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        EmbeddingModel sharedEmbeddingModel = embedContentsOnce(queryToFusedContents, queryToStrategy);
+
+        List<CompletableFuture<List<Content>>> futures = new ArrayList<>(queryToFusedContents.size());
+        for (Map.Entry<Query, List<Content>> entry : queryToFusedContents.entrySet()) {
+            Query query = entry.getKey();
+            EmbeddingStrategy strategy = queryToStrategy.get(query);
+            futures.add(CompletableFuture.supplyAsync(
+                    () -> applyMmr(entry.getValue(), query, strategy, sharedEmbeddingModel, false), executor));
+        }
+
+        List<List<Content>> perQueryResults = new ArrayList<>(futures.size());
+        for (CompletableFuture<List<Content>> future : futures) {
+            perQueryResults.add(join(future));
+        }
+
+        List<Content> merged = ReciprocalRankFuser.fuse(perQueryResults);
+        return merged.size() > maxResults ? new ArrayList<>(merged.subList(0, maxResults)) : merged;
+    }
+
+    /**
+     * Generates, with a single deduplicated {@code embedAll} call, every content embedding the strategies
+     * of all queries would otherwise generate one query at a time.
+     * This is the only {@link RagStage#CONTENT_EMBEDDING} stage reported for the aggregation.
+     *
+     * @return an {@link EmbeddingModel} serving those embeddings, and delegating everything else.
+     */
+    private EmbeddingModel embedContentsOnce(
+            Map<Query, List<Content>> queryToFusedContents, Map<Query, EmbeddingStrategy> queryToStrategy) {
+
+        Set<TextSegment> segmentsToEmbed = new LinkedHashSet<>();
+        queryToFusedContents.forEach((query, contents) -> {
+            EmbeddingStrategy strategy = queryToStrategy.get(query);
+            for (Content content : contents) {
+                if (strategy instanceof GenerateEmbeddings
+                        || (strategy instanceof HybridEmbeddings
+                                && EmbeddedContent.documentEmbeddingOf(content) == null)) {
+                    segmentsToEmbed.add(content.textSegment());
+                }
+            }
+        });
+
+        long start = instrumentation.start();
+        if (segmentsToEmbed.isEmpty()) {
+            reportSharedContentEmbedding(start, queryToFusedContents, 0, null);
+            return embeddingModel;
+        }
+
+        List<TextSegment> segments = new ArrayList<>(segmentsToEmbed);
+        log.debug(
+                "Generating embeddings for {} distinct contents across {} queries",
+                segments.size(),
+                queryToFusedContents.size());
+        Response<List<Embedding>> response = embeddingModel.embedAll(segments);
+        reportSharedContentEmbedding(start, queryToFusedContents, segments.size(), response.tokenUsage());
+        List<Embedding> embeddings = response.content();
+
+        Map<TextSegment, Embedding> segmentToEmbedding = new HashMap<>();
+        for (int i = 0; i < segments.size(); i++) {
+            segmentToEmbedding.put(segments.get(i), embeddings.get(i));
+        }
+        return new PrecomputedEmbeddingModel(embeddingModel, segmentToEmbedding);
+    }
+
+    private void reportSharedContentEmbedding(
+            long start, Map<Query, List<Content>> queryToFusedContents, int batchSize, TokenUsage tokenUsage) {
+        if (!instrumentation.isEnabled()) {
+            return;
+        }
+        int candidateCount = 0;
+        for (List<Content> contents : queryToFusedContents.values()) {
+            candidateCount += contents.size();
+        }
+        instrumentation.completed(
+                RagStage.CONTENT_EMBEDDING,
+                getClass(),
+                start,
+                attributes(
+                        RagStageEvent.MODEL_CLASS,
+                        embeddingModel == null ? null : embeddingModel.getClass().getName(),
+                        RagStageEvent.CANDIDATE_COUNT,
+                        candidateCount,
+                        RagStageEvent.BATCH_SIZE,
+                        batchSize,
+                        RagStageEvent.INPUT_TOKEN_COUNT,
+                        tokenUsage == null ? null : tokenUsage.inputTokenCount()));
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+
+    private void warnIfFewCandidates(List<Content> fusedContents) {
         if (maxResults < Integer.MAX_VALUE && fusedContents.size() < 5 * maxResults) {
             log.warn(
                     "Pre-MMR candidate count is lower than expected: {} items (recommended: 5–10× maxResults, current range: {}–{})",
@@ -161,8 +336,6 @@ public class MmrContentAggregator implements ContentAggregator {
                     5 * maxResults,
                     10 * maxResults);
         }
-
-        return applyMmr(fusedContents, query);
     }
 
     private Map<Query, List<Content>> fuse(Map<Query, Collection<List<Content>>> queryToContents) {
@@ -170,15 +343,28 @@ public class MmrContentAggregator implements ContentAggregator {
                 .collect(Collectors.toMap(Map.Entry::getKey, entry -> ReciprocalRankFuser.fuse(entry.getValue())));
     }
 
-    private List<Content> applyMmr(List<Content> contents, Query query) {
+    private EmbeddingStrategy selectStrategy(List<Content> contents) {
         // Strategy selection: Manual > ForceGeneration > Auto
-        EmbeddingStrategy strategy;
         if (manualStrategy != null) {
-            strategy = manualStrategy;
-            log.debug("Using manual strategy: {}", strategy.getClass().getSimpleName());
-        } else {
-            strategy = EmbeddingStrategyFactory.createStrategy(contents, forceEmbeddingGeneration);
+            log.debug("Using manual strategy: {}", manualStrategy.getClass().getSimpleName());
+            return manualStrategy;
         }
+        return EmbeddingStrategyFactory.createStrategy(contents, forceEmbeddingGeneration);
+    }
+
+    /**
+     * @param reportContentEmbedding whether to report the embedding of the query and the contents as a
+     *                               {@link RagStage#CONTENT_EMBEDDING} stage, which is not done when the contents
+     *                               were embedded for all queries at once.
+     */
+    private List<Content> applyMmr(
+            List<Content> contents,
+            Query query,
+            EmbeddingStrategy strategy,
+            EmbeddingModel embeddingModel,
+            boolean reportContentEmbedding) {
+
+        long start = instrumentation.start();
 
         // Process query embedding using selected strategy
         Embedding queryEmbedding = strategy.processQueryEmbedding(query, contents, embeddingModel);
@@ -186,6 +372,18 @@ public class MmrContentAggregator implements ContentAggregator {
         // Process content embeddings using selected strategy
         List<EmbeddingMatch<Content>> matches = strategy.processContents(contents, queryEmbedding, embeddingModel);
 
+        if (reportContentEmbedding && instrumentation.isEnabled()) {
+            instrumentation.completed(
+                    RagStage.CONTENT_EMBEDDING,
+                    getClass(),
+                    start,
+                    attributes(
+                            RagStageEvent.STRATEGY_CLASS,
+                            strategy.getClass().getName(),
+                            RagStageEvent.CANDIDATE_COUNT,
+                            contents.size()));
+        }
+
         // Filter by minimum score if specified
         if (minScore != null) {
             matches =
@@ -195,9 +393,22 @@ public class MmrContentAggregator implements ContentAggregator {
         // Apply MMR selection
         int resultsToSelect = Math.min(maxResults, matches.size());
 
-        return MmrSelector.select(queryEmbedding, matches, resultsToSelect, lambda).stream()
+        start = instrumentation.start();
+        List<Content> selected = MmrSelector.select(queryEmbedding, matches, resultsToSelect, lambda).stream()
                 .map(EmbeddingMatch::embedded)
                 .collect(Collectors.toList());
+        if (instrumentation.isEnabled()) {
+            instrumentation.completed(
+                    RagStage.MMR_SELECTION,
+                    getClass(),
+                    start,
+                    attributes(
+                            RagStageEvent.CANDIDATE_COUNT,
+                            matches.size(),
+                            RagStageEvent.RESULT_COUNT,
+                            selected.size()));
+        }
+        return selected;
     }
 
     // Builder class
@@ -210,6 +421,8 @@ public class MmrContentAggregator implements ContentAggregator {
         private Double lambda;
         private Boolean forceEmbeddingGeneration;
         private EmbeddingStrategy manualStrategy;
+        private Executor executor;
+        private List<RagListener> listeners;
 
         MmrContentAggregatorBuilder() {}
 
@@ -284,19 +497,75 @@ public class MmrContentAggregator implements ContentAggregator {
             return this;
         }
 
+        /**
+         * Sets the executor used to apply MMR to each query concurrently.
+         * When set, MMR is applied per query instead of once relative to the query chosen by
+         * the {@code querySelector}, and the per-query results are fused with {@link ReciprocalRankFuser}.
+         * Content embeddings needed by all queries are generated with a single, deduplicated call.
+         * On Java 21+, {@code Executors.newVirtualThreadPerTaskExecutor()} is a good fit.
+         *
+         * @param executor The executor running the per-query MMR passes
+         */
+        public MmrContentAggregatorBuilder executor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * Sets the listeners notified of the embedding and MMR stages of each aggregation. Optional.
+         *
+         * @param listeners The listeners
+         */
+        public MmrContentAggregatorBuilder listeners(List<RagListener> listeners) {
+            this.listeners = listeners;
+            return this;
+        }
+
         public MmrContentAggregator build() {
-            boolean forceGeneration = getOrDefault(forceEmbeddingGeneration, false);
-
-            // Full parameter constructor
-            return new MmrContentAggregator(
-                    embeddingModel,
-                    scoringModel,
-                    querySelector,
-                    minScore,
-                    maxResults,
-                    getOrDefault(lambda, DEFAULT_LAMBDA),
-                    forceGeneration,
-                    manualStrategy);
+            return new MmrContentAggregator(this);
+        }
+    }
+
+    /**
+     * Serves the content embeddings generated up-front for all queries, delegating any other call.
+     */
+    private static final class PrecomputedEmbeddingModel implements EmbeddingModel {
+
+        private final EmbeddingModel delegate;
+        private final Map<TextSegment, Embedding> segmentToEmbedding;
+
+        private PrecomputedEmbeddingModel(EmbeddingModel delegate, Map<TextSegment, Embedding> segmentToEmbedding) {
+            this.delegate = delegate;
+            this.segmentToEmbedding = segmentToEmbedding;
+        }
+
+        @Override
+        public Response<Embedding> embed(String text) {
+            return delegate.embed(text);
+        }
+
+        @Override
+        public Response<Embedding> embed(TextSegment textSegment) {
+            Embedding embedding = segmentToEmbedding.get(textSegment);
+            return embedding != null ? Response.from(embedding) : delegate.embed(textSegment);
+        }
+
+        @Override
+        public Response<List<Embedding>> embedAll(List<TextSegment> textSegments) {
+            List<Embedding> embeddings = new ArrayList<>(textSegments.size());
+            for (TextSegment textSegment : textSegments) {
+                Embedding embedding = segmentToEmbedding.get(textSegment);
+                if (embedding == null) {
+                    return delegate.embedAll(textSegments);
+                }
+                embeddings.add(embedding);
+            }
+            return Response.from(embeddings);
+        }
+
+        @Override
+        public int dimension() {
+            return delegate.dimension();
         }
     }
 }
@@ -1,6 +1,6 @@
 package dev.langchain4j.community.rag.content.aggregator.strategy;
 
-import dev.langchain4j.community.rag.content.util.EmbeddingMetadataUtils;
+import dev.langchain4j.community.rag.content.EmbeddedContent;
 import dev.langchain4j.rag.content.Content;
 import java.util.List;
 import org.slf4j.Logger;
@@ -53,6 +53,6 @@ public class EmbeddingStrategyFactory {
     }
 
     private static boolean hasEmbedding(Content content) {
-        return EmbeddingMetadataUtils.extractDocumentEmbedding(content.textSegment()) != null;
+        return EmbeddedContent.documentEmbeddingOf(content) != null;
     }
 }
@@ -2,7 +2,7 @@ package dev.langchain4j.community.rag.content.aggregator.strategy;
 
 import static dev.langchain4j.store.embedding.CosineSimilarity.between;
 
-import dev.langchain4j.community.rag.content.util.EmbeddingMetadataUtils;
+import dev.langchain4j.community.rag.content.EmbeddedContent;
 import dev.langchain4j.data.embedding.Embedding;
 import dev.langchain4j.data.segment.TextSegment;
 import dev.langchain4j.model.embedding.EmbeddingModel;
@@ -32,7 +32,7 @@ public final class HybridEmbeddings implements EmbeddingStrategy {
     public Embedding processQueryEmbedding(Query query, List<Content> contents, EmbeddingModel embeddingModel) {
         // Try to extract from contents first
         Optional<Embedding> existingQueryEmbedding = contents.stream()
-                .map(content -> EmbeddingMetadataUtils.extractQueryEmbedding(content.textSegment()))
+                .map(EmbeddedContent::queryEmbeddingOf)
                 .filter(Objects::nonNull)
                 .findFirst();
 
@@ -81,14 +81,14 @@ public final class HybridEmbeddings implements EmbeddingStrategy {
     }
 
     private boolean hasEmbedding(Content content) {
-        return EmbeddingMetadataUtils.extractDocumentEmbedding(content.textSegment()) != null;
+        return EmbeddedContent.documentEmbeddingOf(content) != null;
     }
 
     private List<EmbeddingMatch<Content>> processExistingEmbeddings(List<Content> contents, Embedding queryEmbedding) {
 
         return contents.stream()
                 .map(content -> {
-                    Embedding contentEmbedding = EmbeddingMetadataUtils.extractDocumentEmbedding(content.textSegment());
+                    Embedding contentEmbedding = EmbeddedContent.documentEmbeddingOf(content);
                     double score = between(contentEmbedding, queryEmbedding);
                     String embeddingId = getEmbeddingId(content);
                     return new EmbeddingMatch<>(score, embeddingId, contentEmbedding, content);
@@ -2,7 +2,7 @@ package dev.langchain4j.community.rag.content.aggregator.strategy;
 
 import static dev.langchain4j.store.embedding.CosineSimilarity.between;
 
-import dev.langchain4j.community.rag.content.util.EmbeddingMetadataUtils;
+import dev.langchain4j.community.rag.content.EmbeddedContent;
 import dev.langchain4j.data.embedding.Embedding;
 import dev.langchain4j.model.embedding.EmbeddingModel;
 import dev.langchain4j.rag.content.Content;
@@ -15,7 +15,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Strategy for using all existing embeddings from content metadata.
+ * Strategy for using all existing embeddings, carried by {@link EmbeddedContent} or stored in content metadata.
  * Used when all contents have embeddings available.
  */
 public final class UseExistingEmbeddings implements EmbeddingStrategy {
@@ -29,13 +29,13 @@ public final class UseExistingEmbeddings implements EmbeddingStrategy {
             throw new IllegalStateException("Cannot extract query embedding from empty content list");
         }
 
-        Embedding queryEmbedding =
-                EmbeddingMetadataUtils.extractQueryEmbedding(contents.get(0).textSegment());
+        Embedding queryEmbedding = EmbeddedContent.queryEmbeddingOf(contents.get(0));
 
         if (queryEmbedding == null) {
             throw new IllegalStateException(
                     "Query embedding not found in content metadata. "
-                            + "Ensure retriever is properly enriching content with query embeddings using EmbeddingMetadataUtils.");
+                            + "Ensure retriever is returning EmbeddedContent or enriching content with query embeddings "
+                            + "using EmbeddingMetadataUtils.");
         }
 
         log.debug("Using existing query embedding from content metadata");
@@ -62,11 +62,12 @@ public final class UseExistingEmbeddings implements EmbeddingStrategy {
     }
 
     private Embedding extractEmbeddingFromContent(Content content) {
-        Embedding embedding = EmbeddingMetadataUtils.extractDocumentEmbedding(content.textSegment());
+        Embedding embedding = EmbeddedContent.documentEmbeddingOf(content);
 
         if (embedding == null) {
             throw new IllegalStateException("Content must have document embedding for MMR processing. "
-                    + "Ensure retriever is properly enriching content with document embeddings using EmbeddingMetadataUtils. "
+                    + "Ensure retriever is returning EmbeddedContent or enriching content with document embeddings "
+                    + "using EmbeddingMetadataUtils. "
                     + "Content: "
                     + content.textSegment()
                             .text()
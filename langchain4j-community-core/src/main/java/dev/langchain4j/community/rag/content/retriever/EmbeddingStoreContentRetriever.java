@@ -1,20 +1,30 @@
 package dev.langchain4j.community.rag.content.retriever;
 
+import static dev.langchain4j.community.rag.listener.RagInstrumentation.attributes;
 import static dev.langchain4j.internal.Utils.getOrDefault;
 import static dev.langchain4j.internal.ValidationUtils.ensureBetween;
 import static dev.langchain4j.internal.ValidationUtils.ensureGreaterThanZero;
 import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
 import static dev.langchain4j.spi.ServiceHelper.loadFactories;
 
+import dev.langchain4j.community.rag.content.EmbeddedContent;
 import dev.langchain4j.community.rag.content.util.EmbeddingMetadataUtils;
+import dev.langchain4j.community.rag.listener.RagInstrumentation;
+import dev.langchain4j.community.rag.listener.RagListener;
+import dev.langchain4j.community.rag.listener.RagStage;
+import dev.langchain4j.community.rag.listener.RagStageEvent;
+import dev.langchain4j.community.store.embedding.AsyncEmbeddingSearch;
 import dev.langchain4j.data.embedding.Embedding;
 import dev.langchain4j.data.segment.TextSegment;
 import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.output.Response;
+import dev.langchain4j.model.output.TokenUsage;
 import dev.langchain4j.rag.content.Content;
 import dev.langchain4j.rag.content.ContentMetadata;
 import dev.langchain4j.rag.content.retriever.ContentRetriever;
 import dev.langchain4j.rag.query.Query;
 import dev.langchain4j.spi.model.embedding.EmbeddingModelFactory;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
 import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
 import dev.langchain4j.store.embedding.EmbeddingSearchResult;
 import dev.langchain4j.store.embedding.EmbeddingStore;
@@ -22,6 +32,8 @@ import dev.langchain4j.store.embedding.filter.Filter;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -55,6 +67,21 @@ import java.util.stream.Collectors;
  * - {@code dynamicFilter}: It is a {@link Function} that accepts a {@link Query} and returns a {@code filter} value.
  * It can be used to dynamically define {@code filter} value, depending on factors such as the query,
  * the user (using Metadata#chatMemoryId()} from {@link Query#metadata()}), etc.
+ * <br>
+ * - {@code embeddingsInMetadata}: Whether the query and document embeddings should also be stored, Base64-encoded,
+ * in the {@link TextSegment} metadata (see {@link EmbeddingMetadataUtils}). Disabled by default:
+ * the returned contents are {@link EmbeddedContent}s carrying the embeddings by reference, which is enough
+ * as long as the contents are consumed within the same process (e.g. by an MMR content aggregator).
+ * <br>
+ * - {@code queryEmbeddingCache}: A {@link QueryEmbeddingCache} used to avoid embedding the same query text repeatedly.
+ * It can be shared between retrievers using the same {@link EmbeddingModel}.
+ * <br>
+ * - {@code executor}: The {@link Executor} running the blocking steps of {@link #retrieveAsync(Query)}:
+ * embedding the query and, unless the store implements {@link AsyncEmbeddingSearch}, searching the store.
+ * Defaults to {@link AsyncEmbeddingSearch#defaultExecutor()}, which uses virtual threads on Java 21+.
+ * <br>
+ * - {@code listeners}: The {@link RagListener}s notified of the {@link RagStage#QUERY_EMBEDDING}
+ * and {@link RagStage#EMBEDDING_STORE_SEARCH} stages of each retrieval.
  */
 public class EmbeddingStoreContentRetriever implements ContentRetriever {
 
@@ -72,6 +99,11 @@ public class EmbeddingStoreContentRetriever implements ContentRetriever {
     private final Function<Query, Filter> filterProvider;
 
     private final String displayName;
+    private final boolean embeddingsInMetadata;
+    private final QueryEmbeddingCache queryEmbeddingCache;
+    private final Executor executor;
+    private final AsyncEmbeddingSearch<TextSegment> asyncEmbeddingSearch;
+    private final RagInstrumentation instrumentation;
 
     public EmbeddingStoreContentRetriever(EmbeddingStore<TextSegment> embeddingStore, EmbeddingModel embeddingModel) {
         this(
@@ -80,7 +112,11 @@ public class EmbeddingStoreContentRetriever implements ContentRetriever {
                 embeddingModel,
                 DEFAULT_MAX_RESULTS,
                 DEFAULT_MIN_SCORE,
-                DEFAULT_FILTER);
+                DEFAULT_FILTER,
+                false,
+                null,
+                null,
+                null);
     }
 
     public EmbeddingStoreContentRetriever(
@@ -91,7 +127,11 @@ public class EmbeddingStoreContentRetriever implements ContentRetriever {
                 embeddingModel,
                 (query) -> maxResults,
                 DEFAULT_MIN_SCORE,
-                DEFAULT_FILTER);
+                DEFAULT_FILTER,
+                false,
+                null,
+                null,
+                null);
     }
 
     public EmbeddingStoreContentRetriever(
@@ -105,7 +145,11 @@ public class EmbeddingStoreContentRetriever implements ContentRetriever {
                 embeddingModel,
                 (query) -> maxResults,
                 (query) -> minScore,
-                DEFAULT_FILTER);
+                DEFAULT_FILTER,
+                false,
+                null,
+                null,
+                null);
     }
 
     private EmbeddingStoreContentRetriever(
@@ -114,7 +158,11 @@ public class EmbeddingStoreContentRetriever implements ContentRetriever {
             EmbeddingModel embeddingModel,
             Function<Query, Integer> dynamicMaxResults,
             Function<Query, Double> dynamicMinScore,
-            Function<Query, Filter> dynamicFilter) {
+            Function<Query, Filter> dynamicFilter,
+            boolean embeddingsInMetadata,
+            QueryEmbeddingCache queryEmbeddingCache,
+            Executor executor,
+            List<RagListener> listeners) {
         this.displayName = getOrDefault(displayName, DEFAULT_DISPLAY_NAME);
         this.embeddingStore = ensureNotNull(embeddingStore, "embeddingStore");
         this.embeddingModel = ensureNotNull(
@@ -122,6 +170,11 @@ public class EmbeddingStoreContentRetriever implements ContentRetriever {
         this.maxResultsProvider = getOrDefault(dynamicMaxResults, DEFAULT_MAX_RESULTS);
         this.minScoreProvider = getOrDefault(dynamicMinScore, DEFAULT_MIN_SCORE);
         this.filterProvider = getOrDefault(dynamicFilter, DEFAULT_FILTER);
+        this.embeddingsInMetadata = embeddingsInMetadata;
+        this.queryEmbeddingCache = queryEmbeddingCache;
+        this.executor = getOrDefault(executor, AsyncEmbeddingSearch::defaultExecutor);
+        this.asyncEmbeddingSearch = AsyncEmbeddingSearch.from(this.embeddingStore, this.executor);
+        this.instrumentation = RagInstrumentation.of(listeners);
     }
 
     private static EmbeddingModel loadEmbeddingModel() {
@@ -150,6 +203,10 @@ public class EmbeddingStoreContentRetriever implements ContentRetriever {
         private Function<Query, Integer> dynamicMaxResults;
         private Function<Query, Double> dynamicMinScore;
         private Function<Query, Filter> dynamicFilter;
+        private Boolean embeddingsInMetadata;
+        private QueryEmbeddingCache queryEmbeddingCache;
+        private Executor executor;
+        private List<RagListener> listeners;
 
         EmbeddingStoreContentRetrieverBuilder() {}
 
@@ -204,6 +261,42 @@ public class EmbeddingStoreContentRetriever implements ContentRetriever {
             return this;
         }
 
+        /**
+         * Sets whether the query and document embeddings should also be stored, Base64-encoded,
+         * in the metadata of the returned text segments.
+         * Only needed when the contents are serialized, e.g. sent to another process,
+         * and still have to carry their embeddings. Defaults to {@code false}.
+         */
+        public EmbeddingStoreContentRetrieverBuilder embeddingsInMetadata(Boolean embeddingsInMetadata) {
+            this.embeddingsInMetadata = embeddingsInMetadata;
+            return this;
+        }
+
+        /**
+         * Sets the cache of query embeddings. Optional, every query is embedded by default.
+         */
+        public EmbeddingStoreContentRetrieverBuilder queryEmbeddingCache(QueryEmbeddingCache queryEmbeddingCache) {
+            this.queryEmbeddingCache = queryEmbeddingCache;
+            return this;
+        }
+
+        /**
+         * Sets the executor running the blocking steps of {@link EmbeddingStoreContentRetriever#retrieveAsync(Query)}.
+         * Optional, defaults to {@link AsyncEmbeddingSearch#defaultExecutor()}.
+         */
+        public EmbeddingStoreContentRetrieverBuilder executor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * Sets the listeners notified of the stages of each retrieval. Optional.
+         */
+        public EmbeddingStoreContentRetrieverBuilder listeners(List<RagListener> listeners) {
+            this.listeners = listeners;
+            return this;
+        }
+
         public EmbeddingStoreContentRetriever build() {
             return new EmbeddingStoreContentRetriever(
                     this.displayName,
@@ -211,7 +304,11 @@ public class EmbeddingStoreContentRetriever implements ContentRetriever {
                     this.embeddingModel,
                     this.dynamicMaxResults,
                     this.dynamicMinScore,
-                    this.dynamicFilter);
+                    this.dynamicFilter,
+                    getOrDefault(this.embeddingsInMetadata, false),
+                    this.queryEmbeddingCache,
+                    this.executor,
+                    this.listeners);
         }
     }
 
@@ -226,29 +323,132 @@ public class EmbeddingStoreContentRetriever implements ContentRetriever {
     @Override
     public List<Content> retrieve(Query query) {
 
-        Embedding embeddedQuery = embeddingModel.embed(query.text()).content();
+        Embedding embeddedQuery = embedQuery(query);
+
+        EmbeddingSearchRequest searchRequest = searchRequest(query, embeddedQuery);
+        long start = instrumentation.start();
+        EmbeddingSearchResult<TextSegment> searchResult;
+        try {
+            searchResult = embeddingStore.search(searchRequest);
+        } catch (RuntimeException e) {
+            searchCompleted(start, null, e);
+            throw e;
+        }
+        searchCompleted(start, searchResult, null);
+
+        return toContents(searchResult, embeddedQuery);
+    }
+
+    /**
+     * Retrieves {@link Content}s relevant to the given {@link Query} without blocking the caller.
+     * <p>
+     * The query is embedded on the configured {@code executor}. The store is then searched natively
+     * if it implements {@link AsyncEmbeddingSearch}, or on the same {@code executor} otherwise.
+     * Fanning out to several retrievers this way costs the latency of the slowest one, not the sum of them.
+     *
+     * @param query The {@link Query} to retrieve {@link Content}s for.
+     * @return A future completed with the same {@link Content}s {@link #retrieve(Query)} would return.
+     */
+    public CompletableFuture<List<Content>> retrieveAsync(Query query) {
+        return CompletableFuture.supplyAsync(() -> embedQuery(query), executor)
+                .thenCompose(embeddedQuery -> searchAsync(searchRequest(query, embeddedQuery))
+                        .thenApply(searchResult -> toContents(searchResult, embeddedQuery)));
+    }
+
+    private CompletableFuture<EmbeddingSearchResult<TextSegment>> searchAsync(EmbeddingSearchRequest searchRequest) {
+        if (!instrumentation.isEnabled()) {
+            return asyncEmbeddingSearch.searchAsync(searchRequest);
+        }
+        long start = instrumentation.start();
+        return asyncEmbeddingSearch
+                .searchAsync(searchRequest)
+                .whenComplete((searchResult, error) -> searchCompleted(start, searchResult, error));
+    }
 
-        EmbeddingSearchRequest searchRequest = EmbeddingSearchRequest.builder()
+    private void searchCompleted(long start, EmbeddingSearchResult<TextSegment> searchResult, Throwable error) {
+        if (!instrumentation.isEnabled()) {
+            return;
+        }
+        Map<String, Object> attributes = attributes(
+                RagStageEvent.STORE_CLASS,
+                embeddingStore.getClass().getName(),
+                RagStageEvent.RESULT_COUNT,
+                searchResult == null ? null : searchResult.matches().size());
+        if (error == null) {
+            instrumentation.completed(RagStage.EMBEDDING_STORE_SEARCH, getClass(), start, attributes);
+        } else {
+            instrumentation.failed(RagStage.EMBEDDING_STORE_SEARCH, getClass(), start, error, attributes);
+        }
+    }
+
+    private EmbeddingSearchRequest searchRequest(Query query, Embedding embeddedQuery) {
+        return EmbeddingSearchRequest.builder()
                 .queryEmbedding(embeddedQuery)
                 .maxResults(maxResultsProvider.apply(query))
                 .minScore(minScoreProvider.apply(query))
                 .filter(filterProvider.apply(query))
                 .build();
+    }
 
-        EmbeddingSearchResult<TextSegment> searchResult = embeddingStore.search(searchRequest);
-
+    private List<Content> toContents(EmbeddingSearchResult<TextSegment> searchResult, Embedding embeddedQuery) {
         return searchResult.matches().stream()
-                .map(embeddingMatch -> Content.from(
-                        // Return contents with embedded data
-                        // There was no way exporting vectors without core class changes
-                        EmbeddingMetadataUtils.enrichSegmentWithEmbeddings(
-                                embeddingMatch.embedded(), embeddedQuery, embeddingMatch.embedding()),
-                        Map.of(
-                                ContentMetadata.SCORE, embeddingMatch.score(),
-                                ContentMetadata.EMBEDDING_ID, embeddingMatch.embeddingId())))
+                .map(embeddingMatch -> toContent(embeddingMatch, embeddedQuery))
                 .collect(Collectors.toList());
     }
 
+    private Embedding embedQuery(Query query) {
+        if (queryEmbeddingCache == null) {
+            return embed(query.text());
+        }
+        return queryEmbeddingCache.get(query.text(), this::embed);
+    }
+
+    private Embedding embed(String text) {
+        if (!instrumentation.isEnabled()) {
+            return embeddingModel.embed(text).content();
+        }
+        long start = instrumentation.start();
+        Response<Embedding> response;
+        try {
+            response = embeddingModel.embed(text);
+        } catch (RuntimeException e) {
+            instrumentation.failed(
+                    RagStage.QUERY_EMBEDDING,
+                    getClass(),
+                    start,
+                    e,
+                    attributes(RagStageEvent.MODEL_CLASS, embeddingModel.getClass().getName()));
+            throw e;
+        }
+        TokenUsage tokenUsage = response.tokenUsage();
+        instrumentation.completed(
+                RagStage.QUERY_EMBEDDING,
+                getClass(),
+                start,
+                attributes(
+                        RagStageEvent.MODEL_CLASS,
+                        embeddingModel.getClass().getName(),
+                        RagStageEvent.INPUT_TOKEN_COUNT,
+                        tokenUsage == null ? null : tokenUsage.inputTokenCount()));
+        return response.content();
+    }
+
+    private Content toContent(EmbeddingMatch<TextSegment> embeddingMatch, Embedding embeddedQuery) {
+        TextSegment textSegment = embeddingsInMetadata
+                ? EmbeddingMetadataUtils.enrichSegmentWithEmbeddings(
+                        embeddingMatch.embedded(), embeddedQuery, embeddingMatch.embedding())
+                : embeddingMatch.embedded();
+
+        // Return contents carrying the embeddings by reference
+        return new EmbeddedContent(
+                textSegment,
+                Map.of(
+                        ContentMetadata.SCORE, embeddingMatch.score(),
+                        ContentMetadata.EMBEDDING_ID, embeddingMatch.embeddingId()),
+                embeddingMatch.embedding(),
+                embeddedQuery);
+    }
+
     @Override
     public String toString() {
         return "EmbeddingStoreContentRetriever{" + "displayName='" + displayName + '\'' + '}';
@@ -0,0 +1,282 @@
+package dev.langchain4j.community.rag.content.retriever;
+
+import static dev.langchain4j.internal.Utils.getOrDefault;
+import static dev.langchain4j.internal.ValidationUtils.ensureGreaterThanZero;
+import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
+
+import dev.langchain4j.data.embedding.Embedding;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * A bounded, in-memory cache of query embeddings, meant to be plugged into
+ * {@link EmbeddingStoreContentRetriever.EmbeddingStoreContentRetrieverBuilder#queryEmbeddingCache(QueryEmbeddingCache)}.
+ * <p>
+ * Entries are evicted in least-recently-used order once {@code maxSize} is reached, and expire after {@code ttl}
+ * (if set). Query texts are turned into cache keys with a {@code keyNormalizer} (identity by default),
+ * which can be used to make near-identical questions share an entry, e.g. by trimming or lower-casing them.
+ * <p>
+ * Concurrent lookups of the same key while its embedding is being computed wait for that single computation
+ * instead of triggering their own ("single-flight"). Failed computations are not cached.
+ * <p>
+ * The cache key does not include the embedding model: an instance can be shared between several retrievers
+ * only if they use the same {@link dev.langchain4j.model.embedding.EmbeddingModel}.
+ * <p>
+ * Hit, miss, load and eviction counters, as well as the cumulated load latency, are exposed through {@link #stats()}
+ * to help size the cache.
+ */
+public class QueryEmbeddingCache {
+
+    private static final int DEFAULT_MAX_SIZE = 1_000;
+
+    private final int maxSize;
+    private final Duration ttl;
+    private final Function<String, String> keyNormalizer;
+    private final LongSupplier ticker;
+
+    // guarded by itself, access-ordered for LRU eviction
+    private final Map<String, CachedEmbedding> entries;
+    private final Map<String, CompletableFuture<Embedding>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder loadCount = new LongAdder();
+    private final LongAdder coalescedLoadCount = new LongAdder();
+    private final LongAdder loadFailureCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+    private final LongAdder totalLoadTimeNanos = new LongAdder();
+
+    private QueryEmbeddingCache(Builder builder) {
+        this.maxSize = ensureGreaterThanZero(getOrDefault(builder.maxSize, DEFAULT_MAX_SIZE), "maxSize");
+        this.ttl = builder.ttl;
+        if (ttl != null && (ttl.isZero() || ttl.isNegative())) {
+            throw new IllegalArgumentException("ttl must be positive, but is: " + ttl);
+        }
+        this.keyNormalizer = getOrDefault(builder.keyNormalizer, Function.identity());
+        this.ticker = getOrDefault(builder.ticker, () -> System::nanoTime);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedEmbedding> eldest) {
+                if (size() > maxSize) {
+                    evictionCount.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns the embedding of the given query text, computing it with {@code loader} if it is not cached yet.
+     * If the embedding of the same key is already being computed by another thread, waits for that result.
+     *
+     * @param text   the query text.
+     * @param loader computes the embedding of a query text, typically by calling an embedding model.
+     * @return the embedding.
+     */
+    public Embedding get(String text, Function<String, Embedding> loader) {
+        String key = ensureNotNull(keyNormalizer.apply(text), "normalized key");
+
+        Embedding cached = getIfPresent(key);
+        if (cached != null) {
+            hitCount.increment();
+            return cached;
+        }
+        missCount.increment();
+
+        CompletableFuture<Embedding> load = new CompletableFuture<>();
+        CompletableFuture<Embedding> ongoingLoad = inFlight.putIfAbsent(key, load);
+        if (ongoingLoad != null) {
+            coalescedLoadCount.increment();
+            return join(ongoingLoad);
+        }
+
+        try {
+            // another thread may have completed a load between the lookup and the registration above
+            Embedding embedding = getIfPresent(key);
+            if (embedding == null) {
+                embedding = timedLoad(text, loader);
+                put(key, embedding);
+            }
+            load.complete(embedding);
+            return embedding;
+        } catch (RuntimeException | Error e) {
+            loadFailureCount.increment();
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, load);
+        }
+    }
+
+    /**
+     * Removes all cached embeddings. Counters are left untouched.
+     */
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * @return the number of cached embeddings, including expired ones that were not evicted yet.
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public Stats stats() {
+        return new Stats(
+                hitCount.sum(),
+                missCount.sum(),
+                loadCount.sum(),
+                coalescedLoadCount.sum(),
+                loadFailureCount.sum(),
+                evictionCount.sum(),
+                Duration.ofNanos(totalLoadTimeNanos.sum()));
+    }
+
+    private Embedding timedLoad(String text, Function<String, Embedding> loader) {
+        long start = ticker.getAsLong();
+        try {
+            return loader.apply(text);
+        } finally {
+            loadCount.increment();
+            totalLoadTimeNanos.add(ticker.getAsLong() - start);
+        }
+    }
+
+    private Embedding getIfPresent(String key) {
+        synchronized (entries) {
+            CachedEmbedding cached = entries.get(key);
+            if (cached == null) {
+                return null;
+            }
+            if (cached.isExpired(ticker.getAsLong())) {
+                entries.remove(key);
+                evictionCount.increment();
+                return null;
+            }
+            return cached.embedding();
+        }
+    }
+
+    private void put(String key, Embedding embedding) {
+        if (embedding == null) {
+            return;
+        }
+        long expiresAt = ttl == null ? Long.MAX_VALUE : ticker.getAsLong() + ttl.toNanos();
+        synchronized (entries) {
+            entries.put(key, new CachedEmbedding(embedding, expiresAt));
+        }
+    }
+
+    private static Embedding join(CompletableFuture<Embedding> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+
+    private record CachedEmbedding(Embedding embedding, long expiresAtNanos) {
+
+        boolean isExpired(long nowNanos) {
+            return expiresAtNanos != Long.MAX_VALUE && nowNanos - expiresAtNanos >= 0;
+        }
+    }
+
+    /**
+     * A snapshot of the cache counters.
+     *
+     * @param hitCount           lookups served from the cache.
+     * @param missCount          lookups not found in the cache.
+     * @param loadCount          embeddings computed by the loader, i.e. remote calls.
+     * @param coalescedLoadCount misses that waited for the ongoing computation of another thread.
+     * @param loadFailureCount   computations that failed.
+     * @param evictionCount      entries removed because of the size limit or the TTL.
+     * @param totalLoadTime      cumulated time spent in the loader.
+     */
+    public record Stats(
+            long hitCount,
+            long missCount,
+            long loadCount,
+            long coalescedLoadCount,
+            long loadFailureCount,
+            long evictionCount,
+            Duration totalLoadTime) {
+
+        public double hitRate() {
+            long requestCount = hitCount + missCount;
+            return requestCount == 0 ? 1.0 : (double) hitCount / requestCount;
+        }
+
+        public Duration averageLoadTime() {
+            return loadCount == 0 ? Duration.ZERO : totalLoadTime.dividedBy(loadCount);
+        }
+    }
+
+    public static class Builder {
+
+        private Integer maxSize;
+        private Duration ttl;
+        private Function<String, String> keyNormalizer;
+        private LongSupplier ticker;
+
+        Builder() {}
+
+        /**
+         * Sets the maximum number of cached embeddings. Defaults to 1000.
+         */
+        public Builder maxSize(Integer maxSize) {
+            this.maxSize = maxSize;
+            return this;
+        }
+
+        /**
+         * Sets how long an embedding stays cached after it was computed. Optional, entries never expire by default.
+         */
+        public Builder ttl(Duration ttl) {
+            this.ttl = ttl;
+            return this;
+        }
+
+        /**
+         * Sets the function turning a query text into a cache key. Defaults to the identity.
+         * For example, {@code text -> text.strip().toLowerCase()} makes queries differing only by case
+         * and surrounding whitespace share an embedding.
+         */
+        public Builder keyNormalizer(Function<String, String> keyNormalizer) {
+            this.keyNormalizer = keyNormalizer;
+            return this;
+        }
+
+        /**
+         * Sets the nanosecond time source, for tests.
+         */
+        Builder ticker(LongSupplier ticker) {
+            this.ticker = ticker;
+            return this;
+        }
+
+        public QueryEmbeddingCache build() {
+            return new QueryEmbeddingCache(this);
+        }
+    }
+}
@@ -16,6 +16,10 @@ import org.slf4j.LoggerFactory;
  * Since metadata only supports specific value types (String, UUID, primitives and their wrappers),
  * embeddings are serialized to Base64 strings for storage and deserialized back to Embedding objects
  * when retrieved.
+ * <p>
+ * Within a single process, prefer {@link dev.langchain4j.community.rag.content.EmbeddedContent},
+ * which carries the embeddings by reference. This Base64 encoding is meant as a fallback for contents
+ * that have to be serialized, e.g. when crossing a process boundary.
  */
 public final class EmbeddingMetadataUtils {
 
@@ -65,7 +69,7 @@ public final class EmbeddingMetadataUtils {
     }
 
     private static Embedding extractEmbedding(TextSegment segment, String key) {
-        if (segment.metadata() == null) {
+        if (segment.metadata() == null || !segment.metadata().containsKey(key)) {
             return null;
         }
         Object stored = segment.metadata().toMap().get(key);
@@ -87,7 +91,7 @@ public final class EmbeddingMetadataUtils {
      * @return Base64 encoded string representation, or null if embedding is null
      */
     private static String embeddingToBase64(Embedding embedding) {
-        log.warn("Document embedding stored as base64 string due to metadata type constraints."
+        log.debug("Document embedding stored as base64 string due to metadata type constraints."
                 + " See dev.langchain4j.data.document.Metadata for supported types");
         if (embedding == null) {
             return null;
@@ -99,9 +103,7 @@ public final class EmbeddingMetadataUtils {
         }
 
         ByteBuffer buffer = ByteBuffer.allocate(Float.BYTES * vector.length);
-        for (float v : vector) {
-            buffer.putFloat(v);
-        }
+        buffer.asFloatBuffer().put(vector);
         return Base64.getEncoder().encodeToString(buffer.array());
     }
 
@@ -112,18 +114,15 @@ public final class EmbeddingMetadataUtils {
      * @return the reconstructed Embedding, or null if base64 is null
      */
     private static Embedding base64ToEmbedding(String base64) {
-        log.warn("Converting base64 string back to embedding due to metadata type limitations."
-                + "See dev.langchain4j.data.document.Metadata for supported types");
+        log.debug("Converting base64 string back to embedding due to metadata type limitations."
+                + " See dev.langchain4j.data.document.Metadata for supported types");
         if (base64 == null) {
             return null;
         }
 
         byte[] bytes = Base64.getDecoder().decode(base64);
-        ByteBuffer buffer = ByteBuffer.wrap(bytes);
         float[] vector = new float[bytes.length / Float.BYTES];
-        for (int i = 0; i < vector.length; i++) {
-            vector[i] = buffer.getFloat();
-        }
+        ByteBuffer.wrap(bytes).asFloatBuffer().get(vector);
         return new Embedding(vector);
     }
 
@@ -0,0 +1,104 @@
+package dev.langchain4j.community.rag.listener;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Dispatches {@link RagStageEvent}s to the {@link RagListener}s of a component.
+ * <p>
+ * Meant to be used by the components reporting stages, as follows, so that nothing is timed
+ * or allocated when no listener is registered:
+ * <pre>{@code
+ * long start = instrumentation.start();
+ * // run the stage
+ * if (instrumentation.isEnabled()) {
+ *     instrumentation.completed(stage, getClass(), start, RagInstrumentation.attributes(...));
+ * }
+ * }</pre>
+ */
+public final class RagInstrumentation {
+
+    private static final Logger log = LoggerFactory.getLogger(RagInstrumentation.class);
+
+    private static final RagInstrumentation DISABLED = new RagInstrumentation(List.of());
+
+    private final List<RagListener> listeners;
+
+    private RagInstrumentation(List<RagListener> listeners) {
+        this.listeners = listeners;
+    }
+
+    /**
+     * @param listeners The listeners, can be {@code null} or empty.
+     * @return an instrumentation dispatching to the given listeners.
+     */
+    public static RagInstrumentation of(List<RagListener> listeners) {
+        if (listeners == null || listeners.isEmpty()) {
+            return DISABLED;
+        }
+        return new RagInstrumentation(List.copyOf(listeners));
+    }
+
+    public boolean isEnabled() {
+        return !listeners.isEmpty();
+    }
+
+    /**
+     * @return the start time of a stage, in nanoseconds, or {@code 0} when no listener is registered.
+     */
+    public long start() {
+        return listeners.isEmpty() ? 0L : System.nanoTime();
+    }
+
+    public void completed(RagStage stage, Class<?> component, long startNanos, Map<String, Object> attributes) {
+        emit(stage, component, startNanos, null, attributes);
+    }
+
+    public void failed(
+            RagStage stage, Class<?> component, long startNanos, Throwable error, Map<String, Object> attributes) {
+        emit(stage, component, startNanos, error, attributes);
+    }
+
+    private void emit(
+            RagStage stage, Class<?> component, long startNanos, Throwable error, Map<String, Object> attributes) {
+        if (listeners.isEmpty()) {
+            return;
+        }
+        RagStageEvent event = new RagStageEvent(
+                stage,
+                component,
+                Duration.ofNanos(System.nanoTime() - startNanos),
+                error,
+                attributes == null ? Map.of() : attributes);
+        for (RagListener listener : listeners) {
+            try {
+                listener.onStage(event);
+            } catch (Exception e) {
+                log.warn("An exception occurred during the invocation of the RAG listener", e);
+            }
+        }
+    }
+
+    /**
+     * Builds event attributes from alternating keys and values, skipping {@code null} values.
+     *
+     * @param keysAndValues e.g. {@code RagStageEvent.RESULT_COUNT, 3, RagStageEvent.STORE_CLASS, "MyStore"}.
+     * @return the attributes.
+     */
+    public static Map<String, Object> attributes(Object... keysAndValues) {
+        if (keysAndValues.length % 2 != 0) {
+            throw new IllegalArgumentException("Expected alternating keys and values");
+        }
+        Map<String, Object> attributes = new LinkedHashMap<>(keysAndValues.length);
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            if (keysAndValues[i + 1] != null) {
+                attributes.put((String) keysAndValues[i], keysAndValues[i + 1]);
+            }
+        }
+        return attributes;
+    }
+}
@@ -0,0 +1,24 @@
+package dev.langchain4j.community.rag.listener;
+
+/**
+ * Listens to the stages of RAG pipelines, e.g. to record their latency as metrics or tracing spans.
+ * <p>
+ * Listeners are registered with the {@code listeners} builder option of
+ * {@link dev.langchain4j.community.rag.content.retriever.EmbeddingStoreContentRetriever},
+ * {@link dev.langchain4j.community.rag.content.aggregator.MmrContentAggregator} and
+ * {@link dev.langchain4j.community.store.embedding.ParentChildEmbeddingStoreIngestor}.
+ * When none is registered, stages are neither timed nor described.
+ * <p>
+ * Listeners are called synchronously, on the thread that ran the stage, so they should return quickly.
+ * An exception thrown by a listener is logged and ignored.
+ */
+@FunctionalInterface
+public interface RagListener {
+
+    /**
+     * Called when a stage completes, successfully or not.
+     *
+     * @param event The completed stage.
+     */
+    void onStage(RagStageEvent event);
+}
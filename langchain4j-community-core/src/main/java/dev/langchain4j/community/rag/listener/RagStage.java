@@ -0,0 +1,44 @@
+package dev.langchain4j.community.rag.listener;
+
+/**
+ * A timed step of a RAG pipeline, reported to {@link RagListener}s.
+ */
+public enum RagStage {
+
+    /**
+     * A query is embedded by the {@link dev.langchain4j.model.embedding.EmbeddingModel}.
+     * Not reported when the embedding is served by a query embedding cache.
+     */
+    QUERY_EMBEDDING,
+
+    /**
+     * An {@link dev.langchain4j.store.embedding.EmbeddingStore} is searched.
+     */
+    EMBEDDING_STORE_SEARCH,
+
+    /**
+     * The query and content embeddings needed by MMR are resolved, reusing existing embeddings
+     * or generating them with the {@link dev.langchain4j.model.embedding.EmbeddingModel}.
+     */
+    CONTENT_EMBEDDING,
+
+    /**
+     * Contents are selected by Maximal Marginal Relevance.
+     */
+    MMR_SELECTION,
+
+    /**
+     * A batch of segments is embedded during ingestion.
+     */
+    SEGMENT_EMBEDDING,
+
+    /**
+     * A batch of embedded segments is added to an {@link dev.langchain4j.store.embedding.EmbeddingStore}.
+     */
+    EMBEDDING_STORE_WRITE,
+
+    /**
+     * Documents are ingested, from transformation to storage.
+     */
+    INGESTION
+}
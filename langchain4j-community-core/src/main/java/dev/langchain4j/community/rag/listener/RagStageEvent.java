@@ -0,0 +1,65 @@
+package dev.langchain4j.community.rag.listener;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Reports a completed {@link RagStage}, successfully or not.
+ *
+ * @param stage      The stage.
+ * @param component  The class of the component running the stage, e.g. {@code EmbeddingStoreContentRetriever}.
+ * @param duration   How long the stage took.
+ * @param error      The error the stage failed with, or {@code null} if it succeeded.
+ * @param attributes Details of the stage, see the keys defined in this class. Never {@code null}.
+ */
+public record RagStageEvent(
+        RagStage stage, Class<?> component, Duration duration, Throwable error, Map<String, Object> attributes) {
+
+    /**
+     * The class name of the {@link dev.langchain4j.store.embedding.EmbeddingStore}.
+     */
+    public static final String STORE_CLASS = "store.class";
+
+    /**
+     * The class name of the {@link dev.langchain4j.model.embedding.EmbeddingModel}.
+     */
+    public static final String MODEL_CLASS = "model.class";
+
+    /**
+     * The class name of the MMR embedding strategy.
+     */
+    public static final String STRATEGY_CLASS = "strategy.class";
+
+    /**
+     * The number of items a stage started from, e.g. the contents MMR selects from.
+     */
+    public static final String CANDIDATE_COUNT = "candidate.count";
+
+    /**
+     * The number of items a stage produced, e.g. search matches or selected contents.
+     */
+    public static final String RESULT_COUNT = "result.count";
+
+    /**
+     * The number of segments embedded or stored at once.
+     */
+    public static final String BATCH_SIZE = "batch.size";
+
+    /**
+     * The number of documents ingested.
+     */
+    public static final String DOCUMENT_COUNT = "document.count";
+
+    /**
+     * The number of input tokens reported by the embedding model.
+     */
+    public static final String INPUT_TOKEN_COUNT = "input.token.count";
+
+    public boolean failed() {
+        return error != null;
+    }
+
+    public Object attribute(String key) {
+        return attributes.get(key);
+    }
+}
@@ -0,0 +1,69 @@
+package dev.langchain4j.community.store.embedding;
+
+import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
+
+import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
+import dev.langchain4j.store.embedding.EmbeddingSearchResult;
+import dev.langchain4j.store.embedding.EmbeddingStore;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Non-blocking similarity search on an {@link EmbeddingStore}.
+ * <p>
+ * Stores backed by a client with a native asynchronous API (e.g. Valkey GLIDE) implement this interface directly,
+ * so that a search does not hold a thread while waiting for the server.
+ * Any other store can be adapted with {@link #from(EmbeddingStore, Executor)},
+ * which runs the blocking {@link EmbeddingStore#search(EmbeddingSearchRequest)} on the given {@link Executor}.
+ *
+ * @param <Embedded> The class of the object that has been embedded.
+ */
+@FunctionalInterface
+public interface AsyncEmbeddingSearch<Embedded> {
+
+    /**
+     * Searches for the most similar (closest in the embedding space) embeddings, without blocking the caller.
+     *
+     * @param request A request to search in an {@link EmbeddingStore}. Contains all search criteria.
+     * @return A future completed with the search result, or exceptionally if the search failed.
+     */
+    CompletableFuture<EmbeddingSearchResult<Embedded>> searchAsync(EmbeddingSearchRequest request);
+
+    /**
+     * Returns an asynchronous view of the given store.
+     * If the store implements {@link AsyncEmbeddingSearch}, it is returned as is.
+     * Otherwise, its blocking search is run on the given executor.
+     *
+     * @param embeddingStore The store to search in.
+     * @param executor       The executor running blocking searches.
+     * @param <Embedded>     The class of the object that has been embedded.
+     * @return An asynchronous view of the store.
+     */
+    @SuppressWarnings("unchecked")
+    static <Embedded> AsyncEmbeddingSearch<Embedded> from(EmbeddingStore<Embedded> embeddingStore, Executor executor) {
+        ensureNotNull(embeddingStore, "embeddingStore");
+        if (embeddingStore instanceof AsyncEmbeddingSearch<?> asyncEmbeddingSearch) {
+            return (AsyncEmbeddingSearch<Embedded>) asyncEmbeddingSearch;
+        }
+        ensureNotNull(executor, "executor");
+        return request -> CompletableFuture.supplyAsync(() -> embeddingStore.search(request), executor);
+    }
+
+    /**
+     * Same as {@link #from(EmbeddingStore, Executor)}, using {@link #defaultExecutor()} for blocking searches.
+     */
+    static <Embedded> AsyncEmbeddingSearch<Embedded> from(EmbeddingStore<Embedded> embeddingStore) {
+        return from(embeddingStore, defaultExecutor());
+    }
+
+    /**
+     * Returns the executor used by default to run blocking calls, such as JDBC-based searches.
+     * On Java 21+, it starts a new virtual thread per task.
+     * On older runtimes, it is a shared, unbounded pool of daemon threads.
+     *
+     * @return The shared default executor.
+     */
+    static Executor defaultExecutor() {
+        return DefaultExecutorHolder.EXECUTOR;
+    }
+}
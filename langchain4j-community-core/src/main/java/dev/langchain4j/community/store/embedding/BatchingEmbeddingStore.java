@@ -0,0 +1,519 @@
+package dev.langchain4j.community.store.embedding;
+
+import static dev.langchain4j.internal.Utils.getOrDefault;
+import static dev.langchain4j.internal.Utils.randomUUID;
+import static dev.langchain4j.internal.ValidationUtils.ensureGreaterThanZero;
+import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
+import static java.util.Comparator.comparingDouble;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.store.embedding.CosineSimilarity;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
+import dev.langchain4j.store.embedding.EmbeddingSearchResult;
+import dev.langchain4j.store.embedding.EmbeddingStore;
+import dev.langchain4j.store.embedding.RelevanceScore;
+import dev.langchain4j.store.embedding.filter.Filter;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An {@link EmbeddingStore} decorator that buffers single additions and writes them to the delegate store
+ * in batches, with {@link EmbeddingStore#addAll(List, List, List)}.
+ * <p>
+ * A batch is written in the background as soon as {@code maxBatchSize} entries are buffered and, if
+ * {@code flushInterval} is set, every buffered entry is written at least every {@code flushInterval}.
+ * {@link #flush()} writes all buffered entries synchronously, and {@link #close()} flushes before stopping
+ * the background thread. Additions of at least {@code maxBatchSize} embeddings at once bypass the buffer.
+ * <p>
+ * The buffer holds at most {@code maxBufferSize} entries. When it is full, additions are handled according to
+ * the {@link OverflowPolicy}. If a background write fails, the error is logged, the entries that were not written
+ * stay buffered and are written again with the next batch, so a failing delegate eventually applies backpressure
+ * to the callers. A batch holds either only entries with an embedded object or only entries without one, so that
+ * it is written with a single call to the delegate and never written twice.
+ * <p>
+ * Searches are read-your-writes: buffered entries are matched by brute force, using cosine similarity and,
+ * for {@link TextSegment}s, the metadata {@link Filter}, and merged with the results of the delegate store.
+ * A buffered entry replaces the stored entry with the same ID, so an update is visible before it is written.
+ * Removals flush the buffer first, then are delegated.
+ * <p>
+ * The delegate store is not closed by {@link #close()}.
+ *
+ * @param <Embedded> The class of the object that has been embedded.
+ */
+public class BatchingEmbeddingStore<Embedded> implements EmbeddingStore<Embedded>, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchingEmbeddingStore.class);
+
+    private static final int DEFAULT_MAX_BATCH_SIZE = 100;
+    private static final int DEFAULT_MAX_BUFFER_SIZE = 10_000;
+
+    /**
+     * What to do when an entry is added while the buffer is full.
+     */
+    public enum OverflowPolicy {
+        /**
+         * Wait until a background write makes room in the buffer.
+         * If the background write fails, the wait is aborted with an {@link IllegalStateException}.
+         */
+        BLOCK,
+        /**
+         * Write the buffered entries in the calling thread, then add the entry.
+         */
+        FLUSH_IN_CALLER,
+        /**
+         * Throw an {@link IllegalStateException}.
+         */
+        REJECT
+    }
+
+    private final EmbeddingStore<Embedded> delegate;
+    private final int maxBatchSize;
+    private final int maxBufferSize;
+    private final OverflowPolicy overflowPolicy;
+    private final ScheduledExecutorService scheduler;
+
+    // guarded by bufferLock
+    private final ArrayDeque<PendingEntry<Embedded>> buffer = new ArrayDeque<>();
+    private final ReentrantLock bufferLock = new ReentrantLock();
+    private final Condition notFull = bufferLock.newCondition();
+
+    // serializes writes to the delegate, so that entries are written in insertion order
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private volatile boolean closed;
+    // failure of the last background write, cleared by the next successful one
+    private volatile RuntimeException lastWriteFailure;
+
+    private BatchingEmbeddingStore(Builder<Embedded> builder) {
+        this.delegate = ensureNotNull(builder.delegate, "delegate");
+        this.maxBatchSize =
+                ensureGreaterThanZero(getOrDefault(builder.maxBatchSize, DEFAULT_MAX_BATCH_SIZE), "maxBatchSize");
+        this.maxBufferSize = ensureGreaterThanZero(
+                getOrDefault(builder.maxBufferSize, Math.max(DEFAULT_MAX_BUFFER_SIZE, maxBatchSize)),
+                "maxBufferSize");
+        this.overflowPolicy = getOrDefault(builder.overflowPolicy, OverflowPolicy.BLOCK);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "langchain4j-batching-embedding-store");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Duration flushInterval = builder.flushInterval;
+        if (flushInterval != null) {
+            if (flushInterval.isZero() || flushInterval.isNegative()) {
+                throw new IllegalArgumentException("flushInterval must be positive, but is: " + flushInterval);
+            }
+            long intervalNanos = flushInterval.toNanos();
+            scheduler.scheduleWithFixedDelay(
+                    () -> flushInBackground(true), intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public static <Embedded> Builder<Embedded> builder() {
+        return new Builder<>();
+    }
+
+    @Override
+    public String add(Embedding embedding) {
+        String id = randomUUID();
+        add(id, embedding);
+        return id;
+    }
+
+    @Override
+    public void add(String id, Embedding embedding) {
+        enqueue(List.of(new PendingEntry<>(ensureNotNull(id, "id"), ensureNotNull(embedding, "embedding"), null)));
+    }
+
+    @Override
+    public String add(Embedding embedding, Embedded embedded) {
+        String id = randomUUID();
+        enqueue(List.of(new PendingEntry<>(id, ensureNotNull(embedding, "embedding"), embedded)));
+        return id;
+    }
+
+    @Override
+    public List<String> addAll(List<Embedding> embeddings) {
+        List<String> ids = new ArrayList<>(embeddings.size());
+        for (int i = 0; i < embeddings.size(); i++) {
+            ids.add(randomUUID());
+        }
+        addAll(ids, embeddings, null);
+        return ids;
+    }
+
+    @Override
+    public void addAll(List<String> ids, List<Embedding> embeddings, List<Embedded> embedded) {
+        ensureNotNull(ids, "ids");
+        ensureNotNull(embeddings, "embeddings");
+        if (ids.size() != embeddings.size() || (embedded != null && embedded.size() != embeddings.size())) {
+            throw new IllegalArgumentException("The list of ids, embeddings and embedded must have the same size");
+        }
+
+        if (ids.size() >= maxBatchSize) {
+            // already a batch: write it directly, after the buffered entries
+            ensureOpen();
+            writeLock.lock();
+            try {
+                flush();
+                delegate.addAll(ids, embeddings, embedded);
+            } finally {
+                writeLock.unlock();
+            }
+            return;
+        }
+
+        List<PendingEntry<Embedded>> entries = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            entries.add(new PendingEntry<>(ids.get(i), embeddings.get(i), embedded == null ? null : embedded.get(i)));
+        }
+        enqueue(entries);
+    }
+
+    @Override
+    public void removeAll(Collection<String> ids) {
+        flush();
+        delegate.removeAll(ids);
+    }
+
+    @Override
+    public void removeAll(Filter filter) {
+        flush();
+        delegate.removeAll(filter);
+    }
+
+    @Override
+    public void removeAll() {
+        writeLock.lock();
+        try {
+            clearBuffer();
+            delegate.removeAll();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public EmbeddingSearchResult<Embedded> search(EmbeddingSearchRequest request) {
+        List<PendingEntry<Embedded>> pending = snapshotBuffer();
+        if (pending.isEmpty()) {
+            return delegate.search(request);
+        }
+
+        // buffered entries may replace stored matches, which must not leave the result short
+        EmbeddingSearchResult<Embedded> result = delegate.search(EmbeddingSearchRequest.builder()
+                .queryEmbedding(request.queryEmbedding())
+                .maxResults((int) Math.min(Integer.MAX_VALUE, (long) request.maxResults() + pending.size()))
+                .minScore(request.minScore())
+                .filter(request.filter())
+                .build());
+        Map<String, EmbeddingMatch<Embedded>> matches = new LinkedHashMap<>();
+        for (EmbeddingMatch<Embedded> match : result.matches()) {
+            matches.put(match.embeddingId(), match);
+        }
+        // a buffered entry is the latest version of its id: it replaces the stored one, even when it is not
+        // matched itself, and the buffer is in the order of the additions, so the last addition of an id wins
+        for (PendingEntry<Embedded> entry : pending) {
+            matches.remove(entry.id());
+            if (matchesFilter(entry, request.filter())) {
+                double cosineSimilarity = CosineSimilarity.between(entry.embedding(), request.queryEmbedding());
+                double score = RelevanceScore.fromCosineSimilarity(cosineSimilarity);
+                if (score >= request.minScore()) {
+                    matches.put(
+                            entry.id(),
+                            new EmbeddingMatch<>(score, entry.id(), entry.embedding(), entry.embedded()));
+                }
+            }
+        }
+
+        List<EmbeddingMatch<Embedded>> merged = new ArrayList<>(matches.values());
+        merged.sort(comparingDouble(EmbeddingMatch<Embedded>::score).reversed());
+        return new EmbeddingSearchResult<>(merged.subList(0, Math.min(request.maxResults(), merged.size())));
+    }
+
+    /**
+     * Writes all buffered entries to the delegate store, in the calling thread.
+     *
+     * @throws RuntimeException the exception thrown by the delegate store, if any.
+     *                          Entries that could not be written stay buffered.
+     */
+    public void flush() {
+        writeBatches(true);
+    }
+
+    /**
+     * @return the number of entries added but not written to the delegate store yet.
+     */
+    public int pendingCount() {
+        bufferLock.lock();
+        try {
+            return buffer.size();
+        } finally {
+            bufferLock.unlock();
+        }
+    }
+
+    /**
+     * Flushes the buffered entries and stops the background thread. Additions are rejected afterwards.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        scheduler.shutdown();
+        flush();
+    }
+
+    private void enqueue(List<PendingEntry<Embedded>> entries) {
+        ensureOpen();
+        boolean batchReady;
+        bufferLock.lock();
+        try {
+            for (PendingEntry<Embedded> entry : entries) {
+                while (buffer.size() >= maxBufferSize) {
+                    handleOverflow();
+                }
+                buffer.addLast(entry);
+            }
+            batchReady = buffer.size() >= maxBatchSize;
+        } finally {
+            bufferLock.unlock();
+        }
+        if (batchReady) {
+            scheduleBackgroundFlush(false);
+        }
+    }
+
+    // called with bufferLock held
+    private void handleOverflow() {
+        switch (overflowPolicy) {
+            case BLOCK -> {
+                scheduleBackgroundFlush(true);
+                try {
+                    notFull.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("Interrupted while waiting for room in the buffer", e);
+                }
+                ensureOpen();
+                RuntimeException failure = lastWriteFailure;
+                if (failure != null && buffer.size() >= maxBufferSize) {
+                    throw new IllegalStateException(
+                            "The buffer of " + maxBufferSize + " pending entries is full and the delegate store fails",
+                            failure);
+                }
+            }
+            case FLUSH_IN_CALLER -> {
+                bufferLock.unlock();
+                try {
+                    flush();
+                } finally {
+                    bufferLock.lock();
+                }
+            }
+            case REJECT -> throw new IllegalStateException("The buffer of " + maxBufferSize
+                    + " pending entries is full, the delegate store is lagging behind");
+        }
+    }
+
+    private void scheduleBackgroundFlush(boolean all) {
+        try {
+            scheduler.execute(() -> flushInBackground(all));
+        } catch (RejectedExecutionException e) {
+            // closed, close() flushes the remaining entries
+        }
+    }
+
+    private void flushInBackground(boolean all) {
+        try {
+            writeBatches(all);
+        } catch (RuntimeException e) {
+            log.error("Failed to write buffered embeddings, they will be retried with the next batch", e);
+            lastWriteFailure = e;
+            // wake up the callers blocked on a full buffer, so that they see the failure
+            bufferLock.lock();
+            try {
+                notFull.signalAll();
+            } finally {
+                bufferLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Writes buffered entries by batches of at most {@code maxBatchSize}. Entries are removed from the buffer
+     * only once written, so that they stay visible to searches in the meantime, and after a failure only
+     * the batches that were not written are retried.
+     *
+     * @param all whether to write all entries, or only full batches.
+     */
+    private void writeBatches(boolean all) {
+        writeLock.lock();
+        try {
+            List<PendingEntry<Embedded>> batch;
+            while ((batch = nextBatch(all)) != null) {
+                write(batch);
+                lastWriteFailure = null;
+                removeWritten(batch.size());
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private List<PendingEntry<Embedded>> nextBatch(boolean all) {
+        bufferLock.lock();
+        try {
+            if (buffer.isEmpty() || (!all && buffer.size() < maxBatchSize)) {
+                return null;
+            }
+            // entries with and without an embedded object are written by separate calls, in separate batches
+            boolean withEmbedded = buffer.peekFirst().embedded() != null;
+            List<PendingEntry<Embedded>> batch = new ArrayList<>(Math.min(maxBatchSize, buffer.size()));
+            Iterator<PendingEntry<Embedded>> iterator = buffer.iterator();
+            while (iterator.hasNext() && batch.size() < maxBatchSize) {
+                PendingEntry<Embedded> entry = iterator.next();
+                if ((entry.embedded() != null) != withEmbedded) {
+                    break;
+                }
+                batch.add(entry);
+            }
+            return batch;
+        } finally {
+            bufferLock.unlock();
+        }
+    }
+
+    private void write(List<PendingEntry<Embedded>> batch) {
+        List<String> ids = new ArrayList<>(batch.size());
+        List<Embedding> embeddings = new ArrayList<>(batch.size());
+        List<Embedded> embedded = batch.get(0).embedded() == null ? null : new ArrayList<>(batch.size());
+        for (PendingEntry<Embedded> entry : batch) {
+            ids.add(entry.id());
+            embeddings.add(entry.embedding());
+            if (embedded != null) {
+                embedded.add(entry.embedded());
+            }
+        }
+        delegate.addAll(ids, embeddings, embedded);
+        log.debug("Wrote a batch of {} embeddings", batch.size());
+    }
+
+    private void removeWritten(int count) {
+        bufferLock.lock();
+        try {
+            for (int i = 0; i < count; i++) {
+                buffer.pollFirst();
+            }
+            notFull.signalAll();
+        } finally {
+            bufferLock.unlock();
+        }
+    }
+
+    private void clearBuffer() {
+        bufferLock.lock();
+        try {
+            buffer.clear();
+            notFull.signalAll();
+        } finally {
+            bufferLock.unlock();
+        }
+    }
+
+    private List<PendingEntry<Embedded>> snapshotBuffer() {
+        bufferLock.lock();
+        try {
+            return buffer.isEmpty() ? List.of() : new ArrayList<>(buffer);
+        } finally {
+            bufferLock.unlock();
+        }
+    }
+
+    private static boolean matchesFilter(PendingEntry<?> entry, Filter filter) {
+        if (filter == null) {
+            return true;
+        }
+        return entry.embedded() instanceof TextSegment textSegment && filter.test(textSegment.metadata());
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("BatchingEmbeddingStore is closed");
+        }
+    }
+
+    private record PendingEntry<Embedded>(String id, Embedding embedding, Embedded embedded) {}
+
+    public static class Builder<Embedded> {
+
+        private EmbeddingStore<Embedded> delegate;
+        private Integer maxBatchSize;
+        private Duration flushInterval;
+        private Integer maxBufferSize;
+        private OverflowPolicy overflowPolicy;
+
+        Builder() {}
+
+        /**
+         * Sets the store the batches are written to. Mandatory.
+         */
+        public Builder<Embedded> delegate(EmbeddingStore<Embedded> delegate) {
+            this.delegate = delegate;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of entries per batch. A batch is written as soon as it is full. Defaults to 100.
+         */
+        public Builder<Embedded> maxBatchSize(Integer maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+            return this;
+        }
+
+        /**
+         * Sets the maximum time an entry waits in the buffer. Optional: by default,
+         * entries are only written when a batch is full, on {@link BatchingEmbeddingStore#flush()}
+         * and on {@link BatchingEmbeddingStore#close()}.
+         */
+        public Builder<Embedded> flushInterval(Duration flushInterval) {
+            this.flushInterval = flushInterval;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of buffered entries. Defaults to 10000.
+         */
+        public Builder<Embedded> maxBufferSize(Integer maxBufferSize) {
+            this.maxBufferSize = maxBufferSize;
+            return this;
+        }
+
+        /**
+         * Sets what to do when the buffer is full. Defaults to {@link OverflowPolicy#BLOCK}.
+         */
+        public Builder<Embedded> overflowPolicy(OverflowPolicy overflowPolicy) {
+            this.overflowPolicy = overflowPolicy;
+            return this;
+        }
+
+        public BatchingEmbeddingStore<Embedded> build() {
+            return new BatchingEmbeddingStore<>(this);
+        }
+    }
+}
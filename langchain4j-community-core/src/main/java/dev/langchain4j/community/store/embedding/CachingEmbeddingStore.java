@@ -0,0 +1,421 @@
+package dev.langchain4j.community.store.embedding;
+
+import static dev.langchain4j.internal.Utils.getOrDefault;
+import static dev.langchain4j.internal.ValidationUtils.ensureBetween;
+import static dev.langchain4j.internal.ValidationUtils.ensureGreaterThanZero;
+import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
+import dev.langchain4j.store.embedding.EmbeddingSearchResult;
+import dev.langchain4j.store.embedding.EmbeddingStore;
+import dev.langchain4j.store.embedding.filter.Filter;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * An {@link EmbeddingStore} decorator that caches search results, for workloads sending the same
+ * {@link EmbeddingSearchRequest} over and over, e.g. dashboards or FAQ bots.
+ * <p>
+ * Results are cached by query embedding, {@code maxResults}, {@code minScore} and {@link Filter}.
+ * Entries are evicted in least-recently-used order once {@code maxSize} is reached, and expire after {@code ttl}
+ * (if set).
+ * <p>
+ * Every addition or removal made through this decorator increments a generation counter, and results cached
+ * by an earlier generation are no longer served, so writes invalidate the cache in constant time.
+ * Writes made to the delegate store directly, or by other processes, are not seen: use a {@code ttl} to bound
+ * the staleness of the results in that case.
+ * <p>
+ * If {@code maxCosineDistance} is set, a request missing the cache is also served by a cached result of a request
+ * with the same limits and filter, and a query embedding within this cosine distance. The scores of such results
+ * are those computed for the cached query embedding. Looking up similar embeddings scans the cache linearly,
+ * so this mode suits small caches.
+ * <p>
+ * Hit, miss, eviction and invalidation counters are exposed through {@link #stats()} to help size the cache.
+ *
+ * @param <Embedded> The class of the object that has been embedded.
+ */
+public class CachingEmbeddingStore<Embedded> implements EmbeddingStore<Embedded> {
+
+    private static final int DEFAULT_MAX_SIZE = 1_000;
+
+    private final EmbeddingStore<Embedded> delegate;
+    private final int maxSize;
+    private final Duration ttl;
+    private final Double maxCosineDistance;
+    private final LongSupplier ticker;
+
+    // guarded by itself, access-ordered for LRU eviction
+    private final Map<SearchKey, CachedResult<Embedded>> entries;
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder similarHitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+    private final LongAdder invalidationCount = new LongAdder();
+
+    private CachingEmbeddingStore(Builder<Embedded> builder) {
+        this.delegate = ensureNotNull(builder.delegate, "delegate");
+        this.maxSize = ensureGreaterThanZero(getOrDefault(builder.maxSize, DEFAULT_MAX_SIZE), "maxSize");
+        this.ttl = builder.ttl;
+        if (ttl != null && (ttl.isZero() || ttl.isNegative())) {
+            throw new IllegalArgumentException("ttl must be positive, but is: " + ttl);
+        }
+        this.maxCosineDistance = builder.maxCosineDistance == null
+                ? null
+                : ensureBetween(builder.maxCosineDistance, 0.0, 2.0, "maxCosineDistance");
+        this.ticker = getOrDefault(builder.ticker, () -> System::nanoTime);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<SearchKey, CachedResult<Embedded>> eldest) {
+                if (size() > maxSize) {
+                    evictionCount.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public static <Embedded> Builder<Embedded> builder() {
+        return new Builder<>();
+    }
+
+    @Override
+    public EmbeddingSearchResult<Embedded> search(EmbeddingSearchRequest request) {
+        SearchKey key = SearchKey.of(request);
+
+        EmbeddingSearchResult<Embedded> cached = getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        missCount.increment();
+
+        // read before searching: a write completing during the search makes the result stale right away
+        long searchGeneration = generation.get();
+        EmbeddingSearchResult<Embedded> result = delegate.search(request);
+        EmbeddingSearchResult<Embedded> copy = new EmbeddingSearchResult<>(List.copyOf(result.matches()));
+        long expiresAt = ttl == null ? Long.MAX_VALUE : ticker.getAsLong() + ttl.toNanos();
+        synchronized (entries) {
+            entries.put(key, new CachedResult<>(copy, searchGeneration, expiresAt));
+        }
+        return copy;
+    }
+
+    @Override
+    public String add(Embedding embedding) {
+        try {
+            return delegate.add(embedding);
+        } finally {
+            generation.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void add(String id, Embedding embedding) {
+        try {
+            delegate.add(id, embedding);
+        } finally {
+            generation.incrementAndGet();
+        }
+    }
+
+    @Override
+    public String add(Embedding embedding, Embedded embedded) {
+        try {
+            return delegate.add(embedding, embedded);
+        } finally {
+            generation.incrementAndGet();
+        }
+    }
+
+    @Override
+    public List<String> addAll(List<Embedding> embeddings) {
+        try {
+            return delegate.addAll(embeddings);
+        } finally {
+            generation.incrementAndGet();
+        }
+    }
+
+    @Override
+    public List<String> addAll(List<Embedding> embeddings, List<Embedded> embedded) {
+        try {
+            return delegate.addAll(embeddings, embedded);
+        } finally {
+            generation.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void addAll(List<String> ids, List<Embedding> embeddings, List<Embedded> embedded) {
+        try {
+            delegate.addAll(ids, embeddings, embedded);
+        } finally {
+            generation.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void remove(String id) {
+        try {
+            delegate.remove(id);
+        } finally {
+            generation.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void removeAll(Collection<String> ids) {
+        try {
+            delegate.removeAll(ids);
+        } finally {
+            generation.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void removeAll(Filter filter) {
+        try {
+            delegate.removeAll(filter);
+        } finally {
+            generation.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void removeAll() {
+        try {
+            delegate.removeAll();
+        } finally {
+            generation.incrementAndGet();
+        }
+    }
+
+    /**
+     * Removes all cached results, e.g. after the delegate store was written to directly. Counters are left untouched.
+     */
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * @return the number of cached results, including stale ones that were not evicted yet.
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public Stats stats() {
+        return new Stats(
+                hitCount.sum(),
+                similarHitCount.sum(),
+                missCount.sum(),
+                evictionCount.sum(),
+                invalidationCount.sum());
+    }
+
+    private EmbeddingSearchResult<Embedded> getIfPresent(SearchKey key) {
+        long now = ticker.getAsLong();
+        long currentGeneration = generation.get();
+        synchronized (entries) {
+            CachedResult<Embedded> cached = entries.get(key);
+            if (cached != null) {
+                if (isUsable(cached, currentGeneration, now)) {
+                    hitCount.increment();
+                    return cached.result();
+                }
+                entries.remove(key);
+            }
+            if (maxCosineDistance == null) {
+                return null;
+            }
+
+            Iterator<Map.Entry<SearchKey, CachedResult<Embedded>>> iterator = entries.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<SearchKey, CachedResult<Embedded>> entry = iterator.next();
+                if (!isUsable(entry.getValue(), currentGeneration, now)) {
+                    iterator.remove();
+                } else if (entry.getKey().isSimilarTo(key, maxCosineDistance)) {
+                    similarHitCount.increment();
+                    return entry.getValue().result();
+                }
+            }
+            return null;
+        }
+    }
+
+    // called with the entries lock held
+    private boolean isUsable(CachedResult<Embedded> cached, long currentGeneration, long nowNanos) {
+        if (cached.generation() != currentGeneration) {
+            invalidationCount.increment();
+            return false;
+        }
+        if (cached.expiresAtNanos() != Long.MAX_VALUE && nowNanos - cached.expiresAtNanos() >= 0) {
+            evictionCount.increment();
+            return false;
+        }
+        return true;
+    }
+
+    private record CachedResult<Embedded>(
+            EmbeddingSearchResult<Embedded> result, long generation, long expiresAtNanos) {}
+
+    private static final class SearchKey {
+
+        private final float[] vector;
+        private final double norm;
+        private final int maxResults;
+        private final double minScore;
+        private final Filter filter;
+        private final int hash;
+
+        private SearchKey(float[] vector, int maxResults, double minScore, Filter filter) {
+            this.vector = vector;
+            this.maxResults = maxResults;
+            this.minScore = minScore;
+            this.filter = filter;
+            double sumOfSquares = 0;
+            for (float component : vector) {
+                sumOfSquares += component * component;
+            }
+            this.norm = Math.sqrt(sumOfSquares);
+            this.hash = 31 * (31 * (31 * Arrays.hashCode(vector) + maxResults) + Double.hashCode(minScore))
+                    + Objects.hashCode(filter);
+        }
+
+        static SearchKey of(EmbeddingSearchRequest request) {
+            // copied, as the embedding exposes its array, which the caller may reuse for its next query
+            return new SearchKey(
+                    request.queryEmbedding().vector().clone(),
+                    request.maxResults(),
+                    request.minScore(),
+                    request.filter());
+        }
+
+        boolean isSimilarTo(SearchKey other, double maxCosineDistance) {
+            if (!sameLimitsAndFilter(other) || vector.length != other.vector.length) {
+                return false;
+            }
+            if (norm == 0 || other.norm == 0) {
+                return false;
+            }
+            double dotProduct = 0;
+            for (int i = 0; i < vector.length; i++) {
+                dotProduct += vector[i] * other.vector[i];
+            }
+            return 1 - dotProduct / (norm * other.norm) <= maxCosineDistance;
+        }
+
+        private boolean sameLimitsAndFilter(SearchKey other) {
+            return maxResults == other.maxResults
+                    && Double.compare(minScore, other.minScore) == 0
+                    && Objects.equals(filter, other.filter);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof SearchKey other)) {
+                return false;
+            }
+            return hash == other.hash && sameLimitsAndFilter(other) && Arrays.equals(vector, other.vector);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * A snapshot of the cache counters.
+     *
+     * @param hitCount          searches served by the cached result of an identical request.
+     * @param similarHitCount   searches served by the cached result of a request with a similar query embedding.
+     * @param missCount         searches sent to the delegate store.
+     * @param evictionCount     results removed because of the size limit or the TTL.
+     * @param invalidationCount results removed because the store was written to after they were cached.
+     */
+    public record Stats(
+            long hitCount, long similarHitCount, long missCount, long evictionCount, long invalidationCount) {
+
+        public double hitRate() {
+            long requestCount = hitCount + similarHitCount + missCount;
+            return requestCount == 0 ? 1.0 : (double) (hitCount + similarHitCount) / requestCount;
+        }
+    }
+
+    public static class Builder<Embedded> {
+
+        private EmbeddingStore<Embedded> delegate;
+        private Integer maxSize;
+        private Duration ttl;
+        private Double maxCosineDistance;
+        private LongSupplier ticker;
+
+        Builder() {}
+
+        /**
+         * Sets the store to search and write to.
+         */
+        public Builder<Embedded> delegate(EmbeddingStore<Embedded> delegate) {
+            this.delegate = delegate;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of cached results. Defaults to 1000.
+         */
+        public Builder<Embedded> maxSize(Integer maxSize) {
+            this.maxSize = maxSize;
+            return this;
+        }
+
+        /**
+         * Sets how long a result stays cached after it was searched. Optional, results never expire by default.
+         */
+        public Builder<Embedded> ttl(Duration ttl) {
+            this.ttl = ttl;
+            return this;
+        }
+
+        /**
+         * Sets the cosine distance, between 0 and 2, under which a cached result is reused for a different
+         * query embedding. Optional, only identical query embeddings share a result by default.
+         * For example, {@code 0.001} reuses results for query embeddings differing by rounding errors.
+         */
+        public Builder<Embedded> maxCosineDistance(Double maxCosineDistance) {
+            this.maxCosineDistance = maxCosineDistance;
+            return this;
+        }
+
+        /**
+         * Sets the nanosecond time source, for tests.
+         */
+        Builder<Embedded> ticker(LongSupplier ticker) {
+            this.ticker = ticker;
+            return this;
+        }
+
+        public CachingEmbeddingStore<Embedded> build() {
+            return new CachingEmbeddingStore<>(this);
+        }
+    }
+}
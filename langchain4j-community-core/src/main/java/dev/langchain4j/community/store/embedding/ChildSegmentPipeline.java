@@ -0,0 +1,174 @@
+package dev.langchain4j.community.store.embedding;
+
+import static dev.langchain4j.internal.ValidationUtils.ensureGreaterThanZero;
+import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.output.Response;
+import dev.langchain4j.model.output.TokenUsage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Embeds and stores the child segments of many parent segments as a pipeline, on behalf of
+ * {@link ParentChildEmbeddingStoreIngestor}.
+ * <p>
+ * Child segments are packed into batches of {@code batchSize} segments, regardless of the parent they belong to.
+ * Up to {@code maxConcurrentEmbeddings} batches are embedded at the same time on the {@code executor},
+ * while the calling thread splits the next parents and writes the embedded batches to the store.
+ * Embedded batches waiting to be written are held in a queue of {@code queueCapacity} batches;
+ * when it is full, embedding stops until the store catches up.
+ * <p>
+ * Batches are written in the order they finish embedding, not in document order.
+ * The first failure aborts the pipeline and is rethrown to the caller; batches already written are kept.
+ */
+final class ChildSegmentPipeline {
+
+    private static final Logger log = LoggerFactory.getLogger(ChildSegmentPipeline.class);
+
+    private static final long QUEUE_TIMEOUT_MILLIS = 100;
+
+    private final Function<TextSegment, List<TextSegment>> childSplitter;
+    private final Function<List<TextSegment>, Response<List<Embedding>>> embedder;
+    private final BiConsumer<List<Embedding>, List<TextSegment>> writer;
+    private final Executor executor;
+    private final int batchSize;
+
+    private final Semaphore embeddingPermits;
+    private final BlockingQueue<EmbeddedBatch> embeddedBatches;
+    private final AtomicBoolean aborted = new AtomicBoolean();
+    private volatile Throwable lostBatchFailure;
+
+    private int submittedBatches;
+    private int writtenBatches;
+    private TokenUsage totalUsage = new TokenUsage();
+
+    ChildSegmentPipeline(
+            Function<TextSegment, List<TextSegment>> childSplitter,
+            Function<List<TextSegment>, Response<List<Embedding>>> embedder,
+            BiConsumer<List<Embedding>, List<TextSegment>> writer,
+            Executor executor,
+            int batchSize,
+            int maxConcurrentEmbeddings,
+            int queueCapacity) {
+        this.childSplitter = ensureNotNull(childSplitter, "childSplitter");
+        this.embedder = ensureNotNull(embedder, "embedder");
+        this.writer = ensureNotNull(writer, "writer");
+        this.executor = ensureNotNull(executor, "executor");
+        this.batchSize = ensureGreaterThanZero(batchSize, "batchSize");
+        this.embeddingPermits =
+                new Semaphore(ensureGreaterThanZero(maxConcurrentEmbeddings, "maxConcurrentEmbeddings"));
+        this.embeddedBatches = new ArrayBlockingQueue<>(ensureGreaterThanZero(queueCapacity, "queueCapacity"));
+    }
+
+    /**
+     * Splits, embeds and stores the children of the given parent segments. Can only be called once.
+     *
+     * @param parents the parent segments.
+     * @return the token usage of all the embedding calls.
+     */
+    TokenUsage run(List<TextSegment> parents) {
+        try {
+            List<TextSegment> batch = new ArrayList<>(batchSize);
+            for (TextSegment parent : parents) {
+                for (TextSegment child : childSplitter.apply(parent)) {
+                    batch.add(child);
+                    if (batch.size() == batchSize) {
+                        submit(batch);
+                        batch = new ArrayList<>(batchSize);
+                    }
+                }
+            }
+            if (!batch.isEmpty()) {
+                submit(batch);
+            }
+            while (writtenBatches < submittedBatches) {
+                writeNext();
+            }
+            log.debug("Embedded and stored {} batches of child segments", writtenBatches);
+            return totalUsage;
+        } catch (InterruptedException e) {
+            aborted.set(true);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while ingesting child segments", e);
+        } catch (RuntimeException | Error e) {
+            aborted.set(true);
+            throw e;
+        } finally {
+            embeddedBatches.clear();
+        }
+    }
+
+    private void submit(List<TextSegment> segments) throws InterruptedException {
+        // Instead of idling while all embedding slots are busy or the queue is full, the caller writes finished
+        // batches. Keeping room in the queue also lets a same-thread executor hand its batch over without blocking.
+        while (embeddedBatches.remainingCapacity() == 0 || !embeddingPermits.tryAcquire()) {
+            writeNext();
+        }
+        submittedBatches++;
+        try {
+            executor.execute(() -> embed(segments));
+        } catch (RuntimeException e) {
+            embeddingPermits.release();
+            throw e;
+        }
+    }
+
+    private void embed(List<TextSegment> segments) {
+        try {
+            if (aborted.get()) {
+                return;
+            }
+            EmbeddedBatch embeddedBatch;
+            try {
+                embeddedBatch = new EmbeddedBatch(segments, embedder.apply(segments), null);
+            } catch (RuntimeException | Error e) {
+                embeddedBatch = new EmbeddedBatch(segments, null, e);
+            }
+            while (!embeddedBatches.offer(embeddedBatch, QUEUE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                if (aborted.get()) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            // the batch cannot be queued anymore, make the caller fail instead of waiting for it
+            lostBatchFailure = e;
+            Thread.currentThread().interrupt();
+        } finally {
+            // released only once the batch is queued, so a free permit never hides an unqueued result
+            embeddingPermits.release();
+        }
+    }
+
+    private void writeNext() throws InterruptedException {
+        EmbeddedBatch embeddedBatch;
+        while ((embeddedBatch = embeddedBatches.poll(QUEUE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) == null) {
+            if (lostBatchFailure != null) {
+                throw new RuntimeException("An embedding task was interrupted", lostBatchFailure);
+            }
+        }
+        writtenBatches++;
+        if (embeddedBatch.failure() instanceof RuntimeException runtimeException) {
+            throw runtimeException;
+        }
+        if (embeddedBatch.failure() instanceof Error error) {
+            throw error;
+        }
+        Response<List<Embedding>> response = embeddedBatch.response();
+        writer.accept(response.content(), embeddedBatch.segments());
+        totalUsage = totalUsage.add(response.tokenUsage());
+    }
+
+    private record EmbeddedBatch(List<TextSegment> segments, Response<List<Embedding>> response, Throwable failure) {}
+}
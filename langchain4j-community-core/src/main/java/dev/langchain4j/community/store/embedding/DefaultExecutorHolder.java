@@ -0,0 +1,35 @@
+package dev.langchain4j.community.store.embedding;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Lazily creates the executor returned by {@link AsyncEmbeddingSearch#defaultExecutor()}.
+ * <p>
+ * The project targets Java 17, so the virtual thread executor is looked up reflectively.
+ */
+final class DefaultExecutorHolder {
+
+    private static final Logger log = LoggerFactory.getLogger(DefaultExecutorHolder.class);
+
+    static final Executor EXECUTOR = create();
+
+    private DefaultExecutorHolder() {}
+
+    private static Executor create() {
+        try {
+            return (Executor) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            log.debug("Virtual threads are not available, falling back to a cached thread pool");
+            AtomicInteger threadCount = new AtomicInteger();
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "langchain4j-async-search-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package dev.langchain4j.community.store.embedding;
+
+import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A {@link SegmentFingerprintIndex} persisted as a JSON Lines file, so that incremental ingestion
+ * survives restarts, e.g. between nightly refreshes.
+ * <p>
+ * The whole index is loaded in memory when the instance is created. Every document update appends one line
+ * with the new fingerprints of the document (an empty object when the document is forgotten), and the last line
+ * of a document wins when the file is loaded. Once the file holds more than twice as many lines as documents,
+ * it is compacted: rewritten with one line per document (to a temporary file, then moved over the previous one).
+ * A truncated last line, left by a crash during an update, is ignored. An update that cannot be written
+ * is not applied in memory either, and fails with an {@link UncheckedIOException}.
+ */
+public class FileSegmentFingerprintIndex implements SegmentFingerprintIndex {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final TypeReference<Map<String, String>> FINGERPRINTS_TYPE = new TypeReference<>() {};
+    private static final int MIN_LINES_BEFORE_COMPACTION = 64;
+
+    private final Path file;
+    // guarded by this
+    private final TreeMap<String, Map<String, String>> fingerprintsByDocument = new TreeMap<>();
+    // guarded by this
+    private int lineCount;
+
+    /**
+     * @param file the JSON Lines file backing the index. It is created on the first update if it does not exist.
+     */
+    public FileSegmentFingerprintIndex(Path file) {
+        this.file = ensureNotNull(file, "file");
+        load();
+    }
+
+    @Override
+    public synchronized Map<String, String> get(String documentId) {
+        return fingerprintsByDocument.getOrDefault(ensureNotNull(documentId, "documentId"), Map.of());
+    }
+
+    @Override
+    public synchronized void put(String documentId, Map<String, String> fingerprints) {
+        ensureNotNull(documentId, "documentId");
+        ensureNotNull(fingerprints, "fingerprints");
+        Map<String, String> previous = fingerprints.isEmpty()
+                ? fingerprintsByDocument.remove(documentId)
+                : fingerprintsByDocument.put(documentId, Map.copyOf(fingerprints));
+        try {
+            if (lineCount + 1 > Math.max(MIN_LINES_BEFORE_COMPACTION, 2 * fingerprintsByDocument.size())) {
+                compact();
+            } else {
+                append(documentId, fingerprints);
+            }
+        } catch (UncheckedIOException e) {
+            // the update is not persisted, so that a retry must not consider the segments as already ingested
+            if (previous == null) {
+                fingerprintsByDocument.remove(documentId);
+            } else {
+                fingerprintsByDocument.put(documentId, previous);
+            }
+            throw e;
+        }
+    }
+
+    private void load() {
+        if (!Files.exists(file)) {
+            return;
+        }
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(file, UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read the fingerprint index from " + file, e);
+        }
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i);
+            if (line.isBlank()) {
+                continue;
+            }
+            JsonNode node;
+            try {
+                node = OBJECT_MAPPER.readTree(line);
+            } catch (JsonProcessingException e) {
+                if (i == lines.size() - 1) {
+                    // torn by a crash during the last update, which was not acknowledged
+                    compact();
+                    return;
+                }
+                throw new UncheckedIOException(
+                        "Failed to read the fingerprint index from " + file + ", line " + (i + 1) + " is corrupted",
+                        e);
+            }
+            Map<String, String> fingerprints = OBJECT_MAPPER.convertValue(node.get("fingerprints"), FINGERPRINTS_TYPE);
+            String documentId = node.get("documentId").asText();
+            if (fingerprints.isEmpty()) {
+                fingerprintsByDocument.remove(documentId);
+            } else {
+                fingerprintsByDocument.put(documentId, Map.copyOf(fingerprints));
+            }
+            lineCount++;
+        }
+    }
+
+    private void append(String documentId, Map<String, String> fingerprints) {
+        long size = -1;
+        try {
+            Path directory = file.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            size = Files.exists(file) ? Files.size(file) : 0;
+            try (BufferedWriter writer = Files.newBufferedWriter(file, UTF_8, CREATE, APPEND)) {
+                writer.write(line(documentId, fingerprints));
+            }
+            lineCount++;
+        } catch (IOException e) {
+            if (size >= 0) {
+                // a partially written line followed by the next updates would make the file unreadable
+                truncate(size, e);
+            }
+            throw new UncheckedIOException("Failed to write the fingerprint index to " + file, e);
+        }
+    }
+
+    private void truncate(long size, IOException failure) {
+        try (FileChannel channel = FileChannel.open(file, WRITE)) {
+            channel.truncate(size);
+        } catch (IOException e) {
+            failure.addSuppressed(e);
+        }
+    }
+
+    private void compact() {
+        try {
+            Path directory = file.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            Path temporaryFile = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+            try (BufferedWriter writer = Files.newBufferedWriter(temporaryFile, UTF_8)) {
+                for (Map.Entry<String, Map<String, String>> entry : fingerprintsByDocument.entrySet()) {
+                    writer.write(line(entry.getKey(), entry.getValue()));
+                }
+            }
+            try {
+                Files.move(temporaryFile, file, REPLACE_EXISTING, ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporaryFile, file, REPLACE_EXISTING);
+            }
+            lineCount = fingerprintsByDocument.size();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write the fingerprint index to " + file, e);
+        }
+    }
+
+    private static String line(String documentId, Map<String, String> fingerprints) throws JsonProcessingException {
+        Map<String, Object> record = new LinkedHashMap<>();
+        record.put("documentId", documentId);
+        record.put("fingerprints", new TreeMap<>(fingerprints));
+        return OBJECT_MAPPER.writeValueAsString(record) + '\n';
+    }
+}
@@ -0,0 +1,30 @@
+package dev.langchain4j.community.store.embedding;
+
+import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A {@link SegmentFingerprintIndex} kept in memory. Its content is lost when the JVM stops.
+ */
+public class InMemorySegmentFingerprintIndex implements SegmentFingerprintIndex {
+
+    private final Map<String, Map<String, String>> fingerprintsByDocument = new ConcurrentHashMap<>();
+
+    @Override
+    public Map<String, String> get(String documentId) {
+        return fingerprintsByDocument.getOrDefault(ensureNotNull(documentId, "documentId"), Map.of());
+    }
+
+    @Override
+    public void put(String documentId, Map<String, String> fingerprints) {
+        ensureNotNull(documentId, "documentId");
+        ensureNotNull(fingerprints, "fingerprints");
+        if (fingerprints.isEmpty()) {
+            fingerprintsByDocument.remove(documentId);
+        } else {
+            fingerprintsByDocument.put(documentId, Map.copyOf(fingerprints));
+        }
+    }
+}
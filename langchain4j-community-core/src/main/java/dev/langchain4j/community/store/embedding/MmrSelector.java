@@ -1,14 +1,12 @@
 package dev.langchain4j.community.store.embedding;
 
 import static dev.langchain4j.internal.Utils.isNullOrEmpty;
-import static dev.langchain4j.store.embedding.CosineSimilarity.between;
 import static java.util.Comparator.comparingDouble;
 
 import dev.langchain4j.data.embedding.Embedding;
 import dev.langchain4j.store.embedding.EmbeddingMatch;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.OptionalDouble;
 
 /**
  * A utility class that implements the Maximum Marginal Relevance (MMR) algorithm
@@ -19,6 +17,10 @@ import java.util.OptionalDouble;
  * <p>
  * This class is designed to be a low-level, stateless utility that operates on embeddings,
  * making it reusable across different modules and applications.
+ * <p>
+ * Internally, the candidate vectors are normalized once and packed into a contiguous matrix,
+ * and the maximum similarity of each candidate to the selected set is updated incrementally,
+ * so a selection costs O(maxResults × candidates) similarity computations.
  */
 public final class MmrSelector {
 
@@ -80,27 +82,55 @@ public final class MmrSelector {
 
     /**
      * Performs the core MMR selection algorithm.
+     * <p>
+     * Candidates are packed into a {@link NormalizedVectorMatrix} once, and a running
+     * "max similarity to the selected set" is kept per candidate. Every round only compares the
+     * remaining candidates with the item selected in the previous round, so the whole selection
+     * costs O(maxResults × candidates) similarity computations.
      */
     private static <T> List<EmbeddingMatch<T>> performMmrSelection(
             Embedding queryEmbedding, List<EmbeddingMatch<T>> candidates, int maxResults, double lambda) {
 
-        List<EmbeddingMatch<T>> selected = new ArrayList<>(maxResults);
-        List<EmbeddingMatch<T>> remaining = new ArrayList<>(candidates);
-
         // Pre-sort candidates by relevance score (descending) for better initial ordering
-        remaining.sort(
-                comparingDouble((EmbeddingMatch<T> match) -> match.score()).reversed());
+        List<EmbeddingMatch<T>> ordered = new ArrayList<>(candidates);
+        ordered.sort(comparingDouble((EmbeddingMatch<T> match) -> match.score()).reversed());
+
+        int size = ordered.size();
+        List<Embedding> embeddings = new ArrayList<>(size);
+        for (EmbeddingMatch<T> match : ordered) {
+            embeddings.add(match.embedding());
+        }
+        NormalizedVectorMatrix matrix = NormalizedVectorMatrix.of(embeddings);
+
+        double[] relevanceScores = calculateRelevanceScores(queryEmbedding, ordered, matrix);
+        double[] diversityScores = new double[size];
+        boolean[] isSelected = new boolean[size];
+
+        List<EmbeddingMatch<T>> selected = new ArrayList<>(maxResults);
 
         // Iteratively select the best candidate based on MMR score
-        while (selected.size() < maxResults && !remaining.isEmpty()) {
-            EmbeddingMatch<T> bestCandidate = findBestMmrCandidate(queryEmbedding, remaining, selected, lambda);
+        while (selected.size() < maxResults) {
+            int best = findBestMmrCandidate(relevanceScores, diversityScores, isSelected, lambda);
 
-            if (bestCandidate != null) {
-                selected.add(bestCandidate);
-                remaining.remove(bestCandidate);
-            } else {
+            if (best < 0) {
                 // Fallback: select the most relevant remaining candidate
-                selected.add(remaining.remove(0));
+                best = firstRemaining(isSelected);
+            }
+
+            isSelected[best] = true;
+            selected.add(ordered.get(best));
+
+            if (selected.size() == maxResults) {
+                break;
+            }
+
+            if (selected.size() == 1) {
+                // The diversity of a candidate starts as its similarity with the first selected item
+                for (int i = 0; i < size; i++) {
+                    diversityScores[i] = isSelected[i] ? INITIAL_DIVERSITY_SCORE : matrix.dot(best, i);
+                }
+            } else {
+                updateDiversityScores(matrix, best, diversityScores, isSelected);
             }
         }
 
@@ -108,32 +138,55 @@ public final class MmrSelector {
     }
 
     /**
-     * Finds the candidate with the highest MMR score from the remaining candidates.
+     * Computes the relevance score of every candidate once.
+     * Uses the existing score from the candidate if available, otherwise calculates using cosine similarity.
+     */
+    private static <T> double[] calculateRelevanceScores(
+            Embedding queryEmbedding, List<EmbeddingMatch<T>> candidates, NormalizedVectorMatrix matrix) {
+
+        double[] relevanceScores = new double[candidates.size()];
+        float[] normalizedQuery = null;
+
+        for (int i = 0; i < relevanceScores.length; i++) {
+            double score = candidates.get(i).score();
+            // Use existing score if available (most common case)
+            if (score > 0) {
+                relevanceScores[i] = score;
+                continue;
+            }
+            // Fallback: calculate using cosine similarity
+            if (normalizedQuery == null) {
+                normalizedQuery = NormalizedVectorMatrix.normalize(queryEmbedding.vector());
+            }
+            relevanceScores[i] = matrix.dot(i, normalizedQuery);
+        }
+
+        return relevanceScores;
+    }
+
+    /**
+     * Finds the remaining candidate with the highest MMR score.
      *
-     * @param queryEmbedding  The query embedding for relevance calculation.
-     * @param remaining       The list of candidates not yet selected.
-     * @param selected        The list of candidates already selected.
+     * @param relevanceScores The relevance score of each candidate to the query.
+     * @param diversityScores The maximum similarity of each candidate with the selected items.
+     * @param isSelected      Whether each candidate has already been selected.
      * @param lambda          The balance parameter between relevance and diversity.
-     * @param <T>             The type of the embedded content.
-     * @return The candidate with the highest MMR score, or null if no suitable candidate found.
+     * @return The index of the candidate with the highest MMR score, or -1 if no suitable candidate found.
      */
-    private static <T> EmbeddingMatch<T> findBestMmrCandidate(
-            Embedding queryEmbedding,
-            List<EmbeddingMatch<T>> remaining,
-            List<EmbeddingMatch<T>> selected,
-            double lambda) {
+    private static int findBestMmrCandidate(
+            double[] relevanceScores, double[] diversityScores, boolean[] isSelected, double lambda) {
 
         double maxMmrScore = INITIAL_MMR_SCORE;
-        EmbeddingMatch<T> bestCandidate = null;
-
-        for (EmbeddingMatch<T> candidate : remaining) {
-            double relevanceScore = getRelevanceScore(candidate, queryEmbedding);
-            double diversityScore = calculateDiversityScore(candidate, selected);
-            double mmrScore = calculateMmrScore(relevanceScore, diversityScore, lambda);
+        int bestCandidate = -1;
 
+        for (int i = 0; i < relevanceScores.length; i++) {
+            if (isSelected[i]) {
+                continue;
+            }
+            double mmrScore = calculateMmrScore(relevanceScores[i], diversityScores[i], lambda);
             if (mmrScore > maxMmrScore) {
                 maxMmrScore = mmrScore;
-                bestCandidate = candidate;
+                bestCandidate = i;
             }
         }
 
@@ -141,32 +194,29 @@ public final class MmrSelector {
     }
 
     /**
-     * Gets the relevance score for a candidate.
-     * Uses the existing score from the candidate if available, otherwise calculates using cosine similarity.
+     * Folds the similarity with the newly selected item into the running diversity score
+     * (maximum similarity with any selected item, higher = less diverse) of every remaining candidate.
      */
-    private static <T> double getRelevanceScore(EmbeddingMatch<T> candidate, Embedding queryEmbedding) {
-        // Use existing score if available (most common case)
-        if (candidate.score() > 0) {
-            return candidate.score();
+    private static void updateDiversityScores(
+            NormalizedVectorMatrix matrix, int newlySelected, double[] diversityScores, boolean[] isSelected) {
+        for (int i = 0; i < diversityScores.length; i++) {
+            if (isSelected[i]) {
+                continue;
+            }
+            double similarity = matrix.dot(newlySelected, i);
+            if (similarity > diversityScores[i]) {
+                diversityScores[i] = similarity;
+            }
         }
-        // Fallback: calculate using cosine similarity
-        return between(candidate.embedding(), queryEmbedding);
     }
 
-    /**
-     * Calculates the diversity score for a candidate against already selected items.
-     * Returns the maximum similarity with any selected item (higher = less diverse).
-     */
-    private static <T> double calculateDiversityScore(EmbeddingMatch<T> candidate, List<EmbeddingMatch<T>> selected) {
-        if (selected.isEmpty()) {
-            return INITIAL_DIVERSITY_SCORE;
+    private static int firstRemaining(boolean[] isSelected) {
+        for (int i = 0; i < isSelected.length; i++) {
+            if (!isSelected[i]) {
+                return i;
+            }
         }
-
-        OptionalDouble maxSimilarity = selected.stream()
-                .mapToDouble(selectedItem -> between(candidate.embedding(), selectedItem.embedding()))
-                .max();
-
-        return maxSimilarity.orElse(INITIAL_DIVERSITY_SCORE);
+        throw new IllegalStateException("No remaining candidates");
     }
 
     /**
@@ -0,0 +1,123 @@
+package dev.langchain4j.community.store.embedding;
+
+import dev.langchain4j.data.embedding.Embedding;
+import java.util.List;
+
+/**
+ * A dense, row-major matrix of L2-normalized vectors backed by a single contiguous {@code float[]}.
+ * <p>
+ * Rows are normalized once when the matrix is created, so the cosine similarity between two rows
+ * (or between a row and an already normalized vector) is a plain dot product.
+ * Zero vectors are kept as zero rows and therefore have a similarity of {@code 0} with everything,
+ * which matches the behaviour of {@link dev.langchain4j.store.embedding.CosineSimilarity}.
+ */
+final class NormalizedVectorMatrix {
+
+    private static final double EPSILON = 1e-8;
+
+    private final float[] data;
+    private final int rows;
+    private final int dimension;
+
+    private NormalizedVectorMatrix(float[] data, int rows, int dimension) {
+        this.data = data;
+        this.rows = rows;
+        this.dimension = dimension;
+    }
+
+    /**
+     * Packs the given embeddings into a new matrix, one row per embedding, in iteration order.
+     *
+     * @param embeddings the embeddings to pack; all of them must have the same dimension.
+     * @return a new matrix.
+     * @throws IllegalArgumentException if an embedding is null or the dimensions differ.
+     */
+    static NormalizedVectorMatrix of(List<Embedding> embeddings) {
+        int rows = embeddings.size();
+        int dimension = rows == 0 ? 0 : vectorOf(embeddings.get(0)).length;
+        float[] data = new float[rows * dimension];
+
+        for (int row = 0; row < rows; row++) {
+            float[] vector = vectorOf(embeddings.get(row));
+            if (vector.length != dimension) {
+                throw new IllegalArgumentException(String.format(
+                        "Length of vector a (%s) must be equal to the length of vector b (%s)",
+                        dimension, vector.length));
+            }
+            normalizeInto(vector, data, row * dimension);
+        }
+
+        return new NormalizedVectorMatrix(data, rows, dimension);
+    }
+
+    /**
+     * Returns an L2-normalized copy of the given vector.
+     */
+    static float[] normalize(float[] vector) {
+        float[] normalized = new float[vector.length];
+        normalizeInto(vector, normalized, 0);
+        return normalized;
+    }
+
+    int rows() {
+        return rows;
+    }
+
+    int dimension() {
+        return dimension;
+    }
+
+    /**
+     * Cosine similarity between two rows of this matrix.
+     */
+    double dot(int rowA, int rowB) {
+        int offsetA = rowA * dimension;
+        int offsetB = rowB * dimension;
+        double dot = 0.0;
+        for (int i = 0; i < dimension; i++) {
+            dot += data[offsetA + i] * data[offsetB + i];
+        }
+        return dot;
+    }
+
+    /**
+     * Cosine similarity between a row of this matrix and an already normalized vector.
+     *
+     * @throws IllegalArgumentException if the vector dimension does not match the matrix dimension.
+     */
+    double dot(int row, float[] normalizedVector) {
+        if (normalizedVector.length != dimension) {
+            throw new IllegalArgumentException(String.format(
+                    "Length of vector a (%s) must be equal to the length of vector b (%s)",
+                    dimension, normalizedVector.length));
+        }
+        int offset = row * dimension;
+        double dot = 0.0;
+        for (int i = 0; i < dimension; i++) {
+            dot += data[offset + i] * normalizedVector[i];
+        }
+        return dot;
+    }
+
+    private static float[] vectorOf(Embedding embedding) {
+        if (embedding == null || embedding.vector() == null) {
+            throw new IllegalArgumentException("Embedding cannot be null");
+        }
+        return embedding.vector();
+    }
+
+    private static void normalizeInto(float[] vector, float[] target, int offset) {
+        double norm = 0.0;
+        for (float v : vector) {
+            norm += v * v;
+        }
+        norm = Math.sqrt(norm);
+        if (norm < EPSILON) {
+            // leave the row zeroed, it is orthogonal to everything
+            return;
+        }
+        for (int i = 0; i < vector.length; i++) {
+            target[offset + i] = (float) (vector[i] / norm);
+        }
+    }
+}
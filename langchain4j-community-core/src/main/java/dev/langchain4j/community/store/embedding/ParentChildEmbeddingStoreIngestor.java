@@ -1,8 +1,16 @@
 package dev.langchain4j.community.store.embedding;
 
+import static dev.langchain4j.community.rag.listener.RagInstrumentation.attributes;
+import static dev.langchain4j.internal.Utils.getOrDefault;
+import static dev.langchain4j.internal.ValidationUtils.ensureNotBlank;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.stream.Collectors.toList;
 
 import dev.langchain4j.Experimental;
+import dev.langchain4j.community.rag.listener.RagInstrumentation;
+import dev.langchain4j.community.rag.listener.RagListener;
+import dev.langchain4j.community.rag.listener.RagStage;
+import dev.langchain4j.community.rag.listener.RagStageEvent;
 import dev.langchain4j.data.document.Document;
 import dev.langchain4j.data.document.DocumentSplitter;
 import dev.langchain4j.data.document.DocumentTransformer;
@@ -17,7 +25,18 @@ import dev.langchain4j.spi.model.embedding.EmbeddingModelFactory;
 import dev.langchain4j.store.embedding.EmbeddingStore;
 import dev.langchain4j.store.embedding.EmbeddingStoreIngestor;
 import dev.langchain4j.store.embedding.IngestionResult;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -35,6 +54,30 @@ import org.slf4j.LoggerFactory;
  * embedding generation and storage—for example, splitting chapters into paragraphs and then embedding
  * both levels separately.
  * </p>
+ * <p>
+ * By default, the children of each parent segment are embedded and stored one parent at a time.
+ * When an {@link Executor} is configured, child segments are instead processed as a pipeline:
+ * they are packed into batches of {@code embeddingBatchSize} segments across parents,
+ * up to {@code maxConcurrentEmbeddings} batches are embedded concurrently on the executor,
+ * and embedded batches are written to the store while the next ones are being embedded.
+ * At most {@code storeQueueCapacity} embedded batches wait for the store; when it lags behind,
+ * embedding is paused. Batches are then stored in completion order rather than document order.
+ * </p>
+ * <p>
+ * When a {@link SegmentFingerprintIndex} is configured, ingestion is incremental. Every stored segment
+ * gets a fingerprint, a SHA-256 hash of its text and its metadata, and is grouped by the document id found
+ * in the metadata under {@code documentIdKey}. The {@code index} metadata entry set by splitters is left out of the
+ * fingerprint, so that an edit does not change the fingerprints of the segments that follow it; a stored segment
+ * keeps the index it had when it was first stored. On each run, only the segments whose fingerprint
+ * is not yet recorded for their document are embedded and stored, under ids derived from the fingerprint,
+ * in batches of {@code embeddingBatchSize} segments (on the executor, if one is configured).
+ * Then the segments of each document that disappeared are removed from the store.
+ * Documents that are not part of a run are left untouched.
+ * </p>
+ * <p>
+ * {@link RagListener}s can be registered to time the {@link RagStage#INGESTION} as a whole,
+ * as well as each {@link RagStage#SEGMENT_EMBEDDING} and {@link RagStage#EMBEDDING_STORE_WRITE} batch.
+ * </p>
  *
  * @see EmbeddingStoreIngestor
  * @since 1.1.0-beta7
@@ -43,6 +86,9 @@ import org.slf4j.LoggerFactory;
 public class ParentChildEmbeddingStoreIngestor extends EmbeddingStoreIngestor {
 
     private static final Logger log = LoggerFactory.getLogger(ParentChildEmbeddingStoreIngestor.class);
+    private static final int DEFAULT_EMBEDDING_BATCH_SIZE = 64;
+    private static final int DEFAULT_MAX_CONCURRENT_EMBEDDINGS = 4;
+    private static final String SEGMENT_INDEX_KEY = "index";
     private final DocumentTransformer documentTransformer;
     private final DocumentSplitter documentSplitter;
     protected TextSegmentTransformer textSegmentTransformer;
@@ -52,6 +98,15 @@ public class ParentChildEmbeddingStoreIngestor extends EmbeddingStoreIngestor {
 
     private final DocumentSplitter documentChildSplitter;
 
+    private final Executor executor;
+    private final int embeddingBatchSize;
+    private final int maxConcurrentEmbeddings;
+    private final int storeQueueCapacity;
+
+    private final SegmentFingerprintIndex fingerprintIndex;
+    private final String documentIdKey;
+    private final RagInstrumentation instrumentation;
+
     /**
      * Create an instance of ParentChildEmbeddingStoreIngestor, which processes documents through a pipeline
      * that includes transformation, hierarchical splitting into parent and child segments, and embedding generation
@@ -73,18 +128,80 @@ public class ParentChildEmbeddingStoreIngestor extends EmbeddingStoreIngestor {
             EmbeddingModel embeddingModel,
             EmbeddingStore<TextSegment> embeddingStore,
             DocumentSplitter documentChildSplitter) {
-        super(documentTransformer, documentSplitter, textSegmentTransformer, embeddingModel, embeddingStore);
-        this.documentTransformer = documentTransformer;
-        this.documentSplitter = documentSplitter;
-        this.textSegmentTransformer = textSegmentTransformer;
-        this.childTextSegmentTransformer = childTextSegmentTransformer;
-        this.embeddingModel = embeddingModel;
-        this.embeddingStore = embeddingStore;
-        this.documentChildSplitter = documentChildSplitter;
+        this(new Builder()
+                .documentTransformer(documentTransformer)
+                .documentSplitter(documentSplitter)
+                .textSegmentTransformer(textSegmentTransformer)
+                .childTextSegmentTransformer(childTextSegmentTransformer)
+                .embeddingModel(embeddingModel)
+                .embeddingStore(embeddingStore)
+                .documentChildSplitter(documentChildSplitter));
+    }
+
+    /**
+     * Create an instance of ParentChildEmbeddingStoreIngestor from a {@link Builder}, with all its options,
+     * such as embedding child segments as a pipeline or ingesting incrementally (see the class documentation).
+     *
+     * @param builder the builder holding the configuration.
+     */
+    protected ParentChildEmbeddingStoreIngestor(Builder<?> builder) {
+        super(
+                builder.documentTransformer,
+                builder.documentSplitter,
+                builder.textSegmentTransformer,
+                builder.embeddingModel,
+                builder.embeddingStore);
+        this.documentTransformer = builder.documentTransformer;
+        this.documentSplitter = builder.documentSplitter;
+        this.textSegmentTransformer = builder.textSegmentTransformer;
+        this.childTextSegmentTransformer = builder.childTextSegmentTransformer;
+        this.embeddingModel = builder.embeddingModel;
+        this.embeddingStore = builder.embeddingStore;
+        this.documentChildSplitter = builder.documentChildSplitter;
+        this.executor = builder.executor;
+        this.embeddingBatchSize = getOrDefault(builder.embeddingBatchSize, DEFAULT_EMBEDDING_BATCH_SIZE);
+        this.maxConcurrentEmbeddings =
+                getOrDefault(builder.maxConcurrentEmbeddings, DEFAULT_MAX_CONCURRENT_EMBEDDINGS);
+        this.storeQueueCapacity = getOrDefault(builder.storeQueueCapacity, 2 * this.maxConcurrentEmbeddings);
+        this.fingerprintIndex = builder.fingerprintIndex;
+        this.documentIdKey = fingerprintIndex == null
+                ? builder.documentIdKey
+                : ensureNotBlank(builder.documentIdKey, "documentIdKey");
+        this.instrumentation = RagInstrumentation.of(builder.listeners);
     }
 
     @Override
     public IngestionResult ingest(List<Document> documents) {
+        if (!instrumentation.isEnabled()) {
+            return ingestDocuments(documents);
+        }
+        long start = instrumentation.start();
+        IngestionResult result;
+        try {
+            result = ingestDocuments(documents);
+        } catch (RuntimeException e) {
+            instrumentation.failed(
+                    RagStage.INGESTION,
+                    getClass(),
+                    start,
+                    e,
+                    attributes(RagStageEvent.DOCUMENT_COUNT, documents.size()));
+            throw e;
+        }
+        TokenUsage tokenUsage = result.tokenUsage();
+        instrumentation.completed(
+                RagStage.INGESTION,
+                getClass(),
+                start,
+                attributes(
+                        RagStageEvent.DOCUMENT_COUNT,
+                        documents.size(),
+                        RagStageEvent.INPUT_TOKEN_COUNT,
+                        tokenUsage == null ? null : tokenUsage.inputTokenCount()));
+        return result;
+    }
+
+    private IngestionResult ingestDocuments(List<Document> documents) {
         log.debug("Starting to ingest {} documents", documents.size());
 
         if (documentTransformer != null) {
@@ -104,21 +221,30 @@ public class ParentChildEmbeddingStoreIngestor extends EmbeddingStoreIngestor {
             log.debug("Text segments were transformed into {} text segments", documents.size());
         }
 
+        if (fingerprintIndex != null) {
+            return ingestIncrementally(segments);
+        }
+
         if (documentChildSplitter != null) {
+            if (executor != null) {
+                ChildSegmentPipeline pipeline = new ChildSegmentPipeline(
+                        this::childSegmentsOf,
+                        this::embedSegments,
+                        (embeddings, childSegments) -> storeSegments(null, embeddings, childSegments),
+                        executor,
+                        embeddingBatchSize,
+                        maxConcurrentEmbeddings,
+                        storeQueueCapacity);
+                return new IngestionResult(pipeline.run(segments));
+            }
+
             TokenUsage totalUsage = new TokenUsage();
             for (TextSegment segment : segments) {
-                // Convert back to Document to apply DocumentSplitter
-                Document parentDoc = Document.from(segment.text(), segment.metadata());
-                List<TextSegment> childSegments = documentChildSplitter.split(parentDoc).stream()
-                        .map(i -> {
-                            assert childTextSegmentTransformer != null;
-                            return childTextSegmentTransformer.transform(i);
-                        })
-                        .toList();
+                List<TextSegment> childSegments = childSegmentsOf(segment);
 
-                Response<List<Embedding>> embeddingsResponse = embeddingModel.embedAll(childSegments);
+                Response<List<Embedding>> embeddingsResponse = embedSegments(childSegments);
 
-                embeddingStore.addAll(embeddingsResponse.content(), childSegments);
+                storeSegments(null, embeddingsResponse.content(), childSegments);
 
                 totalUsage = totalUsage.add(embeddingsResponse.tokenUsage());
             }
@@ -126,16 +252,222 @@ public class ParentChildEmbeddingStoreIngestor extends EmbeddingStoreIngestor {
         }
 
         log.debug("Starting to embed {} text segments", segments.size());
-        Response<List<Embedding>> embeddingsResponse = embeddingModel.embedAll(segments);
+        Response<List<Embedding>> embeddingsResponse = embedSegments(segments);
         log.debug("Finished embedding {} text segments", segments.size());
 
         log.debug("Starting to store {} text segments into the embedding store", segments.size());
-        embeddingStore.addAll(embeddingsResponse.content(), segments);
+        storeSegments(null, embeddingsResponse.content(), segments);
         log.debug("Finished storing {} text segments into the embedding store", segments.size());
 
         return new IngestionResult(embeddingsResponse.tokenUsage());
     }
 
+    private IngestionResult ingestIncrementally(List<TextSegment> segments) {
+        Map<String, List<TextSegment>> segmentsByDocument = new LinkedHashMap<>();
+        for (TextSegment segment : segments) {
+            String documentId = segment.metadata().getString(documentIdKey);
+            if (documentId == null) {
+                throw new IllegalArgumentException(
+                        "Incremental ingestion requires a '" + documentIdKey + "' metadata entry in every document");
+            }
+            segmentsByDocument.computeIfAbsent(documentId, ignored -> new ArrayList<>()).add(segment);
+        }
+
+        List<DocumentUpdate> updates = new ArrayList<>();
+        List<TextSegment> newSegments = new ArrayList<>();
+        Map<TextSegment, String> newIds = new IdentityHashMap<>();
+        for (Map.Entry<String, List<TextSegment>> entry : segmentsByDocument.entrySet()) {
+            DocumentUpdate update = planDocumentUpdate(entry.getKey(), entry.getValue(), newIds);
+            updates.add(update);
+            newSegments.addAll(update.newSegments());
+        }
+
+        // New segments of all documents are embedded and stored in batches, before any index update,
+        // so that a failed run leaves the index as it was and the next run stores them again under the same ids
+        TokenUsage totalUsage = embedAndStoreBatches(newSegments, batch -> batch.stream()
+                .map(newIds::get)
+                .toList());
+
+        for (DocumentUpdate update : updates) {
+            if (!update.orphanIds().isEmpty()) {
+                embeddingStore.removeAll(update.orphanIds());
+            }
+            fingerprintIndex.put(update.documentId(), update.fingerprints());
+
+            log.debug(
+                    "Document '{}': {} segments unchanged, {} embedded, {} removed",
+                    update.documentId(),
+                    update.fingerprints().size() - update.newSegments().size(),
+                    update.newSegments().size(),
+                    update.orphanIds().size());
+        }
+        return new IngestionResult(totalUsage);
+    }
+
+    /**
+     * Compares the segments of a document with the fingerprints recorded for it, registering the ids
+     * of the new segments into {@code newIds}.
+     */
+    private DocumentUpdate planDocumentUpdate(
+            String documentId, List<TextSegment> parents, Map<TextSegment, String> newIds) {
+        Map<String, String> previousFingerprints = fingerprintIndex.get(documentId);
+        Map<String, String> currentFingerprints = new LinkedHashMap<>();
+        List<TextSegment> newSegments = new ArrayList<>();
+
+        for (TextSegment parent : parents) {
+            List<TextSegment> children = documentChildSplitter != null ? childSegmentsOf(parent) : List.of(parent);
+            for (TextSegment child : children) {
+                String fingerprint = fingerprint(child);
+                if (currentFingerprints.containsKey(fingerprint)) {
+                    // identical segment within the same document, stored once
+                    continue;
+                }
+                String id = previousFingerprints.get(fingerprint);
+                if (id == null) {
+                    id = UUID.nameUUIDFromBytes((documentId + ':' + fingerprint).getBytes(UTF_8)).toString();
+                    newIds.put(child, id);
+                    newSegments.add(child);
+                }
+                currentFingerprints.put(fingerprint, id);
+            }
+        }
+
+        List<String> orphanIds = previousFingerprints.entrySet().stream()
+                .filter(entry -> !currentFingerprints.containsKey(entry.getKey()))
+                .map(Map.Entry::getValue)
+                .toList();
+        return new DocumentUpdate(documentId, currentFingerprints, newSegments, orphanIds);
+    }
+
+    /**
+     * Embeds and stores the given segments in batches of {@code embeddingBatchSize}, through the pipeline
+     * when an executor is configured.
+     *
+     * @param idsOf the ids to store a batch of segments under.
+     */
+    private TokenUsage embedAndStoreBatches(
+            List<TextSegment> segments, Function<List<TextSegment>, List<String>> idsOf) {
+        if (executor != null) {
+            ChildSegmentPipeline pipeline = new ChildSegmentPipeline(
+                    List::of,
+                    this::embedSegments,
+                    (embeddings, batch) -> storeSegments(idsOf.apply(batch), embeddings, batch),
+                    executor,
+                    embeddingBatchSize,
+                    maxConcurrentEmbeddings,
+                    storeQueueCapacity);
+            return pipeline.run(segments);
+        }
+
+        TokenUsage totalUsage = new TokenUsage();
+        for (int from = 0; from < segments.size(); from += embeddingBatchSize) {
+            List<TextSegment> batch = segments.subList(from, Math.min(from + embeddingBatchSize, segments.size()));
+            Response<List<Embedding>> embeddingsResponse = embedSegments(batch);
+            storeSegments(idsOf.apply(batch), embeddingsResponse.content(), batch);
+            totalUsage = totalUsage.add(embeddingsResponse.tokenUsage());
+        }
+        return totalUsage;
+    }
+
+    private Response<List<Embedding>> embedSegments(List<TextSegment> segments) {
+        if (!instrumentation.isEnabled()) {
+            return embeddingModel.embedAll(segments);
+        }
+        long start = instrumentation.start();
+        Response<List<Embedding>> response;
+        try {
+            response = embeddingModel.embedAll(segments);
+        } catch (RuntimeException e) {
+            instrumentation.failed(
+                    RagStage.SEGMENT_EMBEDDING,
+                    getClass(),
+                    start,
+                    e,
+                    attributes(
+                            RagStageEvent.MODEL_CLASS,
+                            embeddingModel.getClass().getName(),
+                            RagStageEvent.BATCH_SIZE,
+                            segments.size()));
+            throw e;
+        }
+        TokenUsage tokenUsage = response.tokenUsage();
+        instrumentation.completed(
+                RagStage.SEGMENT_EMBEDDING,
+                getClass(),
+                start,
+                attributes(
+                        RagStageEvent.MODEL_CLASS,
+                        embeddingModel.getClass().getName(),
+                        RagStageEvent.BATCH_SIZE,
+                        segments.size(),
+                        RagStageEvent.INPUT_TOKEN_COUNT,
+                        tokenUsage == null ? null : tokenUsage.inputTokenCount()));
+        return response;
+    }
+
+    /**
+     * Adds embedded segments to the store, under the given ids, or generated ones if {@code ids} is {@code null}.
+     */
+    private void storeSegments(List<String> ids, List<Embedding> embeddings, List<TextSegment> segments) {
+        long start = instrumentation.start();
+        try {
+            if (ids == null) {
+                embeddingStore.addAll(embeddings, segments);
+            } else {
+                embeddingStore.addAll(ids, embeddings, segments);
+            }
+        } catch (RuntimeException e) {
+            if (instrumentation.isEnabled()) {
+                instrumentation.failed(RagStage.EMBEDDING_STORE_WRITE, getClass(), start, e, storeAttributes(segments));
+            }
+            throw e;
+        }
+        if (instrumentation.isEnabled()) {
+            instrumentation.completed(RagStage.EMBEDDING_STORE_WRITE, getClass(), start, storeAttributes(segments));
+        }
+    }
+
+    private Map<String, Object> storeAttributes(List<TextSegment> segments) {
+        return attributes(
+                RagStageEvent.STORE_CLASS,
+                embeddingStore.getClass().getName(),
+                RagStageEvent.BATCH_SIZE,
+                segments.size());
+    }
+
+    private static String fingerprint(TextSegment segment) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        // the position of the segment is left out, it shifts whenever the text before it changes
+        Map<String, Object> stableMetadata = new TreeMap<>(segment.metadata().toMap());
+        stableMetadata.remove(SEGMENT_INDEX_KEY);
+        digest.update(segment.text().getBytes(UTF_8));
+        digest.update((byte) 0);
+        digest.update(stableMetadata.toString().getBytes(UTF_8));
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private List<TextSegment> childSegmentsOf(TextSegment segment) {
+        // Convert back to Document to apply DocumentSplitter
+        Document parentDoc = Document.from(segment.text(), segment.metadata());
+        return documentChildSplitter.split(parentDoc).stream()
+                .map(i -> {
+                    assert childTextSegmentTransformer != null;
+                    return childTextSegmentTransformer.transform(i);
+                })
+                .toList();
+    }
+
+    private record DocumentUpdate(
+            String documentId,
+            Map<String, String> fingerprints,
+            List<TextSegment> newSegments,
+            List<String> orphanIds) {}
+
     public static ParentChildEmbeddingStoreIngestor.Builder builder() {
         return new ParentChildEmbeddingStoreIngestor.Builder();
     }
@@ -149,6 +481,13 @@ public class ParentChildEmbeddingStoreIngestor extends EmbeddingStoreIngestor {
         public TextSegmentTransformer childTextSegmentTransformer;
         public EmbeddingModel embeddingModel;
         public EmbeddingStore<TextSegment> embeddingStore;
+        public Executor executor;
+        public Integer embeddingBatchSize;
+        public Integer maxConcurrentEmbeddings;
+        public Integer storeQueueCapacity;
+        public SegmentFingerprintIndex fingerprintIndex;
+        public String documentIdKey;
+        public List<RagListener> listeners;
 
         protected B self() {
             return (B) this;
@@ -245,6 +584,88 @@ public class ParentChildEmbeddingStoreIngestor extends EmbeddingStoreIngestor {
             return self();
         }
 
+        /**
+         * Sets the executor used to embed batches of child segments concurrently. Optional.
+         * If none is specified, the children of each parent segment are embedded and stored sequentially.
+         *
+         * @param executor the executor.
+         * @return {@code this}
+         */
+        public B executor(Executor executor) {
+            this.executor = executor;
+            return self();
+        }
+
+        /**
+         * Sets the number of child segments sent in a single embedding request when an executor is set,
+         * or during incremental ingestion. Optional, defaults to 64.
+         *
+         * @param embeddingBatchSize the embedding batch size.
+         * @return {@code this}
+         */
+        public B embeddingBatchSize(Integer embeddingBatchSize) {
+            this.embeddingBatchSize = embeddingBatchSize;
+            return self();
+        }
+
+        /**
+         * Sets the maximum number of embedding requests in flight when an executor is set. Optional, defaults to 4.
+         *
+         * @param maxConcurrentEmbeddings the maximum number of concurrent embedding requests.
+         * @return {@code this}
+         */
+        public B maxConcurrentEmbeddings(Integer maxConcurrentEmbeddings) {
+            this.maxConcurrentEmbeddings = maxConcurrentEmbeddings;
+            return self();
+        }
+
+        /**
+         * Sets the maximum number of embedded batches waiting to be written to the embedding store
+         * when an executor is set. Optional, defaults to twice the maximum number of concurrent embeddings.
+         *
+         * @param storeQueueCapacity the store queue capacity.
+         * @return {@code this}
+         */
+        public B storeQueueCapacity(Integer storeQueueCapacity) {
+            this.storeQueueCapacity = storeQueueCapacity;
+            return self();
+        }
+
+        /**
+         * Sets the fingerprint index enabling incremental ingestion. Optional.
+         * If none is specified, every segment is embedded and stored on each ingestion.
+         * {@link InMemorySegmentFingerprintIndex} and {@link FileSegmentFingerprintIndex} are available.
+         *
+         * @param fingerprintIndex the fingerprint index.
+         * @return {@code this}
+         */
+        public B fingerprintIndex(SegmentFingerprintIndex fingerprintIndex) {
+            this.fingerprintIndex = fingerprintIndex;
+            return self();
+        }
+
+        /**
+         * Sets the metadata key holding the id of each document. Mandatory if a fingerprint index is set.
+         *
+         * @param documentIdKey the document id metadata key.
+         * @return {@code this}
+         */
+        public B documentIdKey(String documentIdKey) {
+            this.documentIdKey = documentIdKey;
+            return self();
+        }
+
+        /**
+         * Sets the listeners notified of the ingestion stages. Optional.
+         *
+         * @param listeners the listeners.
+         * @return {@code this}
+         */
+        public B listeners(List<RagListener> listeners) {
+            this.listeners = listeners;
+            return self();
+        }
+
         /**
          * Builds the EmbeddingStoreIngestor.
          *
@@ -252,14 +673,7 @@ public class ParentChildEmbeddingStoreIngestor extends EmbeddingStoreIngestor {
          */
         @Override
         public ParentChildEmbeddingStoreIngestor build() {
-            return new ParentChildEmbeddingStoreIngestor(
-                    documentTransformer,
-                    documentSplitter,
-                    textSegmentTransformer,
-                    childTextSegmentTransformer,
-                    embeddingModel,
-                    embeddingStore,
-                    documentChildSplitter);
+            return new ParentChildEmbeddingStoreIngestor(this);
         }
     }
 }
@@ -0,0 +1,34 @@
+package dev.langchain4j.community.store.embedding;
+
+import java.util.Map;
+
+/**
+ * Remembers which segments of each document have already been embedded and stored,
+ * so that {@link ParentChildEmbeddingStoreIngestor} can re-ingest a modified document incrementally.
+ * <p>
+ * For each document id, the index keeps the fingerprints (content hashes) of the stored segments,
+ * each mapped to the id of its embedding in the {@link dev.langchain4j.store.embedding.EmbeddingStore}.
+ * <p>
+ * Implementations must be safe for use by several threads.
+ *
+ * @see InMemorySegmentFingerprintIndex
+ * @see FileSegmentFingerprintIndex
+ */
+public interface SegmentFingerprintIndex {
+
+    /**
+     * Returns the fingerprints of the segments stored for the given document.
+     *
+     * @param documentId the document id.
+     * @return the fingerprints mapped to their embedding ids, empty if the document was never ingested.
+     */
+    Map<String, String> get(String documentId);
+
+    /**
+     * Replaces the fingerprints of the segments stored for the given document.
+     *
+     * @param documentId   the document id.
+     * @param fingerprints the fingerprints mapped to their embedding ids. An empty map forgets the document.
+     */
+    void put(String documentId, Map<String, String> fingerprints);
+}
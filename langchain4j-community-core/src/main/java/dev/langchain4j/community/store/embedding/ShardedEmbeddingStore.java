@@ -0,0 +1,455 @@
+package dev.langchain4j.community.store.embedding;
+
+import static dev.langchain4j.internal.Utils.getOrDefault;
+import static dev.langchain4j.internal.Utils.randomUUID;
+import static dev.langchain4j.internal.ValidationUtils.ensureNotEmpty;
+import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
+import static java.util.Comparator.comparingDouble;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
+import dev.langchain4j.store.embedding.EmbeddingSearchResult;
+import dev.langchain4j.store.embedding.EmbeddingStore;
+import dev.langchain4j.store.embedding.filter.Filter;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An {@link EmbeddingStore} that partitions embeddings across several shard stores,
+ * which can be of the same type (e.g. one directory per shard) or of different types.
+ * <p>
+ * Additions and removals by id are routed to a single shard by the {@link ShardFunction},
+ * by default a hash of the embedding id. Removals by {@link Filter} and {@link #removeAll()} are broadcast
+ * to all shards.
+ * <p>
+ * A search is sent to all shards in parallel, each shard returning its own top {@code maxResults} matches.
+ * Those are merged with a bounded heap into the global top {@code maxResults}, dropping matches below
+ * {@code minScore}. With a {@code searchTimeout}, a shard that does not answer in time is left out of the result,
+ * as is a shard whose search fails, unless {@code allowPartialResults} is disabled. Shards implementing
+ * {@link AsyncEmbeddingSearch} are searched natively, the others on the {@code executor}.
+ * <p>
+ * Search latencies, failures and timeouts are recorded per shard, see {@link #shardStats()}.
+ *
+ * @param <Embedded> The class of the object that has been embedded.
+ */
+public class ShardedEmbeddingStore<Embedded> implements EmbeddingStore<Embedded>, AsyncEmbeddingSearch<Embedded> {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardedEmbeddingStore.class);
+
+    /**
+     * Selects the shard an embedding id belongs to.
+     */
+    @FunctionalInterface
+    public interface ShardFunction {
+
+        /**
+         * Routes ids by their {@link String#hashCode()}.
+         */
+        ShardFunction HASH = (id, shardCount) -> Math.floorMod(id.hashCode(), shardCount);
+
+        /**
+         * @param id         The embedding id.
+         * @param shardCount The number of shards.
+         * @return The index of the shard, between {@code 0} (inclusive) and {@code shardCount} (exclusive).
+         */
+        int shardOf(String id, int shardCount);
+    }
+
+    /**
+     * Search statistics of a shard since the store was created.
+     *
+     * @param shard          The index of the shard.
+     * @param searches       The number of searches sent to the shard.
+     * @param failures       The number of searches that failed, timeouts excluded.
+     * @param timeouts       The number of searches that did not complete within the search timeout.
+     * @param averageLatency The average latency of the completed searches.
+     * @param maxLatency     The highest latency of the completed searches.
+     */
+    public record ShardStats(
+            int shard, long searches, long failures, long timeouts, Duration averageLatency, Duration maxLatency) {}
+
+    private final List<EmbeddingStore<Embedded>> shards;
+    private final List<AsyncEmbeddingSearch<Embedded>> asyncShards;
+    private final List<ShardMetrics> metrics;
+    private final ShardFunction shardFunction;
+    private final Executor executor;
+    private final Duration searchTimeout;
+    private final boolean allowPartialResults;
+
+    private ShardedEmbeddingStore(Builder<Embedded> builder) {
+        this.shards = List.copyOf(ensureNotEmpty(builder.shards, "shards"));
+        this.shardFunction = getOrDefault(builder.shardFunction, ShardFunction.HASH);
+        this.executor = getOrDefault(builder.executor, AsyncEmbeddingSearch::defaultExecutor);
+        this.searchTimeout = builder.searchTimeout;
+        if (searchTimeout != null && (searchTimeout.isZero() || searchTimeout.isNegative())) {
+            throw new IllegalArgumentException("searchTimeout must be positive, but is: " + searchTimeout);
+        }
+        this.allowPartialResults = getOrDefault(builder.allowPartialResults, true);
+
+        List<AsyncEmbeddingSearch<Embedded>> asyncShards = new ArrayList<>(shards.size());
+        List<ShardMetrics> metrics = new ArrayList<>(shards.size());
+        for (EmbeddingStore<Embedded> shard : shards) {
+            asyncShards.add(AsyncEmbeddingSearch.from(shard, executor));
+            metrics.add(new ShardMetrics());
+        }
+        this.asyncShards = asyncShards;
+        this.metrics = metrics;
+    }
+
+    public static <Embedded> Builder<Embedded> builder() {
+        return new Builder<>();
+    }
+
+    @Override
+    public String add(Embedding embedding) {
+        String id = randomUUID();
+        add(id, embedding);
+        return id;
+    }
+
+    @Override
+    public void add(String id, Embedding embedding) {
+        shardFor(ensureNotNull(id, "id")).add(id, embedding);
+    }
+
+    @Override
+    public String add(Embedding embedding, Embedded embedded) {
+        String id = randomUUID();
+        addAll(List.of(id), List.of(embedding), embedded == null ? null : List.of(embedded));
+        return id;
+    }
+
+    @Override
+    public List<String> addAll(List<Embedding> embeddings) {
+        List<String> ids = new ArrayList<>(embeddings.size());
+        for (int i = 0; i < embeddings.size(); i++) {
+            ids.add(randomUUID());
+        }
+        addAll(ids, embeddings, null);
+        return ids;
+    }
+
+    @Override
+    public void addAll(List<String> ids, List<Embedding> embeddings, List<Embedded> embedded) {
+        ensureNotNull(ids, "ids");
+        ensureNotNull(embeddings, "embeddings");
+        if (ids.size() != embeddings.size() || (embedded != null && embedded.size() != embeddings.size())) {
+            throw new IllegalArgumentException("The list of ids, embeddings and embedded must have the same size");
+        }
+
+        List<List<Integer>> positionsByShard = new ArrayList<>(shards.size());
+        for (int i = 0; i < shards.size(); i++) {
+            positionsByShard.add(new ArrayList<>());
+        }
+        for (int i = 0; i < ids.size(); i++) {
+            positionsByShard.get(shardIndexOf(ids.get(i))).add(i);
+        }
+
+        forEachShard(shard -> {
+            List<Integer> positions = positionsByShard.get(shard);
+            if (positions.isEmpty()) {
+                return;
+            }
+            List<String> shardIds = new ArrayList<>(positions.size());
+            List<Embedding> shardEmbeddings = new ArrayList<>(positions.size());
+            List<Embedded> shardEmbedded = embedded == null ? null : new ArrayList<>(positions.size());
+            for (int position : positions) {
+                shardIds.add(ids.get(position));
+                shardEmbeddings.add(embeddings.get(position));
+                if (shardEmbedded != null) {
+                    shardEmbedded.add(embedded.get(position));
+                }
+            }
+            shards.get(shard).addAll(shardIds, shardEmbeddings, shardEmbedded);
+        });
+    }
+
+    @Override
+    public void removeAll(Collection<String> ids) {
+        ensureNotEmpty(ids, "ids");
+        List<List<String>> idsByShard = new ArrayList<>(shards.size());
+        for (int i = 0; i < shards.size(); i++) {
+            idsByShard.add(new ArrayList<>());
+        }
+        for (String id : ids) {
+            idsByShard.get(shardIndexOf(id)).add(id);
+        }
+
+        forEachShard(shard -> {
+            if (!idsByShard.get(shard).isEmpty()) {
+                shards.get(shard).removeAll(idsByShard.get(shard));
+            }
+        });
+    }
+
+    @Override
+    public void removeAll(Filter filter) {
+        ensureNotNull(filter, "filter");
+        forEachShard(shard -> shards.get(shard).removeAll(filter));
+    }
+
+    @Override
+    public void removeAll() {
+        forEachShard(shard -> shards.get(shard).removeAll());
+    }
+
+    @Override
+    public EmbeddingSearchResult<Embedded> search(EmbeddingSearchRequest request) {
+        try {
+            return searchAsync(request).join();
+        } catch (CompletionException e) {
+            throw unwrap(e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<EmbeddingSearchResult<Embedded>> searchAsync(EmbeddingSearchRequest request) {
+        ensureNotNull(request, "request");
+        List<CompletableFuture<ShardResult<Embedded>>> futures = new ArrayList<>(shards.size());
+        for (int shard = 0; shard < shards.size(); shard++) {
+            futures.add(searchShard(shard, request));
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+                .thenApply(ignored -> merge(futures, request));
+    }
+
+    /**
+     * @return the search statistics of each shard, in shard order.
+     */
+    public List<ShardStats> shardStats() {
+        List<ShardStats> stats = new ArrayList<>(metrics.size());
+        for (int shard = 0; shard < metrics.size(); shard++) {
+            stats.add(metrics.get(shard).snapshot(shard));
+        }
+        return stats;
+    }
+
+    private CompletableFuture<ShardResult<Embedded>> searchShard(int shard, EmbeddingSearchRequest request) {
+        ShardMetrics shardMetrics = metrics.get(shard);
+        long start = System.nanoTime();
+        CompletableFuture<EmbeddingSearchResult<Embedded>> future;
+        try {
+            future = asyncShards.get(shard).searchAsync(request);
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        if (searchTimeout != null) {
+            future = future.orTimeout(searchTimeout.toNanos(), TimeUnit.NANOSECONDS);
+        }
+        return future.handle((result, error) -> {
+            if (error == null) {
+                shardMetrics.recordSuccess(System.nanoTime() - start);
+                return new ShardResult<>(result, null);
+            }
+            Throwable cause = error instanceof CompletionException && error.getCause() != null
+                    ? error.getCause()
+                    : error;
+            if (cause instanceof TimeoutException) {
+                shardMetrics.recordTimeout();
+                log.warn("Search on shard {} did not complete within {}", shard, searchTimeout);
+            } else {
+                shardMetrics.recordFailure();
+                log.warn("Search on shard {} failed", shard, cause);
+            }
+            return new ShardResult<>(null, cause);
+        });
+    }
+
+    private EmbeddingSearchResult<Embedded> merge(
+            List<CompletableFuture<ShardResult<Embedded>>> futures, EmbeddingSearchRequest request) {
+        int maxResults = request.maxResults();
+        // min-heap on score, its head is the weakest of the best matches seen so far
+        PriorityQueue<EmbeddingMatch<Embedded>> heap =
+                new PriorityQueue<>(maxResults + 1, comparingDouble(EmbeddingMatch<Embedded>::score));
+        Throwable firstFailure = null;
+        int failedShards = 0;
+
+        for (CompletableFuture<ShardResult<Embedded>> future : futures) {
+            ShardResult<Embedded> shardResult = future.join();
+            if (shardResult.failure() != null) {
+                failedShards++;
+                if (firstFailure == null) {
+                    firstFailure = shardResult.failure();
+                }
+                continue;
+            }
+            for (EmbeddingMatch<Embedded> match : shardResult.result().matches()) {
+                if (match.score() < request.minScore()) {
+                    continue;
+                }
+                if (heap.size() < maxResults) {
+                    heap.add(match);
+                } else if (match.score() > heap.peek().score()) {
+                    heap.poll();
+                    heap.add(match);
+                }
+            }
+        }
+
+        if (firstFailure != null && (!allowPartialResults || failedShards == shards.size())) {
+            throw unwrap(new CompletionException(firstFailure));
+        }
+
+        List<EmbeddingMatch<Embedded>> matches = new ArrayList<>(heap);
+        matches.sort(comparingDouble(EmbeddingMatch<Embedded>::score).reversed());
+        return new EmbeddingSearchResult<>(matches);
+    }
+
+    /**
+     * Runs the given action for each shard index, in parallel on the executor when there are several shards.
+     */
+    private void forEachShard(Consumer<Integer> action) {
+        if (shards.size() == 1) {
+            action.accept(0);
+            return;
+        }
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[shards.size()];
+        for (int shard = 0; shard < shards.size(); shard++) {
+            int index = shard;
+            futures[shard] = CompletableFuture.runAsync(() -> action.accept(index), executor);
+        }
+        try {
+            CompletableFuture.allOf(futures).join();
+        } catch (CompletionException e) {
+            throw unwrap(e);
+        }
+    }
+
+    private EmbeddingStore<Embedded> shardFor(String id) {
+        return shards.get(shardIndexOf(id));
+    }
+
+    private int shardIndexOf(String id) {
+        int shard = shardFunction.shardOf(id, shards.size());
+        if (shard < 0 || shard >= shards.size()) {
+            throw new IllegalStateException(
+                    "ShardFunction returned " + shard + " for " + shards.size() + " shards, for id: " + id);
+        }
+        return shard;
+    }
+
+    private static RuntimeException unwrap(CompletionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        return new RuntimeException(cause);
+    }
+
+    private record ShardResult<Embedded>(EmbeddingSearchResult<Embedded> result, Throwable failure) {}
+
+    private static class ShardMetrics {
+
+        private final LongAdder searches = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder timeouts = new LongAdder();
+        private final LongAdder totalLatencyNanos = new LongAdder();
+        private final AtomicLong maxLatencyNanos = new AtomicLong();
+
+        void recordSuccess(long latencyNanos) {
+            searches.increment();
+            totalLatencyNanos.add(latencyNanos);
+            maxLatencyNanos.accumulateAndGet(latencyNanos, Math::max);
+        }
+
+        void recordFailure() {
+            searches.increment();
+            failures.increment();
+        }
+
+        void recordTimeout() {
+            searches.increment();
+            timeouts.increment();
+        }
+
+        ShardStats snapshot(int shard) {
+            long searchCount = searches.sum();
+            long failureCount = failures.sum();
+            long timeoutCount = timeouts.sum();
+            long completed = searchCount - failureCount - timeoutCount;
+            Duration averageLatency =
+                    completed == 0 ? Duration.ZERO : Duration.ofNanos(totalLatencyNanos.sum() / completed);
+            return new ShardStats(
+                    shard,
+                    searchCount,
+                    failureCount,
+                    timeoutCount,
+                    averageLatency,
+                    Duration.ofNanos(maxLatencyNanos.get()));
+        }
+    }
+
+    public static class Builder<Embedded> {
+
+        private List<EmbeddingStore<Embedded>> shards;
+        private ShardFunction shardFunction;
+        private Executor executor;
+        private Duration searchTimeout;
+        private Boolean allowPartialResults;
+
+        Builder() {}
+
+        /**
+         * Sets the shard stores. Mandatory. The order matters, since the {@link ShardFunction} returns indexes
+         * in this list: changing it, or the number of shards, requires re-ingesting the embeddings.
+         */
+        public Builder<Embedded> shards(List<? extends EmbeddingStore<Embedded>> shards) {
+            this.shards = shards == null ? null : new ArrayList<>(shards);
+            return this;
+        }
+
+        /**
+         * Sets the function routing embedding ids to shards. Defaults to {@link ShardFunction#HASH}.
+         */
+        public Builder<Embedded> shardFunction(ShardFunction shardFunction) {
+            this.shardFunction = shardFunction;
+            return this;
+        }
+
+        /**
+         * Sets the executor running blocking shard calls in parallel.
+         * Defaults to {@link AsyncEmbeddingSearch#defaultExecutor()}.
+         */
+        public Builder<Embedded> executor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * Sets the maximum time to wait for each shard during a search. Optional: by default, searches wait
+         * for all shards.
+         */
+        public Builder<Embedded> searchTimeout(Duration searchTimeout) {
+            this.searchTimeout = searchTimeout;
+            return this;
+        }
+
+        /**
+         * Sets whether a search returns the matches of the other shards when a shard fails or times out.
+         * When disabled, the search fails instead. Defaults to {@code true}.
+         * A search fails in any case when all shards fail.
+         */
+        public Builder<Embedded> allowPartialResults(Boolean allowPartialResults) {
+            this.allowPartialResults = allowPartialResults;
+            return this;
+        }
+
+        public ShardedEmbeddingStore<Embedded> build() {
+            return new ShardedEmbeddingStore<>(this);
+        }
+    }
+}
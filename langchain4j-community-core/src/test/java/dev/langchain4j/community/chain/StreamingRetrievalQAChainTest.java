@@ -0,0 +1,136 @@
+package dev.langchain4j.community.chain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.chat.StreamingChatModel;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.chat.response.StreamingChatResponseHandler;
+import dev.langchain4j.rag.content.Content;
+import dev.langchain4j.rag.content.retriever.ContentRetriever;
+import dev.langchain4j.rag.query.Query;
+import java.util.List;
+import java.util.concurrent.Executors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class StreamingRetrievalQAChainTest {
+
+    private static final Query QUERY = Query.from("query");
+
+    @Mock
+    StreamingChatModel streamingChatModel;
+
+    @Mock
+    ContentRetriever contentRetriever;
+
+    @Mock
+    StreamingChatResponseHandler handler;
+
+    @Captor
+    ArgumentCaptor<List<ChatMessage>> messagesCaptor;
+
+    @BeforeEach
+    void beforeEach() {
+        lenient()
+                .doAnswer(invocation -> {
+                    StreamingChatResponseHandler streamingHandler = invocation.getArgument(1);
+                    streamingHandler.onPartialResponse("ans");
+                    streamingHandler.onPartialResponse("wer");
+                    streamingHandler.onCompleteResponse(ChatResponse.builder()
+                            .aiMessage(AiMessage.from("answer"))
+                            .build());
+                    return null;
+                })
+                .when(streamingChatModel)
+                .chat(anyList(), any(StreamingChatResponseHandler.class));
+    }
+
+    @Test
+    void should_stream_answer_with_retrieved_segments() {
+        // given
+        when(contentRetriever.retrieve(any()))
+                .thenReturn(List.of(Content.from("Segment 1"), Content.from("Segment 2")));
+
+        StreamingRetrievalQAChain chain = StreamingRetrievalQAChain.builder()
+                .streamingChatModel(streamingChatModel)
+                .contentRetriever(contentRetriever)
+                .build();
+
+        // when
+        chain.execute(QUERY, handler);
+
+        // then
+        verify(handler).onPartialResponse("ans");
+        verify(handler).onPartialResponse("wer");
+        verify(handler).onCompleteResponse(any());
+
+        verify(streamingChatModel).chat(messagesCaptor.capture(), any(StreamingChatResponseHandler.class));
+        String expectedUserMessage =
+                """
+                        query
+
+                        Answer using the following information:
+                        Segment 1
+
+                        Segment 2""";
+        assertThat(((UserMessage) messagesCaptor.getValue().get(0)).singleText()).isEqualTo(expectedUserMessage);
+    }
+
+    @Test
+    void should_query_all_content_retrievers() {
+        // given
+        ContentRetriever otherContentRetriever = mock(ContentRetriever.class);
+        when(contentRetriever.retrieve(any())).thenReturn(List.of(Content.from("Segment 1")));
+        when(otherContentRetriever.retrieve(any())).thenReturn(List.of(Content.from("Segment 2")));
+
+        StreamingRetrievalQAChain chain = StreamingRetrievalQAChain.builder()
+                .streamingChatModel(streamingChatModel)
+                .contentRetrievers(List.of(contentRetriever, otherContentRetriever))
+                .executor(Executors.newCachedThreadPool())
+                .build();
+
+        // when
+        chain.execute(QUERY, handler);
+
+        // then
+        verify(streamingChatModel).chat(messagesCaptor.capture(), any(StreamingChatResponseHandler.class));
+        assertThat(((UserMessage) messagesCaptor.getValue().get(0)).singleText())
+                .contains("Segment 1")
+                .contains("Segment 2");
+        verify(handler).onCompleteResponse(any());
+    }
+
+    @Test
+    void should_report_retrieval_failure_to_handler() {
+        // given
+        when(contentRetriever.retrieve(any())).thenThrow(new RuntimeException("store is down"));
+
+        StreamingRetrievalQAChain chain = StreamingRetrievalQAChain.builder()
+                .streamingChatModel(streamingChatModel)
+                .contentRetriever(contentRetriever)
+                .build();
+
+        // when
+        chain.execute(QUERY, handler);
+
+        // then
+        verify(handler).onError(any(RuntimeException.class));
+        verify(streamingChatModel, never()).chat(anyList(), any(StreamingChatResponseHandler.class));
+    }
+}
@@ -4,12 +4,20 @@ import static dev.langchain4j.data.segment.TextSegment.textSegment;
 import static java.util.Arrays.asList;
 import static java.util.Collections.singletonList;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.clearInvocations;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
+import dev.langchain4j.community.rag.listener.RagStage;
+import dev.langchain4j.community.rag.listener.RagStageEvent;
+import dev.langchain4j.community.store.embedding.InMemorySegmentFingerprintIndex;
 import dev.langchain4j.community.store.embedding.ParentChildEmbeddingStoreIngestor;
 import dev.langchain4j.data.document.Document;
 import dev.langchain4j.data.document.DocumentSplitter;
@@ -23,9 +31,14 @@ import dev.langchain4j.model.output.Response;
 import dev.langchain4j.model.output.TokenUsage;
 import dev.langchain4j.store.embedding.EmbeddingStore;
 import dev.langchain4j.store.embedding.IngestionResult;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 
 class ParentChildEmbeddingStoreIngestorTest {
 
@@ -247,4 +260,280 @@ class ParentChildEmbeddingStoreIngestorTest {
 
         assertThat(ingestionResult.tokenUsage()).isEqualTo(tokenUsage);
     }
+
+    @Test
+    void should_notify_listeners_of_ingestion_stages() {
+
+        // given
+        EmbeddingModel embeddingModel = mock(EmbeddingModel.class);
+        when(embeddingModel.embedAll(any()))
+                .thenReturn(Response.from(singletonList(Embedding.from(new float[] {1})), new TokenUsage(5)));
+
+        EmbeddingStore<TextSegment> embeddingStore = mock(EmbeddingStore.class);
+
+        List<RagStageEvent> events = new ArrayList<>();
+        ParentChildEmbeddingStoreIngestor ingestor = ParentChildEmbeddingStoreIngestor.builder()
+                .embeddingModel(embeddingModel)
+                .embeddingStore(embeddingStore)
+                .listeners(List.of(events::add))
+                .build();
+
+        // when
+        ingestor.ingest(Document.from("Some text"));
+
+        // then
+        assertThat(events)
+                .extracting(RagStageEvent::stage)
+                .containsExactly(RagStage.SEGMENT_EMBEDDING, RagStage.EMBEDDING_STORE_WRITE, RagStage.INGESTION);
+        assertThat(events.get(0).attribute(RagStageEvent.BATCH_SIZE)).isEqualTo(1);
+        assertThat(events.get(0).attribute(RagStageEvent.INPUT_TOKEN_COUNT)).isEqualTo(5);
+        assertThat(events.get(1).attribute(RagStageEvent.STORE_CLASS))
+                .isEqualTo(embeddingStore.getClass().getName());
+        assertThat(events.get(2).attribute(RagStageEvent.DOCUMENT_COUNT)).isEqualTo(1);
+        assertThat(events).noneMatch(RagStageEvent::failed);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void should_embed_child_segments_in_batches_across_parents_when_executor_configured() {
+
+        // given
+        DocumentSplitter documentChildSplitter = mock(DocumentSplitter.class);
+        when(documentChildSplitter.split(any())).thenAnswer(invocation -> {
+            Document document = invocation.getArgument(0);
+            return Stream.of(document.text().split(" ")).map(TextSegment::from).toList();
+        });
+        TextSegmentTransformer childTextSegmentTransformer = mock(TextSegmentTransformer.class);
+        when(childTextSegmentTransformer.transform(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        EmbeddingModel embeddingModel = mock(EmbeddingModel.class);
+        when(embeddingModel.embedAll(any())).thenAnswer(invocation -> {
+            List<TextSegment> segments = invocation.getArgument(0);
+            List<Embedding> embeddings = segments.stream()
+                    .map(segment -> Embedding.from(new float[] {segment.text().length()}))
+                    .toList();
+            return Response.from(embeddings, new TokenUsage(segments.size(), 0));
+        });
+
+        EmbeddingStore<TextSegment> embeddingStore = mock(EmbeddingStore.class);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        ParentChildEmbeddingStoreIngestor ingestor = ParentChildEmbeddingStoreIngestor.builder()
+                .embeddingModel(embeddingModel)
+                .embeddingStore(embeddingStore)
+                .documentChildSplitter(documentChildSplitter)
+                .childTextSegmentTransformer(childTextSegmentTransformer)
+                .executor(executor)
+                .embeddingBatchSize(2)
+                .maxConcurrentEmbeddings(2)
+                .storeQueueCapacity(1)
+                .build();
+
+        // when
+        IngestionResult ingestionResult;
+        try {
+            ingestionResult = ingestor.ingest(
+                    Document.from("one two three"), Document.from("four five"), Document.from("six seven eight nine"));
+        } finally {
+            executor.shutdown();
+        }
+
+        // then
+        assertThat(ingestionResult.tokenUsage().inputTokenCount()).isEqualTo(9);
+
+        ArgumentCaptor<List<Embedding>> embeddings = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<List<TextSegment>> segments = ArgumentCaptor.forClass(List.class);
+        verify(embeddingStore, atLeastOnce()).addAll(embeddings.capture(), segments.capture());
+        verifyNoMoreInteractions(embeddingStore);
+
+        List<String> storedTexts = new ArrayList<>();
+        for (int i = 0; i < segments.getAllValues().size(); i++) {
+            List<TextSegment> batch = segments.getAllValues().get(i);
+            assertThat(batch).hasSizeLessThanOrEqualTo(2);
+            assertThat(embeddings.getAllValues().get(i)).hasSameSizeAs(batch);
+            batch.forEach(segment -> storedTexts.add(segment.text()));
+        }
+        assertThat(segments.getAllValues()).hasSize(5);
+        assertThat(storedTexts)
+                .containsExactlyInAnyOrder("one", "two", "three", "four", "five", "six", "seven", "eight", "nine");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void should_propagate_embedding_failure_when_executor_configured() {
+
+        // given
+        DocumentSplitter documentChildSplitter = mock(DocumentSplitter.class);
+        when(documentChildSplitter.split(any())).thenAnswer(invocation -> {
+            Document document = invocation.getArgument(0);
+            return Stream.of(document.text().split(" ")).map(TextSegment::from).toList();
+        });
+        TextSegmentTransformer childTextSegmentTransformer = mock(TextSegmentTransformer.class);
+        when(childTextSegmentTransformer.transform(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        EmbeddingModel embeddingModel = mock(EmbeddingModel.class);
+        when(embeddingModel.embedAll(any())).thenThrow(new IllegalStateException("embedding failed"));
+
+        EmbeddingStore<TextSegment> embeddingStore = mock(EmbeddingStore.class);
+
+        ParentChildEmbeddingStoreIngestor ingestor = ParentChildEmbeddingStoreIngestor.builder()
+                .embeddingModel(embeddingModel)
+                .embeddingStore(embeddingStore)
+                .documentChildSplitter(documentChildSplitter)
+                .childTextSegmentTransformer(childTextSegmentTransformer)
+                .executor(Runnable::run)
+                .embeddingBatchSize(2)
+                .build();
+
+        // when-then
+        assertThatThrownBy(() -> ingestor.ingest(Document.from("one two three")))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("embedding failed");
+        verifyNoMoreInteractions(embeddingStore);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void should_only_embed_changed_segments_and_remove_orphans_when_fingerprint_index_configured() {
+
+        // given
+        DocumentSplitter documentSplitter = mock(DocumentSplitter.class);
+        when(documentSplitter.splitAll(anyList())).thenAnswer(invocation -> {
+            List<Document> documents = invocation.getArgument(0);
+            return documents.stream()
+                    .flatMap(document -> Stream.of(document.text().split("\\|"))
+                            .map(text -> TextSegment.from(text, document.metadata())))
+                    .toList();
+        });
+        DocumentSplitter documentChildSplitter = mock(DocumentSplitter.class);
+        when(documentChildSplitter.split(any())).thenAnswer(invocation -> {
+            Document document = invocation.getArgument(0);
+            return Stream.of(document.text().split(" ")).map(TextSegment::from).toList();
+        });
+        TextSegmentTransformer childTextSegmentTransformer = mock(TextSegmentTransformer.class);
+        when(childTextSegmentTransformer.transform(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        EmbeddingModel embeddingModel = mock(EmbeddingModel.class);
+        when(embeddingModel.embedAll(any())).thenAnswer(invocation -> {
+            List<TextSegment> segments = invocation.getArgument(0);
+            List<Embedding> embeddings = segments.stream()
+                    .map(segment -> Embedding.from(new float[] {segment.text().length()}))
+                    .toList();
+            return Response.from(embeddings, new TokenUsage(segments.size(), 0));
+        });
+
+        EmbeddingStore<TextSegment> embeddingStore = mock(EmbeddingStore.class);
+
+        ParentChildEmbeddingStoreIngestor ingestor = ParentChildEmbeddingStoreIngestor.builder()
+                .documentSplitter(documentSplitter)
+                .embeddingModel(embeddingModel)
+                .embeddingStore(embeddingStore)
+                .documentChildSplitter(documentChildSplitter)
+                .childTextSegmentTransformer(childTextSegmentTransformer)
+                .fingerprintIndex(new InMemorySegmentFingerprintIndex())
+                .documentIdKey("doc_id")
+                .build();
+
+        Document firstDocument = Document.from("a b|c d", Metadata.from("doc_id", "first"));
+        Document secondDocument = Document.from("e f", Metadata.from("doc_id", "second"));
+        IngestionResult initialIngestionResult = ingestor.ingest(firstDocument, secondDocument);
+        assertThat(initialIngestionResult.tokenUsage().inputTokenCount()).isEqualTo(6);
+        clearInvocations(embeddingModel, embeddingStore);
+
+        // when
+        Document editedFirstDocument = Document.from("a b|c x", Metadata.from("doc_id", "first"));
+        IngestionResult ingestionResult = ingestor.ingest(editedFirstDocument, secondDocument);
+
+        // then
+        assertThat(ingestionResult.tokenUsage().inputTokenCount()).isEqualTo(1);
+        verify(embeddingModel).embedAll(List.of(TextSegment.from("x")));
+        verifyNoMoreInteractions(embeddingModel);
+
+        ArgumentCaptor<List<String>> addedIds = ArgumentCaptor.forClass(List.class);
+        verify(embeddingStore).addAll(addedIds.capture(), anyList(), anyList());
+        ArgumentCaptor<List<String>> removedIds = ArgumentCaptor.forClass(List.class);
+        verify(embeddingStore).removeAll(removedIds.capture());
+        verifyNoMoreInteractions(embeddingStore);
+
+        assertThat(addedIds.getValue()).hasSize(1);
+        assertThat(removedIds.getValue()).hasSize(1).doesNotContainAnyElementsOf(addedIds.getValue());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void should_embed_only_inserted_segment_in_batches_when_segment_indexes_shift() {
+
+        // given
+        DocumentSplitter documentChildSplitter = mock(DocumentSplitter.class);
+        when(documentChildSplitter.split(any())).thenAnswer(invocation -> {
+            Document document = invocation.getArgument(0);
+            String[] words = document.text().split(" ");
+            return IntStream.range(0, words.length)
+                    .mapToObj(i -> TextSegment.from(
+                            words[i], document.metadata().copy().put("index", String.valueOf(i))))
+                    .toList();
+        });
+        TextSegmentTransformer childTextSegmentTransformer = mock(TextSegmentTransformer.class);
+        when(childTextSegmentTransformer.transform(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        EmbeddingModel embeddingModel = mock(EmbeddingModel.class);
+        when(embeddingModel.embedAll(any())).thenAnswer(invocation -> {
+            List<TextSegment> segments = invocation.getArgument(0);
+            List<Embedding> embeddings = segments.stream()
+                    .map(segment -> Embedding.from(new float[] {segment.text().length()}))
+                    .toList();
+            return Response.from(embeddings, new TokenUsage(segments.size(), 0));
+        });
+
+        EmbeddingStore<TextSegment> embeddingStore = mock(EmbeddingStore.class);
+
+        ParentChildEmbeddingStoreIngestor ingestor = ParentChildEmbeddingStoreIngestor.builder()
+                .embeddingModel(embeddingModel)
+                .embeddingStore(embeddingStore)
+                .documentChildSplitter(documentChildSplitter)
+                .childTextSegmentTransformer(childTextSegmentTransformer)
+                .executor(Runnable::run)
+                .embeddingBatchSize(2)
+                .fingerprintIndex(new InMemorySegmentFingerprintIndex())
+                .documentIdKey("doc_id")
+                .build();
+
+        IngestionResult initialIngestionResult =
+                ingestor.ingest(Document.from("a b c", Metadata.from("doc_id", "first")));
+        assertThat(initialIngestionResult.tokenUsage().inputTokenCount()).isEqualTo(3);
+        ArgumentCaptor<List<TextSegment>> batches = ArgumentCaptor.forClass(List.class);
+        verify(embeddingModel, times(2)).embedAll(batches.capture());
+        assertThat(batches.getAllValues()).extracting(List::size).containsExactly(2, 1);
+        clearInvocations(embeddingModel, embeddingStore);
+
+        // when
+        IngestionResult ingestionResult = ingestor.ingest(Document.from("z a b c", Metadata.from("doc_id", "first")));
+
+        // then
+        assertThat(ingestionResult.tokenUsage().inputTokenCount()).isEqualTo(1);
+        Metadata insertedSegmentMetadata = Metadata.from("doc_id", "first").put("index", "0");
+        verify(embeddingModel).embedAll(List.of(TextSegment.from("z", insertedSegmentMetadata)));
+        verifyNoMoreInteractions(embeddingModel);
+        verify(embeddingStore).addAll(anyList(), anyList(), anyList());
+        verifyNoMoreInteractions(embeddingStore);
+    }
+
+    @Test
+    void should_fail_incremental_ingestion_when_document_id_is_missing() {
+
+        // given
+        EmbeddingStore<TextSegment> embeddingStore = mock(EmbeddingStore.class);
+        ParentChildEmbeddingStoreIngestor ingestor = ParentChildEmbeddingStoreIngestor.builder()
+                .embeddingModel(mock(EmbeddingModel.class))
+                .embeddingStore(embeddingStore)
+                .fingerprintIndex(new InMemorySegmentFingerprintIndex())
+                .documentIdKey("doc_id")
+                .build();
+
+        // when-then
+        assertThatThrownBy(() -> ingestor.ingest(Document.from("text")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("doc_id");
+        verifyNoMoreInteractions(embeddingStore);
+    }
 }
@@ -0,0 +1,149 @@
+package dev.langchain4j.community.model.embedding;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.output.Response;
+import dev.langchain4j.model.output.TokenUsage;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class CoalescingEmbeddingModelTest {
+
+    private final ExecutorService callers = Executors.newFixedThreadPool(4);
+
+    @AfterEach
+    void afterEach() {
+        callers.shutdownNow();
+    }
+
+    @Test
+    void should_send_concurrent_calls_as_one_batch() {
+        // given
+        List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+        EmbeddingModel delegate = textSegments -> {
+            batchSizes.add(textSegments.size());
+            List<Embedding> embeddings = new ArrayList<>();
+            for (TextSegment textSegment : textSegments) {
+                embeddings.add(Embedding.from(new float[] {textSegment.text().length()}));
+            }
+            return Response.from(embeddings, new TokenUsage(textSegments.size() * 10));
+        };
+        CoalescingEmbeddingModel model = CoalescingEmbeddingModel.builder()
+                .delegate(delegate)
+                .maxBatchSize(4)
+                .maxWait(Duration.ofSeconds(5))
+                .build();
+
+        // when
+        List<CompletableFuture<Response<Embedding>>> responses = new ArrayList<>();
+        for (String text : List.of("a", "bb", "ccc", "dddd")) {
+            responses.add(CompletableFuture.supplyAsync(() -> model.embed(text), callers));
+        }
+
+        // then
+        assertThat(responses)
+                .extracting(response -> response.join().content().vector()[0])
+                .containsExactly(1f, 2f, 3f, 4f);
+        assertThat(responses)
+                .extracting(response -> response.join().tokenUsage().inputTokenCount())
+                .containsExactly(4, 8, 12, 16);
+        assertThat(batchSizes).containsExactly(4);
+        assertThat(model.stats().batchSizeHistogram()).isEqualTo(Map.of(4, 1L));
+        assertThat(model.stats().requestCount()).isEqualTo(4);
+    }
+
+    @Test
+    void should_send_single_call_when_wait_elapses() {
+        // given
+        EmbeddingModel delegate =
+                textSegments -> Response.from(List.of(Embedding.from(new float[] {1, 2})), new TokenUsage(3));
+        CoalescingEmbeddingModel model = CoalescingEmbeddingModel.builder()
+                .delegate(delegate)
+                .maxWait(Duration.ofMillis(20))
+                .build();
+
+        // when
+        Response<Embedding> response = model.embed("text");
+
+        // then
+        assertThat(response.content().vector()).containsExactly(1, 2);
+        assertThat(response.tokenUsage().inputTokenCount()).isEqualTo(3);
+        assertThat(model.stats().batchCount()).isEqualTo(1);
+    }
+
+    @Test
+    void should_propagate_delegate_failure_to_callers() {
+        // given
+        EmbeddingModel delegate = textSegments -> {
+            throw new IllegalStateException("provider is down");
+        };
+        CoalescingEmbeddingModel model = CoalescingEmbeddingModel.builder()
+                .delegate(delegate)
+                .maxWait(Duration.ZERO)
+                .build();
+
+        // when-then
+        assertThatThrownBy(() -> model.embed("text"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("provider is down");
+        assertThat(model.stats().failedBatchCount()).isEqualTo(1);
+    }
+
+    @Test
+    void should_propagate_delegate_error_to_callers() {
+        // given
+        EmbeddingModel delegate = textSegments -> {
+            throw new AssertionError("unexpected response");
+        };
+        CoalescingEmbeddingModel model = CoalescingEmbeddingModel.builder()
+                .delegate(delegate)
+                .maxWait(Duration.ZERO)
+                .build();
+
+        // when-then
+        assertThatThrownBy(() -> model.embed("text"))
+                .isInstanceOf(AssertionError.class)
+                .hasMessage("unexpected response");
+        assertThat(model.stats().failedBatchCount()).isEqualTo(1);
+        model.close();
+    }
+
+    @Test
+    void should_split_token_usage_proportionally_to_text_length() {
+        // given
+        List<TextSegment> textSegments =
+                List.of(TextSegment.from("a"), TextSegment.from("bbbb"), TextSegment.from("ccccc"));
+
+        // when
+        List<TokenUsage> parts = CoalescingEmbeddingModel.splitTokenUsage(new TokenUsage(7), textSegments);
+
+        // then
+        assertThat(parts).extracting(TokenUsage::inputTokenCount).containsExactly(1, 3, 3);
+    }
+
+    @Test
+    void should_reject_calls_when_closed() {
+        // given
+        CoalescingEmbeddingModel model = CoalescingEmbeddingModel.builder()
+                .delegate(textSegments -> Response.from(List.of()))
+                .build();
+
+        // when
+        model.close();
+
+        // then
+        assertThatThrownBy(() -> model.embed("text")).isInstanceOf(IllegalStateException.class);
+    }
+}
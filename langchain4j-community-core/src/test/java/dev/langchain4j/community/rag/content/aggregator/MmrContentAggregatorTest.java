@@ -9,14 +9,19 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
+import dev.langchain4j.community.rag.content.EmbeddedContent;
 import dev.langchain4j.community.rag.content.aggregator.strategy.EmbeddingStrategy;
 import dev.langchain4j.community.rag.content.aggregator.strategy.GenerateEmbeddings;
 import dev.langchain4j.community.rag.content.aggregator.strategy.HybridEmbeddings;
 import dev.langchain4j.community.rag.content.aggregator.strategy.UseExistingEmbeddings;
 import dev.langchain4j.community.rag.content.util.EmbeddingMetadataUtils;
+import dev.langchain4j.community.rag.listener.RagStage;
+import dev.langchain4j.community.rag.listener.RagStageEvent;
 import dev.langchain4j.data.embedding.Embedding;
 import dev.langchain4j.data.segment.TextSegment;
 import dev.langchain4j.model.embedding.EmbeddingModel;
@@ -30,6 +35,9 @@ import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.function.Function;
 import java.util.stream.Stream;
 import org.junit.jupiter.api.Test;
@@ -719,4 +727,144 @@ class MmrContentAggregatorTest {
         // then
         assertThat(aggregated).hasSize(1);
     }
+
+    @Test
+    void should_apply_mmr_per_query_concurrently_when_executor_is_configured() {
+        // given
+        Query query1 = Query.from("first query");
+        Query query2 = Query.from("second query");
+
+        Content shared = Content.from("shared content");
+        Content content1 = Content.from("content 1");
+        Content content2 = Content.from("content 2");
+
+        Map<Query, Collection<List<Content>>> queryToContents = new LinkedHashMap<>();
+        queryToContents.put(query1, singletonList(asList(shared, content1)));
+        queryToContents.put(query2, singletonList(asList(shared, content2)));
+
+        EmbeddingModel embeddingModel = mock(EmbeddingModel.class);
+        when(embeddingModel.embed(query1.text()))
+                .thenReturn(Response.from(Embedding.from(new float[] {1.0f, 0.0f, 0.0f})));
+        when(embeddingModel.embed(query2.text()))
+                .thenReturn(Response.from(Embedding.from(new float[] {0.0f, 1.0f, 0.0f})));
+        when(embeddingModel.embedAll(asList(shared.textSegment(), content1.textSegment(), content2.textSegment())))
+                .thenReturn(Response.from(asList(
+                        Embedding.from(new float[] {0.7f, 0.7f, 0.0f}),
+                        Embedding.from(new float[] {1.0f, 0.0f, 0.1f}),
+                        Embedding.from(new float[] {0.0f, 1.0f, 0.1f}))));
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            MmrContentAggregator aggregator = MmrContentAggregator.builder()
+                    .embeddingModel(embeddingModel)
+                    .maxResults(2)
+                    .executor(executor)
+                    .build();
+
+            // when
+            List<Content> aggregated = aggregator.aggregate(queryToContents);
+
+            // then
+            assertThat(aggregated).hasSize(2);
+            assertThat(aggregated.get(0)).isEqualTo(shared); // selected for both queries
+            verify(embeddingModel, times(1)).embedAll(any());
+            verify(embeddingModel).embed(query1.text());
+            verify(embeddingModel).embed(query2.text());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void should_report_content_embedding_once_when_executor_is_configured() {
+        // given
+        Query query1 = Query.from("first query");
+        Query query2 = Query.from("second query");
+        Content content1 = Content.from("content 1");
+        Content content2 = Content.from("content 2");
+
+        Map<Query, Collection<List<Content>>> queryToContents = new LinkedHashMap<>();
+        queryToContents.put(query1, singletonList(singletonList(content1)));
+        queryToContents.put(query2, singletonList(singletonList(content2)));
+
+        EmbeddingModel embeddingModel = mock(EmbeddingModel.class);
+        when(embeddingModel.embed(any(String.class)))
+                .thenReturn(Response.from(Embedding.from(new float[] {1.0f, 0.0f})));
+        when(embeddingModel.embedAll(any()))
+                .thenReturn(Response.from(asList(
+                        Embedding.from(new float[] {1.0f, 0.0f}), Embedding.from(new float[] {0.0f, 1.0f}))));
+
+        List<RagStageEvent> events = new CopyOnWriteArrayList<>();
+        MmrContentAggregator aggregator = MmrContentAggregator.builder()
+                .embeddingModel(embeddingModel)
+                .executor(Runnable::run)
+                .listeners(List.of(events::add))
+                .build();
+
+        // when
+        aggregator.aggregate(queryToContents);
+
+        // then
+        assertThat(events)
+                .extracting(RagStageEvent::stage)
+                .containsExactly(RagStage.CONTENT_EMBEDDING, RagStage.MMR_SELECTION, RagStage.MMR_SELECTION);
+        assertThat(events.get(0).attribute(RagStageEvent.BATCH_SIZE)).isEqualTo(2);
+        assertThat(events.get(0).attribute(RagStageEvent.CANDIDATE_COUNT)).isEqualTo(2);
+    }
+
+    @Test
+    void should_propagate_failure_of_concurrent_query() {
+        // given
+        Query query = Query.from("failing query");
+        Map<Query, Collection<List<Content>>> queryToContents =
+                singletonMap(query, singletonList(singletonList(Content.from("content"))));
+
+        EmbeddingModel embeddingModel = mock(EmbeddingModel.class);
+        when(embeddingModel.embedAll(any()))
+                .thenReturn(Response.from(singletonList(Embedding.from(new float[] {1.0f, 0.0f}))));
+        when(embeddingModel.embed(query.text())).thenThrow(new IllegalStateException("embedding failed"));
+
+        MmrContentAggregator aggregator = MmrContentAggregator.builder()
+                .embeddingModel(embeddingModel)
+                .executor(Runnable::run)
+                .build();
+
+        // when-then
+        assertThatThrownBy(() -> aggregator.aggregate(queryToContents))
+                .isExactlyInstanceOf(IllegalStateException.class)
+                .hasMessage("embedding failed");
+    }
+
+    @Test
+    void should_use_embeddings_carried_by_embedded_contents_without_calling_model() {
+        // given
+        Query query = Query.from("test query");
+        Embedding queryEmbedding = Embedding.from(new float[] {1.0f, 0.0f, 0.0f});
+        Content content1 = new EmbeddedContent(
+                TextSegment.from("relevant"),
+                emptyMap(),
+                Embedding.from(new float[] {0.9f, 0.1f, 0.0f}),
+                queryEmbedding);
+        Content content2 = new EmbeddedContent(
+                TextSegment.from("less relevant"),
+                emptyMap(),
+                Embedding.from(new float[] {0.1f, 0.9f, 0.0f}),
+                queryEmbedding);
+
+        Map<Query, Collection<List<Content>>> queryToContents =
+                singletonMap(query, singletonList(asList(content2, content1)));
+
+        EmbeddingModel embeddingModel = mock(EmbeddingModel.class);
+        MmrContentAggregator aggregator = MmrContentAggregator.builder()
+                .embeddingModel(embeddingModel)
+                .maxResults(1)
+                .build();
+
+        // when
+        List<Content> aggregated = aggregator.aggregate(queryToContents);
+
+        // then
+        assertThat(aggregated).containsExactly(content1);
+        verifyNoInteractions(embeddingModel);
+    }
 }
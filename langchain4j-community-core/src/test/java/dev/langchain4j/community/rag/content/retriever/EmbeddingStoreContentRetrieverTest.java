@@ -6,15 +6,22 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
 
+import dev.langchain4j.community.rag.content.EmbeddedContent;
 import dev.langchain4j.community.rag.content.util.EmbeddingMetadataUtils;
+import dev.langchain4j.community.rag.listener.RagStage;
+import dev.langchain4j.community.rag.listener.RagStageEvent;
+import dev.langchain4j.community.store.embedding.AsyncEmbeddingSearch;
 import dev.langchain4j.data.embedding.Embedding;
 import dev.langchain4j.data.segment.TextSegment;
 import dev.langchain4j.model.embedding.EmbeddingModel;
 import dev.langchain4j.model.output.Response;
+import dev.langchain4j.rag.content.Content;
 import dev.langchain4j.rag.content.retriever.ContentRetriever;
 import dev.langchain4j.rag.query.Query;
 import dev.langchain4j.store.embedding.EmbeddingMatch;
@@ -22,6 +29,11 @@ import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
 import dev.langchain4j.store.embedding.EmbeddingSearchResult;
 import dev.langchain4j.store.embedding.EmbeddingStore;
 import dev.langchain4j.store.embedding.filter.Filter;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -377,7 +389,11 @@ class EmbeddingStoreContentRetrieverTest {
     @Test
     void should_enrich_segments_with_embeddings_when_metadata_available() {
         // given
-        ContentRetriever contentRetriever = new EmbeddingStoreContentRetriever(EMBEDDING_STORE, EMBEDDING_MODEL);
+        ContentRetriever contentRetriever = EmbeddingStoreContentRetriever.builder()
+                .embeddingStore(EMBEDDING_STORE)
+                .embeddingModel(EMBEDDING_MODEL)
+                .embeddingsInMetadata(true)
+                .build();
 
         // when
         var contents = contentRetriever.retrieve(QUERY);
@@ -401,7 +417,11 @@ class EmbeddingStoreContentRetrieverTest {
     @Test
     void should_extract_embeddings_when_from_metadata() {
         // given
-        ContentRetriever contentRetriever = new EmbeddingStoreContentRetriever(EMBEDDING_STORE, EMBEDDING_MODEL);
+        ContentRetriever contentRetriever = EmbeddingStoreContentRetriever.builder()
+                .embeddingStore(EMBEDDING_STORE)
+                .embeddingModel(EMBEDDING_MODEL)
+                .embeddingsInMetadata(true)
+                .build();
 
         // when
         var contents = contentRetriever.retrieve(QUERY);
@@ -422,7 +442,11 @@ class EmbeddingStoreContentRetrieverTest {
     @Test
     void should_detect_embeddings_presence_when_in_metadata() {
         // given
-        ContentRetriever contentRetriever = new EmbeddingStoreContentRetriever(EMBEDDING_STORE, EMBEDDING_MODEL);
+        ContentRetriever contentRetriever = EmbeddingStoreContentRetriever.builder()
+                .embeddingStore(EMBEDDING_STORE)
+                .embeddingModel(EMBEDDING_MODEL)
+                .embeddingsInMetadata(true)
+                .build();
 
         // when
         var contents = contentRetriever.retrieve(QUERY);
@@ -451,7 +475,11 @@ class EmbeddingStoreContentRetrieverTest {
     @Test
     void should_store_embeddings_as_base64_strings_when_in_metadata() {
         // given
-        ContentRetriever contentRetriever = new EmbeddingStoreContentRetriever(EMBEDDING_STORE, EMBEDDING_MODEL);
+        ContentRetriever contentRetriever = EmbeddingStoreContentRetriever.builder()
+                .embeddingStore(EMBEDDING_STORE)
+                .embeddingModel(EMBEDDING_MODEL)
+                .embeddingsInMetadata(true)
+                .build();
 
         // when
         var contents = contentRetriever.retrieve(QUERY);
@@ -475,4 +503,136 @@ class EmbeddingStoreContentRetrieverTest {
         var reconstructedQuery = EmbeddingMetadataUtils.extractQueryEmbedding(enrichedSegment);
         assertThat(reconstructedQuery.vector()).isEqualTo(EMBEDDING.vector());
     }
+
+    @Test
+    void should_carry_embeddings_by_reference_when_not_stored_in_metadata() {
+        // given
+        ContentRetriever contentRetriever = new EmbeddingStoreContentRetriever(EMBEDDING_STORE, EMBEDDING_MODEL);
+
+        // when
+        var contents = contentRetriever.retrieve(QUERY);
+
+        // then
+        assertThat(contents).hasSize(2).allSatisfy(content -> {
+            assertThat(content).isInstanceOf(EmbeddedContent.class);
+            assertThat(((EmbeddedContent) content).embedding()).isSameAs(EMBEDDING);
+            assertThat(((EmbeddedContent) content).queryEmbedding()).isSameAs(EMBEDDING);
+            assertThat(content.textSegment().metadata().toMap())
+                    .doesNotContainKeys("embedding", "queryEmbedding");
+            assertThat(EmbeddedContent.documentEmbeddingOf(content)).isSameAs(EMBEDDING);
+            assertThat(EmbeddedContent.queryEmbeddingOf(content)).isSameAs(EMBEDDING);
+        });
+        assertThat(contents.get(0).textSegment()).isEqualTo(TextSegment.from("content 1"));
+    }
+
+    @Test
+    void should_fall_back_to_metadata_when_content_is_not_embedded() {
+        // given
+        var enrichedSegment =
+                EmbeddingMetadataUtils.enrichSegmentWithEmbeddings(TextSegment.from("content"), EMBEDDING, EMBEDDING);
+        var content = Content.from(enrichedSegment);
+
+        // when-then
+        assertThat(EmbeddedContent.documentEmbeddingOf(content).vector()).isEqualTo(EMBEDDING.vector());
+        assertThat(EmbeddedContent.queryEmbeddingOf(content).vector()).isEqualTo(EMBEDDING.vector());
+        assertThat(EmbeddedContent.documentEmbeddingOf(Content.from("plain"))).isNull();
+    }
+
+    @Test
+    void should_embed_repeated_query_once_when_query_embedding_cache_configured() {
+        // given
+        QueryEmbeddingCache cache = QueryEmbeddingCache.builder().build();
+        ContentRetriever contentRetriever = EmbeddingStoreContentRetriever.builder()
+                .embeddingStore(EMBEDDING_STORE)
+                .embeddingModel(EMBEDDING_MODEL)
+                .queryEmbeddingCache(cache)
+                .build();
+
+        // when
+        contentRetriever.retrieve(QUERY);
+        contentRetriever.retrieve(QUERY);
+
+        // then
+        verify(EMBEDDING_MODEL).embed(QUERY.text());
+        verifyNoMoreInteractions(EMBEDDING_MODEL);
+        assertThat(cache.stats().hitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void should_retrieve_content_asynchronously_on_executor() {
+        // given
+        AtomicInteger executedTasks = new AtomicInteger();
+        Executor executor = task -> {
+            executedTasks.incrementAndGet();
+            task.run();
+        };
+        EmbeddingStoreContentRetriever contentRetriever = EmbeddingStoreContentRetriever.builder()
+                .embeddingStore(EMBEDDING_STORE)
+                .embeddingModel(EMBEDDING_MODEL)
+                .executor(executor)
+                .build();
+
+        // when
+        List<Content> contents = contentRetriever.retrieveAsync(QUERY).join();
+
+        // then
+        assertThat(contents).isEqualTo(contentRetriever.retrieve(QUERY));
+        // one task embeds the query, another one searches the blocking store
+        assertThat(executedTasks).hasValue(2);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void should_use_native_async_search_when_store_supports_it() {
+        // given
+        EmbeddingStore<TextSegment> asyncStore =
+                mock(EmbeddingStore.class, withSettings().extraInterfaces(AsyncEmbeddingSearch.class));
+        EmbeddingSearchResult<TextSegment> searchResult = new EmbeddingSearchResult<>(
+                List.of(new EmbeddingMatch<>(0.9, "id 1", EMBEDDING, TextSegment.from("content 1"))));
+        when(((AsyncEmbeddingSearch<TextSegment>) asyncStore).searchAsync(any()))
+                .thenReturn(CompletableFuture.completedFuture(searchResult));
+        EmbeddingStoreContentRetriever contentRetriever = EmbeddingStoreContentRetriever.builder()
+                .embeddingStore(asyncStore)
+                .embeddingModel(EMBEDDING_MODEL)
+                .executor(Runnable::run)
+                .build();
+
+        // when
+        List<Content> contents = contentRetriever.retrieveAsync(QUERY).join();
+
+        // then
+        assertThat(contents).extracting(content -> content.textSegment().text()).containsExactly("content 1");
+        verify(asyncStore, never()).search(any());
+    }
+
+    @Test
+    void should_notify_listeners_of_retrieval_stages() {
+        // given
+        List<RagStageEvent> events = new CopyOnWriteArrayList<>();
+        EmbeddingStoreContentRetriever contentRetriever = EmbeddingStoreContentRetriever.builder()
+                .embeddingStore(EMBEDDING_STORE)
+                .embeddingModel(EMBEDDING_MODEL)
+                .listeners(List.of(events::add))
+                .build();
+
+        // when
+        contentRetriever.retrieve(QUERY);
+        contentRetriever.retrieveAsync(QUERY).join();
+
+        // then
+        assertThat(events)
+                .extracting(RagStageEvent::stage)
+                .containsExactly(
+                        RagStage.QUERY_EMBEDDING,
+                        RagStage.EMBEDDING_STORE_SEARCH,
+                        RagStage.QUERY_EMBEDDING,
+                        RagStage.EMBEDDING_STORE_SEARCH);
+        RagStageEvent searchEvent = events.get(1);
+        assertThat(searchEvent.component()).isEqualTo(EmbeddingStoreContentRetriever.class);
+        assertThat(searchEvent.failed()).isFalse();
+        assertThat(searchEvent.duration()).isNotNegative();
+        assertThat(searchEvent.attribute(RagStageEvent.RESULT_COUNT)).isEqualTo(2);
+        assertThat(searchEvent.attribute(RagStageEvent.STORE_CLASS))
+                .isEqualTo(EMBEDDING_STORE.getClass().getName());
+    }
 }
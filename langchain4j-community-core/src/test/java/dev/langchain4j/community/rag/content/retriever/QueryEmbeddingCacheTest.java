@@ -0,0 +1,181 @@
+package dev.langchain4j.community.rag.content.retriever;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import dev.langchain4j.data.embedding.Embedding;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import org.junit.jupiter.api.Test;
+
+class QueryEmbeddingCacheTest {
+
+    private static final Embedding EMBEDDING = Embedding.from(new float[] {1f, 2f, 3f});
+
+    @Test
+    void should_return_cached_embedding_on_second_lookup() {
+        // given
+        QueryEmbeddingCache cache = QueryEmbeddingCache.builder().build();
+        CountingLoader loader = new CountingLoader();
+
+        // when
+        Embedding first = cache.get("query", loader);
+        Embedding second = cache.get("query", loader);
+
+        // then
+        assertThat(first).isSameAs(EMBEDDING);
+        assertThat(second).isSameAs(EMBEDDING);
+        assertThat(loader.calls.get()).isEqualTo(1);
+        assertThat(cache.stats().hitCount()).isEqualTo(1);
+        assertThat(cache.stats().missCount()).isEqualTo(1);
+        assertThat(cache.stats().loadCount()).isEqualTo(1);
+        assertThat(cache.stats().hitRate()).isEqualTo(0.5);
+    }
+
+    @Test
+    void should_evict_least_recently_used_entry_when_max_size_is_reached() {
+        // given
+        QueryEmbeddingCache cache = QueryEmbeddingCache.builder().maxSize(2).build();
+        CountingLoader loader = new CountingLoader();
+        cache.get("a", loader);
+        cache.get("b", loader);
+        cache.get("a", loader); // "b" becomes the least recently used
+
+        // when
+        cache.get("c", loader);
+        cache.get("a", loader);
+        cache.get("b", loader);
+
+        // then
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(loader.calls.get()).isEqualTo(4);
+        assertThat(cache.stats().evictionCount()).isEqualTo(2);
+    }
+
+    @Test
+    void should_expire_entries_after_ttl() {
+        // given
+        AtomicLong now = new AtomicLong();
+        QueryEmbeddingCache cache = QueryEmbeddingCache.builder()
+                .ttl(Duration.ofSeconds(10))
+                .ticker(now::get)
+                .build();
+        CountingLoader loader = new CountingLoader();
+        cache.get("query", loader);
+
+        // when
+        now.addAndGet(Duration.ofSeconds(9).toNanos());
+        cache.get("query", loader);
+        now.addAndGet(Duration.ofSeconds(2).toNanos());
+        cache.get("query", loader);
+
+        // then
+        assertThat(loader.calls.get()).isEqualTo(2);
+        assertThat(cache.stats().evictionCount()).isEqualTo(1);
+    }
+
+    @Test
+    void should_share_entries_between_texts_with_same_normalized_key() {
+        // given
+        QueryEmbeddingCache cache = QueryEmbeddingCache.builder()
+                .keyNormalizer(text -> text.strip().toLowerCase())
+                .build();
+        CountingLoader loader = new CountingLoader();
+
+        // when
+        cache.get("What is AI?", loader);
+        cache.get("  what is ai? ", loader);
+
+        // then
+        assertThat(loader.calls.get()).isEqualTo(1);
+        assertThat(loader.texts).containsExactly("What is AI?");
+    }
+
+    @Test
+    void should_not_cache_failures() {
+        // given
+        QueryEmbeddingCache cache = QueryEmbeddingCache.builder().build();
+
+        // when-then
+        assertThatThrownBy(() -> cache.get("query", text -> {
+                    throw new IllegalStateException("model unavailable");
+                }))
+                .isExactlyInstanceOf(IllegalStateException.class)
+                .hasMessage("model unavailable");
+        assertThat(cache.get("query", new CountingLoader())).isSameAs(EMBEDDING);
+        assertThat(cache.stats().loadFailureCount()).isEqualTo(1);
+    }
+
+    @Test
+    void should_compute_embedding_once_for_concurrent_identical_queries() throws Exception {
+        // given
+        QueryEmbeddingCache cache = QueryEmbeddingCache.builder().build();
+        CountDownLatch loadStarted = new CountDownLatch(1);
+        CountDownLatch releaseLoad = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        Function<String, Embedding> slowLoader = text -> {
+            calls.incrementAndGet();
+            loadStarted.countDown();
+            try {
+                releaseLoad.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return EMBEDDING;
+        };
+
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Embedding>> futures = new ArrayList<>();
+            futures.add(executor.submit(() -> cache.get("query", slowLoader)));
+            assertThat(loadStarted.await(5, TimeUnit.SECONDS)).isTrue();
+            for (int i = 1; i < threads; i++) {
+                futures.add(executor.submit(() -> cache.get("query", slowLoader)));
+            }
+
+            // when
+            Thread.sleep(100); // let the other lookups join the ongoing load
+            releaseLoad.countDown();
+
+            // then
+            for (Future<Embedding> future : futures) {
+                assertThat(future.get(5, TimeUnit.SECONDS)).isSameAs(EMBEDDING);
+            }
+            assertThat(calls.get()).isEqualTo(1);
+            assertThat(cache.stats().loadCount()).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void should_reject_invalid_configuration() {
+        assertThatThrownBy(() -> QueryEmbeddingCache.builder().maxSize(0).build())
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> QueryEmbeddingCache.builder().ttl(Duration.ZERO).build())
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static class CountingLoader implements Function<String, Embedding> {
+
+        private final AtomicInteger calls = new AtomicInteger();
+        private final List<String> texts = new ArrayList<>();
+
+        @Override
+        public Embedding apply(String text) {
+            calls.incrementAndGet();
+            texts.add(text);
+            return EMBEDDING;
+        }
+    }
+}
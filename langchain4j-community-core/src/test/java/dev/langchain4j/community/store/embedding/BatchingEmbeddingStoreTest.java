@@ -0,0 +1,238 @@
+package dev.langchain4j.community.store.embedding;
+
+import static dev.langchain4j.store.embedding.filter.MetadataFilterBuilder.metadataKey;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import dev.langchain4j.data.document.Metadata;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
+import dev.langchain4j.store.embedding.EmbeddingStore;
+import dev.langchain4j.store.embedding.filter.Filter;
+import dev.langchain4j.store.embedding.inmemory.InMemoryEmbeddingStore;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+class BatchingEmbeddingStoreTest {
+
+    private InMemoryEmbeddingStore<TextSegment> delegate;
+
+    @BeforeEach
+    void beforeEach() {
+        delegate = spy(new InMemoryEmbeddingStore<>());
+    }
+
+    @Test
+    void should_write_single_additions_as_one_batch_when_flushed() {
+        // given
+        BatchingEmbeddingStore<TextSegment> store = BatchingEmbeddingStore.<TextSegment>builder()
+                .delegate(delegate)
+                .maxBatchSize(10)
+                .build();
+
+        // when
+        store.add(Embedding.from(new float[] {1, 0}), TextSegment.from("first"));
+        store.add(Embedding.from(new float[] {0, 1}), TextSegment.from("second"));
+        store.add(Embedding.from(new float[] {1, 1}), TextSegment.from("third"));
+
+        // then
+        verify(delegate, never()).addAll(anyList(), anyList(), anyList());
+        assertThat(store.pendingCount()).isEqualTo(3);
+
+        // when
+        store.flush();
+
+        // then
+        verify(delegate).addAll(anyList(), anyList(), anyList());
+        assertThat(store.pendingCount()).isZero();
+        assertThat(search(delegate, new float[] {1, 0}, 3)).hasSize(3);
+    }
+
+    @Test
+    void should_write_batch_in_background_when_full() {
+        // given
+        BatchingEmbeddingStore<TextSegment> store = BatchingEmbeddingStore.<TextSegment>builder()
+                .delegate(delegate)
+                .maxBatchSize(2)
+                .build();
+
+        // when
+        store.add(Embedding.from(new float[] {1, 0}), TextSegment.from("first"));
+        store.add(Embedding.from(new float[] {0, 1}), TextSegment.from("second"));
+
+        // then
+        verify(delegate, timeout(5_000)).addAll(anyList(), anyList(), anyList());
+    }
+
+    @Test
+    void should_find_pending_entries_when_searching() {
+        // given
+        BatchingEmbeddingStore<TextSegment> store = BatchingEmbeddingStore.<TextSegment>builder()
+                .delegate(delegate)
+                .maxBatchSize(10)
+                .build();
+        delegate.add(Embedding.from(new float[] {0, 1}), TextSegment.from("stored", Metadata.from("lang", "en")));
+        store.add(Embedding.from(new float[] {1, 0}), TextSegment.from("pending", Metadata.from("lang", "en")));
+        store.add(Embedding.from(new float[] {1, 0.1f}), TextSegment.from("filtered out", Metadata.from("lang", "fr")));
+
+        // when
+        List<EmbeddingMatch<TextSegment>> matches = store.search(EmbeddingSearchRequest.builder()
+                        .queryEmbedding(Embedding.from(new float[] {1, 0}))
+                        .maxResults(5)
+                        .filter(metadataKey("lang").isEqualTo("en"))
+                        .build())
+                .matches();
+
+        // then
+        assertThat(matches).extracting(match -> match.embedded().text()).containsExactly("pending", "stored");
+        assertThat(store.pendingCount()).isEqualTo(2);
+    }
+
+    @Test
+    void should_find_pending_version_instead_of_stored_one_when_id_is_updated() {
+        // given
+        BatchingEmbeddingStore<TextSegment> store = BatchingEmbeddingStore.<TextSegment>builder()
+                .delegate(delegate)
+                .maxBatchSize(10)
+                .build();
+        delegate.addAll(
+                List.of("updated", "other"),
+                List.of(Embedding.from(new float[] {1, 0}), Embedding.from(new float[] {1, 0.2f})),
+                List.of(
+                        TextSegment.from("old", Metadata.from("lang", "en")),
+                        TextSegment.from("other", Metadata.from("lang", "en"))));
+
+        // when
+        store.addAll(
+                List.of("updated"),
+                List.of(Embedding.from(new float[] {0, 1})),
+                List.of(TextSegment.from("new", Metadata.from("lang", "fr"))));
+        List<EmbeddingMatch<TextSegment>> matches = search(store, new float[] {1, 0}, null, 2);
+        List<EmbeddingMatch<TextSegment>> filteredMatches =
+                search(store, new float[] {1, 0}, metadataKey("lang").isEqualTo("en"), 2);
+
+        // then
+        assertThat(matches).extracting(match -> match.embedded().text()).containsExactly("other", "new");
+        assertThat(matches.get(1).embedding()).isEqualTo(Embedding.from(new float[] {0, 1}));
+        assertThat(filteredMatches).extracting(match -> match.embedded().text()).containsExactly("other");
+        assertThat(store.pendingCount()).isEqualTo(1);
+    }
+
+    @Test
+    void should_reject_additions_when_buffer_is_full_and_policy_is_reject() {
+        // given
+        BatchingEmbeddingStore<TextSegment> store = BatchingEmbeddingStore.<TextSegment>builder()
+                .delegate(delegate)
+                .maxBatchSize(10)
+                .maxBufferSize(1)
+                .overflowPolicy(BatchingEmbeddingStore.OverflowPolicy.REJECT)
+                .build();
+        store.add(Embedding.from(new float[] {1, 0}));
+
+        // when-then
+        assertThatThrownBy(() -> store.add(Embedding.from(new float[] {0, 1})))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("full");
+    }
+
+    @Test
+    @Timeout(10)
+    void should_fail_blocked_addition_when_delegate_keeps_failing() {
+        // given
+        doThrow(new IllegalStateException("delegate unavailable"))
+                .when(delegate)
+                .addAll(anyList(), anyList(), anyList());
+        BatchingEmbeddingStore<TextSegment> store = BatchingEmbeddingStore.<TextSegment>builder()
+                .delegate(delegate)
+                .maxBatchSize(10)
+                .maxBufferSize(1)
+                .overflowPolicy(BatchingEmbeddingStore.OverflowPolicy.BLOCK)
+                .build();
+        store.add(Embedding.from(new float[] {1, 0}), TextSegment.from("first"));
+
+        // when-then
+        assertThatThrownBy(() -> store.add(Embedding.from(new float[] {0, 1}), TextSegment.from("second")))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("fails")
+                .hasRootCauseMessage("delegate unavailable");
+        assertThat(store.pendingCount()).isEqualTo(1);
+    }
+
+    @Test
+    void should_only_write_remaining_entries_again_when_write_partially_failed() {
+        // given
+        doThrow(new IllegalStateException("delegate unavailable"))
+                .doCallRealMethod()
+                .when(delegate)
+                .addAll(anyList(), anyList(), isNull());
+        BatchingEmbeddingStore<TextSegment> store = BatchingEmbeddingStore.<TextSegment>builder()
+                .delegate(delegate)
+                .maxBatchSize(10)
+                .build();
+        store.add(Embedding.from(new float[] {1, 0}), TextSegment.from("with text"));
+        store.add(Embedding.from(new float[] {0, 1}));
+        assertThatThrownBy(store::flush).hasMessage("delegate unavailable");
+        assertThat(store.pendingCount()).isEqualTo(1);
+
+        // when
+        store.flush();
+
+        // then
+        verify(delegate).addAll(anyList(), anyList(), anyList());
+        verify(delegate, times(2)).addAll(anyList(), anyList(), isNull());
+        assertThat(store.pendingCount()).isZero();
+        assertThat(search(delegate, new float[] {1, 1}, 3)).hasSize(2);
+    }
+
+    @Test
+    void should_flush_pending_entries_and_reject_additions_when_closed() {
+        // given
+        BatchingEmbeddingStore<TextSegment> store = BatchingEmbeddingStore.<TextSegment>builder()
+                .delegate(delegate)
+                .maxBatchSize(10)
+                .build();
+        String id = store.add(Embedding.from(new float[] {1, 0}));
+
+        // when
+        store.close();
+
+        // then
+        assertThat(search(delegate, new float[] {1, 0}, 1))
+                .extracting(EmbeddingMatch::embeddingId)
+                .containsExactly(id);
+        assertThatThrownBy(() -> store.add(Embedding.from(new float[] {0, 1})))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    private static List<EmbeddingMatch<TextSegment>> search(
+            EmbeddingStore<TextSegment> store, float[] vector, Filter filter, int maxResults) {
+        return store.search(EmbeddingSearchRequest.builder()
+                        .queryEmbedding(Embedding.from(vector))
+                        .maxResults(maxResults)
+                        .filter(filter)
+                        .build())
+                .matches();
+    }
+
+    private static List<EmbeddingMatch<TextSegment>> search(
+            InMemoryEmbeddingStore<TextSegment> store, float[] vector, int maxResults) {
+        return store.search(EmbeddingSearchRequest.builder()
+                        .queryEmbedding(Embedding.from(vector))
+                        .maxResults(maxResults)
+                        .build())
+                .matches();
+    }
+}
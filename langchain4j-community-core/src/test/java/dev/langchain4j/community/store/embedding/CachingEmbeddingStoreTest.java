@@ -0,0 +1,160 @@
+package dev.langchain4j.community.store.embedding;
+
+import static dev.langchain4j.store.embedding.filter.MetadataFilterBuilder.metadataKey;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import dev.langchain4j.data.document.Metadata;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
+import dev.langchain4j.store.embedding.EmbeddingSearchResult;
+import dev.langchain4j.store.embedding.inmemory.InMemoryEmbeddingStore;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class CachingEmbeddingStoreTest {
+
+    private InMemoryEmbeddingStore<TextSegment> delegate;
+
+    @BeforeEach
+    void beforeEach() {
+        delegate = spy(new InMemoryEmbeddingStore<>());
+        delegate.add(Embedding.from(new float[] {1, 0}), TextSegment.from("first", Metadata.from("lang", "en")));
+        delegate.add(Embedding.from(new float[] {0, 1}), TextSegment.from("second", Metadata.from("lang", "fr")));
+    }
+
+    @Test
+    void should_serve_identical_requests_from_cache() {
+        // given
+        CachingEmbeddingStore<TextSegment> store =
+                CachingEmbeddingStore.<TextSegment>builder().delegate(delegate).build();
+
+        // when
+        EmbeddingSearchResult<TextSegment> first = store.search(request(new float[] {1, 0}, 2));
+        EmbeddingSearchResult<TextSegment> second = store.search(request(new float[] {1, 0}, 2));
+
+        // then
+        verify(delegate, times(1)).search(any());
+        assertThat(second.matches()).isEqualTo(first.matches());
+        assertThat(store.stats().hitCount()).isEqualTo(1);
+        assertThat(store.stats().missCount()).isEqualTo(1);
+    }
+
+    @Test
+    void should_not_share_results_between_different_limits_or_filters() {
+        // given
+        CachingEmbeddingStore<TextSegment> store =
+                CachingEmbeddingStore.<TextSegment>builder().delegate(delegate).build();
+
+        // when
+        store.search(request(new float[] {1, 0}, 2));
+        store.search(request(new float[] {1, 0}, 1));
+        EmbeddingSearchResult<TextSegment> filtered = store.search(EmbeddingSearchRequest.builder()
+                .queryEmbedding(Embedding.from(new float[] {1, 0}))
+                .maxResults(2)
+                .filter(metadataKey("lang").isEqualTo("fr"))
+                .build());
+
+        // then
+        verify(delegate, times(3)).search(any());
+        assertThat(filtered.matches()).hasSize(1);
+        assertThat(filtered.matches().get(0).embedded().text()).isEqualTo("second");
+    }
+
+    @Test
+    void should_invalidate_cached_results_when_written_to() {
+        // given
+        CachingEmbeddingStore<TextSegment> store =
+                CachingEmbeddingStore.<TextSegment>builder().delegate(delegate).build();
+        store.search(request(new float[] {1, 1}, 3));
+
+        // when
+        store.add(Embedding.from(new float[] {1, 1}), TextSegment.from("third"));
+        EmbeddingSearchResult<TextSegment> result = store.search(request(new float[] {1, 1}, 3));
+
+        // then
+        verify(delegate, times(2)).search(any());
+        assertThat(result.matches()).hasSize(3);
+        assertThat(result.matches().get(0).embedded().text()).isEqualTo("third");
+        assertThat(store.stats().invalidationCount()).isEqualTo(1);
+    }
+
+    @Test
+    void should_search_again_when_ttl_elapsed() {
+        // given
+        AtomicLong nanos = new AtomicLong();
+        CachingEmbeddingStore<TextSegment> store = CachingEmbeddingStore.<TextSegment>builder()
+                .delegate(delegate)
+                .ttl(Duration.ofSeconds(10))
+                .ticker(nanos::get)
+                .build();
+        store.search(request(new float[] {1, 0}, 2));
+
+        // when
+        nanos.addAndGet(Duration.ofSeconds(9).toNanos());
+        store.search(request(new float[] {1, 0}, 2));
+        nanos.addAndGet(Duration.ofSeconds(1).toNanos());
+        store.search(request(new float[] {1, 0}, 2));
+
+        // then
+        verify(delegate, times(2)).search(any());
+        assertThat(store.stats().evictionCount()).isEqualTo(1);
+    }
+
+    @Test
+    void should_reuse_results_of_similar_query_embeddings_only_when_enabled() {
+        // given
+        CachingEmbeddingStore<TextSegment> exact =
+                CachingEmbeddingStore.<TextSegment>builder().delegate(delegate).build();
+        CachingEmbeddingStore<TextSegment> tolerant = CachingEmbeddingStore.<TextSegment>builder()
+                .delegate(delegate)
+                .maxCosineDistance(0.001)
+                .build();
+
+        // when
+        exact.search(request(new float[] {1, 0}, 2));
+        exact.search(request(new float[] {1, 0.01f}, 2));
+        tolerant.search(request(new float[] {1, 0}, 2));
+        tolerant.search(request(new float[] {1, 0.01f}, 2));
+        tolerant.search(request(new float[] {1, 0.5f}, 2));
+
+        // then
+        assertThat(exact.stats().missCount()).isEqualTo(2);
+        assertThat(tolerant.stats().similarHitCount()).isEqualTo(1);
+        assertThat(tolerant.stats().missCount()).isEqualTo(2);
+    }
+
+    @Test
+    void should_keep_cached_results_when_caller_reuses_query_vector() {
+        // given
+        CachingEmbeddingStore<TextSegment> store =
+                CachingEmbeddingStore.<TextSegment>builder().delegate(delegate).build();
+        float[] queryVector = {1, 0};
+        store.search(request(queryVector, 2));
+
+        // when
+        queryVector[0] = 0;
+        queryVector[1] = 1;
+        EmbeddingSearchResult<TextSegment> reused = store.search(request(queryVector, 2));
+        EmbeddingSearchResult<TextSegment> first = store.search(request(new float[] {1, 0}, 2));
+
+        // then
+        verify(delegate, times(2)).search(any());
+        assertThat(reused.matches().get(0).embedded().text()).isEqualTo("second");
+        assertThat(first.matches().get(0).embedded().text()).isEqualTo("first");
+        assertThat(store.stats().hitCount()).isEqualTo(1);
+    }
+
+    private static EmbeddingSearchRequest request(float[] vector, int maxResults) {
+        return EmbeddingSearchRequest.builder()
+                .queryEmbedding(Embedding.from(vector))
+                .maxResults(maxResults)
+                .build();
+    }
+}
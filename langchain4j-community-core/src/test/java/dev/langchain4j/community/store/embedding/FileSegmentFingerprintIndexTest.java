@@ -0,0 +1,106 @@
+package dev.langchain4j.community.store.embedding;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class FileSegmentFingerprintIndexTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void should_reload_fingerprints_when_reopened() {
+        // given
+        Path file = tempDir.resolve("fingerprints.json");
+        FileSegmentFingerprintIndex index = new FileSegmentFingerprintIndex(file);
+        index.put("first", Map.of("hash-1", "id-1", "hash-2", "id-2"));
+        index.put("second", Map.of("hash-3", "id-3"));
+
+        // when
+        FileSegmentFingerprintIndex reopened = new FileSegmentFingerprintIndex(file);
+
+        // then
+        assertThat(reopened.get("first")).containsOnly(Map.entry("hash-1", "id-1"), Map.entry("hash-2", "id-2"));
+        assertThat(reopened.get("second")).containsOnly(Map.entry("hash-3", "id-3"));
+        assertThat(reopened.get("unknown")).isEmpty();
+    }
+
+    @Test
+    void should_forget_document_when_fingerprints_are_empty() {
+        // given
+        Path file = tempDir.resolve("nested").resolve("fingerprints.json");
+        FileSegmentFingerprintIndex index = new FileSegmentFingerprintIndex(file);
+        index.put("first", Map.of("hash-1", "id-1"));
+
+        // when
+        index.put("first", Map.of());
+
+        // then
+        assertThat(index.get("first")).isEmpty();
+        assertThat(new FileSegmentFingerprintIndex(file).get("first")).isEmpty();
+    }
+
+    @Test
+    void should_compact_file_when_documents_are_updated_many_times() throws IOException {
+        // given
+        Path file = tempDir.resolve("fingerprints.jsonl");
+        FileSegmentFingerprintIndex index = new FileSegmentFingerprintIndex(file);
+
+        // when
+        for (int i = 0; i < 1_000; i++) {
+            index.put("doc-" + (i % 3), Map.of("hash-" + i, "id-" + i));
+        }
+
+        // then
+        assertThat(Files.readAllLines(file)).hasSizeLessThanOrEqualTo(64);
+        FileSegmentFingerprintIndex reopened = new FileSegmentFingerprintIndex(file);
+        assertThat(reopened.get("doc-0")).containsOnly(Map.entry("hash-999", "id-999"));
+        assertThat(reopened.get("doc-1")).containsOnly(Map.entry("hash-997", "id-997"));
+        assertThat(reopened.get("doc-2")).containsOnly(Map.entry("hash-998", "id-998"));
+    }
+
+    @Test
+    void should_keep_previous_fingerprints_when_update_cannot_be_written() throws IOException {
+        // given
+        Path file = tempDir.resolve("fingerprints.jsonl");
+        FileSegmentFingerprintIndex index = new FileSegmentFingerprintIndex(file);
+        index.put("first", Map.of("hash-1", "id-1"));
+        Files.delete(file);
+        Files.createDirectory(file);
+
+        // when-then
+        assertThatThrownBy(() -> index.put("first", Map.of("hash-2", "id-2"))).isInstanceOf(UncheckedIOException.class);
+        assertThatThrownBy(() -> index.put("second", Map.of("hash-3", "id-3")))
+                .isInstanceOf(UncheckedIOException.class);
+        assertThat(index.get("first")).containsOnly(Map.entry("hash-1", "id-1"));
+        assertThat(index.get("second")).isEmpty();
+    }
+
+    @Test
+    void should_ignore_truncated_last_line_when_reopened() throws IOException {
+        // given
+        Path file = tempDir.resolve("fingerprints.jsonl");
+        FileSegmentFingerprintIndex index = new FileSegmentFingerprintIndex(file);
+        index.put("first", Map.of("hash-1", "id-1"));
+        Files.writeString(file, "{\"documentId\":\"second\",\"finger", StandardOpenOption.APPEND);
+
+        // when
+        FileSegmentFingerprintIndex reopened = new FileSegmentFingerprintIndex(file);
+        reopened.put("third", Map.of("hash-3", "id-3"));
+
+        // then
+        FileSegmentFingerprintIndex reopenedAgain = new FileSegmentFingerprintIndex(file);
+        assertThat(reopenedAgain.get("first")).containsOnly(Map.entry("hash-1", "id-1"));
+        assertThat(reopenedAgain.get("second")).isEmpty();
+        assertThat(reopenedAgain.get("third")).containsOnly(Map.entry("hash-3", "id-3"));
+    }
+}
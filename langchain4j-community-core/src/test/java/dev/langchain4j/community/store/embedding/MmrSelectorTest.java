@@ -5,8 +5,12 @@ import static java.util.Collections.emptyList;
 
 import dev.langchain4j.data.embedding.Embedding;
 import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.store.embedding.CosineSimilarity;
 import dev.langchain4j.store.embedding.EmbeddingMatch;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Random;
 import org.assertj.core.api.WithAssertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -173,7 +177,102 @@ class MmrSelectorTest implements WithAssertions {
         assertThat(result).hasSize(2);
     }
 
+    @Test
+    void should_treat_negative_similarity_to_selected_items_as_diversity() {
+        Embedding queryEmbedding = embedding(1.0f, 0.0f, 0.0f);
+        List<EmbeddingMatch<TextSegment>> candidates = asList(
+                match(0.9, "first", embedding(1.0f, 1.0f, 0.0f)),
+                match(0.5, "opposite", embedding(-1.0f, -1.0f, 0.0f)),
+                match(0.6, "orthogonal", embedding(0.0f, 0.0f, 1.0f)));
+
+        List<EmbeddingMatch<TextSegment>> result = MmrSelector.select(queryEmbedding, candidates, 2, 0.0);
+
+        assertThat(result).extracting(m -> m.embedded().text()).containsExactly("first", "opposite");
+    }
+
+    @Test
+    void should_compute_relevance_from_query_when_score_is_missing() {
+        Embedding queryEmbedding = embedding(0.0f, 1.0f, 0.0f);
+        List<EmbeddingMatch<TextSegment>> candidates = asList(
+                match(0.0, "unrelated", embedding(1.0f, 0.0f, 0.0f)),
+                match(0.0, "related", embedding(0.0f, 1.0f, 0.0f)),
+                match(0.0, "partially_related", embedding(0.5f, 0.5f, 0.0f)));
+
+        List<EmbeddingMatch<TextSegment>> result = MmrSelector.select(queryEmbedding, candidates, 1, 1.0);
+
+        assertThat(result).extracting(m -> m.embedded().text()).containsExactly("related");
+    }
+
+    @Test
+    void should_throw_exception_when_embedding_dimensions_differ() {
+        Embedding queryEmbedding = embedding(1.0f, 0.0f, 0.0f);
+        List<EmbeddingMatch<TextSegment>> candidates = asList(
+                match(0.9, "doc1", embedding(0.9f, 0.1f, 0.0f)),
+                match(0.8, "doc2", Embedding.from(new float[] {0.8f, 0.2f})));
+
+        assertThatThrownBy(() -> MmrSelector.select(queryEmbedding, candidates, 1, 0.7))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("must be equal to the length");
+    }
+
+    @ParameterizedTest
+    @ValueSource(doubles = {0.0, 0.3, 0.5, 0.7, 1.0})
+    void should_select_same_results_as_naive_mmr(double lambda) {
+        Random random = new Random(42);
+        Embedding queryEmbedding = randomEmbedding(random, 16);
+        List<EmbeddingMatch<TextSegment>> candidates = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            Embedding embedding = randomEmbedding(random, 16);
+            double score = i % 10 == 0 ? 0.0 : CosineSimilarity.between(embedding, queryEmbedding);
+            candidates.add(match(score, "doc" + i, embedding));
+        }
+
+        List<EmbeddingMatch<TextSegment>> result = MmrSelector.select(queryEmbedding, candidates, 20, lambda);
+
+        assertThat(result).containsExactlyElementsOf(naiveMmr(queryEmbedding, candidates, 20, lambda));
+    }
+
     // Helper methods
+    private static List<EmbeddingMatch<TextSegment>> naiveMmr(
+            Embedding queryEmbedding, List<EmbeddingMatch<TextSegment>> candidates, int maxResults, double lambda) {
+        List<EmbeddingMatch<TextSegment>> selected = new ArrayList<>();
+        List<EmbeddingMatch<TextSegment>> remaining = new ArrayList<>(candidates);
+        remaining.sort(Comparator.comparingDouble((EmbeddingMatch<TextSegment> m) -> m.score())
+                .reversed());
+        while (selected.size() < maxResults && !remaining.isEmpty()) {
+            EmbeddingMatch<TextSegment> best = null;
+            double bestScore = -1.0;
+            for (EmbeddingMatch<TextSegment> candidate : remaining) {
+                double relevance = candidate.score() > 0
+                        ? candidate.score()
+                        : CosineSimilarity.between(candidate.embedding(), queryEmbedding);
+                double diversity = selected.stream()
+                        .mapToDouble(s -> CosineSimilarity.between(candidate.embedding(), s.embedding()))
+                        .max()
+                        .orElse(0.0);
+                double mmr = lambda * relevance - (1.0 - lambda) * diversity;
+                if (mmr > bestScore) {
+                    bestScore = mmr;
+                    best = candidate;
+                }
+            }
+            if (best == null) {
+                best = remaining.get(0);
+            }
+            selected.add(best);
+            remaining.remove(best);
+        }
+        return selected;
+    }
+
+    private static Embedding randomEmbedding(Random random, int dimension) {
+        float[] vector = new float[dimension];
+        for (int i = 0; i < dimension; i++) {
+            vector[i] = random.nextFloat() * 2 - 1;
+        }
+        return Embedding.from(vector);
+    }
+
     private Embedding embedding(float x, float y, float z) {
         return Embedding.from(new float[] {x, y, z});
     }
@@ -0,0 +1,174 @@
+package dev.langchain4j.community.store.embedding;
+
+import static dev.langchain4j.store.embedding.filter.MetadataFilterBuilder.metadataKey;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import dev.langchain4j.data.document.Metadata;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
+import dev.langchain4j.store.embedding.EmbeddingSearchResult;
+import dev.langchain4j.store.embedding.EmbeddingStore;
+import dev.langchain4j.store.embedding.inmemory.InMemoryEmbeddingStore;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class ShardedEmbeddingStoreTest {
+
+    @Test
+    void should_return_same_matches_as_single_store_when_searching_all_shards() {
+        // given
+        InMemoryEmbeddingStore<TextSegment> singleStore = new InMemoryEmbeddingStore<>();
+        ShardedEmbeddingStore<TextSegment> shardedStore = ShardedEmbeddingStore.<TextSegment>builder()
+                .shards(List.of(
+                        new InMemoryEmbeddingStore<>(),
+                        new InMemoryEmbeddingStore<>(),
+                        new InMemoryEmbeddingStore<>()))
+                .build();
+
+        Random random = new Random(42);
+        List<String> ids = new ArrayList<>();
+        List<Embedding> embeddings = new ArrayList<>();
+        List<TextSegment> segments = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            ids.add("id-" + i);
+            embeddings.add(randomEmbedding(random));
+            segments.add(TextSegment.from("text-" + i));
+        }
+        singleStore.addAll(ids, embeddings, segments);
+        shardedStore.addAll(ids, embeddings, segments);
+
+        EmbeddingSearchRequest request = EmbeddingSearchRequest.builder()
+                .queryEmbedding(randomEmbedding(random))
+                .maxResults(10)
+                .minScore(0.6)
+                .build();
+
+        // when
+        List<EmbeddingMatch<TextSegment>> matches = shardedStore.search(request).matches();
+
+        // then
+        assertThat(matches)
+                .extracting(EmbeddingMatch::embeddingId)
+                .containsExactlyElementsOf(singleStore.search(request).matches().stream()
+                        .map(EmbeddingMatch::embeddingId)
+                        .toList());
+        assertThat(matches).allMatch(match -> match.score() >= 0.6);
+    }
+
+    @Test
+    void should_route_ids_with_shard_function() {
+        // given
+        InMemoryEmbeddingStore<TextSegment> even = new InMemoryEmbeddingStore<>();
+        InMemoryEmbeddingStore<TextSegment> odd = new InMemoryEmbeddingStore<>();
+        ShardedEmbeddingStore<TextSegment> store = ShardedEmbeddingStore.<TextSegment>builder()
+                .shards(List.of(even, odd))
+                .shardFunction((id, shardCount) -> Integer.parseInt(id) % shardCount)
+                .build();
+
+        // when
+        store.add("2", Embedding.from(new float[] {1, 0}));
+        store.add("3", Embedding.from(new float[] {0, 1}));
+        store.removeAll(List.of("3"));
+
+        // then
+        assertThat(search(even, new float[] {1, 0})).extracting(EmbeddingMatch::embeddingId).containsExactly("2");
+        assertThat(search(odd, new float[] {1, 0})).isEmpty();
+    }
+
+    @Test
+    void should_broadcast_removal_by_filter_to_all_shards() {
+        // given
+        InMemoryEmbeddingStore<TextSegment> first = new InMemoryEmbeddingStore<>();
+        InMemoryEmbeddingStore<TextSegment> second = new InMemoryEmbeddingStore<>();
+        ShardedEmbeddingStore<TextSegment> store = ShardedEmbeddingStore.<TextSegment>builder()
+                .shards(List.of(first, second))
+                .build();
+        for (int i = 0; i < 20; i++) {
+            String lang = i % 2 == 0 ? "en" : "fr";
+            store.add(Embedding.from(new float[] {1, i}), TextSegment.from("text-" + i, Metadata.from("lang", lang)));
+        }
+
+        // when
+        store.removeAll(metadataKey("lang").isEqualTo("fr"));
+
+        // then
+        List<EmbeddingMatch<TextSegment>> matches = store.search(EmbeddingSearchRequest.builder()
+                        .queryEmbedding(Embedding.from(new float[] {1, 0}))
+                        .maxResults(20)
+                        .build())
+                .matches();
+        assertThat(matches).hasSize(10);
+        assertThat(matches).allMatch(match -> "en".equals(match.embedded().metadata().getString("lang")));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void should_return_partial_results_when_shard_times_out() {
+        // given
+        InMemoryEmbeddingStore<TextSegment> fastShard = new InMemoryEmbeddingStore<>();
+        fastShard.add("fast", Embedding.from(new float[] {1, 0}));
+        EmbeddingStore<TextSegment> slowShard = mock(EmbeddingStore.class);
+        when(slowShard.search(any())).thenAnswer(invocation -> {
+            Thread.sleep(2_000);
+            return new EmbeddingSearchResult<>(List.of());
+        });
+
+        ShardedEmbeddingStore<TextSegment> store = ShardedEmbeddingStore.<TextSegment>builder()
+                .shards(List.of(fastShard, slowShard))
+                .searchTimeout(Duration.ofMillis(100))
+                .build();
+
+        // when
+        List<EmbeddingMatch<TextSegment>> matches = search(store, new float[] {1, 0});
+
+        // then
+        assertThat(matches).extracting(EmbeddingMatch::embeddingId).containsExactly("fast");
+        assertThat(store.shardStats())
+                .extracting(ShardedEmbeddingStore.ShardStats::timeouts)
+                .containsExactly(0L, 1L);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void should_fail_when_shard_fails_and_partial_results_are_not_allowed() {
+        // given
+        EmbeddingStore<TextSegment> failingShard = mock(EmbeddingStore.class);
+        when(failingShard.search(any())).thenThrow(new IllegalStateException("shard is down"));
+
+        ShardedEmbeddingStore<TextSegment> store = ShardedEmbeddingStore.<TextSegment>builder()
+                .shards(List.of(new InMemoryEmbeddingStore<>(), failingShard))
+                .allowPartialResults(false)
+                .build();
+
+        // when-then
+        assertThatThrownBy(() -> search(store, new float[] {1, 0}))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("shard is down");
+        assertThat(store.shardStats().get(1).failures()).isEqualTo(1);
+    }
+
+    private static List<EmbeddingMatch<TextSegment>> search(EmbeddingStore<TextSegment> store, float[] vector) {
+        return store.search(EmbeddingSearchRequest.builder()
+                        .queryEmbedding(Embedding.from(vector))
+                        .maxResults(10)
+                        .build())
+                .matches();
+    }
+
+    private static Embedding randomEmbedding(Random random) {
+        float[] vector = new float[16];
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return Embedding.from(vector);
+    }
+}
@@ -0,0 +1,113 @@
+package dev.langchain4j.community.rag.listener.micrometer;
+
+import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
+
+import dev.langchain4j.community.rag.listener.RagListener;
+import dev.langchain4j.community.rag.listener.RagStage;
+import dev.langchain4j.community.rag.listener.RagStageEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import java.util.Locale;
+
+/**
+ * A {@link RagListener} recording the stages of RAG pipelines as Micrometer meters:
+ * <ul>
+ *     <li>{@value #STAGE_DURATION}: a timer per stage, component, store, model and outcome.</li>
+ *     <li>{@value #STAGE_RESULTS}: the number of search matches or selected contents per stage.</li>
+ *     <li>{@value #STAGE_BATCH_SIZE}: the number of segments embedded or stored at once per stage.</li>
+ *     <li>{@value #INPUT_TOKENS}: a counter of the input tokens reported by embedding models.</li>
+ * </ul>
+ * Store and model tags hold simple class names, so that the number of time series stays bounded.
+ * <p>
+ * To export these meters to OpenTelemetry, register the listener with an OTLP registry
+ * ({@code micrometer-registry-otlp}) or with the Micrometer bridge of the OpenTelemetry SDK.
+ * <pre>{@code
+ * ContentRetriever retriever = EmbeddingStoreContentRetriever.builder()
+ *         .embeddingStore(embeddingStore)
+ *         .embeddingModel(embeddingModel)
+ *         .listeners(List.of(new MicrometerRagListener(meterRegistry)))
+ *         .build();
+ * }</pre>
+ */
+public class MicrometerRagListener implements RagListener {
+
+    public static final String STAGE_DURATION = "langchain4j.rag.stage.duration";
+    public static final String STAGE_RESULTS = "langchain4j.rag.stage.results";
+    public static final String STAGE_BATCH_SIZE = "langchain4j.rag.stage.batch.size";
+    public static final String INPUT_TOKENS = "langchain4j.rag.embedding.input.tokens";
+
+    private final MeterRegistry registry;
+    private final Tags tags;
+
+    public MicrometerRagListener(MeterRegistry registry) {
+        this(registry, Tags.empty());
+    }
+
+    /**
+     * @param registry The registry to record meters in.
+     * @param tags     Tags added to every meter, e.g. the name of the pipeline.
+     */
+    public MicrometerRagListener(MeterRegistry registry, Iterable<Tag> tags) {
+        this.registry = ensureNotNull(registry, "registry");
+        this.tags = Tags.of(ensureNotNull(tags, "tags"));
+    }
+
+    @Override
+    public void onStage(RagStageEvent event) {
+        Tags stageTags = tags.and(
+                "stage",
+                event.stage().name().toLowerCase(Locale.ROOT),
+                "component",
+                event.component().getSimpleName());
+
+        Timer.builder(STAGE_DURATION)
+                .description("Duration of RAG pipeline stages")
+                .tags(stageTags)
+                .tag("store", simpleName(event.attribute(RagStageEvent.STORE_CLASS)))
+                .tag("model", simpleName(event.attribute(RagStageEvent.MODEL_CLASS)))
+                .tag("outcome", event.failed() ? "error" : "success")
+                .register(registry)
+                .record(event.duration());
+
+        if (event.failed()) {
+            return;
+        }
+        if (event.attribute(RagStageEvent.RESULT_COUNT) instanceof Number results) {
+            DistributionSummary.builder(STAGE_RESULTS)
+                    .description("Number of results produced by RAG pipeline stages")
+                    .tags(stageTags)
+                    .register(registry)
+                    .record(results.doubleValue());
+        }
+        if (event.attribute(RagStageEvent.BATCH_SIZE) instanceof Number batchSize) {
+            DistributionSummary.builder(STAGE_BATCH_SIZE)
+                    .description("Number of segments embedded or stored at once by RAG pipeline stages")
+                    .tags(stageTags)
+                    .register(registry)
+                    .record(batchSize.doubleValue());
+        }
+        // the tokens of an ingestion are already counted by its segment embedding stages
+        if (event.stage() != RagStage.INGESTION
+                && event.attribute(RagStageEvent.INPUT_TOKEN_COUNT) instanceof Number inputTokens) {
+            Counter.builder(INPUT_TOKENS)
+                    .description("Input tokens reported by embedding models")
+                    .baseUnit("tokens")
+                    .tags(stageTags)
+                    .tag("model", simpleName(event.attribute(RagStageEvent.MODEL_CLASS)))
+                    .register(registry)
+                    .increment(inputTokens.doubleValue());
+        }
+    }
+
+    private static String simpleName(Object className) {
+        if (className == null) {
+            return "none";
+        }
+        String name = className.toString();
+        return name.substring(name.lastIndexOf('.') + 1);
+    }
+}
@@ -0,0 +1,110 @@
+package dev.langchain4j.community.rag.listener.micrometer;
+
+import static dev.langchain4j.community.rag.listener.RagInstrumentation.attributes;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import dev.langchain4j.community.rag.content.retriever.EmbeddingStoreContentRetriever;
+import dev.langchain4j.community.rag.listener.RagStage;
+import dev.langchain4j.community.rag.listener.RagStageEvent;
+import dev.langchain4j.community.store.embedding.ParentChildEmbeddingStoreIngestor;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class MicrometerRagListenerTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void should_record_stage_duration_and_results() {
+        // given
+        MicrometerRagListener listener = new MicrometerRagListener(registry, Tags.of("pipeline", "docs"));
+
+        // when
+        listener.onStage(new RagStageEvent(
+                RagStage.EMBEDDING_STORE_SEARCH,
+                EmbeddingStoreContentRetriever.class,
+                Duration.ofMillis(12),
+                null,
+                attributes(
+                        RagStageEvent.STORE_CLASS,
+                        "dev.langchain4j.store.embedding.inmemory.InMemoryEmbeddingStore",
+                        RagStageEvent.RESULT_COUNT,
+                        3)));
+
+        // then
+        Timer timer = registry.get(MicrometerRagListener.STAGE_DURATION)
+                .tags(
+                        "pipeline", "docs",
+                        "stage", "embedding_store_search",
+                        "component", "EmbeddingStoreContentRetriever",
+                        "store", "InMemoryEmbeddingStore",
+                        "model", "none",
+                        "outcome", "success")
+                .timer();
+        assertThat(timer.count()).isEqualTo(1);
+        assertThat(timer.totalTime(TimeUnit.MILLISECONDS)).isEqualTo(12);
+        assertThat(registry.get(MicrometerRagListener.STAGE_RESULTS)
+                        .tag("stage", "embedding_store_search")
+                        .summary()
+                        .totalAmount())
+                .isEqualTo(3);
+    }
+
+    @Test
+    void should_record_failed_stage_without_details() {
+        // given
+        MicrometerRagListener listener = new MicrometerRagListener(registry);
+
+        // when
+        listener.onStage(new RagStageEvent(
+                RagStage.EMBEDDING_STORE_SEARCH,
+                EmbeddingStoreContentRetriever.class,
+                Duration.ofMillis(5),
+                new RuntimeException("store is down"),
+                Map.of()));
+
+        // then
+        assertThat(registry.get(MicrometerRagListener.STAGE_DURATION)
+                        .tag("outcome", "error")
+                        .timer()
+                        .count())
+                .isEqualTo(1);
+        assertThat(registry.find(MicrometerRagListener.STAGE_RESULTS).summary()).isNull();
+    }
+
+    @Test
+    void should_count_input_tokens_once_per_ingestion() {
+        // given
+        MicrometerRagListener listener = new MicrometerRagListener(registry);
+        Map<String, Object> embedding = attributes(
+                RagStageEvent.MODEL_CLASS, "dev.example.MyEmbeddingModel",
+                RagStageEvent.BATCH_SIZE, 4,
+                RagStageEvent.INPUT_TOKEN_COUNT, 40);
+
+        // when
+        listener.onStage(new RagStageEvent(
+                RagStage.SEGMENT_EMBEDDING, ParentChildEmbeddingStoreIngestor.class, Duration.ZERO, null, embedding));
+        listener.onStage(new RagStageEvent(
+                RagStage.SEGMENT_EMBEDDING, ParentChildEmbeddingStoreIngestor.class, Duration.ZERO, null, embedding));
+        listener.onStage(new RagStageEvent(
+                RagStage.INGESTION,
+                ParentChildEmbeddingStoreIngestor.class,
+                Duration.ZERO,
+                null,
+                attributes(RagStageEvent.DOCUMENT_COUNT, 2, RagStageEvent.INPUT_TOKEN_COUNT, 80)));
+
+        // then
+        assertThat(registry.get(MicrometerRagListener.INPUT_TOKENS)
+                        .tag("model", "MyEmbeddingModel")
+                        .counter()
+                        .count())
+                .isEqualTo(80);
+        assertThat(registry.get(MicrometerRagListener.STAGE_BATCH_SIZE).summary().count())
+                .isEqualTo(2);
+    }
+}